@@ -0,0 +1,179 @@
+package org.jfree.chart.axis;
+
+import java.awt.geom.Rectangle2D;
+
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.chart.util.Args;
+import org.jfree.data.Range;
+import org.jfree.data.time.DateRange;
+
+/**
+ * Utility methods that convert arrays of data values to Java2D coordinates
+ * in one call, rather than one {@link ValueAxis#valueToJava2D(double,
+ * Rectangle2D, RectangleEdge)} call per value.
+ * <P>
+ * For {@link NumberAxis}, {@link LogAxis} and {@link DateAxis} (the exact
+ * classes, not subclasses, which may override the conversion) the axis
+ * range, the area bounds and the orientation are read once per array, and
+ * the values are converted in a simple loop that the JIT compiler can
+ * unroll and vectorise.  Each value is converted with the same arithmetic,
+ * in the same order, as the axis' own {@code valueToJava2D()} method, so the
+ * results are identical.  Any other axis is asked for each value in turn.
+ */
+public final class AxisTransforms {
+
+    private AxisTransforms() {
+        // no requirement to instantiate
+    }
+
+    /**
+     * Converts an array of data values to Java2D coordinates along an axis.
+     * The {@code values} and {@code result} arrays may be the same array.
+     *
+     * @param axis  the axis ({@code null} not permitted).
+     * @param values  the data values ({@code null} not permitted).
+     * @param result  the array for the Java2D coordinates ({@code null} not
+     *     permitted).
+     * @param count  the number of values to convert.
+     * @param area  the area for plotting the data ({@code null} not
+     *     permitted).
+     * @param edge  the axis location ({@code null} not permitted).
+     */
+    public static void valueToJava2D(ValueAxis axis, double[] values,
+            double[] result, int count, Rectangle2D area, RectangleEdge edge) {
+        Args.nullNotPermitted(axis, "axis");
+        Args.nullNotPermitted(values, "values");
+        Args.nullNotPermitted(result, "result");
+        Args.nullNotPermitted(area, "area");
+        Args.nullNotPermitted(edge, "edge");
+        if (count > values.length || count > result.length) {
+            throw new IllegalArgumentException("Requires count <= length.");
+        }
+        Class<?> c = axis.getClass();
+        if (c == NumberAxis.class) {
+            Range range = axis.getRange();
+            linear(values, result, count, range.getLowerBound(),
+                    range.getUpperBound(), axis.isInverted(), area, edge);
+        }
+        else if (c == LogAxis.class) {
+            LogAxis logAxis = (LogAxis) axis;
+            for (int i = 0; i < count; i++) {
+                result[i] = logAxis.calculateLog(values[i]);
+            }
+            Range range = axis.getRange();
+            linear(result, result, count,
+                    logAxis.calculateLog(range.getLowerBound()),
+                    logAxis.calculateLog(range.getUpperBound()),
+                    axis.isInverted(), area, edge);
+        }
+        else if (c == DateAxis.class) {
+            date((DateAxis) axis, values, result, count, area, edge);
+        }
+        else {
+            for (int i = 0; i < count; i++) {
+                result[i] = axis.valueToJava2D(values[i], area, edge);
+            }
+        }
+    }
+
+    /**
+     * Converts values with the arithmetic of
+     * {@link NumberAxis#valueToJava2D(double, Rectangle2D, RectangleEdge)}.
+     *
+     * @param values  the values.
+     * @param result  the array for the results.
+     * @param count  the number of values.
+     * @param axisMin  the lower bound of the axis.
+     * @param axisMax  the upper bound of the axis.
+     * @param inverted  is the axis inverted?
+     * @param area  the area.
+     * @param edge  the axis location.
+     */
+    private static void linear(double[] values, double[] result, int count,
+            double axisMin, double axisMax, boolean inverted,
+            Rectangle2D area, RectangleEdge edge) {
+        double min = 0.0;
+        double max = 0.0;
+        if (RectangleEdge.isTopOrBottom(edge)) {
+            min = area.getX();
+            max = area.getMaxX();
+        }
+        else if (RectangleEdge.isLeftOrRight(edge)) {
+            max = area.getMinY();
+            min = area.getMaxY();
+        }
+        double span = axisMax - axisMin;
+        double length = max - min;
+        if (inverted) {
+            for (int i = 0; i < count; i++) {
+                result[i] = max - ((values[i] - axisMin) / span) * length;
+            }
+        }
+        else {
+            for (int i = 0; i < count; i++) {
+                result[i] = min + ((values[i] - axisMin) / span) * length;
+            }
+        }
+    }
+
+    /**
+     * Converts values with the arithmetic of
+     * {@link DateAxis#valueToJava2D(double, Rectangle2D, RectangleEdge)}.
+     *
+     * @param axis  the axis.
+     * @param values  the values.
+     * @param result  the array for the results.
+     * @param count  the number of values.
+     * @param area  the area.
+     * @param edge  the axis location.
+     */
+    private static void date(DateAxis axis, double[] values, double[] result,
+            int count, Rectangle2D area, RectangleEdge edge) {
+        Timeline timeline = axis.getTimeline();
+        DateRange range = (DateRange) axis.getRange();
+        double axisMin = timeline.toTimelineValue(range.getLowerMillis());
+        double axisMax = timeline.toTimelineValue(range.getUpperMillis());
+        double span = axisMax - axisMin;
+        for (int i = 0; i < count; i++) {
+            result[i] = timeline.toTimelineValue((long) values[i]);
+        }
+        double start;
+        double length;
+        if (RectangleEdge.isTopOrBottom(edge)) {
+            double minX = area.getX();
+            double maxX = area.getMaxX();
+            if (axis.isInverted()) {
+                start = maxX;
+                length = minX - maxX;
+            }
+            else {
+                start = minX;
+                length = maxX - minX;
+            }
+        }
+        else if (RectangleEdge.isLeftOrRight(edge)) {
+            double minY = area.getMinY();
+            double maxY = area.getMaxY();
+            if (axis.isInverted()) {
+                start = minY;
+                length = maxY - minY;
+            }
+            else {
+                // the axis subtracts here, which is the same as adding the
+                // negated length
+                start = maxY;
+                length = -(maxY - minY);
+            }
+        }
+        else {
+            for (int i = 0; i < count; i++) {
+                result[i] = 0.0;
+            }
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            result[i] = start + ((result[i] - axisMin) / span) * length;
+        }
+    }
+
+}
@@ -0,0 +1,210 @@
+    /** The outlier stage used by the box-and-whisker renderers. */
+    private OutlierStage outlierStage;
+
+    /**
+     * Returns the outlier stage for the box-and-whisker renderers, creating
+     * it on first use.  The stage keeps its buffers for the whole pass, so
+     * items after the first one do not allocate working space.
+     *
+     * @return The outlier stage (never {@code null}).
+     */
+    OutlierStage getOutlierStage() {
+        if (this.outlierStage == null) {
+            this.outlierStage = new OutlierStage();
+        }
+        return this.outlierStage;
+    }
+
+    /** The statistics buffer used by the box-and-whisker renderers. */
+    private double[] boxValues;
+
+    /**
+     * Returns a buffer that the box-and-whisker renderers use to read the
+     * statistics for one item as primitive values, creating it on first use.
+     *
+     * @return The buffer (never {@code null}).
+     */
+    double[] getBoxValues() {
+        if (this.boxValues == null) {
+            this.boxValues = new double[6];
+        }
+        return this.boxValues;
+    }
+
+    /** The coordinate buffer used by the box-and-whisker renderers. */
+    private double[] boxCoordinates;
+
+    /**
+     * Returns a buffer that the box-and-whisker renderers use to hold the
+     * Java2D coordinates of the statistics in {@link #getBoxValues()},
+     * creating it on first use.
+     *
+     * @return The buffer (never {@code null}).
+     */
+    double[] getBoxCoordinates() {
+        if (this.boxCoordinates == null) {
+            this.boxCoordinates = new double[6];
+        }
+        return this.boxCoordinates;
+    }
+
+    /** The category layout for the current pass. */
+    private CategoryLayout categoryLayout;
+
+    /**
+     * Returns the positions of the categories along the domain axis for
+     * this pass, creating the layout on first use (or when it was created
+     * for a different axis, dataset shape or area).
+     *
+     * @param axis  the domain axis.
+     * @param dataset  the dataset.
+     * @param area  the data area.
+     * @param edge  the location of the domain axis.
+     *
+     * @return The layout (never {@code null}).
+     */
+    CategoryLayout getCategoryLayout(CategoryAxis axis,
+            CategoryDataset dataset, Rectangle2D area, RectangleEdge edge) {
+        int categoryCount = dataset.getColumnCount();
+        int seriesCount = dataset.getRowCount();
+        if (this.categoryLayout == null || !this.categoryLayout.matches(axis,
+                categoryCount, seriesCount, area, edge)) {
+            this.categoryLayout = new CategoryLayout(axis, categoryCount,
+                    seriesCount, area, edge);
+        }
+        return this.categoryLayout;
+    }
+
+    /** A scratch line, reused from one item to the next. */
+    private Line2D.Double scratchLine;
+
+    /**
+     * Returns a line that a renderer can set and draw for the current item,
+     * creating it on first use.  The same instance is returned for every
+     * item in the pass, so it must not be kept (an entity that needs the
+     * shape must be given a copy).
+     *
+     * @return The line (never {@code null}).
+     */
+    Line2D.Double getScratchLine() {
+        if (this.scratchLine == null) {
+            this.scratchLine = new Line2D.Double();
+        }
+        return this.scratchLine;
+    }
+
+    /** A scratch ellipse, reused from one item to the next. */
+    private Ellipse2D.Double scratchEllipse;
+
+    /**
+     * Returns an ellipse that a renderer can set and draw for the current
+     * item, creating it on first use.  As with {@link #getScratchLine()},
+     * the instance must not be kept.
+     *
+     * @return The ellipse (never {@code null}).
+     */
+    Ellipse2D.Double getScratchEllipse() {
+        if (this.scratchEllipse == null) {
+            this.scratchEllipse = new Ellipse2D.Double();
+        }
+        return this.scratchEllipse;
+    }
+
+    /** The scratch rectangles, reused from one item to the next. */
+    private Rectangle2D.Double[] scratchRectangles;
+
+    /**
+     * Returns one of three rectangles that a renderer can set and draw for
+     * the current item, creating them on first use.  As with
+     * {@link #getScratchLine()}, the instances must not be kept.
+     *
+     * @param index  the rectangle index (0, 1 or 2).
+     *
+     * @return The rectangle (never {@code null}).
+     */
+    Rectangle2D.Double getScratchRectangle(int index) {
+        if (this.scratchRectangles == null) {
+            this.scratchRectangles = new Rectangle2D.Double[] {
+                    new Rectangle2D.Double(), new Rectangle2D.Double(),
+                    new Rectangle2D.Double()};
+        }
+        return this.scratchRectangles[index];
+    }
+
+    /** The series paints and strokes for the current pass. */
+    private SeriesStyleCache seriesStyles;
+
+    /**
+     * Returns the cache of series paints and strokes that a renderer uses
+     * in place of {@code getItemPaint()} and the other item methods during
+     * this pass, creating it on first use.
+     *
+     * @param renderer  the renderer.
+     *
+     * @return The cache (never {@code null}).
+     */
+    SeriesStyleCache getSeriesStyles(AbstractRenderer renderer) {
+        if (this.seriesStyles == null
+                || this.seriesStyles.getRenderer() != renderer) {
+            this.seriesStyles = new SeriesStyleCache(renderer);
+        }
+        return this.seriesStyles;
+    }
+
+    /** The shapes waiting to be drawn (created on first use). */
+    private DeferredFills deferredFills;
+
+    /**
+     * Returns the draw list that a renderer adds shapes to when it batches
+     * its fills, creating it on first use.
+     *
+     * @return The draw list (never {@code null}).
+     */
+    DeferredFills getDeferredFills() {
+        if (this.deferredFills == null) {
+            this.deferredFills = new DeferredFills();
+        }
+        return this.deferredFills;
+    }
+
+    /**
+     * Draws any shapes that the renderer has deferred (see
+     * {@link DeferredFills}).  The renderer does this itself after the last
+     * item in each pass; a plot that draws only some of the items in a pass
+     * must call this method once it has drawn them.
+     */
+    public void flushDeferredFills() {
+        if (this.deferredFills != null) {
+            this.deferredFills.flush();
+        }
+    }
+
+    /**
+     * A flag that is set when this state draws only some of the items in a
+     * pass.
+     */
+    private boolean partialPass;
+
+    /**
+     * Returns the flag that is set when this state draws only some of the
+     * items in a pass (see {@link #setPartialPass(boolean)}).
+     *
+     * @return A boolean.
+     */
+    public boolean isPartialPass() {
+        return this.partialPass;
+    }
+
+    /**
+     * Sets the flag that is set when this state draws only some of the items
+     * in a pass, as for each strip of a
+     * {@link org.jfree.chart.plot.ParallelCategoryPlot}.  A renderer does
+     * not publish the totals for the pass (such as
+     * {@link GanttRenderer#getCulledTaskCount()}) from such a state; the
+     * plot that split the pass does that instead.
+     *
+     * @param partial  the new flag value.
+     */
+    public void setPartialPass(boolean partial) {
+        this.partialPass = partial;
+    }
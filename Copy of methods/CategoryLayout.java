@@ -0,0 +1,208 @@
+package org.jfree.chart.renderer.category;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.ui.RectangleEdge;
+
+/**
+ * The positions of the categories along the domain axis during one drawing
+ * pass.  The start and end of each category are found with the axis'
+ * {@code getCategoryStart()} and {@code getCategoryEnd()} methods the first
+ * time they are needed and then kept, so a renderer can look them up by
+ * index instead of asking the axis (or mapping keys back to indices) for
+ * every item.  For renderers that place fixed-width items side by side in
+ * each category, the layout also keeps the start of the first item in each
+ * category and the offset of each series from it.
+ *
+ * @see CategoryItemRendererState#getCategoryLayout(CategoryAxis,
+ *     org.jfree.data.category.CategoryDataset, Rectangle2D, RectangleEdge)
+ */
+class CategoryLayout {
+
+    /** The domain axis. */
+    private final CategoryAxis axis;
+
+    /** The number of categories. */
+    private final int categoryCount;
+
+    /** The number of series. */
+    private final int seriesCount;
+
+    /** The data area. */
+    private final Rectangle2D area;
+
+    /** The location of the domain axis. */
+    private final RectangleEdge edge;
+
+    /**
+     * The start of each category ({@code Double.NaN} until it is needed),
+     * created on first use.
+     */
+    private double[] starts;
+
+    /** The end of each category, created on first use. */
+    private double[] ends;
+
+    /** The item width that {@code itemBases} is for. */
+    private double itemWidth;
+
+    /** The series gap that {@code itemBases} is for. */
+    private double seriesGap;
+
+    /**
+     * The start of the first item in each category ({@code Double.NaN}
+     * until it is needed), created on first use.
+     */
+    private double[] itemBases;
+
+    /** The offset of each series from the start of the first item. */
+    private double[] seriesOffsets;
+
+    /**
+     * Creates a new layout.
+     *
+     * @param axis  the domain axis.
+     * @param categoryCount  the number of categories.
+     * @param seriesCount  the number of series.
+     * @param area  the data area (copied).
+     * @param edge  the location of the domain axis.
+     */
+    CategoryLayout(CategoryAxis axis, int categoryCount, int seriesCount,
+            Rectangle2D area, RectangleEdge edge) {
+        this.axis = axis;
+        this.categoryCount = categoryCount;
+        this.seriesCount = seriesCount;
+        this.area = (Rectangle2D) area.clone();
+        this.edge = edge;
+    }
+
+    /**
+     * Returns {@code true} if this layout was created for the given axis,
+     * counts, area and edge.
+     *
+     * @param axis  the domain axis.
+     * @param categoryCount  the number of categories.
+     * @param seriesCount  the number of series.
+     * @param area  the data area.
+     * @param edge  the location of the domain axis.
+     *
+     * @return A boolean.
+     */
+    boolean matches(CategoryAxis axis, int categoryCount, int seriesCount,
+            Rectangle2D area, RectangleEdge edge) {
+        return this.axis == axis && this.categoryCount == categoryCount
+                && this.seriesCount == seriesCount && this.edge == edge
+                && this.area.equals(area);
+    }
+
+    /**
+     * Returns the start coordinate of a category, as returned by
+     * {@link CategoryAxis#getCategoryStart(int, int, Rectangle2D,
+     * RectangleEdge)}.
+     *
+     * @param category  the category index.
+     *
+     * @return The coordinate.
+     */
+    double getCategoryStart(int category) {
+        if (this.starts == null) {
+            this.starts = new double[this.categoryCount];
+            this.ends = new double[this.categoryCount];
+            Arrays.fill(this.starts, Double.NaN);
+        }
+        double start = this.starts[category];
+        if (Double.isNaN(start)) {
+            start = this.axis.getCategoryStart(category, this.categoryCount,
+                    this.area, this.edge);
+            this.ends[category] = this.axis.getCategoryEnd(category,
+                    this.categoryCount, this.area, this.edge);
+            this.starts[category] = start;
+        }
+        return start;
+    }
+
+    /**
+     * Returns the end coordinate of a category, as returned by
+     * {@link CategoryAxis#getCategoryEnd(int, int, Rectangle2D,
+     * RectangleEdge)}.
+     *
+     * @param category  the category index.
+     *
+     * @return The coordinate.
+     */
+    double getCategoryEnd(int category) {
+        getCategoryStart(category);
+        return this.ends[category];
+    }
+
+    /**
+     * Returns the middle coordinate for a series within a category, as
+     * returned by {@link CategoryAxis#getCategorySeriesMiddle(Comparable,
+     * Comparable, org.jfree.data.category.CategoryDataset, double,
+     * Rectangle2D, RectangleEdge)} for the same keys.
+     *
+     * @param series  the series index.
+     * @param category  the category index.
+     * @param itemMargin  the item margin (0.0 &lt;= itemMargin &lt; 1.0).
+     *
+     * @return The coordinate.
+     */
+    double getSeriesMiddle(int series, int category, double itemMargin) {
+        double start = getCategoryStart(category);
+        double width = this.ends[category] - start;
+        if (this.seriesCount == 1) {
+            return start + width / 2.0;
+        }
+        double gap = (width * itemMargin) / (this.seriesCount - 1);
+        double ww = (width * (1 - itemMargin)) / this.seriesCount;
+        return start + (series * (ww + gap)) + ww / 2.0;
+    }
+
+    /**
+     * Returns the start coordinate of an item of the given width, when the
+     * items for all series are placed side by side in the middle of their
+     * category with the given gap between them (as the box-and-whisker
+     * renderer does).  The start of the first item is worked out once per
+     * category and the offset once per series, so after that each item
+     * takes two array loads.
+     *
+     * @param series  the series index.
+     * @param category  the category index.
+     * @param itemWidth  the width of each item.
+     * @param seriesGap  the gap between the items for adjacent series
+     *     (ignored if there is only one series).
+     *
+     * @return The coordinate.
+     */
+    double getItemStart(int series, int category, double itemWidth,
+            double seriesGap) {
+        if (this.itemBases == null || itemWidth != this.itemWidth
+                || seriesGap != this.seriesGap) {
+            this.itemWidth = itemWidth;
+            this.seriesGap = seriesGap;
+            this.itemBases = new double[this.categoryCount];
+            Arrays.fill(this.itemBases, Double.NaN);
+            this.seriesOffsets = new double[this.seriesCount];
+            if (this.seriesCount > 1) {
+                for (int s = 0; s < this.seriesCount; s++) {
+                    this.seriesOffsets[s] = s * (itemWidth + seriesGap);
+                }
+            }
+        }
+        double base = this.itemBases[category];
+        if (Double.isNaN(base)) {
+            double start = getCategoryStart(category);
+            double width = Math.abs(this.ends[category] - start);
+            double usedWidth = itemWidth;
+            if (this.seriesCount > 1) {
+                usedWidth = (itemWidth * this.seriesCount)
+                        + (seriesGap * (this.seriesCount - 1));
+            }
+            base = start + (width - usedWidth) / 2;
+            this.itemBases[category] = base;
+        }
+        return base + this.seriesOffsets[series];
+    }
+
+}
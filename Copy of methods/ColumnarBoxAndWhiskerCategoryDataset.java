@@ -0,0 +1,820 @@
+package org.jfree.data.statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jfree.chart.util.Args;
+import org.jfree.chart.util.PublicCloneable;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.UnknownKeyException;
+import org.jfree.data.general.AbstractDataset;
+
+/**
+ * A {@link BoxAndWhiskerCategoryDataset} that stores its statistics in
+ * columns of primitive values rather than as one {@link BoxAndWhiskerItem}
+ * per cell.  Each statistic is held in a {@code double[]} indexed by row and
+ * column, with {@code Double.NaN} for a missing value, and the outliers for
+ * all cells are held in a single {@code double[]} with an offset and a count
+ * for each cell.
+ * <P>
+ * The dataset implements {@link PrimitiveBoxAndWhiskerCategoryDataset}, so
+ * the box-and-whisker renderers can read it without boxing.  The
+ * {@code Number} and {@code List} methods required by
+ * {@link BoxAndWhiskerCategoryDataset} are still supported, but they create
+ * new objects on each call.
+ */
+public class ColumnarBoxAndWhiskerCategoryDataset extends AbstractDataset
+        implements PrimitiveBoxAndWhiskerCategoryDataset, RangeInfo,
+        PublicCloneable {
+
+    /** For serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /** The index of the mean in {@code stats}. */
+    private static final int MEAN = 0;
+
+    /** The index of the median in {@code stats}. */
+    private static final int MEDIAN = 1;
+
+    /** The index of Q1 in {@code stats}. */
+    private static final int Q1 = 2;
+
+    /** The index of Q3 in {@code stats}. */
+    private static final int Q3 = 3;
+
+    /** The index of the minimum regular value in {@code stats}. */
+    private static final int MIN_REGULAR = 4;
+
+    /** The index of the maximum regular value in {@code stats}. */
+    private static final int MAX_REGULAR = 5;
+
+    /** The index of the minimum outlier in {@code stats}. */
+    private static final int MIN_OUTLIER = 6;
+
+    /** The index of the maximum outlier in {@code stats}. */
+    private static final int MAX_OUTLIER = 7;
+
+    /** The number of statistics stored for each cell. */
+    private static final int STAT_COUNT = 8;
+
+    /** The row keys. */
+    private List<Comparable> rowKeys;
+
+    /** The row indices, by key. */
+    private Map<Comparable, Integer> rowIndices;
+
+    /** The column keys. */
+    private List<Comparable> columnKeys;
+
+    /** The column indices, by key. */
+    private Map<Comparable, Integer> columnIndices;
+
+    /**
+     * The number of columns allocated for each row (the cell for (row,
+     * column) is at {@code row * columnCapacity + column}).
+     */
+    private int columnCapacity;
+
+    /** The statistics, one array per statistic, indexed by cell. */
+    private double[][] stats;
+
+    /** The offset of each cell's outliers in {@code outliers}. */
+    private int[] outlierStart;
+
+    /** The number of outliers for each cell (-1 for no outlier list). */
+    private int[] outlierCount;
+
+    /** The outliers for all cells. */
+    private double[] outliers;
+
+    /** The number of entries used in {@code outliers}. */
+    private int outlierSize;
+
+    /** The number of entries in {@code outliers} no longer referenced. */
+    private int outlierGarbage;
+
+    /** The range bounds (valid only when {@code rangeBoundsValid}). */
+    private transient Range rangeBounds;
+
+    /** Is {@code rangeBounds} up to date? */
+    private transient boolean rangeBoundsValid;
+
+    /**
+     * Creates a new, empty, dataset.
+     */
+    public ColumnarBoxAndWhiskerCategoryDataset() {
+        this.rowKeys = new ArrayList<>();
+        this.rowIndices = new HashMap<>();
+        this.columnKeys = new ArrayList<>();
+        this.columnIndices = new HashMap<>();
+        this.columnCapacity = 0;
+        this.stats = new double[STAT_COUNT][0];
+        this.outlierStart = new int[0];
+        this.outlierCount = new int[0];
+        this.outliers = new double[16];
+    }
+
+    /**
+     * Adds the statistics for one item to the dataset (replacing any
+     * existing statistics for the same keys), and sends a
+     * {@link org.jfree.data.general.DatasetChangeEvent} to all registered
+     * listeners.  Missing values are specified as {@code Double.NaN}.
+     *
+     * @param mean  the mean.
+     * @param median  the median.
+     * @param q1  the first quartile.
+     * @param q3  the third quartile.
+     * @param minRegularValue  the minimum regular value.
+     * @param maxRegularValue  the maximum regular value.
+     * @param minOutlier  the minimum outlier.
+     * @param maxOutlier  the maximum outlier.
+     * @param outliers  the outliers ({@code null} permitted).  The values
+     *     are copied.
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     */
+    public void add(double mean, double median, double q1, double q3,
+            double minRegularValue, double maxRegularValue, double minOutlier,
+            double maxOutlier, double[] outliers, Comparable rowKey,
+            Comparable columnKey) {
+        Args.nullNotPermitted(rowKey, "rowKey");
+        Args.nullNotPermitted(columnKey, "columnKey");
+        int cell = cell(addRow(rowKey), addColumn(columnKey));
+        this.stats[MEAN][cell] = mean;
+        this.stats[MEDIAN][cell] = median;
+        this.stats[Q1][cell] = q1;
+        this.stats[Q3][cell] = q3;
+        this.stats[MIN_REGULAR][cell] = minRegularValue;
+        this.stats[MAX_REGULAR][cell] = maxRegularValue;
+        this.stats[MIN_OUTLIER][cell] = minOutlier;
+        this.stats[MAX_OUTLIER][cell] = maxOutlier;
+        setOutliers(cell, outliers, outliers == null ? -1 : outliers.length);
+        this.rangeBoundsValid = false;
+        fireDatasetChanged();
+    }
+
+    /**
+     * Adds an item to the dataset (replacing any existing statistics for the
+     * same keys), and sends a
+     * {@link org.jfree.data.general.DatasetChangeEvent} to all registered
+     * listeners.  The values are copied out of the item, which is not
+     * retained.
+     *
+     * @param item  the item ({@code null} not permitted).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     */
+    public void add(BoxAndWhiskerItem item, Comparable rowKey,
+            Comparable columnKey) {
+        Args.nullNotPermitted(item, "item");
+        double[] values = null;
+        List list = item.getOutliers();
+        if (list != null) {
+            values = new double[list.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = ((Number) list.get(i)).doubleValue();
+            }
+        }
+        add(doubleValue(item.getMean()), doubleValue(item.getMedian()),
+                doubleValue(item.getQ1()), doubleValue(item.getQ3()),
+                doubleValue(item.getMinRegularValue()),
+                doubleValue(item.getMaxRegularValue()),
+                doubleValue(item.getMinOutlier()),
+                doubleValue(item.getMaxOutlier()), values, rowKey, columnKey);
+    }
+
+    /**
+     * Removes all data from the dataset, releasing the arrays that held it,
+     * and sends a {@link org.jfree.data.general.DatasetChangeEvent} to all
+     * registered listeners.
+     */
+    public void clear() {
+        this.rowKeys.clear();
+        this.rowIndices.clear();
+        this.columnKeys.clear();
+        this.columnIndices.clear();
+        this.columnCapacity = 0;
+        this.stats = new double[STAT_COUNT][0];
+        this.outlierStart = new int[0];
+        this.outlierCount = new int[0];
+        this.outliers = new double[16];
+        this.outlierSize = 0;
+        this.outlierGarbage = 0;
+        this.rangeBoundsValid = false;
+        fireDatasetChanged();
+    }
+
+    /**
+     * Returns the statistics for an item as a new {@link BoxAndWhiskerItem}.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The item ({@code null} if there is no data for the item).
+     */
+    public BoxAndWhiskerItem getItem(int row, int column) {
+        int cell = cell(row, column);
+        if (isEmpty(cell)) {
+            return null;
+        }
+        return new BoxAndWhiskerItem(getMeanValue(row, column),
+                getMedianValue(row, column), getQ1Value(row, column),
+                getQ3Value(row, column), getMinRegularValue(row, column),
+                getMaxRegularValue(row, column), getMinOutlier(row, column),
+                getMaxOutlier(row, column), getOutliers(row, column));
+    }
+
+    /**
+     * Returns the value used as the y-value for the item (the median).
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The value (possibly {@code null}).
+     */
+    @Override
+    public Number getValue(int row, int column) {
+        return getMedianValue(row, column);
+    }
+
+    /**
+     * Returns the value used as the y-value for the item (the median).
+     *
+     * @param rowKey  the row key.
+     * @param columnKey  the column key.
+     *
+     * @return The value (possibly {@code null}).
+     */
+    @Override
+    public Number getValue(Comparable rowKey, Comparable columnKey) {
+        return getMedianValue(rowKey, columnKey);
+    }
+
+    @Override
+    public double getMeanDouble(int row, int column) {
+        return this.stats[MEAN][cell(row, column)];
+    }
+
+    @Override
+    public Number getMeanValue(int row, int column) {
+        return number(getMeanDouble(row, column));
+    }
+
+    @Override
+    public Number getMeanValue(Comparable rowKey, Comparable columnKey) {
+        return getMeanValue(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getMedianDouble(int row, int column) {
+        return this.stats[MEDIAN][cell(row, column)];
+    }
+
+    @Override
+    public Number getMedianValue(int row, int column) {
+        return number(getMedianDouble(row, column));
+    }
+
+    @Override
+    public Number getMedianValue(Comparable rowKey, Comparable columnKey) {
+        return getMedianValue(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getQ1Double(int row, int column) {
+        return this.stats[Q1][cell(row, column)];
+    }
+
+    @Override
+    public Number getQ1Value(int row, int column) {
+        return number(getQ1Double(row, column));
+    }
+
+    @Override
+    public Number getQ1Value(Comparable rowKey, Comparable columnKey) {
+        return getQ1Value(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getQ3Double(int row, int column) {
+        return this.stats[Q3][cell(row, column)];
+    }
+
+    @Override
+    public Number getQ3Value(int row, int column) {
+        return number(getQ3Double(row, column));
+    }
+
+    @Override
+    public Number getQ3Value(Comparable rowKey, Comparable columnKey) {
+        return getQ3Value(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getMinRegularDouble(int row, int column) {
+        return this.stats[MIN_REGULAR][cell(row, column)];
+    }
+
+    @Override
+    public Number getMinRegularValue(int row, int column) {
+        return number(getMinRegularDouble(row, column));
+    }
+
+    @Override
+    public Number getMinRegularValue(Comparable rowKey, Comparable columnKey) {
+        return getMinRegularValue(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getMaxRegularDouble(int row, int column) {
+        return this.stats[MAX_REGULAR][cell(row, column)];
+    }
+
+    @Override
+    public Number getMaxRegularValue(int row, int column) {
+        return number(getMaxRegularDouble(row, column));
+    }
+
+    @Override
+    public Number getMaxRegularValue(Comparable rowKey, Comparable columnKey) {
+        return getMaxRegularValue(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getMinOutlierDouble(int row, int column) {
+        return this.stats[MIN_OUTLIER][cell(row, column)];
+    }
+
+    @Override
+    public Number getMinOutlier(int row, int column) {
+        return number(getMinOutlierDouble(row, column));
+    }
+
+    @Override
+    public Number getMinOutlier(Comparable rowKey, Comparable columnKey) {
+        return getMinOutlier(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getMaxOutlierDouble(int row, int column) {
+        return this.stats[MAX_OUTLIER][cell(row, column)];
+    }
+
+    @Override
+    public Number getMaxOutlier(int row, int column) {
+        return number(getMaxOutlierDouble(row, column));
+    }
+
+    @Override
+    public Number getMaxOutlier(Comparable rowKey, Comparable columnKey) {
+        return getMaxOutlier(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public int getOutlierCount(int row, int column) {
+        return this.outlierCount[cell(row, column)];
+    }
+
+    @Override
+    public double getOutlierDouble(int row, int column, int index) {
+        int cell = cell(row, column);
+        if (index < 0 || index >= this.outlierCount[cell]) {
+            throw new IndexOutOfBoundsException("Outlier index " + index
+                    + " out of bounds.");
+        }
+        return this.outliers[this.outlierStart[cell] + index];
+    }
+
+    /**
+     * Returns a new list containing the outliers for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return A list of outlier values (possibly {@code null}).
+     */
+    @Override
+    public List getOutliers(int row, int column) {
+        int cell = cell(row, column);
+        int count = this.outlierCount[cell];
+        if (count < 0) {
+            return null;
+        }
+        List<Double> result = new ArrayList<>(count);
+        int start = this.outlierStart[cell];
+        for (int i = 0; i < count; i++) {
+            result.add(this.outliers[start + i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new list containing the outliers for an item.
+     *
+     * @param rowKey  the row key.
+     * @param columnKey  the column key.
+     *
+     * @return A list of outlier values (possibly {@code null}).
+     */
+    @Override
+    public List getOutliers(Comparable rowKey, Comparable columnKey) {
+        return getOutliers(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public int getColumnIndex(Comparable key) {
+        Args.nullNotPermitted(key, "key");
+        Integer result = this.columnIndices.get(key);
+        return result == null ? -1 : result;
+    }
+
+    @Override
+    public Comparable getColumnKey(int column) {
+        return this.columnKeys.get(column);
+    }
+
+    @Override
+    public List getColumnKeys() {
+        return Collections.unmodifiableList(this.columnKeys);
+    }
+
+    @Override
+    public int getRowIndex(Comparable key) {
+        Args.nullNotPermitted(key, "key");
+        Integer result = this.rowIndices.get(key);
+        return result == null ? -1 : result;
+    }
+
+    @Override
+    public Comparable getRowKey(int row) {
+        return this.rowKeys.get(row);
+    }
+
+    @Override
+    public List getRowKeys() {
+        return Collections.unmodifiableList(this.rowKeys);
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowKeys.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columnKeys.size();
+    }
+
+    /**
+     * Returns the minimum y-value in the dataset (the lowest minimum
+     * outlier).
+     *
+     * @param includeInterval  ignored.
+     *
+     * @return The minimum value ({@code Double.NaN} if the dataset is empty).
+     */
+    @Override
+    public double getRangeLowerBound(boolean includeInterval) {
+        Range bounds = getRangeBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getLowerBound();
+    }
+
+    /**
+     * Returns the maximum y-value in the dataset (the highest maximum
+     * outlier).
+     *
+     * @param includeInterval  ignored.
+     *
+     * @return The maximum value ({@code Double.NaN} if the dataset is empty).
+     */
+    @Override
+    public double getRangeUpperBound(boolean includeInterval) {
+        Range bounds = getRangeBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getUpperBound();
+    }
+
+    /**
+     * Returns the range of the values in this dataset's range, from the
+     * lowest minimum outlier to the highest maximum outlier.  The range is
+     * calculated on first use after the dataset changes.
+     *
+     * @param includeInterval  ignored.
+     *
+     * @return The range ({@code null} if the dataset has no outlier bounds).
+     */
+    @Override
+    public Range getRangeBounds(boolean includeInterval) {
+        if (!this.rangeBoundsValid) {
+            double min = Double.NaN;
+            double max = Double.NaN;
+            double[] mins = this.stats[MIN_OUTLIER];
+            double[] maxs = this.stats[MAX_OUTLIER];
+            for (int r = 0; r < getRowCount(); r++) {
+                for (int c = 0; c < getColumnCount(); c++) {
+                    int cell = cell(r, c);
+                    if (mins[cell] < min || Double.isNaN(min)) {
+                        min = mins[cell];
+                    }
+                    if (maxs[cell] > max || Double.isNaN(max)) {
+                        max = maxs[cell];
+                    }
+                }
+            }
+            this.rangeBounds = Double.isNaN(min) || Double.isNaN(max)
+                    ? null : new Range(min, max);
+            this.rangeBoundsValid = true;
+        }
+        return this.rangeBounds;
+    }
+
+    /**
+     * Tests this dataset for equality with an arbitrary object.
+     *
+     * @param obj  the object to test against ({@code null} permitted).
+     *
+     * @return A boolean.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof ColumnarBoxAndWhiskerCategoryDataset)) {
+            return false;
+        }
+        ColumnarBoxAndWhiskerCategoryDataset that
+                = (ColumnarBoxAndWhiskerCategoryDataset) obj;
+        if (!this.rowKeys.equals(that.rowKeys)
+                || !this.columnKeys.equals(that.columnKeys)) {
+            return false;
+        }
+        for (int r = 0; r < getRowCount(); r++) {
+            for (int c = 0; c < getColumnCount(); c++) {
+                int cell = cell(r, c);
+                int thatCell = that.cell(r, c);
+                for (int s = 0; s < STAT_COUNT; s++) {
+                    if (Double.doubleToLongBits(this.stats[s][cell])
+                            != Double.doubleToLongBits(
+                            that.stats[s][thatCell])) {
+                        return false;
+                    }
+                }
+                int count = this.outlierCount[cell];
+                if (count != that.outlierCount[thatCell]) {
+                    return false;
+                }
+                for (int i = 0; i < count; i++) {
+                    if (Double.doubleToLongBits(
+                            this.outliers[this.outlierStart[cell] + i])
+                            != Double.doubleToLongBits(that.outliers[
+                            that.outlierStart[thatCell] + i])) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code for this dataset.
+     *
+     * @return A hash code.
+     */
+    @Override
+    public int hashCode() {
+        int result = 193;
+        result = 43 * result + this.rowKeys.hashCode();
+        result = 43 * result + this.columnKeys.hashCode();
+        return result;
+    }
+
+    /**
+     * Returns a clone of this dataset.
+     *
+     * @return A clone.
+     *
+     * @throws CloneNotSupportedException if cloning is not possible.
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        ColumnarBoxAndWhiskerCategoryDataset clone
+                = (ColumnarBoxAndWhiskerCategoryDataset) super.clone();
+        clone.rowKeys = new ArrayList<>(this.rowKeys);
+        clone.rowIndices = new HashMap<>(this.rowIndices);
+        clone.columnKeys = new ArrayList<>(this.columnKeys);
+        clone.columnIndices = new HashMap<>(this.columnIndices);
+        clone.stats = new double[STAT_COUNT][];
+        for (int s = 0; s < STAT_COUNT; s++) {
+            clone.stats[s] = this.stats[s].clone();
+        }
+        clone.outlierStart = this.outlierStart.clone();
+        clone.outlierCount = this.outlierCount.clone();
+        clone.outliers = this.outliers.clone();
+        return clone;
+    }
+
+    /**
+     * Returns the index of the cell for an item.
+     *
+     * @param row  the row index.
+     * @param column  the column index.
+     *
+     * @return The cell index.
+     */
+    private int cell(int row, int column) {
+        if (column < 0 || column >= this.columnKeys.size()) {
+            throw new IndexOutOfBoundsException("Column index " + column
+                    + " out of bounds.");
+        }
+        if (row < 0 || row >= this.rowKeys.size()) {
+            throw new IndexOutOfBoundsException("Row index " + row
+                    + " out of bounds.");
+        }
+        return row * this.columnCapacity + column;
+    }
+
+    /**
+     * Returns {@code true} if no statistics have been added for a cell.
+     *
+     * @param cell  the cell index.
+     *
+     * @return A boolean.
+     */
+    private boolean isEmpty(int cell) {
+        if (this.outlierCount[cell] >= 0) {
+            return false;
+        }
+        for (int s = 0; s < STAT_COUNT; s++) {
+            if (!Double.isNaN(this.stats[s][cell])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int rowIndex(Comparable rowKey) {
+        int result = getRowIndex(rowKey);
+        if (result < 0) {
+            throw new UnknownKeyException("Row key (" + rowKey
+                    + ") not recognised.");
+        }
+        return result;
+    }
+
+    private int columnIndex(Comparable columnKey) {
+        int result = getColumnIndex(columnKey);
+        if (result < 0) {
+            throw new UnknownKeyException("Column key (" + columnKey
+                    + ") not recognised.");
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of a row, adding a new (empty) row if the key is not
+     * already in the dataset.
+     *
+     * @param rowKey  the row key.
+     *
+     * @return The row index.
+     */
+    private int addRow(Comparable rowKey) {
+        Integer index = this.rowIndices.get(rowKey);
+        if (index != null) {
+            return index;
+        }
+        int row = this.rowKeys.size();
+        this.rowKeys.add(rowKey);
+        this.rowIndices.put(rowKey, row);
+        int required = (row + 1) * this.columnCapacity;
+        if (this.outlierCount.length < required) {
+            // grow the row capacity by doubling, and mark the new cells empty
+            int oldLength = this.outlierCount.length;
+            int length = Math.max(required, oldLength * 2);
+            for (int s = 0; s < STAT_COUNT; s++) {
+                this.stats[s] = Arrays.copyOf(this.stats[s], length);
+                Arrays.fill(this.stats[s], oldLength, length, Double.NaN);
+            }
+            this.outlierStart = Arrays.copyOf(this.outlierStart, length);
+            this.outlierCount = Arrays.copyOf(this.outlierCount, length);
+            Arrays.fill(this.outlierCount, oldLength, length, -1);
+        }
+        return row;
+    }
+
+    /**
+     * Returns the index of a column, adding a new (empty) column if the key
+     * is not already in the dataset.
+     *
+     * @param columnKey  the column key.
+     *
+     * @return The column index.
+     */
+    private int addColumn(Comparable columnKey) {
+        Integer index = this.columnIndices.get(columnKey);
+        if (index != null) {
+            return index;
+        }
+        int column = this.columnKeys.size();
+        this.columnKeys.add(columnKey);
+        this.columnIndices.put(columnKey, column);
+        if (column == this.columnCapacity) {
+            // lay the cells out again with twice the column capacity
+            int capacity = Math.max(4, this.columnCapacity * 2);
+            int rowCapacity = Math.max(this.rowKeys.size(),
+                    this.columnCapacity == 0 ? 0
+                    : this.outlierCount.length / this.columnCapacity);
+            int length = rowCapacity * capacity;
+            double[][] newStats = new double[STAT_COUNT][length];
+            int[] newStart = new int[length];
+            int[] newCount = new int[length];
+            for (int s = 0; s < STAT_COUNT; s++) {
+                Arrays.fill(newStats[s], Double.NaN);
+            }
+            Arrays.fill(newCount, -1);
+            for (int r = 0; r < this.rowKeys.size(); r++) {
+                int from = r * this.columnCapacity;
+                int to = r * capacity;
+                for (int s = 0; s < STAT_COUNT; s++) {
+                    System.arraycopy(this.stats[s], from, newStats[s], to,
+                            column);
+                }
+                System.arraycopy(this.outlierStart, from, newStart, to,
+                        column);
+                System.arraycopy(this.outlierCount, from, newCount, to,
+                        column);
+            }
+            this.stats = newStats;
+            this.outlierStart = newStart;
+            this.outlierCount = newCount;
+            this.columnCapacity = capacity;
+        }
+        return column;
+    }
+
+    /**
+     * Replaces the outliers for a cell.  The new values are appended to the
+     * shared outlier array, and the array is compacted once more than half
+     * of it is no longer referenced.
+     *
+     * @param cell  the cell index.
+     * @param values  the outliers ({@code null} permitted).
+     * @param count  the number of outliers (-1 for none).
+     */
+    private void setOutliers(int cell, double[] values, int count) {
+        if (this.outlierCount[cell] > 0) {
+            this.outlierGarbage += this.outlierCount[cell];
+        }
+        this.outlierCount[cell] = -1;
+        if (this.outlierGarbage > this.outlierSize / 2) {
+            compactOutliers();
+        }
+        if (count > 0) {
+            if (this.outliers.length < this.outlierSize + count) {
+                this.outliers = Arrays.copyOf(this.outliers, Math.max(
+                        this.outlierSize + count, this.outliers.length * 2));
+            }
+            System.arraycopy(values, 0, this.outliers, this.outlierSize,
+                    count);
+        }
+        this.outlierStart[cell] = this.outlierSize;
+        this.outlierCount[cell] = count;
+        this.outlierSize += Math.max(count, 0);
+    }
+
+    /**
+     * Removes the unreferenced entries from the outlier array.
+     */
+    private void compactOutliers() {
+        double[] compacted = new double[Math.max(16,
+                this.outlierSize - this.outlierGarbage)];
+        int size = 0;
+        for (int cell = 0; cell < this.outlierCount.length; cell++) {
+            int count = this.outlierCount[cell];
+            if (count > 0) {
+                System.arraycopy(this.outliers, this.outlierStart[cell],
+                        compacted, size, count);
+                this.outlierStart[cell] = size;
+                size += count;
+            }
+        }
+        this.outliers = compacted;
+        this.outlierSize = size;
+        this.outlierGarbage = 0;
+    }
+
+    private static double doubleValue(Number n) {
+        return n == null ? Double.NaN : n.doubleValue();
+    }
+
+    private static Number number(double d) {
+        return Double.isNaN(d) ? null : d;
+    }
+
+}
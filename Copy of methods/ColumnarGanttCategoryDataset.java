@@ -0,0 +1,798 @@
+package org.jfree.data.gantt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jfree.chart.util.Args;
+import org.jfree.chart.util.PublicCloneable;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.UnknownKeyException;
+import org.jfree.data.general.AbstractDataset;
+import org.jfree.data.time.TimePeriod;
+
+/**
+ * A {@link GanttCategoryDataset} that stores its tasks in columns of
+ * primitive values rather than as {@link Task} objects.  The start and end
+ * of each task are held in {@code long[]} arrays (in milliseconds, as for
+ * {@link TaskSeriesCollection}) and the percent complete in a
+ * {@code float[]}, indexed by row and column.
+ * <P>
+ * The dataset implements {@link PrimitiveGanttCategoryDataset}, so the
+ * renderer can read it without boxing, and it keeps an interval tree over
+ * the tasks so that the renderer can find the tasks that overlap the
+ * visible range in time proportional to their number.  The tree is built on
+ * first use after the dataset changes.
+ * <P>
+ * Tasks do not have sub-intervals in this dataset.
+ */
+public class ColumnarGanttCategoryDataset extends AbstractDataset
+        implements PrimitiveGanttCategoryDataset, RangeInfo, PublicCloneable {
+
+    /** For serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /** The start value stored for a cell that has no task. */
+    private static final long NO_TASK = Long.MIN_VALUE;
+
+    /** The row keys. */
+    private List<Comparable> rowKeys;
+
+    /** The row indices, by key. */
+    private Map<Comparable, Integer> rowIndices;
+
+    /** The column keys. */
+    private List<Comparable> columnKeys;
+
+    /** The column indices, by key. */
+    private Map<Comparable, Integer> columnIndices;
+
+    /**
+     * The number of columns allocated for each row (the cell for (row,
+     * column) is at {@code row * columnCapacity + column}).
+     */
+    private int columnCapacity;
+
+    /** The start values, indexed by cell ({@code NO_TASK} for no task). */
+    private long[] starts;
+
+    /** The end values, indexed by cell. */
+    private long[] ends;
+
+    /** The percent complete values, indexed by cell (NaN for none). */
+    private float[] percents;
+
+    /**
+     * The cells that hold a task, sorted by start value (valid only when
+     * {@code indexValid}).  This is the in-order layout of an implicit
+     * balanced tree: the node for the slice {@code [a, b)} is at
+     * {@code (a + b) >>> 1}.
+     */
+    private transient int[] indexCells;
+
+    /** The start values of {@code indexCells}. */
+    private transient long[] indexStarts;
+
+    /** The end values of {@code indexCells}. */
+    private transient long[] indexEnds;
+
+    /** The highest end value in the slice under each node of the tree. */
+    private transient long[] indexMaxEnds;
+
+    /** Is the interval tree up to date? */
+    private transient boolean indexValid;
+
+    /** The range bounds (valid only when {@code rangeBoundsValid}). */
+    private transient Range rangeBounds;
+
+    /** Is {@code rangeBounds} up to date? */
+    private transient boolean rangeBoundsValid;
+
+    /**
+     * Creates a new, empty, dataset.
+     */
+    public ColumnarGanttCategoryDataset() {
+        this.rowKeys = new ArrayList<>();
+        this.rowIndices = new HashMap<>();
+        this.columnKeys = new ArrayList<>();
+        this.columnIndices = new HashMap<>();
+        this.columnCapacity = 0;
+        this.starts = new long[0];
+        this.ends = new long[0];
+        this.percents = new float[0];
+    }
+
+    /**
+     * Adds a task to the dataset (replacing any existing task for the same
+     * keys), and sends a {@link org.jfree.data.general.DatasetChangeEvent}
+     * to all registered listeners.
+     *
+     * @param start  the start of the task (in milliseconds).
+     * @param end  the end of the task (in milliseconds).
+     * @param percentComplete  the percent complete ({@code Double.NaN} for
+     *     none).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     */
+    public void add(long start, long end, double percentComplete,
+            Comparable rowKey, Comparable columnKey) {
+        Args.nullNotPermitted(rowKey, "rowKey");
+        Args.nullNotPermitted(columnKey, "columnKey");
+        if (start == NO_TASK) {
+            throw new IllegalArgumentException("Invalid 'start' argument.");
+        }
+        if (end < start) {
+            throw new IllegalArgumentException("Requires start <= end.");
+        }
+        int cell = cell(addRow(rowKey), addColumn(columnKey));
+        this.starts[cell] = start;
+        this.ends[cell] = end;
+        this.percents[cell] = (float) percentComplete;
+        this.indexValid = false;
+        this.rangeBoundsValid = false;
+        fireDatasetChanged();
+    }
+
+    /**
+     * Adds a task to the dataset (replacing any existing task for the same
+     * keys), and sends a {@link org.jfree.data.general.DatasetChangeEvent}
+     * to all registered listeners.  The column key is the task description,
+     * as in {@link TaskSeriesCollection}.  The values are copied out of the
+     * task, which is not retained, and any sub-tasks are ignored.
+     *
+     * @param task  the task ({@code null} not permitted).
+     * @param rowKey  the row key ({@code null} not permitted).
+     */
+    public void add(Task task, Comparable rowKey) {
+        Args.nullNotPermitted(task, "task");
+        TimePeriod duration = task.getDuration();
+        Args.nullNotPermitted(duration, "task.getDuration()");
+        Double percent = task.getPercentComplete();
+        add(duration.getStart().getTime(), duration.getEnd().getTime(),
+                percent == null ? Double.NaN : percent, rowKey,
+                task.getDescription());
+    }
+
+    /**
+     * Removes all data from the dataset and sends a
+     * {@link org.jfree.data.general.DatasetChangeEvent} to all registered
+     * listeners.
+     */
+    public void clear() {
+        this.rowKeys.clear();
+        this.rowIndices.clear();
+        this.columnKeys.clear();
+        this.columnIndices.clear();
+        this.columnCapacity = 0;
+        this.starts = new long[0];
+        this.ends = new long[0];
+        this.percents = new float[0];
+        this.indexValid = false;
+        this.rangeBoundsValid = false;
+        fireDatasetChanged();
+    }
+
+    @Override
+    public double getStartDouble(int row, int column) {
+        int cell = cell(row, column);
+        return this.starts[cell] == NO_TASK ? Double.NaN : this.starts[cell];
+    }
+
+    @Override
+    public double getEndDouble(int row, int column) {
+        int cell = cell(row, column);
+        return this.starts[cell] == NO_TASK ? Double.NaN : this.ends[cell];
+    }
+
+    @Override
+    public double getPercentCompleteDouble(int row, int column) {
+        return this.percents[cell(row, column)];
+    }
+
+    /**
+     * Returns the start value for a task.  This is the same as
+     * {@link #getStartValue(int, int)}.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The value (possibly {@code null}).
+     */
+    @Override
+    public Number getValue(int row, int column) {
+        return getStartValue(row, column);
+    }
+
+    /**
+     * Returns the start value for a task.  This is the same as
+     * {@link #getStartValue(Comparable, Comparable)}.
+     *
+     * @param rowKey  the row key.
+     * @param columnKey  the column key.
+     *
+     * @return The value (possibly {@code null}).
+     */
+    @Override
+    public Number getValue(Comparable rowKey, Comparable columnKey) {
+        return getStartValue(rowKey, columnKey);
+    }
+
+    @Override
+    public Number getStartValue(int row, int column) {
+        int cell = cell(row, column);
+        return this.starts[cell] == NO_TASK ? null : this.starts[cell];
+    }
+
+    @Override
+    public Number getStartValue(Comparable rowKey, Comparable columnKey) {
+        return getStartValue(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public Number getEndValue(int row, int column) {
+        int cell = cell(row, column);
+        return this.starts[cell] == NO_TASK ? null : this.ends[cell];
+    }
+
+    @Override
+    public Number getEndValue(Comparable rowKey, Comparable columnKey) {
+        return getEndValue(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public Number getPercentComplete(int row, int column) {
+        float percent = this.percents[cell(row, column)];
+        return Float.isNaN(percent) ? null : (double) percent;
+    }
+
+    @Override
+    public Number getPercentComplete(Comparable rowKey, Comparable columnKey) {
+        return getPercentComplete(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    /**
+     * Returns the number of sub-intervals for a task, which is always zero
+     * for this dataset.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return Zero.
+     */
+    @Override
+    public int getSubIntervalCount(int row, int column) {
+        cell(row, column);
+        return 0;
+    }
+
+    /**
+     * Returns the number of sub-intervals for a task, which is always zero
+     * for this dataset.
+     *
+     * @param rowKey  the row key.
+     * @param columnKey  the column key.
+     *
+     * @return Zero.
+     */
+    @Override
+    public int getSubIntervalCount(Comparable rowKey, Comparable columnKey) {
+        return getSubIntervalCount(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    /**
+     * Returns {@code null}, since tasks do not have sub-intervals in this
+     * dataset.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     * @param subinterval  the sub-interval index (zero-based).
+     *
+     * @return {@code null}.
+     */
+    @Override
+    public Number getStartValue(int row, int column, int subinterval) {
+        return null;
+    }
+
+    /**
+     * Returns {@code null}, since tasks do not have sub-intervals in this
+     * dataset.
+     *
+     * @param rowKey  the row key.
+     * @param columnKey  the column key.
+     * @param subinterval  the sub-interval index (zero-based).
+     *
+     * @return {@code null}.
+     */
+    @Override
+    public Number getStartValue(Comparable rowKey, Comparable columnKey,
+            int subinterval) {
+        return null;
+    }
+
+    /**
+     * Returns {@code null}, since tasks do not have sub-intervals in this
+     * dataset.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     * @param subinterval  the sub-interval index (zero-based).
+     *
+     * @return {@code null}.
+     */
+    @Override
+    public Number getEndValue(int row, int column, int subinterval) {
+        return null;
+    }
+
+    /**
+     * Returns {@code null}, since tasks do not have sub-intervals in this
+     * dataset.
+     *
+     * @param rowKey  the row key.
+     * @param columnKey  the column key.
+     * @param subinterval  the sub-interval index (zero-based).
+     *
+     * @return {@code null}.
+     */
+    @Override
+    public Number getEndValue(Comparable rowKey, Comparable columnKey,
+            int subinterval) {
+        return null;
+    }
+
+    /**
+     * Returns {@code null}, since tasks do not have sub-intervals in this
+     * dataset.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     * @param subinterval  the sub-interval index (zero-based).
+     *
+     * @return {@code null}.
+     */
+    @Override
+    public Number getPercentComplete(int row, int column, int subinterval) {
+        return null;
+    }
+
+    /**
+     * Returns {@code null}, since tasks do not have sub-intervals in this
+     * dataset.
+     *
+     * @param rowKey  the row key.
+     * @param columnKey  the column key.
+     * @param subinterval  the sub-interval index (zero-based).
+     *
+     * @return {@code null}.
+     */
+    @Override
+    public Number getPercentComplete(Comparable rowKey, Comparable columnKey,
+            int subinterval) {
+        return null;
+    }
+
+    /**
+     * Finds the tasks that overlap a range of values, using the interval
+     * tree (which is built first if the dataset has changed since it was
+     * last used).  The time taken is about {@code log(n)} for each task
+     * found.
+     *
+     * @param lower  the lower bound of the range.
+     * @param upper  the upper bound of the range.
+     * @param items  the bit set to update ({@code null} not permitted).
+     */
+    @Override
+    public void findItems(double lower, double upper, BitSet items) {
+        Args.nullNotPermitted(items, "items");
+        if (!this.indexValid) {
+            buildIndex();
+        }
+        findItems(0, this.indexCells.length, lower, upper, items);
+    }
+
+    /**
+     * Finds the tasks in one slice of the interval tree that overlap a
+     * range of values.
+     *
+     * @param a  the start of the slice (inclusive).
+     * @param b  the end of the slice (exclusive).
+     * @param lower  the lower bound of the range.
+     * @param upper  the upper bound of the range.
+     * @param items  the bit set to update.
+     */
+    private void findItems(int a, int b, double lower, double upper,
+            BitSet items) {
+        while (a < b) {
+            int mid = (a + b) >>> 1;
+            if (this.indexMaxEnds[mid] < lower) {
+                return;
+            }
+            findItems(a, mid, lower, upper, items);
+            if (this.indexStarts[mid] > upper) {
+                return;
+            }
+            if (this.indexEnds[mid] >= lower) {
+                int cell = this.indexCells[mid];
+                int row = cell / this.columnCapacity;
+                int column = cell - row * this.columnCapacity;
+                items.set(row * this.columnKeys.size() + column);
+            }
+            a = mid + 1;
+        }
+    }
+
+    /**
+     * Builds the interval tree: sorts the cells that hold a task by start
+     * value, and records the highest end value under each node.
+     */
+    private void buildIndex() {
+        int count = 0;
+        int[] cells = new int[this.starts.length];
+        for (int r = 0; r < getRowCount(); r++) {
+            for (int c = 0; c < getColumnCount(); c++) {
+                int cell = r * this.columnCapacity + c;
+                if (this.starts[cell] != NO_TASK) {
+                    cells[count++] = cell;
+                }
+            }
+        }
+        cells = Arrays.copyOf(cells, count);
+        sortByStart(cells, cells.clone(), 0, count);
+        this.indexCells = cells;
+        this.indexStarts = new long[count];
+        this.indexEnds = new long[count];
+        for (int i = 0; i < count; i++) {
+            this.indexStarts[i] = this.starts[cells[i]];
+            this.indexEnds[i] = this.ends[cells[i]];
+        }
+        this.indexMaxEnds = new long[count];
+        buildMaxEnds(0, count);
+        this.indexValid = true;
+    }
+
+    /**
+     * Sorts a slice of an array of cells by start value (a stable merge
+     * sort).
+     *
+     * @param cells  the cells (sorted on return).
+     * @param work  a copy of {@code cells}, used as working space.
+     * @param from  the start of the slice (inclusive).
+     * @param to  the end of the slice (exclusive).
+     */
+    private void sortByStart(int[] cells, int[] work, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortByStart(work, cells, from, mid);
+        sortByStart(work, cells, mid, to);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid
+                    && this.starts[work[i]] <= this.starts[work[j]])) {
+                cells[k] = work[i++];
+            }
+            else {
+                cells[k] = work[j++];
+            }
+        }
+    }
+
+    /**
+     * Records the highest end value under each node in a slice of the
+     * interval tree.
+     *
+     * @param a  the start of the slice (inclusive).
+     * @param b  the end of the slice (exclusive).
+     *
+     * @return The highest end value in the slice.
+     */
+    private long buildMaxEnds(int a, int b) {
+        if (a >= b) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (a + b) >>> 1;
+        long max = Math.max(this.indexEnds[mid], Math.max(
+                buildMaxEnds(a, mid), buildMaxEnds(mid + 1, b)));
+        this.indexMaxEnds[mid] = max;
+        return max;
+    }
+
+    @Override
+    public int getColumnIndex(Comparable key) {
+        Args.nullNotPermitted(key, "key");
+        Integer result = this.columnIndices.get(key);
+        return result == null ? -1 : result;
+    }
+
+    @Override
+    public Comparable getColumnKey(int column) {
+        return this.columnKeys.get(column);
+    }
+
+    @Override
+    public List getColumnKeys() {
+        return Collections.unmodifiableList(this.columnKeys);
+    }
+
+    @Override
+    public int getRowIndex(Comparable key) {
+        Args.nullNotPermitted(key, "key");
+        Integer result = this.rowIndices.get(key);
+        return result == null ? -1 : result;
+    }
+
+    @Override
+    public Comparable getRowKey(int row) {
+        return this.rowKeys.get(row);
+    }
+
+    @Override
+    public List getRowKeys() {
+        return Collections.unmodifiableList(this.rowKeys);
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowKeys.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columnKeys.size();
+    }
+
+    /**
+     * Returns the earliest start value in the dataset.
+     *
+     * @param includeInterval  ignored.
+     *
+     * @return The minimum value ({@code Double.NaN} if the dataset is empty).
+     */
+    @Override
+    public double getRangeLowerBound(boolean includeInterval) {
+        Range bounds = getRangeBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getLowerBound();
+    }
+
+    /**
+     * Returns the latest end value in the dataset.
+     *
+     * @param includeInterval  ignored.
+     *
+     * @return The maximum value ({@code Double.NaN} if the dataset is empty).
+     */
+    @Override
+    public double getRangeUpperBound(boolean includeInterval) {
+        Range bounds = getRangeBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getUpperBound();
+    }
+
+    /**
+     * Returns the range of the values in this dataset's range, from the
+     * earliest start value to the latest end value.  The range is calculated
+     * on first use after the dataset changes.
+     *
+     * @param includeInterval  ignored.
+     *
+     * @return The range ({@code null} if the dataset has no tasks).
+     */
+    @Override
+    public Range getRangeBounds(boolean includeInterval) {
+        if (!this.rangeBoundsValid) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            boolean empty = true;
+            for (int r = 0; r < getRowCount(); r++) {
+                for (int c = 0; c < getColumnCount(); c++) {
+                    int cell = r * this.columnCapacity + c;
+                    if (this.starts[cell] != NO_TASK) {
+                        min = Math.min(min, this.starts[cell]);
+                        max = Math.max(max, this.ends[cell]);
+                        empty = false;
+                    }
+                }
+            }
+            this.rangeBounds = empty ? null : new Range(min, max);
+            this.rangeBoundsValid = true;
+        }
+        return this.rangeBounds;
+    }
+
+    /**
+     * Tests this dataset for equality with an arbitrary object.
+     *
+     * @param obj  the object to test against ({@code null} permitted).
+     *
+     * @return A boolean.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof ColumnarGanttCategoryDataset)) {
+            return false;
+        }
+        ColumnarGanttCategoryDataset that = (ColumnarGanttCategoryDataset) obj;
+        if (!this.rowKeys.equals(that.rowKeys)
+                || !this.columnKeys.equals(that.columnKeys)) {
+            return false;
+        }
+        for (int r = 0; r < getRowCount(); r++) {
+            for (int c = 0; c < getColumnCount(); c++) {
+                int cell = r * this.columnCapacity + c;
+                int thatCell = r * that.columnCapacity + c;
+                if (this.starts[cell] != that.starts[thatCell]) {
+                    return false;
+                }
+                if (this.starts[cell] == NO_TASK) {
+                    continue;
+                }
+                if (this.ends[cell] != that.ends[thatCell]) {
+                    return false;
+                }
+                if (Float.floatToIntBits(this.percents[cell])
+                        != Float.floatToIntBits(that.percents[thatCell])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code for this dataset.
+     *
+     * @return A hash code.
+     */
+    @Override
+    public int hashCode() {
+        int result = 197;
+        result = 43 * result + this.rowKeys.hashCode();
+        result = 43 * result + this.columnKeys.hashCode();
+        return result;
+    }
+
+    /**
+     * Returns a clone of this dataset.
+     *
+     * @return A clone.
+     *
+     * @throws CloneNotSupportedException if cloning is not possible.
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        ColumnarGanttCategoryDataset clone
+                = (ColumnarGanttCategoryDataset) super.clone();
+        clone.rowKeys = new ArrayList<>(this.rowKeys);
+        clone.rowIndices = new HashMap<>(this.rowIndices);
+        clone.columnKeys = new ArrayList<>(this.columnKeys);
+        clone.columnIndices = new HashMap<>(this.columnIndices);
+        clone.starts = this.starts.clone();
+        clone.ends = this.ends.clone();
+        clone.percents = this.percents.clone();
+        // the tree is never modified once built, so it can be shared
+        return clone;
+    }
+
+    /**
+     * Returns the index of the cell for an item.
+     *
+     * @param row  the row index.
+     * @param column  the column index.
+     *
+     * @return The cell index.
+     */
+    private int cell(int row, int column) {
+        if (column < 0 || column >= this.columnKeys.size()) {
+            throw new IndexOutOfBoundsException("Column index " + column
+                    + " out of bounds.");
+        }
+        if (row < 0 || row >= this.rowKeys.size()) {
+            throw new IndexOutOfBoundsException("Row index " + row
+                    + " out of bounds.");
+        }
+        return row * this.columnCapacity + column;
+    }
+
+    private int rowIndex(Comparable rowKey) {
+        int result = getRowIndex(rowKey);
+        if (result < 0) {
+            throw new UnknownKeyException("Row key (" + rowKey
+                    + ") not recognised.");
+        }
+        return result;
+    }
+
+    private int columnIndex(Comparable columnKey) {
+        int result = getColumnIndex(columnKey);
+        if (result < 0) {
+            throw new UnknownKeyException("Column key (" + columnKey
+                    + ") not recognised.");
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of a row, adding a new (empty) row if the key is not
+     * already in the dataset.
+     *
+     * @param rowKey  the row key.
+     *
+     * @return The row index.
+     */
+    private int addRow(Comparable rowKey) {
+        Integer index = this.rowIndices.get(rowKey);
+        if (index != null) {
+            return index;
+        }
+        int row = this.rowKeys.size();
+        this.rowKeys.add(rowKey);
+        this.rowIndices.put(rowKey, row);
+        int required = (row + 1) * this.columnCapacity;
+        if (this.starts.length < required) {
+            // grow the row capacity by doubling, and mark the new cells empty
+            int oldLength = this.starts.length;
+            int length = Math.max(required, oldLength * 2);
+            this.starts = Arrays.copyOf(this.starts, length);
+            this.ends = Arrays.copyOf(this.ends, length);
+            this.percents = Arrays.copyOf(this.percents, length);
+            Arrays.fill(this.starts, oldLength, length, NO_TASK);
+            Arrays.fill(this.percents, oldLength, length, Float.NaN);
+        }
+        return row;
+    }
+
+    /**
+     * Returns the index of a column, adding a new (empty) column if the key
+     * is not already in the dataset.
+     *
+     * @param columnKey  the column key.
+     *
+     * @return The column index.
+     */
+    private int addColumn(Comparable columnKey) {
+        Integer index = this.columnIndices.get(columnKey);
+        if (index != null) {
+            return index;
+        }
+        int column = this.columnKeys.size();
+        this.columnKeys.add(columnKey);
+        this.columnIndices.put(columnKey, column);
+        if (column == this.columnCapacity) {
+            // lay the cells out again with twice the column capacity
+            int capacity = Math.max(4, this.columnCapacity * 2);
+            int rowCapacity = Math.max(this.rowKeys.size(),
+                    this.columnCapacity == 0 ? 0
+                    : this.starts.length / this.columnCapacity);
+            int length = rowCapacity * capacity;
+            long[] newStarts = new long[length];
+            long[] newEnds = new long[length];
+            float[] newPercents = new float[length];
+            Arrays.fill(newStarts, NO_TASK);
+            Arrays.fill(newPercents, Float.NaN);
+            for (int r = 0; r < this.rowKeys.size(); r++) {
+                int from = r * this.columnCapacity;
+                int to = r * capacity;
+                System.arraycopy(this.starts, from, newStarts, to, column);
+                System.arraycopy(this.ends, from, newEnds, to, column);
+                System.arraycopy(this.percents, from, newPercents, to,
+                        column);
+            }
+            this.starts = newStarts;
+            this.ends = newEnds;
+            this.percents = newPercents;
+            this.columnCapacity = capacity;
+        }
+        return column;
+    }
+
+}
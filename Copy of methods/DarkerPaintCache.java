@@ -0,0 +1,117 @@
+package org.jfree.chart.plot;
+
+import java.awt.Paint;
+import org.jfree.chart.util.PaintAlpha;
+
+/**
+ * A bounded cache of the darker paints that {@link PiePlot3D#drawSide} uses
+ * for the section sides, so that {@link PaintAlpha#darker(Paint)} (which
+ * creates a new paint, and for a gradient new colour arrays too) is called
+ * once per section paint rather than for every section on every repaint.
+ * <P>
+ * The entries are keyed on the identity of the section paint, since a
+ * plot returns the same paint instance for a section until the paint is
+ * changed, and {@code equals()} is not defined (or not cheap) for every
+ * kind of paint.  A pie has few sections, so the entries are kept in
+ * arrays and searched in order; when the cache is full, the oldest entry is
+ * replaced.  Lookups do not allocate.
+ * <P>
+ * Instances are not thread-safe (like the plot that owns them).
+ */
+class DarkerPaintCache {
+
+    /** The section paints. */
+    private final Paint[] paints;
+
+    /** The darker paints, at the same index as their section paint. */
+    private final Paint[] darkerPaints;
+
+    /** The number of entries. */
+    private int size;
+
+    /** The index of the entry to replace when the cache is full. */
+    private int next;
+
+    /** The number of lookups that found an entry. */
+    private long hitCount;
+
+    /** The number of lookups that did not find an entry. */
+    private long missCount;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumSize  the maximum number of entries (greater than zero).
+     */
+    DarkerPaintCache(int maximumSize) {
+        this.paints = new Paint[maximumSize];
+        this.darkerPaints = new Paint[maximumSize];
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return The maximum number of entries.
+     */
+    int getMaximumSize() {
+        return this.paints.length;
+    }
+
+    /**
+     * Returns the number of lookups that found an entry.
+     *
+     * @return The hit count.
+     */
+    long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that did not find an entry.
+     *
+     * @return The miss count.
+     */
+    long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the darker version of a paint, creating it with
+     * {@link PaintAlpha#darker(Paint)} if it is not in the cache.
+     *
+     * @param paint  the section paint.
+     *
+     * @return The darker paint.
+     */
+    Paint getDarker(Paint paint) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.paints[i] == paint) {
+                this.hitCount++;
+                return this.darkerPaints[i];
+            }
+        }
+        this.missCount++;
+        Paint result = PaintAlpha.darker(paint);
+        int i = this.next;
+        this.paints[i] = paint;
+        this.darkerPaints[i] = result;
+        this.next = (i + 1) % this.paints.length;
+        if (this.size < this.paints.length) {
+            this.size++;
+        }
+        return result;
+    }
+
+    /**
+     * Removes all entries (the hit and miss counts are not reset).
+     */
+    void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.paints[i] = null;
+            this.darkerPaints[i] = null;
+        }
+        this.size = 0;
+        this.next = 0;
+    }
+
+}
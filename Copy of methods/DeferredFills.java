@@ -0,0 +1,321 @@
+package org.jfree.chart.renderer;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import org.jfree.chart.util.Args;
+
+/**
+ * A draw list that collects the shapes that a renderer fills (or draws
+ * with a stroke) and combines the shapes with the same paint and stroke into
+ * one path, so that many items are drawn with a few {@code Graphics2D}
+ * calls.  Each call has a fixed cost in the rasterizer, and in SVG or PDF
+ * output each one becomes a separate element, so a chart with many simple
+ * items is drawn faster, and exported to a much smaller file.
+ * <P>
+ * A renderer adds each shape to a layer, numbered in the order in which the
+ * shapes of one item are painted (for example, the bar, then the progress
+ * indicator, then the outline).  When the list is flushed, the layers are
+ * drawn in ascending order, and the paths within a layer in the order that
+ * their paint and stroke were first used.  This keeps the order in which
+ * the parts of an item are painted, but not the order of the items, so a
+ * renderer should only defer the shapes of items that do not overlap.  A
+ * renderer must flush the list before it draws anything directly that may
+ * overlap the shapes in the list, and at the end of the drawing pass.
+ * <P>
+ * The shapes in a path are filled together (with the non-zero winding
+ * rule), so with anti-aliasing there is no seam between shapes that touch.
+ * The shapes that are traced clockwise and those traced anticlockwise go
+ * into separate paths, so that the shapes in a path wind the same way: where
+ * two of them overlap, their windings add up and the overlap is filled, as
+ * it is when the shapes are filled one at a time.  Without anti-aliasing the
+ * same pixels are coloured as when the shapes are filled one at a time; with
+ * it, the edge pixels can differ by a shade, since Java2D anti-aliases a
+ * lone rectangle with a different routine.  Shapes that overlap should not
+ * be deferred with a translucent paint, which would colour the overlap once
+ * rather than twice.  The list also flushes itself when it is given a
+ * different {@code Graphics2D} or when the composite has changed.  Instances
+ * are not thread-safe.
+ */
+public final class DeferredFills {
+
+    /** The graphics device for the shapes in the list. */
+    private Graphics2D g2;
+
+    /** The composite that was in effect when the first shape was added. */
+    private Composite composite;
+
+    /** The paths for each layer. */
+    private final List<List<Batch>> layers;
+
+    /** The number of shapes added. */
+    private long shapeCount;
+
+    /** The number of paths drawn. */
+    private long pathCount;
+
+    /** The coordinates of a segment of a shape. */
+    private final double[] segment;
+
+    /**
+     * Creates a new empty list.
+     */
+    public DeferredFills() {
+        this.layers = new ArrayList<>();
+        this.segment = new double[6];
+    }
+
+    /**
+     * Adds a shape that is to be filled.
+     *
+     * @param g2  the graphics device ({@code null} not permitted).
+     * @param layer  the layer (zero or more).
+     * @param paint  the paint ({@code null} not permitted).
+     * @param shape  the shape ({@code null} not permitted).  The list keeps
+     *     a copy of the outline, so the shape can be reused after this call.
+     */
+    public void fill(Graphics2D g2, int layer, Paint paint, Shape shape) {
+        add(g2, layer, paint, null, shape);
+    }
+
+    /**
+     * Adds a shape that is to be drawn with a stroke.
+     *
+     * @param g2  the graphics device ({@code null} not permitted).
+     * @param layer  the layer (zero or more).
+     * @param paint  the paint ({@code null} not permitted).
+     * @param stroke  the stroke ({@code null} not permitted).
+     * @param shape  the shape ({@code null} not permitted).  The list keeps
+     *     a copy of the outline, so the shape can be reused after this call.
+     */
+    public void draw(Graphics2D g2, int layer, Paint paint, Stroke stroke,
+            Shape shape) {
+        Args.nullNotPermitted(stroke, "stroke");
+        add(g2, layer, paint, stroke, shape);
+    }
+
+    /**
+     * Returns {@code true} if there are no shapes waiting to be drawn.
+     *
+     * @return A boolean.
+     */
+    public boolean isEmpty() {
+        return this.g2 == null;
+    }
+
+    /**
+     * Returns the number of shapes that have been added to the list.
+     *
+     * @return The count.
+     */
+    public long getShapeCount() {
+        return this.shapeCount;
+    }
+
+    /**
+     * Returns the number of paths that have been drawn, which is the number
+     * of {@code Graphics2D} fill and draw calls that replaced the
+     * {@link #getShapeCount()} calls that the renderer would have made.
+     *
+     * @return The count.
+     */
+    public long getPathCount() {
+        return this.pathCount;
+    }
+
+    /**
+     * Draws the shapes in the list, and empties it.  This does nothing if
+     * the list is empty.
+     */
+    public void flush() {
+        if (this.g2 == null) {
+            return;
+        }
+        for (List<Batch> batches : this.layers) {
+            for (Batch batch : batches) {
+                this.g2.setPaint(batch.paint);
+                if (batch.stroke == null) {
+                    this.g2.fill(batch.path);
+                }
+                else {
+                    this.g2.setStroke(batch.stroke);
+                    this.g2.draw(batch.path);
+                }
+                this.pathCount++;
+            }
+            batches.clear();
+        }
+        this.g2 = null;
+        this.composite = null;
+    }
+
+    /**
+     * Adds a shape to the path for its layer, paint and stroke.
+     *
+     * @param g2  the graphics device.
+     * @param layer  the layer.
+     * @param paint  the paint.
+     * @param stroke  the stroke ({@code null} for a fill).
+     * @param shape  the shape.
+     */
+    private void add(Graphics2D g2, int layer, Paint paint, Stroke stroke,
+            Shape shape) {
+        Args.nullNotPermitted(g2, "g2");
+        Args.nullNotPermitted(paint, "paint");
+        Args.nullNotPermitted(shape, "shape");
+        if (layer < 0) {
+            throw new IllegalArgumentException("Requires layer >= 0.");
+        }
+        Composite c = g2.getComposite();
+        if (g2 != this.g2 || c != this.composite) {
+            flush();
+            this.g2 = g2;
+            this.composite = c;
+        }
+        while (this.layers.size() <= layer) {
+            this.layers.add(new ArrayList<>());
+        }
+        // a rectangle is added with a positive signed area, below
+        boolean reversed = stroke == null && !(shape instanceof Rectangle2D)
+                && signedArea(shape) < 0.0;
+        Path2D.Double path = findPath(this.layers.get(layer), paint, stroke,
+                reversed);
+        if (shape instanceof Rectangle2D) {
+            // avoids the path iterator that append() would create (and,
+            // like that iterator, has no outline for a negative size)
+            Rectangle2D r = (Rectangle2D) shape;
+            if (r.getWidth() < 0.0 || r.getHeight() < 0.0) {
+                return;
+            }
+            path.moveTo(r.getMinX(), r.getMinY());
+            path.lineTo(r.getMaxX(), r.getMinY());
+            path.lineTo(r.getMaxX(), r.getMaxY());
+            path.lineTo(r.getMinX(), r.getMaxY());
+            path.closePath();
+        }
+        else {
+            path.append(shape, false);
+        }
+        this.shapeCount++;
+    }
+
+    /**
+     * Returns the signed area of a shape, taken over the vertices and control
+     * points of its outline (with each subpath closed), in a coordinate space
+     * where y increases downwards.  The sign tells which way the shape is
+     * traced: it is positive when the shape is traced clockwise on screen.
+     *
+     * @param shape  the shape.
+     *
+     * @return Twice the signed area.
+     */
+    private double signedArea(Shape shape) {
+        double[] c = this.segment;
+        double area = 0.0;
+        double startX = 0.0;
+        double startY = 0.0;
+        double lastX = 0.0;
+        double lastY = 0.0;
+        PathIterator iterator = shape.getPathIterator(null);
+        for (; !iterator.isDone(); iterator.next()) {
+            int type = iterator.currentSegment(c);
+            int points;
+            switch (type) {
+                case PathIterator.SEG_MOVETO:
+                    area += lastX * startY - startX * lastY;
+                    startX = c[0];
+                    startY = c[1];
+                    lastX = startX;
+                    lastY = startY;
+                    continue;
+                case PathIterator.SEG_CLOSE:
+                    area += lastX * startY - startX * lastY;
+                    lastX = startX;
+                    lastY = startY;
+                    continue;
+                case PathIterator.SEG_LINETO:
+                    points = 1;
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    points = 2;
+                    break;
+                default:
+                    points = 3;
+            }
+            for (int i = 0; i < 2 * points; i += 2) {
+                area += lastX * c[i + 1] - c[i] * lastY;
+                lastX = c[i];
+                lastY = c[i + 1];
+            }
+        }
+        return area + lastX * startY - startX * lastY;
+    }
+
+    /**
+     * Returns the path in a layer for a paint and stroke, adding one if
+     * there is none.
+     *
+     * @param batches  the paths in the layer.
+     * @param paint  the paint.
+     * @param stroke  the stroke ({@code null} for a fill).
+     * @param reversed  is the path for fills that are traced anticlockwise?
+     *
+     * @return The path.
+     */
+    private static Path2D.Double findPath(List<Batch> batches, Paint paint,
+            Stroke stroke, boolean reversed) {
+        for (Batch batch : batches) {
+            if (batch.stroke == stroke && batch.reversed == reversed
+                    && (batch.paint == paint || (paint instanceof Color
+                    && paint.equals(batch.paint)))) {
+                return batch.path;
+            }
+        }
+        Batch batch = new Batch(paint, stroke, reversed);
+        batches.add(batch);
+        return batch.path;
+    }
+
+    /**
+     * A path, with the paint and stroke to draw it with.
+     */
+    private static final class Batch {
+
+        /** The paint. */
+        final Paint paint;
+
+        /** The stroke ({@code null} for a fill). */
+        final Stroke stroke;
+
+        /** Is this a path for fills that are traced anticlockwise? */
+        final boolean reversed;
+
+        /** The path. */
+        final Path2D.Double path;
+
+        /**
+         * Creates a new empty batch.
+         *
+         * @param paint  the paint.
+         * @param stroke  the stroke ({@code null} for a fill).
+         * @param reversed  is the path for fills that are traced
+         *     anticlockwise?
+         */
+        Batch(Paint paint, Stroke stroke, boolean reversed) {
+            this.paint = paint;
+            this.stroke = stroke;
+            this.reversed = reversed;
+            this.path = new Path2D.Double();
+        }
+
+    }
+
+}
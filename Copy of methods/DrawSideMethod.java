@@ -1,5 +1,193 @@
-/**
+    /** The maximum number of sections whose side geometry is cached. */
+    public static final int SIDE_CACHE_SIZE = 256;
+
+    /** Clips the pie sides (lazily created, not serialized). */
+    private transient ShapeClipper sideClipper;
+
+    /** Reusable buffers for the (up to two) sides of a section. */
+    private transient Path2D.Double[] sidePaths;
+
+    /** The sides of a section when the side geometry is not cached. */
+    private transient Shape[] uncachedSides;
+
+    /** A flag that controls whether the side geometry is cached. */
+    private boolean sideGeometryCached = true;
+
+    /** The side geometry cache (lazily created, not serialized). */
+    private transient PieSideCache sideCache;
+
+    /** The maximum number of section paints whose darker paint is cached. */
+    public static final int DARKER_PAINT_CACHE_SIZE = 64;
+
+    /** The darker side paints (lazily created, not serialized). */
+    private transient DarkerPaintCache darkerPaints;
+
+    /** The metrics for {@link #drawSide}. */
+    private static final RendererMetrics.Probe DRAW_SIDE_METRICS
+            = RendererMetrics.getProbe("PiePlot3D.drawSide");
+
+    /**
+     * Returns the flag that controls whether the geometry of the section
+     * sides is cached between repaints.  The default value is {@code true}.
+     *
+     * @return A boolean.
+     *
+     * @see #setSideGeometryCached(boolean)
+     */
+    public boolean isSideGeometryCached() {
+        return this.sideGeometryCached;
+    }
+
+    /**
+     * Sets the flag that controls whether the geometry of the section sides
+     * is cached between repaints.  When the plot area, depth and section
+     * angles are unchanged, a cached section skips all of the geometry work
+     * in {@link #drawSide} and only fills and strokes its sides.  Turn this
+     * off for animated pies, where the angles change on every frame.  This
+     * does not change the appearance of the chart, so no change event is
+     * sent.
+     *
+     * @param cached  the new flag value.
+     *
+     * @see #isSideGeometryCached()
+     */
+    public void setSideGeometryCached(boolean cached) {
+        this.sideGeometryCached = cached;
+        if (!cached) {
+            this.sideCache = null;
+        }
+    }
+
+    /**
+     * Returns the number of {@link #drawSide} calls that found their side
+     * geometry in the cache.
+     *
+     * @return The hit count.
+     *
+     * @see #getSideCacheMissCount()
+     */
+    public long getSideCacheHitCount() {
+        return this.sideCache != null ? this.sideCache.getHitCount() : 0L;
+    }
+
+    /**
+     * Returns the number of {@link #drawSide} calls that had to compute
+     * their side geometry.
+     *
+     * @return The miss count.
+     *
+     * @see #getSideCacheHitCount()
+     */
+    public long getSideCacheMissCount() {
+        return this.sideCache != null ? this.sideCache.getMissCount() : 0L;
+    }
+
+    /**
+     * Returns the number of {@link #drawSide} calls that found the darker
+     * side paint in the cache (only when {@link #getDarkerSides()} is
+     * {@code true}).
+     *
+     * @return The hit count.
+     *
+     * @see #getDarkerPaintCacheMissCount()
+     */
+    public long getDarkerPaintCacheHitCount() {
+        return this.darkerPaints != null ? this.darkerPaints.getHitCount()
+                : 0L;
+    }
+
+    /**
+     * Returns the number of {@link #drawSide} calls that had to create the
+     * darker side paint.
+     *
+     * @return The miss count.
+     *
+     * @see #getDarkerPaintCacheHitCount()
+     */
+    public long getDarkerPaintCacheMissCount() {
+        return this.darkerPaints != null ? this.darkerPaints.getMissCount()
+                : 0L;
+    }
+
+    /**
+     * Sets the paint associated with the specified key, and sends a
+     * {@link PlotChangeEvent} to all registered listeners.  This overrides
+     * the inherited method to empty the cache of darker side paints.
+     *
+     * @param key  the key ({@code null} not permitted).
+     * @param paint  the paint.
+     */
+    @Override
+    public void setSectionPaint(Comparable key, Paint paint) {
+        clearDarkerPaints();
+        super.setSectionPaint(key, paint);
+    }
+
+    /**
+     * Clears the section paint settings for this plot and, if requested,
+     * sends a {@link PlotChangeEvent} to all registered listeners.  This
+     * overrides the inherited method to empty the cache of darker side
+     * paints.
+     *
+     * @param notify  notify listeners?
+     */
+    @Override
+    public void clearSectionPaints(boolean notify) {
+        clearDarkerPaints();
+        super.clearSectionPaints(notify);
+    }
+
+    /**
+     * Sets the default section paint and sends a {@link PlotChangeEvent} to
+     * all registered listeners.  This overrides the inherited method to empty
+     * the cache of darker side paints.
+     *
+     * @param paint  the paint ({@code null} not permitted).
+     */
+    @Override
+    public void setDefaultSectionPaint(Paint paint) {
+        clearDarkerPaints();
+        super.setDefaultSectionPaint(paint);
+    }
+
+    /**
+     * Sets the flag that controls whether or not the section paint is
+     * auto-populated, and sends a {@link PlotChangeEvent} to all registered
+     * listeners.  This overrides the inherited method to empty the cache of
+     * darker side paints.
+     *
+     * @param auto  auto-populate?
+     */
+    @Override
+    public void setAutoPopulateSectionPaint(boolean auto) {
+        clearDarkerPaints();
+        super.setAutoPopulateSectionPaint(auto);
+    }
+
+    /**
+     * Empties the cache of darker side paints.  The cache is keyed on the
+     * section paint instances, so it would not return a stale paint, but
+     * emptying it when the paints change releases the paints that are no
+     * longer used.
+     */
+    private void clearDarkerPaints() {
+        if (this.darkerPaints != null) {
+            this.darkerPaints.clear();
+        }
+    }
+
+    /**
      * Draws the side of a pie section.
+     * <P>
+     * The sides are clipped from the front and back of the pie with a
+     * {@link ShapeClipper} instead of {@code Area.intersect()}.  They cover
+     * the same region, but they are not the same paths, so the output is not
+     * always identical to the original method: an anti-aliased fill can
+     * differ by 1/255 in a colour component along the edges of a side, a
+     * fill without anti-aliasing can differ in one pixel, and an outline
+     * that starts at a different corner of a side has a different line join
+     * there (around 20 pixels).  {@code ShapeClipperTest} checks these
+     * tolerances.
      *
      * @param g2  the graphics device.
      * @param plotArea  the plot area.
@@ -23,14 +211,43 @@
                             boolean drawFront,
                             boolean drawBack) {
 
+        long mark = DRAW_SIDE_METRICS.start();
         if (getDarkerSides()) {
-             paint = PaintAlpha.darker(paint);
+            // the darker paint is cached for each section paint, so that
+            // redrawing the pie does not create new paints
+            if (this.darkerPaints == null) {
+                this.darkerPaints = new DarkerPaintCache(
+                        DARKER_PAINT_CACHE_SIZE);
+            }
+            paint = this.darkerPaints.getDarker(paint);
+        }
+
+        Shape[] sides;
+        if (this.sideGeometryCached) {
+            if (this.sideCache == null) {
+                this.sideCache = new PieSideCache(SIDE_CACHE_SIZE);
+            }
+            sides = this.sideCache.getSides(plotArea, arc, getDepthFactor(),
+                    drawFront, drawBack);
+        }
+        else {
+            if (this.uncachedSides == null) {
+                this.uncachedSides = new Shape[2];
+            }
+            sides = this.uncachedSides;
+            Arrays.fill(sides, null);
         }
+        mark = DRAW_SIDE_METRICS.geometry(mark);
 
         double start = arc.getAngleStart();
         double extent = arc.getAngleExtent();
         double end = start + extent;
 
+        // each Arc2D.getStartPoint() or getEndPoint() call creates a new
+        // point, so the x-coordinates are read once for all the sides
+        double arcStartX = arc.getStartPoint().getX();
+        double arcEndX = arc.getEndPoint().getX();
+
         g2.setStroke(outlineStroke);
 
         // for CLOCKWISE charts, the extent will be negative...
@@ -43,12 +260,10 @@
                     if (extent > -180.0) {  // the segment is entirely at the
                                             // front of the chart
                         if (drawFront) {
-                            Area side = new Area(new Rectangle2D.Double(
-                                    arc.getEndPoint().getX(), plotArea.getY(),
-                                    arc.getStartPoint().getX()
-                                    - arc.getEndPoint().getX(),
-                                    plotArea.getHeight()));
-                            side.intersect(front);
+                            mark = clipSide(front, arcEndX,
+                                    arcStartX - arcEndX, plotArea, sides, 0,
+                                    mark);
+                            Shape side = sides[0];
                             g2.setPaint(paint);
                             g2.fill(side);
                             g2.setPaint(outlinePaint);
@@ -58,18 +273,15 @@
                     else {  // the segment starts at the front, and wraps all
                             // the way around
                             // the back and finishes at the front again
-                        Area side1 = new Area(new Rectangle2D.Double(
-                                plotArea.getX(), plotArea.getY(),
-                                arc.getStartPoint().getX() - plotArea.getX(),
-                                plotArea.getHeight()));
-                        side1.intersect(front);
-
-                        Area side2 = new Area(new Rectangle2D.Double(
-                                arc.getEndPoint().getX(), plotArea.getY(),
-                                plotArea.getMaxX() - arc.getEndPoint().getX(),
-                                plotArea.getHeight()));
-
-                        side2.intersect(front);
+                        mark = clipSide(front, plotArea.getX(),
+                                arcStartX - plotArea.getX(),
+                                plotArea, sides, 0, mark);
+                        Shape side1 = sides[0];
+
+                        mark = clipSide(front, arcEndX,
+                                plotArea.getMaxX() - arcEndX,
+                                plotArea, sides, 1, mark);
+                        Shape side2 = sides[1];
                         g2.setPaint(paint);
                         if (drawFront) {
                             g2.fill(side1);
@@ -96,11 +308,10 @@
                         // around the left side)
 
                     if (drawBack) {
-                        Area side2 = new Area(new Rectangle2D.Double(
-                                plotArea.getX(), plotArea.getY(),
-                                arc.getEndPoint().getX() - plotArea.getX(),
-                                plotArea.getHeight()));
-                        side2.intersect(back);
+                        mark = clipSide(back, plotArea.getX(),
+                                arcEndX - plotArea.getX(),
+                                plotArea, sides, 1, mark);
+                        Shape side2 = sides[1];
                         g2.setPaint(paint);
                         g2.fill(side2);
                         g2.setPaint(outlinePaint);
@@ -108,11 +319,10 @@
                     }
 
                     if (drawFront) {
-                        Area side1 = new Area(new Rectangle2D.Double(
-                                plotArea.getX(), plotArea.getY(),
-                                arc.getStartPoint().getX() - plotArea.getX(),
-                                plotArea.getHeight()));
-                        side1.intersect(front);
+                        mark = clipSide(front, plotArea.getX(),
+                                arcStartX - plotArea.getX(),
+                                plotArea, sides, 0, mark);
+                        Shape side1 = sides[0];
                         g2.setPaint(paint);
                         g2.fill(side1);
                         g2.setPaint(outlinePaint);
@@ -126,12 +336,10 @@
                 if (!isAngleAtFront(end)) {
                     if (extent > -180.0) {  // whole segment stays at the back
                         if (drawBack) {
-                            Area side = new Area(new Rectangle2D.Double(
-                                    arc.getStartPoint().getX(), plotArea.getY(),
-                                    arc.getEndPoint().getX()
-                                    - arc.getStartPoint().getX(),
-                                    plotArea.getHeight()));
-                            side.intersect(back);
+                            mark = clipSide(back, arcStartX,
+                                    arcEndX - arcStartX, plotArea, sides, 0,
+                                    mark);
+                            Shape side = sides[0];
                             g2.setPaint(paint);
                             g2.fill(side);
                             g2.setPaint(outlinePaint);
@@ -140,18 +348,15 @@
                     }
                     else {  // starts at the back, wraps around front, and
                             // finishes at back again
-                        Area side1 = new Area(new Rectangle2D.Double(
-                                arc.getStartPoint().getX(), plotArea.getY(),
-                                plotArea.getMaxX() - arc.getStartPoint().getX(),
-                                plotArea.getHeight()));
-                        side1.intersect(back);
-
-                        Area side2 = new Area(new Rectangle2D.Double(
-                                plotArea.getX(), plotArea.getY(),
-                                arc.getEndPoint().getX() - plotArea.getX(),
-                                plotArea.getHeight()));
+                        mark = clipSide(back, arcStartX,
+                                plotArea.getMaxX() - arcStartX,
+                                plotArea, sides, 0, mark);
+                        Shape side1 = sides[0];
 
-                        side2.intersect(back);
+                        mark = clipSide(back, plotArea.getX(),
+                                arcEndX - plotArea.getX(),
+                                plotArea, sides, 1, mark);
+                        Shape side2 = sides[1];
 
                         g2.setPaint(paint);
                         if (drawBack) {
@@ -178,11 +383,10 @@
                 else {  // starts at back, finishes at front (CLOCKWISE)
 
                     if (drawBack) {
-                        Area side1 = new Area(new Rectangle2D.Double(
-                                arc.getStartPoint().getX(), plotArea.getY(),
-                                plotArea.getMaxX() - arc.getStartPoint().getX(),
-                                plotArea.getHeight()));
-                        side1.intersect(back);
+                        mark = clipSide(back, arcStartX,
+                                plotArea.getMaxX() - arcStartX,
+                                plotArea, sides, 0, mark);
+                        Shape side1 = sides[0];
                         g2.setPaint(paint);
                         g2.fill(side1);
                         g2.setPaint(outlinePaint);
@@ -190,11 +394,10 @@
                     }
 
                     if (drawFront) {
-                        Area side2 = new Area(new Rectangle2D.Double(
-                                arc.getEndPoint().getX(), plotArea.getY(),
-                                plotArea.getMaxX() - arc.getEndPoint().getX(),
-                                plotArea.getHeight()));
-                        side2.intersect(front);
+                        mark = clipSide(front, arcEndX,
+                                plotArea.getMaxX() - arcEndX,
+                                plotArea, sides, 1, mark);
+                        Shape side2 = sides[1];
                         g2.setPaint(paint);
                         g2.fill(side2);
                         g2.setPaint(outlinePaint);
@@ -212,12 +415,10 @@
 
                     if (extent < 180.0) {  // segment only occupies the front
                         if (drawFront) {
-                            Area side = new Area(new Rectangle2D.Double(
-                                    arc.getStartPoint().getX(), plotArea.getY(),
-                                    arc.getEndPoint().getX()
-                                    - arc.getStartPoint().getX(),
-                                    plotArea.getHeight()));
-                            side.intersect(front);
+                            mark = clipSide(front, arcStartX,
+                                    arcEndX - arcStartX, plotArea, sides, 0,
+                                    mark);
+                            Shape side = sides[0];
                             g2.setPaint(paint);
                             g2.fill(side);
                             g2.setPaint(outlinePaint);
@@ -225,17 +426,15 @@
                         }
                     }
                     else {  // segments wraps right around the back...
-                        Area side1 = new Area(new Rectangle2D.Double(
-                                arc.getStartPoint().getX(), plotArea.getY(),
-                                plotArea.getMaxX() - arc.getStartPoint().getX(),
-                                plotArea.getHeight()));
-                        side1.intersect(front);
-
-                        Area side2 = new Area(new Rectangle2D.Double(
-                                plotArea.getX(), plotArea.getY(),
-                                arc.getEndPoint().getX() - plotArea.getX(),
-                                plotArea.getHeight()));
-                        side2.intersect(front);
+                        mark = clipSide(front, arcStartX,
+                                plotArea.getMaxX() - arcStartX,
+                                plotArea, sides, 0, mark);
+                        Shape side1 = sides[0];
+
+                        mark = clipSide(front, plotArea.getX(),
+                                arcEndX - plotArea.getX(),
+                                plotArea, sides, 1, mark);
+                        Shape side2 = sides[1];
 
                         g2.setPaint(paint);
                         if (drawFront) {
@@ -261,11 +460,10 @@
                 }
                 else {  // segments starts at front and finishes at back...
                     if (drawBack) {
-                        Area side2 = new Area(new Rectangle2D.Double(
-                                arc.getEndPoint().getX(), plotArea.getY(),
-                                plotArea.getMaxX() - arc.getEndPoint().getX(),
-                                plotArea.getHeight()));
-                        side2.intersect(back);
+                        mark = clipSide(back, arcEndX,
+                                plotArea.getMaxX() - arcEndX,
+                                plotArea, sides, 1, mark);
+                        Shape side2 = sides[1];
                         g2.setPaint(paint);
                         g2.fill(side2);
                         g2.setPaint(outlinePaint);
@@ -273,11 +471,10 @@
                     }
 
                     if (drawFront) {
-                        Area side1 = new Area(new Rectangle2D.Double(
-                                arc.getStartPoint().getX(), plotArea.getY(),
-                                plotArea.getMaxX() - arc.getStartPoint().getX(),
-                                plotArea.getHeight()));
-                        side1.intersect(front);
+                        mark = clipSide(front, arcStartX,
+                                plotArea.getMaxX() - arcStartX,
+                                plotArea, sides, 0, mark);
+                        Shape side1 = sides[0];
                         g2.setPaint(paint);
                         g2.fill(side1);
                         g2.setPaint(outlinePaint);
@@ -290,12 +487,10 @@
                 if (!isAngleAtFront(end)) {
                     if (extent < 180.0) {  // and finishes at back
                         if (drawBack) {
-                            Area side = new Area(new Rectangle2D.Double(
-                                    arc.getEndPoint().getX(), plotArea.getY(),
-                                    arc.getStartPoint().getX()
-                                    - arc.getEndPoint().getX(),
-                                    plotArea.getHeight()));
-                            side.intersect(back);
+                            mark = clipSide(back, arcEndX,
+                                    arcStartX - arcEndX, plotArea, sides, 0,
+                                    mark);
+                            Shape side = sides[0];
                             g2.setPaint(paint);
                             g2.fill(side);
                             g2.setPaint(outlinePaint);
@@ -304,17 +499,15 @@
                     }
                     else {  // starts at back and wraps right around to the
                             // back again
-                        Area side1 = new Area(new Rectangle2D.Double(
-                                arc.getStartPoint().getX(), plotArea.getY(),
-                                plotArea.getX() - arc.getStartPoint().getX(),
-                                plotArea.getHeight()));
-                        side1.intersect(back);
-
-                        Area side2 = new Area(new Rectangle2D.Double(
-                                arc.getEndPoint().getX(), plotArea.getY(),
-                                plotArea.getMaxX() - arc.getEndPoint().getX(),
-                                plotArea.getHeight()));
-                        side2.intersect(back);
+                        mark = clipSide(back, arcStartX,
+                                plotArea.getX() - arcStartX,
+                                plotArea, sides, 0, mark);
+                        Shape side1 = sides[0];
+
+                        mark = clipSide(back, arcEndX,
+                                plotArea.getMaxX() - arcEndX,
+                                plotArea, sides, 1, mark);
+                        Shape side2 = sides[1];
 
                         g2.setPaint(paint);
                         if (drawBack) {
@@ -341,11 +534,10 @@
                 else {  // starts at the back and finishes at the front
                         // (wrapping the left side)
                     if (drawBack) {
-                        Area side1 = new Area(new Rectangle2D.Double(
-                                plotArea.getX(), plotArea.getY(),
-                                arc.getStartPoint().getX() - plotArea.getX(),
-                                plotArea.getHeight()));
-                        side1.intersect(back);
+                        mark = clipSide(back, plotArea.getX(),
+                                arcStartX - plotArea.getX(),
+                                plotArea, sides, 0, mark);
+                        Shape side1 = sides[0];
                         g2.setPaint(paint);
                         g2.fill(side1);
                         g2.setPaint(outlinePaint);
@@ -353,11 +545,10 @@
                     }
 
                     if (drawFront) {
-                        Area side2 = new Area(new Rectangle2D.Double(
-                                plotArea.getX(), plotArea.getY(),
-                                arc.getEndPoint().getX() - plotArea.getX(),
-                                plotArea.getHeight()));
-                        side2.intersect(front);
+                        mark = clipSide(front, plotArea.getX(),
+                                arcEndX - plotArea.getX(),
+                                plotArea, sides, 1, mark);
+                        Shape side2 = sides[1];
                         g2.setPaint(paint);
                         g2.fill(side2);
                         g2.setPaint(outlinePaint);
@@ -367,5 +558,80 @@
             }
 
         }
+        DRAW_SIDE_METRICS.draw(mark);
+
+    }
+
+    /**
+     * Finds the part of the front or back of the pie that lies between
+     * {@code x} and {@code x + width}, over the full height of the plot area,
+     * and stores it in {@code sides[index]}.  This is the same region as
+     * intersecting the area with the rectangle
+     * {@code (x, plotArea.getY(), width, plotArea.getHeight())}, but it is
+     * computed directly from the outline of the area, so no {@link Area}
+     * operations are performed.  The path differs from the one the
+     * intersection would give, so the drawn side can differ within the
+     * tolerance described in {@link #drawSide}.
+     * <P>
+     * If {@code sides} is the cache entry for the section, a side that is
+     * already in it is kept, and a new side is stored as a copy.  Otherwise
+     * {@code sides} is emptied by {@code drawSide()}, and the side is stored
+     * as a reusable path that is only valid until the next call that uses
+     * the same index.
+     *
+     * @param area  the front or back of the pie.
+     * @param x  the x-coordinate of the left edge of the side.
+     * @param width  the width of the side (if this is not positive, the side
+     *     is empty).
+     * @param plotArea  the plot area.
+     * @param sides  the sides for the section.
+     * @param index  the index of the side (0 or 1).
+     * @param mark  the last metrics mark in {@code drawSide()}.
+     *
+     * @return The new metrics mark, with the time spent here counted as
+     *     geometry.
+     */
+    private long clipSide(Area area, double x, double width,
+            Rectangle2D plotArea, Shape[] sides, int index, long mark) {
+        if (sides[index] != null) {
+            return mark;
+        }
+        mark = DRAW_SIDE_METRICS.draw(mark);
+        if (this.sideClipper == null) {
+            this.sideClipper = new ShapeClipper();
+            this.sidePaths = new Path2D.Double[] {new Path2D.Double(),
+                    new Path2D.Double()};
+        }
+        Path2D.Double path = this.sidePaths[index];
+        this.sideClipper.clip(area, x, plotArea.getY(), width,
+                plotArea.getHeight(), path);
+        if (sides == this.uncachedSides) {
+            sides[index] = path;
+        }
+        else {
+            sides[index] = new Path2D.Double(path);
+            DRAW_SIDE_METRICS.shapes(1);
+        }
+        return DRAW_SIDE_METRICS.geometry(mark);
+    }
 
-    }
\ No newline at end of file
+    /**
+     * Returns a clone of the plot.  The side geometry cache, the darker
+     * paint cache and the clipping buffers are not shared with the clone,
+     * which creates its own when it is drawn.
+     *
+     * @return A clone.
+     *
+     * @throws CloneNotSupportedException if some component of the plot does
+     *         not support cloning.
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        PiePlot3D clone = (PiePlot3D) super.clone();
+        clone.sideClipper = null;
+        clone.sidePaths = null;
+        clone.uncachedSides = null;
+        clone.sideCache = null;
+        clone.darkerPaints = null;
+        return clone;
+    }
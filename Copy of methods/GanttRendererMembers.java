@@ -0,0 +1,434 @@
+    /** The metrics for {@link #drawTask}. */
+    private static final RendererMetrics.Probe DRAW_TASK_METRICS
+            = RendererMetrics.getProbe("GanttRenderer.drawTask");
+
+    /**
+     * The number of tasks that were skipped in the last pass through the
+     * renderer because they lie outside the data area.  The renderer state
+     * counts them during the pass, and the total is published here when the
+     * pass ends.
+     */
+    private transient volatile int culledTaskCount;
+
+    /**
+     * Returns the number of tasks that were not drawn during the most recent
+     * complete rendering pass because they lie entirely outside the data
+     * area along the range axis.  When a
+     * {@link org.jfree.chart.plot.ParallelCategoryPlot} draws the tasks on
+     * several threads, the count is the total for all of its strips.
+     *
+     * @return The number of culled tasks.
+     */
+    public int getCulledTaskCount() {
+        return this.culledTaskCount;
+    }
+
+    /**
+     * Sets the count returned by {@link #getCulledTaskCount()} to the total
+     * for a pass that was split between several states, each of which drew
+     * a different part of the items (see
+     * {@link CategoryItemRendererState#setPartialPass(boolean)}).
+     *
+     * @param states  the states ({@code null} not permitted).
+     */
+    public void publishCulledTaskCount(
+            Collection<? extends CategoryItemRendererState> states) {
+        Args.nullNotPermitted(states, "states");
+        int total = 0;
+        for (CategoryItemRendererState state : states) {
+            if (state instanceof GanttRendererState) {
+                total += ((GanttRendererState) state).getCulledTaskCount();
+            }
+        }
+        this.culledTaskCount = total;
+    }
+
+    /**
+     * A flag that controls whether the task bars, progress indicators and
+     * outlines are collected and drawn as a few paths at the end of each
+     * pass, rather than one shape at a time.
+     */
+    private boolean batchFills;
+
+    /**
+     * Returns the flag that controls whether the shapes for the tasks are
+     * batched (see {@link #setBatchFills(boolean)}).
+     *
+     * @return A boolean.
+     */
+    public boolean getBatchFills() {
+        return this.batchFills;
+    }
+
+    /**
+     * Sets the flag that controls whether the shapes for the tasks are
+     * batched, and sends a {@link RendererChangeEvent} to all registered
+     * listeners.  When the flag is set, the shapes with the same paint are
+     * combined into one path (see {@link DeferredFills}), which draws a large
+     * chart with a few dozen {@code Graphics2D} calls instead of several for
+     * each task, and greatly reduces the size of SVG or PDF output.  The
+     * parts of each task are painted in the same order as before, but tasks
+     * whose bars overlap or touch (for example, with zero item and category
+     * margins) may be painted in a different order at the edges, and
+     * anti-aliased edges may differ by a shade.  Tasks
+     * with sub-tasks, and charts with shadows, are drawn one shape at a time
+     * in either case.  A renderer that batches its fills is drawn on one
+     * thread by a {@link org.jfree.chart.plot.ParallelCategoryPlot}.  The
+     * default value is {@code false}.
+     *
+     * @param batch  the new flag value.
+     */
+    public void setBatchFills(boolean batch) {
+        this.batchFills = batch;
+        fireChangeEvent();
+    }
+
+    /**
+     * A flag that controls whether the renderer keeps the area that each
+     * task painted in the most recent pass.
+     */
+    private boolean retainTaskBounds;
+
+    /**
+     * The areas painted in the most recent pass ({@code null} unless
+     * {@code retainTaskBounds} is set).
+     */
+    private transient RetainedTaskBounds taskBounds;
+
+    /**
+     * A flag that makes the renderer draw nothing, not even the outline of
+     * the plot, which {@link IncrementalGanttPainter} sets to draw the
+     * chart without its tasks.  The flag does not fire change events.
+     */
+    transient boolean backgroundOnly;
+
+    /**
+     * Returns the flag that controls whether the renderer keeps the area
+     * that each task painted (see {@link #setRetainTaskBounds(boolean)}).
+     *
+     * @return A boolean.
+     */
+    public boolean getRetainTaskBounds() {
+        return this.retainTaskBounds;
+    }
+
+    /**
+     * Sets the flag that controls whether the renderer keeps the area that
+     * each task painted in the most recent pass, and sends a
+     * {@link RendererChangeEvent} to all registered listeners.  The areas
+     * (see {@link #getTaskBounds(int, int)}) let an
+     * {@link IncrementalGanttPainter} repaint a changed task, and the tasks
+     * that overlap it, without drawing the whole chart.  Keeping them costs
+     * four doubles per task.  A renderer that keeps the areas is drawn on
+     * one thread by a {@link org.jfree.chart.plot.ParallelCategoryPlot}.
+     * The default value is {@code false}.
+     *
+     * @param retain  the new flag value.
+     */
+    public void setRetainTaskBounds(boolean retain) {
+        this.retainTaskBounds = retain;
+        if (!retain) {
+            this.taskBounds = null;
+        }
+        fireChangeEvent();
+    }
+
+    /**
+     * Returns the area that a task painted in the most recent pass: the bar,
+     * widened by the distance that the shadow, outline and anti-aliasing
+     * can reach beyond it.  This requires the
+     * {@link #setRetainTaskBounds(boolean)} flag.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return A new rectangle, or {@code null} if the task was not painted,
+     *     was drawn with sub-tasks or an item label (so that the area is not
+     *     known), or the areas are not kept.
+     */
+    public Rectangle2D getTaskBounds(int row, int column) {
+        RetainedTaskBounds retained = this.taskBounds;
+        if (retained == null || row < 0 || row >= retained.getRowCount()
+                || column < 0 || column >= retained.getColumnCount()) {
+            return null;
+        }
+        return retained.getBounds(row, column);
+    }
+
+    /**
+     * Returns the areas painted in the most recent pass.
+     *
+     * @return The areas ({@code null} if they are not kept).
+     */
+    RetainedTaskBounds getRetainedTaskBounds() {
+        return this.taskBounds;
+    }
+
+    /**
+     * Creates a new state instance.
+     *
+     * @param info  the plot rendering info ({@code null} permitted).
+     *
+     * @return The new state instance (never {@code null}).
+     */
+    @Override
+    protected CategoryItemRendererState createState(PlotRenderingInfo info) {
+        return new GanttRendererState(info);
+    }
+
+    /**
+     * Initialises the renderer and returns a state object that will be
+     * passed to subsequent calls to the drawItem method.  If the dataset is
+     * a {@link PrimitiveGanttCategoryDataset}, this finds the tasks that
+     * overlap the visible range, widened by the largest cull margin of any
+     * task (unless some task is never culled, such as one with a visible
+     * item label).  If the renderer keeps the area of each task, the
+     * areas from the previous pass are cleared.
+     *
+     * @param g2  the graphics device.
+     * @param dataArea  the area inside the axes.
+     * @param plot  the plot.
+     * @param rendererIndex  the renderer index.
+     * @param info  collects chart rendering information for return to caller.
+     *
+     * @return The renderer state.
+     */
+    @Override
+    public CategoryItemRendererState initialise(Graphics2D g2,
+            Rectangle2D dataArea, CategoryPlot plot, int rendererIndex,
+            PlotRenderingInfo info) {
+        CategoryItemRendererState state = super.initialise(g2, dataArea, plot,
+                rendererIndex, info);
+        if (this.backgroundOnly) {
+            return state;
+        }
+        CategoryDataset dataset = plot.getDataset(rendererIndex);
+        if (this.retainTaskBounds) {
+            if (this.taskBounds == null) {
+                this.taskBounds = new RetainedTaskBounds();
+            }
+            this.taskBounds.reset(state, dataset == null ? 0
+                    : dataset.getRowCount(), dataset == null ? 0
+                    : dataset.getColumnCount());
+        }
+        if (state instanceof GanttRendererState
+                && dataset instanceof PrimitiveGanttCategoryDataset
+                && dataset.getColumnCount() > 0) {
+            // widen the range by the largest margin that the tasks need
+            double margin = calculateMaximumCullMargin(dataset);
+            if (Double.isNaN(margin)) {
+                return state;
+            }
+            ValueAxis rangeAxis = plot.getRangeAxisForDataset(rendererIndex);
+            RectangleEdge edge = plot.getRangeAxisEdge();
+            double v0, v1;
+            if (plot.getOrientation() == PlotOrientation.HORIZONTAL) {
+                v0 = rangeAxis.java2DToValue(dataArea.getMinX() - margin,
+                        dataArea, edge);
+                v1 = rangeAxis.java2DToValue(dataArea.getMaxX() + margin,
+                        dataArea, edge);
+            }
+            else {
+                v0 = rangeAxis.java2DToValue(dataArea.getMinY() - margin,
+                        dataArea, edge);
+                v1 = rangeAxis.java2DToValue(dataArea.getMaxY() + margin,
+                        dataArea, edge);
+            }
+            ((GanttRendererState) state).findVisibleItems(
+                    (PrimitiveGanttCategoryDataset) dataset, Math.min(v0, v1),
+                    Math.max(v0, v1), margin);
+        }
+        return state;
+    }
+
+    /**
+     * Draws the bar for a single (series, category) data item.
+     *
+     * @param g2  the graphics device.
+     * @param state  the renderer state.
+     * @param dataArea  the data area.
+     * @param plot  the plot.
+     * @param domainAxis  the domain axis.
+     * @param rangeAxis  the range axis.
+     * @param dataset  the dataset.
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     * @param pass  the pass index.
+     */
+    @Override
+    public void drawItem(Graphics2D g2, CategoryItemRendererState state,
+            Rectangle2D dataArea, CategoryPlot plot, CategoryAxis domainAxis,
+            ValueAxis rangeAxis, CategoryDataset dataset, int row,
+            int column, int pass) {
+
+         if (this.backgroundOnly) {
+             return;
+         }
+         if (dataset instanceof GanttCategoryDataset) {
+             // skip a task that the dataset's index places outside the
+             // visible range, unless it could be taken by the crosshair
+             CategoryCrosshairState crosshairState = state.getCrosshairState();
+             if (state instanceof GanttRendererState
+                     && (crosshairState == null
+                     || crosshairState.getAnchor() == null)
+                     && ((GanttRendererState) state).isItemOutside(row,
+                     column, calculateCullMargin(row, column))) {
+                 ((GanttRendererState) state).addCulledTask();
+                 if (this.taskBounds != null) {
+                     this.taskBounds.clear(row, column);
+                 }
+             }
+             else {
+                 // drawTask() records the area of the task; one drawn with
+                 // sub-tasks keeps an unknown area
+                 if (this.taskBounds != null) {
+                     this.taskBounds.setUnknown(row, column);
+                 }
+                 GanttCategoryDataset gcd = (GanttCategoryDataset) dataset;
+                 drawTasks(g2, state, dataArea, plot, domainAxis, rangeAxis,
+                         gcd, row, column);
+             }
+             if (isLastItem(plot, dataset, row, column)) {
+                 if (this.batchFills) {
+                     state.flushDeferredFills();
+                 }
+                 // a plot that splits the pass publishes the total itself
+                 if (state instanceof GanttRendererState
+                         && !state.isPartialPass()) {
+                     this.culledTaskCount = ((GanttRendererState) state)
+                             .getCulledTaskCount();
+                 }
+             }
+         }
+         else {  // let the superclass handle it...
+             super.drawItem(g2, state, dataArea, plot, domainAxis, rangeAxis,
+                     dataset, row, column, pass);
+         }
+
+     }
+
+    /**
+     * Draws an outline for the data area, unless the renderer is drawing the
+     * chart without its tasks for an {@link IncrementalGanttPainter} (which
+     * draws the outline over the tasks that it repaints).
+     *
+     * @param g2  the graphics device.
+     * @param plot  the plot.
+     * @param dataArea  the data area.
+     */
+    @Override
+    public void drawOutline(Graphics2D g2, CategoryPlot plot,
+            Rectangle2D dataArea) {
+        if (!this.backgroundOnly) {
+            super.drawOutline(g2, plot, dataArea);
+        }
+    }
+
+    /**
+     * Returns {@code true} if an item is the last one that the plot draws in
+     * each pass, given its row and column rendering order.
+     *
+     * @param plot  the plot.
+     * @param dataset  the dataset.
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return A boolean.
+     */
+    private static boolean isLastItem(CategoryPlot plot,
+            CategoryDataset dataset, int row, int column) {
+        int lastColumn = plot.getColumnRenderingOrder() == SortOrder.ASCENDING
+                ? dataset.getColumnCount() - 1 : 0;
+        int lastRow = plot.getRowRenderingOrder() == SortOrder.ASCENDING
+                ? dataset.getRowCount() - 1 : 0;
+        return row == lastRow && column == lastColumn;
+    }
+
+    /**
+     * Returns {@code true} if a task bar spanning the given Java2D range
+     * coordinates cannot paint anything inside the data area.
+     *
+     * @param orientation  the plot orientation.
+     * @param dataArea  the data plot area.
+     * @param java2d0  the lower Java2D coordinate of the bar.
+     * @param java2d1  the upper Java2D coordinate of the bar.
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return A boolean.
+     */
+    private boolean isTaskOutsideDataArea(PlotOrientation orientation,
+            Rectangle2D dataArea, double java2d0, double java2d1, int row,
+            int column) {
+        double margin = calculateCullMargin(row, column);
+        if (Double.isNaN(margin)) {
+            return false;
+        }
+        double min, max;
+        if (orientation == PlotOrientation.HORIZONTAL) {
+            min = dataArea.getMinX();
+            max = dataArea.getMaxX();
+        }
+        else {
+            min = dataArea.getMinY();
+            max = dataArea.getMaxY();
+        }
+        return java2d1 < min - margin || java2d0 > max + margin;
+    }
+
+    /**
+     * Returns the largest distance (in Java2D units) that any task bar in a
+     * dataset can paint beyond its own bounds along the range axis, or
+     * {@code Double.NaN} if some task should never be culled.
+     *
+     * @param dataset  the dataset.
+     *
+     * @return The margin, or {@code Double.NaN}.
+     */
+    private double calculateMaximumCullMargin(CategoryDataset dataset) {
+        double margin = 0.0;
+        for (int row = 0; row < dataset.getRowCount(); row++) {
+            for (int column = 0; column < dataset.getColumnCount(); column++) {
+                double m = calculateCullMargin(row, column);
+                if (Double.isNaN(m)) {
+                    return Double.NaN;
+                }
+                margin = Math.max(margin, m);
+            }
+        }
+        return margin;
+    }
+
+    /**
+     * Returns the distance (in Java2D units) that a task bar can paint
+     * beyond its own bounds along the range axis, allowing for the shadow
+     * and outline, or {@code Double.NaN} if the task should never be culled.
+     * Tasks with a visible item label are never culled, since the label may
+     * be positioned outside the bar.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The margin, or {@code Double.NaN}.
+     */
+    private double calculateCullMargin(int row, int column) {
+        if (getItemLabelGenerator(row, column) != null
+                && isItemLabelVisible(row, column)) {
+            return Double.NaN;
+        }
+        // one pixel for anti-aliasing
+        double margin = 1.0;
+        if (getShadowsVisible()) {
+            margin += Math.max(Math.abs(getShadowXOffset()),
+                    Math.abs(getShadowYOffset()));
+        }
+        if (isDrawBarOutline()) {
+            Stroke stroke = getItemOutlineStroke(row, column);
+            if (!(stroke instanceof BasicStroke)) {
+                return Double.NaN;
+            }
+            // a mitred corner reaches further than half the line width
+            margin += ((BasicStroke) stroke).getLineWidth();
+        }
+        return margin;
+    }
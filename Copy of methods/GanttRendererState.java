@@ -0,0 +1,105 @@
+package org.jfree.chart.renderer.category;
+
+import java.util.BitSet;
+import org.jfree.chart.plot.PlotRenderingInfo;
+import org.jfree.data.gantt.PrimitiveGanttCategoryDataset;
+
+/**
+ * The state for a {@link GanttRenderer} during one drawing pass.  When the
+ * dataset is a {@link PrimitiveGanttCategoryDataset}, the state holds the
+ * set of tasks that overlap the visible range (found with the dataset's
+ * interval tree when the pass starts), so that the renderer can skip the
+ * other tasks without reading their values.
+ */
+class GanttRendererState extends CategoryItemRendererState {
+
+    /** The tasks that overlap the visible range ({@code null} if unknown). */
+    private BitSet visibleItems;
+
+    /** The column count of the dataset when the visible tasks were found. */
+    private int columnCount;
+
+    /**
+     * The margin (in Java2D units) that the visible range was widened by,
+     * or -1 if the visible tasks are unknown.
+     */
+    private double margin;
+
+    /**
+     * The number of tasks that were not drawn with this state because they
+     * lie outside the data area.
+     */
+    private int culledTaskCount;
+
+    /**
+     * Creates a new state.
+     *
+     * @param info  the plot rendering info ({@code null} permitted).
+     */
+    GanttRendererState(PlotRenderingInfo info) {
+        super(info);
+        this.margin = -1.0;
+    }
+
+    /**
+     * Finds the tasks that overlap a range of values, and records them as
+     * the visible tasks for this pass.
+     *
+     * @param dataset  the dataset.
+     * @param lower  the lower bound of the range.
+     * @param upper  the upper bound of the range.
+     * @param margin  the margin (in Java2D units) that the range includes
+     *     on either side of the data area.
+     */
+    void findVisibleItems(PrimitiveGanttCategoryDataset dataset,
+            double lower, double upper, double margin) {
+        this.columnCount = dataset.getColumnCount();
+        this.visibleItems = new BitSet(dataset.getRowCount()
+                * this.columnCount);
+        dataset.findItems(lower, upper, this.visibleItems);
+        this.margin = margin;
+    }
+
+    /**
+     * Returns the number of tasks that were not drawn with this state
+     * because they lie outside the data area.
+     *
+     * @return The count.
+     */
+    int getCulledTaskCount() {
+        return this.culledTaskCount;
+    }
+
+    /**
+     * Counts a task that is not drawn because it lies outside the data area.
+     */
+    void addCulledTask() {
+        this.culledTaskCount++;
+    }
+
+    /**
+     * Forgets the visible tasks, so that no task is skipped for lying
+     * outside the visible range.  This is for drawing tasks with the state
+     * after the pass, when the dataset may have changed.
+     */
+    void clearVisibleItems() {
+        this.visibleItems = null;
+        this.margin = -1.0;
+    }
+
+    /**
+     * Returns {@code true} if a task is known to lie outside the visible
+     * range, widened by at least the given margin.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     * @param margin  the margin (in Java2D units) that the task needs.
+     *
+     * @return A boolean.
+     */
+    boolean isItemOutside(int row, int column, double margin) {
+        return this.visibleItems != null && margin <= this.margin
+                && !this.visibleItems.get(row * this.columnCount + column);
+    }
+
+}
@@ -0,0 +1,488 @@
+package org.jfree.chart.renderer.category;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.util.Collection;
+import org.jfree.chart.ChartRenderingInfo;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.ui.Layer;
+import org.jfree.chart.util.Args;
+import org.jfree.chart.util.SortOrder;
+import org.jfree.data.Range;
+import org.jfree.data.category.CategoryDataset;
+
+/**
+ * Keeps an image of a Gantt chart up to date by repainting only the part of
+ * the image that a changed task covers.  A schedule in which one task
+ * changes at a time (for example, the progress of a running task) can then
+ * be redrawn at a cost that depends on the number of tasks near the changed
+ * one, rather than the number of tasks in the chart.
+ * <P>
+ * When the painter paints the chart in full, it draws it twice: once
+ * without the tasks and the outline of the data area, kept as a background
+ * image, and once as usual, into the image returned by {@link #getImage()}.
+ * The renderer keeps the area that each task painted (see
+ * {@link GanttRenderer#setRetainTaskBounds(boolean)}).  When
+ * {@link #update(int, int)} is called for a task, the painter finds the new
+ * area of the task, copies its old and new areas from the background image,
+ * and then draws, clipped to them, the tasks whose areas overlap them (in
+ * the plot's rendering order) and the outline of the data area.  The tasks
+ * are found from the positions of the categories, so no other task is
+ * looked at.  The result is the same, pixel for pixel, as painting the
+ * whole chart, except that when the renderer batches its fills (see
+ * {@link GanttRenderer#setBatchFills(boolean)}), tasks whose bars overlap
+ * can be layered differently where they overlap.
+ * <P>
+ * An update reuses the image only when nothing else in the chart has
+ * changed, so the chart is painted in full instead when the range of the
+ * range axis, the number of rows or columns, or the orientation has changed
+ * since the last full paint, and when the plot draws something over the
+ * tasks, or the area of a task is not known: foreground markers,
+ * annotations, crosshairs, a shadow generator, a second dataset, item labels
+ * and sub-tasks.  Changes to the keys (which can change the layout of the
+ * domain axis), the titles or the legend are not detected, so call
+ * {@link #paint()} after them; and call {@link #update(int, int)} for every
+ * task that has changed.
+ * <P>
+ * The chart must have a {@link CategoryPlot} with a {@link GanttRenderer}
+ * for its dataset.  The chart is drawn without an entity collection, so the
+ * painter does not provide tool tips.  Instances are not thread-safe.
+ */
+public class IncrementalGanttPainter {
+
+    /** The chart. */
+    private final JFreeChart chart;
+
+    /** The width of the image. */
+    private final int width;
+
+    /** The height of the image. */
+    private final int height;
+
+    /** The image of the chart ({@code null} until it is painted). */
+    private BufferedImage image;
+
+    /** The image of the chart without its tasks. */
+    private BufferedImage background;
+
+    /** The data area for the last full paint. */
+    private Rectangle2D dataArea;
+
+    /** The range of the range axis for the last full paint. */
+    private Range range;
+
+    /** The plot orientation for the last full paint. */
+    private PlotOrientation orientation;
+
+    /** The number of rows in the dataset for the last full paint. */
+    private int rowCount;
+
+    /** The number of columns in the dataset for the last full paint. */
+    private int columnCount;
+
+    /** The number of times the chart was painted in full. */
+    private long paintCount;
+
+    /** The number of updates that did not paint the chart in full. */
+    private long updateCount;
+
+    /** The number of tasks drawn again by the last update. */
+    private int redrawnTaskCount;
+
+    /**
+     * Creates a new painter.  The renderer is set to retain the bounds of
+     * its tasks, and the chart is painted when the image is first needed.
+     *
+     * @param chart  the chart ({@code null} not permitted).
+     * @param width  the width of the image (greater than zero).
+     * @param height  the height of the image (greater than zero).
+     */
+    public IncrementalGanttPainter(JFreeChart chart, int width, int height) {
+        Args.nullNotPermitted(chart, "chart");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException(
+                    "Requires width > 0 and height > 0.");
+        }
+        if (!(chart.getPlot() instanceof CategoryPlot)
+                || !(((CategoryPlot) chart.getPlot()).getRenderer()
+                instanceof GanttRenderer)) {
+            throw new IllegalArgumentException(
+                    "Requires a CategoryPlot with a GanttRenderer.");
+        }
+        this.chart = chart;
+        this.width = width;
+        this.height = height;
+        GanttRenderer renderer = getRenderer();
+        if (!renderer.getRetainTaskBounds()) {
+            renderer.setRetainTaskBounds(true);
+        }
+    }
+
+    /**
+     * Returns the chart.
+     *
+     * @return The chart (never {@code null}).
+     */
+    public JFreeChart getChart() {
+        return this.chart;
+    }
+
+    /**
+     * Returns the image of the chart, painting it first if it has not been
+     * painted.  The same image is returned (and changed by later calls to
+     * {@link #paint()} and {@link #update(int, int)}) until the painter is
+     * discarded.
+     *
+     * @return The image (never {@code null}).
+     */
+    public BufferedImage getImage() {
+        if (this.image == null) {
+            paint();
+        }
+        return this.image;
+    }
+
+    /**
+     * Returns the number of times the chart has been painted in full,
+     * including the updates that had to paint the whole chart.
+     *
+     * @return The count.
+     */
+    public long getPaintCount() {
+        return this.paintCount;
+    }
+
+    /**
+     * Returns the number of updates that repainted part of the image.
+     *
+     * @return The count.
+     */
+    public long getUpdateCount() {
+        return this.updateCount;
+    }
+
+    /**
+     * Returns the number of tasks that the last update drew again
+     * (including the changed task), or -1 if it painted the whole chart.
+     *
+     * @return The count.
+     */
+    public int getRedrawnTaskCount() {
+        return this.redrawnTaskCount;
+    }
+
+    /**
+     * Paints the whole chart.
+     *
+     * @return The area of the image that was painted (all of it).
+     */
+    public Rectangle paint() {
+        CategoryPlot plot = (CategoryPlot) this.chart.getPlot();
+        GanttRenderer renderer = getRenderer();
+        if (!renderer.getRetainTaskBounds()) {
+            renderer.setRetainTaskBounds(true);
+        }
+        if (this.image == null) {
+            this.image = new BufferedImage(this.width, this.height,
+                    BufferedImage.TYPE_INT_ARGB);
+            this.background = new BufferedImage(this.width, this.height,
+                    BufferedImage.TYPE_INT_ARGB);
+        }
+        renderer.backgroundOnly = true;
+        try {
+            drawChart(this.background, null);
+        }
+        finally {
+            renderer.backgroundOnly = false;
+        }
+        ChartRenderingInfo info = new ChartRenderingInfo(null);
+        drawChart(this.image, info);
+        this.dataArea = (Rectangle2D) info.getPlotInfo().getDataArea().clone();
+        ValueAxis rangeAxis = plot.getRangeAxis();
+        this.range = rangeAxis == null ? null : rangeAxis.getRange();
+        this.orientation = plot.getOrientation();
+        CategoryDataset dataset = plot.getDataset();
+        this.rowCount = dataset == null ? 0 : dataset.getRowCount();
+        this.columnCount = dataset == null ? 0 : dataset.getColumnCount();
+        this.paintCount++;
+        this.redrawnTaskCount = -1;
+        return new Rectangle(0, 0, this.width, this.height);
+    }
+
+    /**
+     * Repaints the part of the image covered by a task, before and after a
+     * change to the task, or paints the whole chart if the change cannot be
+     * drawn on its own (see the class description).
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The area of the image that was painted (possibly empty).
+     */
+    public Rectangle update(int row, int column) {
+        CategoryPlot plot = (CategoryPlot) this.chart.getPlot();
+        CategoryDataset dataset = plot.getDataset();
+        if (dataset == null || row < 0 || row >= dataset.getRowCount()
+                || column < 0 || column >= dataset.getColumnCount()) {
+            throw new IllegalArgumentException("Invalid row or column index.");
+        }
+        GanttRenderer renderer = getRenderer();
+        RetainedTaskBounds retained = renderer.getRetainedTaskBounds();
+        if (!canUpdate(plot, dataset, retained)) {
+            return paint();
+        }
+        CategoryItemRendererState state = retained.getState();
+        if (state instanceof GanttRendererState) {
+            // the visible tasks were found before the change
+            ((GanttRendererState) state).clearVisibleItems();
+        }
+        state.setCrosshairState(null);
+        // the tasks drawn again do not change the renderer's totals
+        state.setPartialPass(true);
+        CategoryAxis domainAxis = plot.getDomainAxis();
+        ValueAxis rangeAxis = plot.getRangeAxis();
+        Rectangle2D oldBounds = retained.getBounds(row, column);
+
+        Graphics2D g2 = this.image.createGraphics();
+        try {
+            // find the new area of the task by drawing it with nothing
+            // visible
+            g2.setClip(0, 0, 0, 0);
+            renderer.drawItem(g2, state, this.dataArea, plot, domainAxis,
+                    rangeAxis, dataset, row, column, 0);
+            state.flushDeferredFills();
+            if (retained.isUnknown(row, column)) {
+                return paint();
+            }
+            Rectangle dirty = findDirtyRegion(oldBounds,
+                    retained.getBounds(row, column));
+            this.updateCount++;
+            this.redrawnTaskCount = 0;
+            if (dirty.isEmpty()) {
+                return dirty;
+            }
+
+            Raster source = this.background.getRaster().createChild(dirty.x,
+                    dirty.y, dirty.width, dirty.height, dirty.x, dirty.y,
+                    null);
+            this.image.getRaster().setRect(source);
+
+            // draw the tasks as the plot does, but clipped to the region
+            g2.addRenderingHints(this.chart.getRenderingHints());
+            g2.setClip(dirty);
+            g2.clip(this.dataArea);
+            Composite originalComposite = g2.getComposite();
+            g2.setComposite(AlphaComposite.getInstance(
+                    AlphaComposite.SRC_OVER, plot.getForegroundAlpha()));
+            retained.setLocked(true);
+            try {
+                this.redrawnTaskCount = drawTasks(g2, plot, renderer, state,
+                        retained, dataset, dirty);
+                state.flushDeferredFills();
+            }
+            finally {
+                retained.setLocked(false);
+            }
+            g2.setComposite(originalComposite);
+            g2.setClip(dirty);
+            if (plot.isOutlineVisible()) {
+                renderer.drawOutline(g2, plot, this.dataArea);
+            }
+            return dirty;
+        }
+        finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Returns the renderer.
+     *
+     * @return The renderer.
+     */
+    private GanttRenderer getRenderer() {
+        return (GanttRenderer) ((CategoryPlot) this.chart.getPlot())
+                .getRenderer();
+    }
+
+    /**
+     * Returns {@code true} if a task can be repainted without painting the
+     * whole chart.
+     *
+     * @param plot  the plot.
+     * @param dataset  the dataset.
+     * @param retained  the areas of the tasks ({@code null} permitted).
+     *
+     * @return A boolean.
+     */
+    private boolean canUpdate(CategoryPlot plot, CategoryDataset dataset,
+            RetainedTaskBounds retained) {
+        if (this.image == null || retained == null
+                || retained.getState() == null
+                || retained.getUnknownCount() > 0
+                || retained.getRowCount() != this.rowCount
+                || retained.getColumnCount() != this.columnCount
+                || dataset.getRowCount() != this.rowCount
+                || dataset.getColumnCount() != this.columnCount) {
+            return false;
+        }
+        ValueAxis rangeAxis = plot.getRangeAxis();
+        if (rangeAxis == null || plot.getDomainAxis() == null
+                || !rangeAxis.getRange().equals(this.range)
+                || plot.getOrientation() != this.orientation) {
+            return false;
+        }
+        // the plot must draw nothing over the tasks
+        return plot.getDatasetCount() == 1 && plot.getRendererCount() == 1
+                && isEmpty(plot.getDomainMarkers(Layer.FOREGROUND))
+                && isEmpty(plot.getRangeMarkers(Layer.FOREGROUND))
+                && plot.getAnnotations().isEmpty()
+                && !plot.isDomainCrosshairVisible()
+                && !plot.isRangeCrosshairVisible()
+                && plot.getShadowGenerator() == null;
+    }
+
+    /**
+     * Returns {@code true} if a collection is {@code null} or empty.
+     *
+     * @param c  the collection ({@code null} permitted).
+     *
+     * @return A boolean.
+     */
+    private static boolean isEmpty(Collection c) {
+        return c == null || c.isEmpty();
+    }
+
+    /**
+     * Returns the pixels of the image that a task can have changed: its old
+     * and new areas, within the data area.
+     *
+     * @param oldBounds  the old area ({@code null} permitted).
+     * @param newBounds  the new area ({@code null} permitted).
+     *
+     * @return The region (possibly empty).
+     */
+    private Rectangle findDirtyRegion(Rectangle2D oldBounds,
+            Rectangle2D newBounds) {
+        Rectangle2D area = oldBounds;
+        if (newBounds != null) {
+            area = area == null ? newBounds : area.createUnion(newBounds);
+        }
+        if (area == null) {
+            return new Rectangle();
+        }
+        Rectangle2D.intersect(area, this.dataArea, area);
+        if (area.getWidth() <= 0.0 || area.getHeight() <= 0.0) {
+            return new Rectangle();
+        }
+        int x0 = (int) Math.floor(area.getMinX());
+        int y0 = (int) Math.floor(area.getMinY());
+        int x1 = (int) Math.ceil(area.getMaxX());
+        int y1 = (int) Math.ceil(area.getMaxY());
+        return new Rectangle(x0, y0, x1 - x0, y1 - y0).intersection(
+                new Rectangle(0, 0, this.width, this.height));
+    }
+
+    /**
+     * Draws the tasks whose areas overlap a region, in the plot's rendering
+     * order.  The columns that can reach the region are found by a binary
+     * search on the category positions.
+     *
+     * @param g2  the graphics device.
+     * @param plot  the plot.
+     * @param renderer  the renderer.
+     * @param state  the renderer state.
+     * @param retained  the areas of the tasks.
+     * @param dataset  the dataset.
+     * @param region  the region.
+     *
+     * @return The number of tasks drawn.
+     */
+    private int drawTasks(Graphics2D g2, CategoryPlot plot,
+            GanttRenderer renderer, CategoryItemRendererState state,
+            RetainedTaskBounds retained, CategoryDataset dataset,
+            Rectangle region) {
+        CategoryAxis domainAxis = plot.getDomainAxis();
+        ValueAxis rangeAxis = plot.getRangeAxis();
+        CategoryLayout layout = state.getCategoryLayout(domainAxis, dataset,
+                this.dataArea, plot.getDomainAxisEdge());
+        double reach = retained.getReach();
+        double lower, upper;
+        if (plot.getOrientation() == PlotOrientation.HORIZONTAL) {
+            lower = region.getMinY() - reach;
+            upper = region.getMaxY() + reach;
+        }
+        else {
+            lower = region.getMinX() - reach;
+            upper = region.getMaxX() + reach;
+        }
+        // the first column that ends at or after the lower bound (the
+        // categories are placed in order along the axis)
+        int columns = dataset.getColumnCount();
+        int low = 0;
+        int high = columns;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (layout.getCategoryEnd(mid) < lower) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        int first = low;
+        int last = first - 1;
+        while (last + 1 < columns && layout.getCategoryStart(last + 1)
+                <= upper) {
+            last++;
+        }
+        boolean ascendingColumns
+                = plot.getColumnRenderingOrder() == SortOrder.ASCENDING;
+        boolean ascendingRows
+                = plot.getRowRenderingOrder() == SortOrder.ASCENDING;
+        int rows = dataset.getRowCount();
+        int count = 0;
+        for (int i = first; i <= last; i++) {
+            int column = ascendingColumns ? i : first + last - i;
+            for (int j = 0; j < rows; j++) {
+                int row = ascendingRows ? j : rows - 1 - j;
+                if (retained.intersects(row, column, region)) {
+                    renderer.drawItem(g2, state, this.dataArea, plot,
+                            domainAxis, rangeAxis, dataset, row, column, 0);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Draws the chart into an image, which is cleared first.
+     *
+     * @param target  the image.
+     * @param info  the rendering info ({@code null} permitted).
+     */
+    private void drawChart(BufferedImage target, ChartRenderingInfo info) {
+        Graphics2D g2 = target.createGraphics();
+        try {
+            g2.setComposite(AlphaComposite.Clear);
+            g2.fillRect(0, 0, this.width, this.height);
+            g2.setComposite(AlphaComposite.SrcOver);
+            this.chart.draw(g2, new Rectangle2D.Double(0, 0, this.width,
+                    this.height), null, info);
+        }
+        finally {
+            g2.dispose();
+        }
+    }
+
+}
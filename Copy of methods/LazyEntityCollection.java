@@ -0,0 +1,673 @@
+package org.jfree.chart.entity;
+
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.jfree.chart.util.Args;
+import org.jfree.chart.util.PublicCloneable;
+
+/**
+ * An {@link EntityCollection} that renderers can fill without creating the
+ * entities.  For each item, a renderer that supports this collection records
+ * an {@link EntityFactory}, the dataset, the series (or row) and item (or
+ * column) indices, and the hotspot in primitive arrays: the bounds for a
+ * rectangle or ellipse, and the path coordinates (as {@code float} values)
+ * for any other shape.  The entity, with its tool tip and URL text, is only
+ * created when it is asked for: by {@link #getEntity(int)}, when
+ * {@link #getEntity(double, double)} finds it under the point, or when the
+ * entities are listed (for an image map, for example).  Once created, an
+ * entity is kept.
+ * <P>
+ * Hit-testing gives the same results as a {@link StandardEntityCollection}
+ * holding the same entities, except that the coordinates of a path hotspot
+ * are held with {@code float} precision.  Since the tool tip and URL text is
+ * generated when the entity is created, it reflects the dataset and the
+ * renderer's generators at that time, so the dataset should not be changed
+ * while the collection is in use (the same is true for the hotspots in any
+ * entity collection).
+ * <P>
+ * Entities can also be added directly with {@link #add(ChartEntity)}.  A
+ * serialized collection holds the entities themselves, so serializing it
+ * creates them all.
+ *
+ * @see StandardEntityCollection
+ */
+public class LazyEntityCollection implements EntityCollection, Cloneable,
+        PublicCloneable, Serializable {
+
+    /** For serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates the entity for an item recorded in a
+     * {@link LazyEntityCollection}.
+     */
+    public interface EntityFactory {
+
+        /**
+         * Creates an entity.
+         *
+         * @param owner  the owner passed when the item was recorded (usually
+         *     the renderer).
+         * @param source  the source passed when the item was recorded
+         *     (usually the dataset).
+         * @param series  the series (or row) index.
+         * @param item  the item (or column) index.
+         * @param area  the hotspot (a new shape, equal to the one recorded).
+         *
+         * @return The entity (never {@code null}).
+         */
+        ChartEntity createEntity(Object owner, Object source, int series,
+                int item, Shape area);
+
+    }
+
+    /** The shape code for an entity added directly. */
+    private static final int ENTITY = -1;
+
+    /** The shape code for a rectangle hotspot. */
+    private static final int RECTANGLE = -2;
+
+    /** The shape code for an ellipse hotspot. */
+    private static final int ELLIPSE = -3;
+
+    /** The number of entities. */
+    private transient int count;
+
+    /** The origin (index into the origin arrays) of each entity. */
+    private transient int[] origins;
+
+    /** The series and item indices (two for each entity). */
+    private transient int[] keys;
+
+    /** The bounds of each hotspot (x, y, width, height). */
+    private transient double[] frames;
+
+    /**
+     * The shape of each hotspot: {@link #ENTITY}, {@link #RECTANGLE},
+     * {@link #ELLIPSE}, or the offset of its path in {@code paths}.
+     */
+    private transient int[] shapes;
+
+    /**
+     * The paths, each stored as its winding rule and segment count followed
+     * by the type and coordinates of each segment.
+     */
+    private transient float[] paths;
+
+    /** The number of values used in {@code paths}. */
+    private transient int pathsSize;
+
+    /** The entities that have been created ({@code null} until needed). */
+    private transient ChartEntity[] entities;
+
+    /** The factory for each origin. */
+    private transient EntityFactory[] factories;
+
+    /** The owner for each origin. */
+    private transient Object[] owners;
+
+    /** The source for each origin. */
+    private transient Object[] sources;
+
+    /** The number of origins. */
+    private transient int originCount;
+
+    /** A path used for hit-testing path hotspots. */
+    private transient Path2D.Float testPath;
+
+    /**
+     * Constructs a new entity collection (initially empty).
+     */
+    public LazyEntityCollection() {
+        init();
+    }
+
+    /**
+     * Returns the number of entities in the collection.
+     *
+     * @return The entity count.
+     */
+    @Override
+    public int getEntityCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns a chart entity from the collection, creating it if necessary.
+     *
+     * @param index  the entity index.
+     *
+     * @return The entity.
+     *
+     * @see #add(ChartEntity)
+     */
+    @Override
+    public ChartEntity getEntity(int index) {
+        if (index < 0 || index >= this.count) {
+            throw new IndexOutOfBoundsException("Index " + index
+                    + " out of bounds.");
+        }
+        if (this.entities == null) {
+            this.entities = new ChartEntity[this.origins.length];
+        }
+        ChartEntity entity = this.entities[index];
+        if (entity == null) {
+            int o = this.origins[index];
+            entity = this.factories[o].createEntity(this.owners[o],
+                    this.sources[o], this.keys[2 * index],
+                    this.keys[2 * index + 1], createShape(index));
+            this.entities[index] = entity;
+        }
+        return entity;
+    }
+
+    /**
+     * Clears all the entities from the collection.
+     */
+    @Override
+    public void clear() {
+        init();
+    }
+
+    /**
+     * Adds an entity to the collection.
+     *
+     * @param entity  the entity ({@code null} not permitted).
+     */
+    @Override
+    public void add(ChartEntity entity) {
+        Args.nullNotPermitted(entity, "entity");
+        int i = newRecord(-1, 0, 0, entity.getArea().getBounds2D(), ENTITY);
+        if (this.entities == null) {
+            this.entities = new ChartEntity[this.origins.length];
+        }
+        this.entities[i] = entity;
+    }
+
+    /**
+     * Records an entity that will be created by a factory when it is needed.
+     *
+     * @param factory  the factory ({@code null} not permitted).
+     * @param owner  the owner to pass to the factory (usually the renderer).
+     * @param source  the source to pass to the factory (usually the dataset).
+     * @param series  the series (or row) index.
+     * @param item  the item (or column) index.
+     * @param area  the hotspot ({@code null} not permitted).  The shape is
+     *     copied, so it can be reused by the caller.
+     */
+    public void add(EntityFactory factory, Object owner, Object source,
+            int series, int item, Shape area) {
+        Args.nullNotPermitted(factory, "factory");
+        Args.nullNotPermitted(area, "area");
+        int o = origin(factory, owner, source);
+        if (area instanceof Rectangle2D) {
+            newRecord(o, series, item, (Rectangle2D) area, RECTANGLE);
+        }
+        else if (area instanceof Ellipse2D) {
+            newRecord(o, series, item, ((Ellipse2D) area).getFrame(),
+                    ELLIPSE);
+        }
+        else {
+            newRecord(o, series, item, area.getBounds2D(), addPath(area));
+        }
+    }
+
+    /**
+     * Adds all the entities from the specified collection.  Entities that
+     * have not been created yet in another {@code LazyEntityCollection} are
+     * copied without being created.
+     *
+     * @param collection  the collection of entities ({@code null} not
+     *     permitted).
+     */
+    @Override
+    public void addAll(EntityCollection collection) {
+        if (!(collection instanceof LazyEntityCollection)) {
+            for (Object entity : collection.getEntities()) {
+                add((ChartEntity) entity);
+            }
+            return;
+        }
+        LazyEntityCollection that = (LazyEntityCollection) collection;
+        int n = that.count;  // in case that == this
+        for (int i = 0; i < n; i++) {
+            ChartEntity entity = that.entities == null ? null
+                    : that.entities[i];
+            if (entity != null) {
+                add(entity);
+                continue;
+            }
+            int o = that.origins[i];
+            int shape = that.shapes[i];
+            if (shape >= 0) {
+                int length = pathLength(that.paths, shape);
+                ensurePathCapacity(length);
+                System.arraycopy(that.paths, shape, this.paths,
+                        this.pathsSize, length);
+                shape = this.pathsSize;
+                this.pathsSize += length;
+            }
+            int j = newRecord(origin(that.factories[o], that.owners[o],
+                    that.sources[o]), that.keys[2 * i], that.keys[2 * i + 1],
+                    null, shape);
+            System.arraycopy(that.frames, 4 * i, this.frames, 4 * j, 4);
+        }
+    }
+
+    /**
+     * Returns the last entity in the list with an area that encloses the
+     * specified coordinates, or {@code null} if there is no such entity.
+     * Only that entity is created.
+     *
+     * @param x  the x coordinate.
+     * @param y  the y coordinate.
+     *
+     * @return The entity (possibly {@code null}).
+     */
+    @Override
+    public ChartEntity getEntity(double x, double y) {
+        for (int i = this.count - 1; i >= 0; i--) {
+            if (contains(i, x, y)) {
+                return getEntity(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the entities in an unmodifiable list.  Each entity is created
+     * when it is first read from the list.
+     *
+     * @return The entities.
+     */
+    @Override
+    public Collection getEntities() {
+        return Collections.unmodifiableList(new AbstractList<ChartEntity>() {
+            @Override
+            public ChartEntity get(int index) {
+                return getEntity(index);
+            }
+            @Override
+            public int size() {
+                return LazyEntityCollection.this.count;
+            }
+        });
+    }
+
+    /**
+     * Returns an iterator for the entities in the collection.
+     *
+     * @return An iterator.
+     */
+    @Override
+    public Iterator iterator() {
+        return getEntities().iterator();
+    }
+
+    /**
+     * Tests this object for equality with an arbitrary object.  This creates
+     * all the entities in both collections.
+     *
+     * @param obj  the object to test against ({@code null} permitted).
+     *
+     * @return A boolean.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof LazyEntityCollection)) {
+            return false;
+        }
+        LazyEntityCollection that = (LazyEntityCollection) obj;
+        return ((List) getEntities()).equals((List) that.getEntities());
+    }
+
+    /**
+     * Returns a hash code for this instance.
+     *
+     * @return A hash code.
+     */
+    @Override
+    public int hashCode() {
+        return getEntities().hashCode();
+    }
+
+    /**
+     * Returns a clone of this entity collection.  The entities that have
+     * been created are cloned; the others are still created when needed.
+     *
+     * @return A clone.
+     *
+     * @throws CloneNotSupportedException if the object cannot be cloned.
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        LazyEntityCollection clone = (LazyEntityCollection) super.clone();
+        clone.origins = this.origins.clone();
+        clone.keys = this.keys.clone();
+        clone.frames = this.frames.clone();
+        clone.shapes = this.shapes.clone();
+        clone.paths = this.paths.clone();
+        clone.factories = this.factories.clone();
+        clone.owners = this.owners.clone();
+        clone.sources = this.sources.clone();
+        clone.testPath = null;
+        if (this.entities != null) {
+            clone.entities = new ChartEntity[this.entities.length];
+            for (int i = 0; i < this.count; i++) {
+                if (this.entities[i] != null) {
+                    clone.entities[i] = (ChartEntity) this.entities[i].clone();
+                }
+            }
+        }
+        return clone;
+    }
+
+    /**
+     * Provides serialization support.
+     *
+     * @param stream  the output stream.
+     *
+     * @throws IOException  if there is an I/O error.
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        stream.writeInt(this.count);
+        for (int i = 0; i < this.count; i++) {
+            stream.writeObject(getEntity(i));
+        }
+    }
+
+    /**
+     * Provides serialization support.
+     *
+     * @param stream  the input stream.
+     *
+     * @throws IOException  if there is an I/O error.
+     * @throws ClassNotFoundException  if there is a classpath problem.
+     */
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        init();
+        int n = stream.readInt();
+        for (int i = 0; i < n; i++) {
+            add((ChartEntity) stream.readObject());
+        }
+    }
+
+    /**
+     * Resets the collection to an empty state.
+     */
+    private void init() {
+        this.count = 0;
+        this.origins = new int[16];
+        this.keys = new int[32];
+        this.frames = new double[64];
+        this.shapes = new int[16];
+        this.paths = new float[64];
+        this.pathsSize = 0;
+        this.entities = null;
+        this.factories = new EntityFactory[4];
+        this.owners = new Object[4];
+        this.sources = new Object[4];
+        this.originCount = 0;
+    }
+
+    /**
+     * Returns the index of an origin, adding it if it is not the same as the
+     * last one (a renderer records all its items with the same origin, so
+     * only the last is checked).
+     *
+     * @param factory  the factory.
+     * @param owner  the owner.
+     * @param source  the source.
+     *
+     * @return The origin index.
+     */
+    private int origin(EntityFactory factory, Object owner, Object source) {
+        int last = this.originCount - 1;
+        if (last >= 0 && this.factories[last] == factory
+                && this.owners[last] == owner
+                && this.sources[last] == source) {
+            return last;
+        }
+        if (this.originCount == this.factories.length) {
+            int capacity = this.originCount * 2;
+            this.factories = Arrays.copyOf(this.factories, capacity);
+            this.owners = Arrays.copyOf(this.owners, capacity);
+            this.sources = Arrays.copyOf(this.sources, capacity);
+        }
+        this.factories[this.originCount] = factory;
+        this.owners[this.originCount] = owner;
+        this.sources[this.originCount] = source;
+        return this.originCount++;
+    }
+
+    /**
+     * Adds a record for an entity.
+     *
+     * @param origin  the origin index (-1 for an entity added directly).
+     * @param series  the series index.
+     * @param item  the item index.
+     * @param frame  the bounds of the hotspot ({@code null} to leave them
+     *     for the caller to fill in).
+     * @param shape  the shape code or path offset.
+     *
+     * @return The index of the record.
+     */
+    private int newRecord(int origin, int series, int item, Rectangle2D frame,
+            int shape) {
+        int i = this.count;
+        if (i == this.origins.length) {
+            int capacity = i * 2;
+            this.origins = Arrays.copyOf(this.origins, capacity);
+            this.keys = Arrays.copyOf(this.keys, 2 * capacity);
+            this.frames = Arrays.copyOf(this.frames, 4 * capacity);
+            this.shapes = Arrays.copyOf(this.shapes, capacity);
+            if (this.entities != null) {
+                this.entities = Arrays.copyOf(this.entities, capacity);
+            }
+        }
+        this.origins[i] = origin;
+        this.keys[2 * i] = series;
+        this.keys[2 * i + 1] = item;
+        if (frame != null) {
+            this.frames[4 * i] = frame.getX();
+            this.frames[4 * i + 1] = frame.getY();
+            this.frames[4 * i + 2] = frame.getWidth();
+            this.frames[4 * i + 3] = frame.getHeight();
+        }
+        this.shapes[i] = shape;
+        this.count++;
+        return i;
+    }
+
+    /**
+     * Copies a shape's path into {@code paths}.
+     *
+     * @param area  the shape.
+     *
+     * @return The offset of the path.
+     */
+    private int addPath(Shape area) {
+        int start = this.pathsSize;
+        ensurePathCapacity(2);
+        PathIterator pi = area.getPathIterator(null);
+        this.paths[start] = pi.getWindingRule();
+        this.pathsSize += 2;
+        int segments = 0;
+        float[] coords = new float[6];
+        while (!pi.isDone()) {
+            int type = pi.currentSegment(coords);
+            int n = coordinateCount(type);
+            ensurePathCapacity(1 + n);
+            this.paths[this.pathsSize++] = type;
+            System.arraycopy(coords, 0, this.paths, this.pathsSize, n);
+            this.pathsSize += n;
+            segments++;
+            pi.next();
+        }
+        this.paths[start + 1] = segments;
+        return start;
+    }
+
+    private void ensurePathCapacity(int extra) {
+        if (this.pathsSize + extra > this.paths.length) {
+            this.paths = Arrays.copyOf(this.paths, Math.max(
+                    this.paths.length * 2, this.pathsSize + extra));
+        }
+    }
+
+    private static int coordinateCount(int type) {
+        switch (type) {
+            case PathIterator.SEG_MOVETO:
+            case PathIterator.SEG_LINETO:
+                return 2;
+            case PathIterator.SEG_QUADTO:
+                return 4;
+            case PathIterator.SEG_CUBICTO:
+                return 6;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Returns the number of values used by a stored path.
+     *
+     * @param paths  the path storage.
+     * @param offset  the offset of the path.
+     *
+     * @return The length.
+     */
+    private static int pathLength(float[] paths, int offset) {
+        int segments = (int) paths[offset + 1];
+        int p = offset + 2;
+        for (int s = 0; s < segments; s++) {
+            p += 1 + coordinateCount((int) paths[p]);
+        }
+        return p - offset;
+    }
+
+    /**
+     * Builds a stored path.
+     *
+     * @param offset  the offset of the path.
+     * @param path  the path to build (it is reset first).
+     */
+    private void readPath(int offset, Path2D.Float path) {
+        float[] v = this.paths;
+        path.reset();
+        path.setWindingRule((int) v[offset]);
+        int segments = (int) v[offset + 1];
+        int p = offset + 2;
+        for (int s = 0; s < segments; s++) {
+            int type = (int) v[p++];
+            switch (type) {
+                case PathIterator.SEG_MOVETO:
+                    path.moveTo(v[p], v[p + 1]);
+                    break;
+                case PathIterator.SEG_LINETO:
+                    path.lineTo(v[p], v[p + 1]);
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    path.quadTo(v[p], v[p + 1], v[p + 2], v[p + 3]);
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    path.curveTo(v[p], v[p + 1], v[p + 2], v[p + 3],
+                            v[p + 4], v[p + 5]);
+                    break;
+                default:
+                    path.closePath();
+                    break;
+            }
+            p += coordinateCount(type);
+        }
+    }
+
+    /**
+     * Creates a new hotspot for a recorded entity.
+     *
+     * @param i  the entity index.
+     *
+     * @return The shape.
+     */
+    private Shape createShape(int i) {
+        double[] f = this.frames;
+        int shape = this.shapes[i];
+        if (shape == RECTANGLE) {
+            return new Rectangle2D.Double(f[4 * i], f[4 * i + 1],
+                    f[4 * i + 2], f[4 * i + 3]);
+        }
+        if (shape == ELLIPSE) {
+            return new Ellipse2D.Double(f[4 * i], f[4 * i + 1],
+                    f[4 * i + 2], f[4 * i + 3]);
+        }
+        // a GeneralPath, since entities compare those by their segments
+        GeneralPath path = new GeneralPath();
+        readPath(shape, path);
+        return path;
+    }
+
+    /**
+     * Returns {@code true} if an entity's hotspot contains a point.  Unless
+     * the entity has already been created, this is worked out from the
+     * recorded values, in the same way as the hotspot's
+     * {@code contains()} method.
+     *
+     * @param i  the entity index.
+     * @param x  the x-coordinate.
+     * @param y  the y-coordinate.
+     *
+     * @return A boolean.
+     */
+    private boolean contains(int i, double x, double y) {
+        double[] f = this.frames;
+        double x0 = f[4 * i];
+        double y0 = f[4 * i + 1];
+        double w = f[4 * i + 2];
+        double h = f[4 * i + 3];
+        // every hotspot lies within its bounds
+        if (!(x >= x0 && y >= y0 && x <= x0 + w && y <= y0 + h)) {
+            return false;
+        }
+        if (this.entities != null && this.entities[i] != null) {
+            return this.entities[i].getArea().contains(x, y);
+        }
+        int shape = this.shapes[i];
+        if (shape == RECTANGLE) {
+            return x < x0 + w && y < y0 + h;
+        }
+        if (shape == ELLIPSE) {
+            if (w <= 0.0 || h <= 0.0) {
+                return false;
+            }
+            double nx = (x - x0) / w - 0.5;
+            double ny = (y - y0) / h - 0.5;
+            return (nx * nx + ny * ny) < 0.25;
+        }
+        if (this.testPath == null) {
+            this.testPath = new Path2D.Float();
+        }
+        readPath(shape, this.testPath);
+        return this.testPath.contains(x, y);
+    }
+
+}
@@ -0,0 +1,367 @@
+package org.jfree.chart.renderer.category;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jfree.chart.axis.AxisTransforms;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.renderer.OutlierListCollection;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.data.statistics.PrimitiveBoxAndWhiskerCategoryDataset;
+
+/**
+ * The outlier stage of the box-and-whisker renderers, shared by the
+ * vertical and horizontal orientations.  For one item it classifies the
+ * outlier values against the item's thresholds, converts the ones to be
+ * drawn to Java2D space, sorts them once, and then either groups
+ * overlapping outliers or, for very dense items, aggregates them into
+ * fixed-size buckets along the range axis.  All working data is held in
+ * primitive arrays that are reused from item to item, so the stage does not
+ * box values or allocate per outlier.
+ * <P>
+ * The grouping gives exactly the same groups, averaged positions and
+ * "multiple" flags as adding the sorted outliers to an
+ * {@link OutlierListCollection}, including that class's behaviour of
+ * leaving the outlier that starts a group out of the group's average.
+ * Because the outliers arrive in ascending order, a group whose average has
+ * fallen more than the overlap distance behind the current outlier can never
+ * be joined again, so each outlier is only tested against the few groups
+ * close to it.
+ * <P>
+ * Like {@code Outlier}, the stage reports the position of each group as
+ * the top-left corner of the outlier's bounding square, which is what the
+ * renderer's {@code drawEllipse()} and {@code drawMultipleEllipse()}
+ * methods expect.
+ * <P>
+ * Instances are held by the {@link CategoryItemRendererState} and are not
+ * thread-safe.
+ */
+class OutlierStage {
+
+    /** The Java2D values of the outliers to draw (sorted by sort()). */
+    private double[] values;
+
+    /** The number of entries in {@code values}. */
+    private int count;
+
+    /** Is there at least one outlier above the maximum outlier? */
+    private boolean highFarOut;
+
+    /** Is there at least one outlier below the minimum outlier? */
+    private boolean lowFarOut;
+
+    /** The averaged position of each group along the range axis. */
+    private double[] groupValue;
+
+    /** The averaged position of each group across the range axis. */
+    private double[] groupCentre;
+
+    /** The running sum of the values added to each group. */
+    private double[] sumValue;
+
+    /** The running sum of the centres added to each group. */
+    private double[] sumCentre;
+
+    /** The number of outliers added to each group after the first one. */
+    private int[] added;
+
+    /** The number of groups. */
+    private int groupCount;
+
+    /**
+     * Creates a new stage.
+     */
+    OutlierStage() {
+        this.values = new double[16];
+        this.groupValue = new double[16];
+        this.groupCentre = new double[16];
+        this.sumValue = new double[16];
+        this.sumCentre = new double[16];
+        this.added = new int[16];
+    }
+
+    /**
+     * Classifies the outliers for one item.  Values above
+     * {@code maxOutlier} or below {@code minOutlier} only set the far-out
+     * flags; values outside the regular range are kept for drawing, and are
+     * converted to Java2D space together once they have all been found.
+     *
+     * @param outliers  the outlier values ({@code Number} instances,
+     *     {@code null} not permitted).
+     * @param minOutlier  the minimum outlier.
+     * @param maxOutlier  the maximum outlier.
+     * @param minRegular  the minimum regular value.
+     * @param maxRegular  the maximum regular value.
+     * @param rangeAxis  the range axis.
+     * @param dataArea  the data area.
+     * @param edge  the range axis edge.
+     */
+    void classify(List outliers, double minOutlier, double maxOutlier,
+            double minRegular, double maxRegular, ValueAxis rangeAxis,
+            Rectangle2D dataArea, RectangleEdge edge) {
+        int size = outliers.size();
+        reset(size);
+        for (int i = 0; i < size; i++) {
+            classify(((Number) outliers.get(i)).doubleValue(), minOutlier,
+                    maxOutlier, minRegular, maxRegular);
+        }
+        AxisTransforms.valueToJava2D(rangeAxis, this.values, this.values,
+                this.count, dataArea, edge);
+    }
+
+    /**
+     * Classifies the outliers for one item of a dataset that supports
+     * primitive access, in the same way as
+     * {@link #classify(List, double, double, double, double, ValueAxis,
+     * Rectangle2D, RectangleEdge)} but without creating {@code Number}
+     * instances.
+     *
+     * @param dataset  the dataset ({@code null} not permitted).
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     * @param rangeAxis  the range axis.
+     * @param dataArea  the data area.
+     * @param edge  the range axis edge.
+     */
+    void classify(PrimitiveBoxAndWhiskerCategoryDataset dataset, int row,
+            int column, ValueAxis rangeAxis, Rectangle2D dataArea,
+            RectangleEdge edge) {
+        int size = Math.max(dataset.getOutlierCount(row, column), 0);
+        reset(size);
+        double minOutlier = dataset.getMinOutlierDouble(row, column);
+        double maxOutlier = dataset.getMaxOutlierDouble(row, column);
+        double minRegular = dataset.getMinRegularDouble(row, column);
+        double maxRegular = dataset.getMaxRegularDouble(row, column);
+        for (int i = 0; i < size; i++) {
+            classify(dataset.getOutlierDouble(row, column, i), minOutlier,
+                    maxOutlier, minRegular, maxRegular);
+        }
+        AxisTransforms.valueToJava2D(rangeAxis, this.values, this.values,
+                this.count, dataArea, edge);
+    }
+
+    private void reset(int size) {
+        ensureValueCapacity(size);
+        this.count = 0;
+        this.groupCount = 0;
+        this.highFarOut = false;
+        this.lowFarOut = false;
+    }
+
+    /**
+     * Classifies one outlier, keeping its data value for conversion to
+     * Java2D space (which is done for all the kept values at once).
+     */
+    private void classify(double outlier, double minOutlier,
+            double maxOutlier, double minRegular, double maxRegular) {
+        if (outlier > maxOutlier) {
+            this.highFarOut = true;
+        }
+        else if (outlier < minOutlier) {
+            this.lowFarOut = true;
+        }
+        else if (outlier > maxRegular || outlier < minRegular) {
+            this.values[this.count++] = outlier;
+        }
+    }
+
+    /**
+     * Sorts the outliers to draw into ascending Java2D order, which is the
+     * order that {@code Outlier.compareTo()} gives for outliers that share
+     * the same centre.
+     */
+    void sort() {
+        Arrays.sort(this.values, 0, this.count);
+    }
+
+    /**
+     * Groups the sorted outliers.  Two outliers overlap when both their
+     * positions along and across the range axis are within 1.1 times the
+     * outlier radius of each other, as in {@code Outlier.overlaps()}.
+     *
+     * @param centre  the Java2D position of the outliers across the range
+     *     axis.
+     * @param radius  the outlier radius.
+     */
+    void group(double centre, double radius) {
+        double reach = radius * 1.1;
+        double c = centre - radius;
+        this.groupCount = 0;
+        int firstLive = 0;
+        for (int i = 0; i < this.count; i++) {
+            double v = this.values[i] - radius;
+            while (firstLive < this.groupCount
+                    && this.groupValue[firstLive] < v - reach) {
+                firstLive++;
+            }
+            boolean updated = false;
+            for (int g = firstLive; g < this.groupCount; g++) {
+                double gv = this.groupValue[g];
+                double gc = this.groupCentre[g];
+                if (gc >= c - reach && gc <= c + reach
+                        && gv >= v - reach && gv <= v + reach) {
+                    this.sumValue[g] += v;
+                    this.sumCentre[g] += c;
+                    this.added[g]++;
+                    this.groupValue[g] = this.sumValue[g] / this.added[g];
+                    this.groupCentre[g] = this.sumCentre[g] / this.added[g];
+                    updated = true;
+                }
+            }
+            if (!updated) {
+                ensureGroupCapacity(this.groupCount + 1);
+                int g = this.groupCount++;
+                this.groupValue[g] = v;
+                this.groupCentre[g] = c;
+                this.sumValue[g] = 0.0;
+                this.sumCentre[g] = 0.0;
+                this.added[g] = 0;
+            }
+        }
+    }
+
+    /**
+     * Aggregates the sorted outliers into buckets of {@code bucketSize}
+     * Java2D units, aligned to multiples of the bucket size, as an
+     * alternative to {@link #group(double, double)} for items with very many
+     * outliers.  Each non-empty bucket becomes one group positioned at the
+     * middle of the bucket, so the number of groups is bounded by the length
+     * of the range axis rather than by the number of outliers.
+     *
+     * @param centre  the Java2D position of the outliers across the range
+     *     axis.
+     * @param radius  the outlier radius.
+     * @param bucketSize  the bucket size (greater than zero).
+     */
+    void aggregate(double centre, double radius, double bucketSize) {
+        double c = centre - radius;
+        this.groupCount = 0;
+        double bucket = Double.NaN;
+        for (int i = 0; i < this.count; i++) {
+            double b = Math.floor(this.values[i] / bucketSize);
+            if (b == bucket) {
+                this.added[this.groupCount - 1]++;
+                continue;
+            }
+            bucket = b;
+            ensureGroupCapacity(this.groupCount + 1);
+            int g = this.groupCount++;
+            this.groupValue[g] = (b + 0.5) * bucketSize - radius;
+            this.groupCentre[g] = c;
+            this.added[g] = 0;
+        }
+    }
+
+    /**
+     * Returns the number of outliers to draw.
+     *
+     * @return The count.
+     */
+    int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the Java2D value of an outlier to draw.
+     *
+     * @param index  the index (less than {@link #getCount()}).
+     *
+     * @return The value.
+     */
+    double getValue(int index) {
+        return this.values[index];
+    }
+
+    /**
+     * Returns the flag that indicates values above the maximum outlier.
+     *
+     * @return A boolean.
+     */
+    boolean isHighFarOut() {
+        return this.highFarOut;
+    }
+
+    /**
+     * Returns the flag that indicates values below the minimum outlier.
+     *
+     * @return A boolean.
+     */
+    boolean isLowFarOut() {
+        return this.lowFarOut;
+    }
+
+    /**
+     * Returns the number of groups found by {@link #group(double, double)}.
+     *
+     * @return The group count.
+     */
+    int getGroupCount() {
+        return this.groupCount;
+    }
+
+    /**
+     * Returns the averaged position of a group along the range axis (offset
+     * by the radius, as in {@code Outlier}).
+     *
+     * @param group  the group index.
+     *
+     * @return The Java2D value.
+     */
+    double getGroupValue(int group) {
+        return this.groupValue[group];
+    }
+
+    /**
+     * Returns the averaged position of a group across the range axis (offset
+     * by the radius, as in {@code Outlier}).
+     *
+     * @param group  the group index.
+     *
+     * @return The Java2D value.
+     */
+    double getGroupCentre(int group) {
+        return this.groupCentre[group];
+    }
+
+    /**
+     * Returns the number of outliers that joined a group, including the one
+     * that started it.
+     *
+     * @param group  the group index.
+     *
+     * @return The number of outliers.
+     */
+    int getGroupSize(int group) {
+        return this.added[group] + 1;
+    }
+
+    /**
+     * Returns {@code true} if a group holds more than one outlier.
+     *
+     * @param group  the group index.
+     *
+     * @return A boolean.
+     */
+    boolean isGroupMultiple(int group) {
+        return this.added[group] > 0;
+    }
+
+    private void ensureValueCapacity(int size) {
+        if (this.values.length < size) {
+            this.values = new double[Math.max(size, this.values.length * 2)];
+        }
+    }
+
+    private void ensureGroupCapacity(int size) {
+        if (this.groupValue.length < size) {
+            int n = Math.max(size, this.groupValue.length * 2);
+            this.groupValue = Arrays.copyOf(this.groupValue, n);
+            this.groupCentre = Arrays.copyOf(this.groupCentre, n);
+            this.sumValue = Arrays.copyOf(this.sumValue, n);
+            this.sumCentre = Arrays.copyOf(this.sumCentre, n);
+            this.added = Arrays.copyOf(this.added, n);
+        }
+    }
+
+}
@@ -0,0 +1,690 @@
+package org.jfree.chart.plot;
+
+import java.awt.BasicStroke;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.Stroke;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.jfree.chart.ChartRenderingInfo;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.entity.EntityCollection;
+import org.jfree.chart.entity.StandardEntityCollection;
+import org.jfree.chart.renderer.AbstractRenderer;
+import org.jfree.chart.renderer.category.BarRenderer;
+import org.jfree.chart.renderer.category.BoxAndWhiskerRenderer;
+import org.jfree.chart.renderer.category.CategoryItemRenderer;
+import org.jfree.chart.renderer.category.CategoryItemRendererState;
+import org.jfree.chart.renderer.category.GanttRenderer;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.chart.util.SortOrder;
+import org.jfree.data.category.CategoryDataset;
+import org.jfree.data.general.DatasetUtils;
+
+/**
+ * A {@link CategoryPlot} that draws the items for large datasets on several
+ * threads at once.  The data area is cut into strips across the domain axis
+ * (one per tile), and each strip is drawn by a task on a fork-join pool,
+ * with its own copy of the {@code Graphics2D} (clipped to the strip), its
+ * own renderer state and its own entity collection.  Every pixel belongs to
+ * exactly one strip, and a strip draws the items that can reach it in the
+ * same order as {@link CategoryPlot#render(Graphics2D, Rectangle2D, int,
+ * PlotRenderingInfo, CategoryCrosshairState)}, so the image is the same, byte
+ * for byte, as the one drawn on a single thread.  The entities and the
+ * crosshair values found by the tasks are then merged in the order the
+ * single-threaded path would have produced them.
+ * <P>
+ * The items are drawn in parallel only when all of the following hold
+ * (otherwise the plot renders exactly as a {@code CategoryPlot}):
+ * <ul>
+ * <li>the tile count is greater than one and the dataset has at least
+ *     {@link #getMinimumItemCount()} items;</li>
+ * <li>the renderer is a {@link BoxAndWhiskerRenderer} or a
+ *     {@link GanttRenderer} that neither batches its fills nor retains its
+ *     task bounds (see {@link #isParallelRenderer(CategoryItemRenderer)}),
+ *     which keep no per-item state of their own;</li>
+ * <li>the {@code Graphics2D} draws to an image (see
+ *     {@link #isParallelTarget(Graphics2D)}), so that the strips can be
+ *     written to the same image from several threads.</li>
+ * </ul>
+ * Some vector {@code Graphics2D} implementations (for SVG or PDF output)
+ * also report an image buffer device, but cannot be drawn to from several
+ * threads; to draw to one of those, set the tile count to one (or
+ * override {@link #isParallelTarget(Graphics2D)} to refuse it).
+ *
+ * @see CategoryPlot
+ */
+public class ParallelCategoryPlot extends CategoryPlot {
+
+    /** For serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /** The default minimum number of items for parallel rendering. */
+    public static final int DEFAULT_MINIMUM_ITEM_COUNT = 10000;
+
+    /**
+     * The extra distance (in Java2D units) allowed for anti-aliasing around
+     * an item when deciding which strips it can reach.
+     */
+    private static final double ANTI_ALIAS_MARGIN = 2.0;
+
+    /**
+     * A coordinate well beyond any drawing area, used for the outer edges of
+     * the first and last strips.
+     */
+    private static final double FAR = 1.0e6;
+
+    /** The number of tiles (zero for the parallelism of the pool). */
+    private int tileCount;
+
+    /** The minimum number of items for parallel rendering. */
+    private int minimumItemCount;
+
+    /** The pool for the tile tasks ({@code null} for the common pool). */
+    private transient ForkJoinPool pool;
+
+    /**
+     * Default constructor.
+     */
+    public ParallelCategoryPlot() {
+        this(null, null, null, null);
+    }
+
+    /**
+     * Creates a new plot.
+     *
+     * @param dataset  the dataset ({@code null} permitted).
+     * @param domainAxis  the domain axis ({@code null} permitted).
+     * @param rangeAxis  the range axis ({@code null} permitted).
+     * @param renderer  the item renderer ({@code null} permitted).
+     */
+    public ParallelCategoryPlot(CategoryDataset dataset,
+            CategoryAxis domainAxis, ValueAxis rangeAxis,
+            CategoryItemRenderer renderer) {
+        super(dataset, domainAxis, rangeAxis, renderer);
+        this.tileCount = 0;
+        this.minimumItemCount = DEFAULT_MINIMUM_ITEM_COUNT;
+    }
+
+    /**
+     * Returns the number of tiles the data area is split into.  The default
+     * value is zero, which means one tile per thread in the pool.
+     *
+     * @return The tile count.
+     *
+     * @see #setTileCount(int)
+     */
+    public int getTileCount() {
+        return this.tileCount;
+    }
+
+    /**
+     * Sets the number of tiles the data area is split into, and sends a
+     * {@link PlotChangeEvent} to all registered listeners.  Use zero for one
+     * tile per thread in the pool, or one to always render on the calling
+     * thread.
+     *
+     * @param count  the tile count (zero or greater).
+     *
+     * @see #getTileCount()
+     */
+    public void setTileCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Requires 'count' >= 0.");
+        }
+        this.tileCount = count;
+        fireChangeEvent();
+    }
+
+    /**
+     * Returns the smallest number of items (rows times columns) for which
+     * the plot renders in parallel.  The default value is
+     * {@link #DEFAULT_MINIMUM_ITEM_COUNT}.
+     *
+     * @return The minimum item count.
+     *
+     * @see #setMinimumItemCount(int)
+     */
+    public int getMinimumItemCount() {
+        return this.minimumItemCount;
+    }
+
+    /**
+     * Sets the smallest number of items for which the plot renders in
+     * parallel, and sends a {@link PlotChangeEvent} to all registered
+     * listeners.
+     *
+     * @param count  the minimum item count.
+     *
+     * @see #getMinimumItemCount()
+     */
+    public void setMinimumItemCount(int count) {
+        this.minimumItemCount = count;
+        fireChangeEvent();
+    }
+
+    /**
+     * Returns the pool that runs the tile tasks.  This is not serialized.
+     *
+     * @return The pool ({@code null} for the common pool).
+     *
+     * @see #setPool(ForkJoinPool)
+     */
+    public ForkJoinPool getPool() {
+        return this.pool;
+    }
+
+    /**
+     * Sets the pool that runs the tile tasks.  No change event is sent,
+     * since the pool does not affect the chart's appearance.
+     *
+     * @param pool  the pool ({@code null} for the common pool).
+     *
+     * @see #getPool()
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Returns {@code true} if the items for a renderer can be drawn on
+     * several threads at once.  The renderer's {@code drawItem()} method
+     * must not change any field of the renderer, other than the lookup
+     * tables that this plot fills before the threads start.  This
+     * implementation accepts {@link BoxAndWhiskerRenderer} and
+     * {@link GanttRenderer} (and their subclasses), unless the Gantt
+     * renderer batches its fills (see
+     * {@link GanttRenderer#setBatchFills(boolean)}) or retains the bounds of
+     * its tasks (see {@link GanttRenderer#setRetainTaskBounds(boolean)});
+     * override it to accept other renderers that meet this condition.  A
+     * renderer that batches its fills is not accepted because a strip would
+     * paint the layers of its own columns and of the neighbouring columns
+     * that reach into it in a different order than a single pass does.
+     *
+     * @param renderer  the renderer ({@code null} not permitted).
+     *
+     * @return A boolean.
+     */
+    protected boolean isParallelRenderer(CategoryItemRenderer renderer) {
+        if (renderer instanceof GanttRenderer) {
+            GanttRenderer r = (GanttRenderer) renderer;
+            return !r.getBatchFills() && !r.getRetainTaskBounds();
+        }
+        return renderer instanceof BoxAndWhiskerRenderer;
+    }
+
+    /**
+     * Returns {@code true} if the strips can be drawn to a graphics device
+     * from several threads at once, through copies made with
+     * {@code Graphics2D.create()}.  This implementation accepts a device
+     * whose configuration is for an image buffer (such as the
+     * {@code Graphics2D} for a {@code BufferedImage}, or a wrapper that
+     * passes on the configuration of one); override it to accept or refuse
+     * other devices.
+     *
+     * @param g2  the graphics device ({@code null} not permitted).
+     *
+     * @return A boolean.
+     */
+    protected boolean isParallelTarget(Graphics2D g2) {
+        GraphicsConfiguration gc = g2.getDeviceConfiguration();
+        return gc != null && gc.getDevice().getType()
+                == GraphicsDevice.TYPE_IMAGE_BUFFER;
+    }
+
+    /**
+     * Draws a representation of a dataset within the dataArea region using
+     * the appropriate renderer, splitting the work between the threads of
+     * the pool when the dataset is large enough (see the class description).
+     *
+     * @param g2  the graphics device.
+     * @param dataArea  the region in which the data is to be drawn.
+     * @param index  the renderer and dataset index.
+     * @param info  an optional object for collection dimension information.
+     * @param crosshairState  a state object for tracking crosshair info
+     *        ({@code null} permitted).
+     *
+     * @return A boolean that indicates whether or not real data was found.
+     */
+    @Override
+    public boolean render(Graphics2D g2, Rectangle2D dataArea, int index,
+            PlotRenderingInfo info, CategoryCrosshairState crosshairState) {
+        CategoryDataset dataset = getDataset(index);
+        CategoryItemRenderer renderer = getRenderer(index);
+        ForkJoinPool p = this.pool != null ? this.pool
+                : ForkJoinPool.commonPool();
+        int tiles = this.tileCount > 0 ? this.tileCount : p.getParallelism();
+        if (tiles < 2 || DatasetUtils.isEmptyOrNull(dataset)
+                || renderer == null || !isParallelRenderer(renderer)
+                || !isParallelTarget(g2)) {
+            return super.render(g2, dataArea, index, info, crosshairState);
+        }
+        int rowCount = dataset.getRowCount();
+        int columnCount = dataset.getColumnCount();
+        if ((long) rowCount * columnCount < this.minimumItemCount) {
+            return super.render(g2, dataArea, index, info, crosshairState);
+        }
+        tiles = Math.min(tiles, columnCount);
+        if (tiles < 2) {
+            return super.render(g2, dataArea, index, info, crosshairState);
+        }
+
+        // the lookup tables in the renderer are filled on first use, which
+        // is not safe from several threads, so fill them here
+        double reach = prepareRenderer(renderer, rowCount);
+
+        CategoryAxis domainAxis = getDomainAxisForDataset(index);
+        ValueAxis rangeAxis = getRangeAxisForDataset(index);
+        RectangleEdge domainEdge = getDomainAxisEdge(
+                getDomainAxisIndex(domainAxis));
+        boolean horizontal = RectangleEdge.isLeftOrRight(domainEdge);
+        double lo = horizontal ? dataArea.getMinY() : dataArea.getMinX();
+        double hi = horizontal ? dataArea.getMaxY() : dataArea.getMaxX();
+
+        // the strip boundaries are whole Java2D units, and the first and
+        // last strips are open-ended, so the strips cover every pixel
+        double[] bounds = new double[tiles + 1];
+        bounds[0] = -FAR;
+        bounds[tiles] = FAR;
+        for (int t = 1; t < tiles; t++) {
+            bounds[t] = Math.floor(lo + t * (hi - lo) / tiles);
+        }
+
+        // the states are created here, one after another, since
+        // initialise() updates fields in the renderer
+        EntityCollection entities = null;
+        if (info != null && info.getOwner() != null) {
+            entities = info.getOwner().getEntityCollection();
+        }
+        Tile[] tileArray = new Tile[tiles];
+        for (int t = 0; t < tiles; t++) {
+            Graphics2D tg = (Graphics2D) g2.create();
+            if (horizontal) {
+                tg.clip(new Rectangle2D.Double(-FAR, bounds[t], 2 * FAR,
+                        bounds[t + 1] - bounds[t]));
+            }
+            else {
+                tg.clip(new Rectangle2D.Double(bounds[t], -FAR,
+                        bounds[t + 1] - bounds[t], 2 * FAR));
+            }
+            PlotRenderingInfo tileInfo = null;
+            if (info != null) {
+                ChartRenderingInfo owner = new ChartRenderingInfo(
+                        entities != null ? new StandardEntityCollection()
+                        : null);
+                tileInfo = new PlotRenderingInfo(owner);
+                tileInfo.setPlotArea(info.getPlotArea());
+                tileInfo.setDataArea(info.getDataArea());
+            }
+            CategoryItemRendererState owned = renderer.initialise(tg,
+                    dataArea, this, index, tileInfo);
+            CategoryItemRendererState borrowed = renderer.initialise(tg,
+                    dataArea, this, index, null);
+            // each state draws only part of the pass, so the renderer's
+            // totals are published below
+            owned.setPartialPass(true);
+            borrowed.setPartialPass(true);
+            if (crosshairState != null) {
+                owned.setCrosshairState(copyCrosshairState(crosshairState));
+            }
+            int first = findFirstColumn(domainAxis, columnCount, dataArea,
+                    domainEdge, bounds[t] - reach);
+            int last = findFirstStartAfter(domainAxis, columnCount,
+                    dataArea, domainEdge, bounds[t + 1] + reach) - 1;
+            int ownedFirst = findFirstMiddle(domainAxis, columnCount,
+                    dataArea, domainEdge, bounds[t]);
+            int ownedLast = findFirstMiddle(domainAxis, columnCount,
+                    dataArea, domainEdge, bounds[t + 1]) - 1;
+            tileArray[t] = new Tile(tg, owned, borrowed, first, last,
+                    ownedFirst, ownedLast, renderer.getPassCount());
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(tiles);
+        for (Tile tile : tileArray) {
+            tasks.add(p.submit(() -> drawTile(tile, dataArea, renderer,
+                    domainAxis, rangeAxis, dataset)));
+        }
+        try {
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        finally {
+            for (Tile tile : tileArray) {
+                tile.g2.dispose();
+            }
+        }
+
+        // the single-threaded path visits the columns (and so the tiles) in
+        // the column rendering order, one pass after another
+        boolean ascending = getColumnRenderingOrder() == SortOrder.ASCENDING;
+        if (entities != null) {
+            for (int pass = 0; pass < renderer.getPassCount(); pass++) {
+                for (int i = 0; i < tiles; i++) {
+                    Tile tile = tileArray[ascending ? i : tiles - 1 - i];
+                    EntityCollection tileEntities
+                            = tile.owned.getEntityCollection();
+                    int start = pass > 0 ? tile.entityCounts[pass - 1] : 0;
+                    for (int e = start; e < tile.entityCounts[pass]; e++) {
+                        entities.add(tileEntities.getEntity(e));
+                    }
+                }
+            }
+        }
+        if (renderer instanceof GanttRenderer) {
+            // every item is owned by exactly one tile
+            List<CategoryItemRendererState> ownedStates
+                    = new ArrayList<>(tiles);
+            for (Tile tile : tileArray) {
+                ownedStates.add(tile.owned);
+            }
+            ((GanttRenderer) renderer).publishCulledTaskCount(ownedStates);
+        }
+        if (crosshairState != null) {
+            for (int i = 0; i < tiles; i++) {
+                Tile tile = tileArray[ascending ? i : tiles - 1 - i];
+                CategoryCrosshairState tileState
+                        = tile.owned.getCrosshairState();
+                if (tileState.getCrosshairDistance()
+                        < crosshairState.getCrosshairDistance()) {
+                    crosshairState.setRowKey(tileState.getRowKey());
+                    crosshairState.setColumnKey(tileState.getColumnKey());
+                    crosshairState.setCrosshairY(tileState.getCrosshairY());
+                    crosshairState.setDatasetIndex(
+                            tileState.getDatasetIndex());
+                    crosshairState.setCrosshairDistance(
+                            tileState.getCrosshairDistance());
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Draws the items for one tile, in the same order as the
+     * single-threaded path.  The items for the columns that the tile owns
+     * are drawn with the state that records entities and crosshair values;
+     * the items for neighbouring columns that reach into the tile are drawn
+     * with a state that records neither, since their owning tile does that.
+     *
+     * @param tile  the tile.
+     * @param dataArea  the data area.
+     * @param renderer  the renderer.
+     * @param domainAxis  the domain axis.
+     * @param rangeAxis  the range axis.
+     * @param dataset  the dataset.
+     */
+    private void drawTile(Tile tile, Rectangle2D dataArea,
+            CategoryItemRenderer renderer, CategoryAxis domainAxis,
+            ValueAxis rangeAxis, CategoryDataset dataset) {
+        int rowCount = dataset.getRowCount();
+        boolean ascending = getColumnRenderingOrder() == SortOrder.ASCENDING;
+        boolean rowsAscending = getRowRenderingOrder() == SortOrder.ASCENDING;
+        EntityCollection entities = tile.owned.getEntityCollection();
+        for (int pass = 0; pass < tile.entityCounts.length; pass++) {
+            for (int i = tile.first; i <= tile.last; i++) {
+                int column = ascending ? i : tile.last - (i - tile.first);
+                CategoryItemRendererState state = column >= tile.ownedFirst
+                        && column <= tile.ownedLast ? tile.owned
+                        : tile.borrowed;
+                for (int r = 0; r < rowCount; r++) {
+                    int row = rowsAscending ? r : rowCount - 1 - r;
+                    renderer.drawItem(tile.g2, state, dataArea, this,
+                            domainAxis, rangeAxis, dataset, row, column,
+                            pass);
+                }
+            }
+            tile.entityCounts[pass] = entities != null
+                    ? entities.getEntityCount() : 0;
+        }
+    }
+
+    /**
+     * Fills the renderer's lookup tables for every series, and returns the
+     * distance (in Java2D units) that an item can reach beyond its category
+     * along the domain axis.  If that distance is not known (for example,
+     * when item labels are visible) the result is infinite, so that every
+     * tile draws every item.
+     *
+     * @param renderer  the renderer.
+     * @param rowCount  the number of series.
+     *
+     * @return The distance.
+     */
+    private double prepareRenderer(CategoryItemRenderer renderer,
+            int rowCount) {
+        double reach = 0.0;
+        for (int row = 0; row < rowCount; row++) {
+            renderer.getItemPaint(row, 0);
+            renderer.getItemOutlinePaint(row, 0);
+            reach = Math.max(reach, strokeReach(renderer.getItemStroke(row,
+                    0)));
+            reach = Math.max(reach, strokeReach(
+                    renderer.getItemOutlineStroke(row, 0)));
+            if (renderer instanceof AbstractRenderer) {
+                AbstractRenderer r = (AbstractRenderer) renderer;
+                r.lookupSeriesFillPaint(row);
+                r.lookupSeriesShape(row);
+                if (r.isSeriesItemLabelsVisible(row)) {
+                    reach = Double.POSITIVE_INFINITY;
+                }
+            }
+        }
+        if (renderer instanceof BarRenderer) {
+            BarRenderer r = (BarRenderer) renderer;
+            if (r.getShadowsVisible()) {
+                reach += Math.max(Math.abs(r.getShadowXOffset()),
+                        Math.abs(r.getShadowYOffset()));
+            }
+        }
+        return reach + ANTI_ALIAS_MARGIN;
+    }
+
+    /**
+     * Returns the distance that a stroke can reach beyond the outline of a
+     * shape, allowing for mitred corners.
+     *
+     * @param stroke  the stroke ({@code null} permitted).
+     *
+     * @return The distance (infinite if the stroke is not a
+     *     {@code BasicStroke}).
+     */
+    private static double strokeReach(Stroke stroke) {
+        if (stroke == null) {
+            return 0.0;
+        }
+        if (!(stroke instanceof BasicStroke)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        BasicStroke bs = (BasicStroke) stroke;
+        return bs.getLineWidth() * Math.max(1.0, bs.getMiterLimit()) / 2.0;
+    }
+
+    /**
+     * Returns the index of the first column whose category ends at or after
+     * the given coordinate (or the column count if there is none).  The
+     * categories are laid out in index order along the axis.
+     *
+     * @param axis  the domain axis.
+     * @param columnCount  the column count.
+     * @param area  the data area.
+     * @param edge  the domain axis edge.
+     * @param coordinate  the coordinate.
+     *
+     * @return The column index.
+     */
+    private static int findFirstColumn(CategoryAxis axis, int columnCount,
+            Rectangle2D area, RectangleEdge edge, double coordinate) {
+        int low = 0;
+        int high = columnCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (axis.getCategoryEnd(mid, columnCount, area, edge)
+                    < coordinate) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first column whose category starts after the
+     * given coordinate (or the column count if there is none).
+     *
+     * @param axis  the domain axis.
+     * @param columnCount  the column count.
+     * @param area  the data area.
+     * @param edge  the domain axis edge.
+     * @param coordinate  the coordinate.
+     *
+     * @return The column index.
+     */
+    private static int findFirstStartAfter(CategoryAxis axis,
+            int columnCount, Rectangle2D area, RectangleEdge edge,
+            double coordinate) {
+        int low = 0;
+        int high = columnCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (axis.getCategoryStart(mid, columnCount, area, edge)
+                    <= coordinate) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first column whose category middle is at or
+     * after the given coordinate (or the column count if there is none).
+     *
+     * @param axis  the domain axis.
+     * @param columnCount  the column count.
+     * @param area  the data area.
+     * @param edge  the domain axis edge.
+     * @param coordinate  the coordinate.
+     *
+     * @return The column index.
+     */
+    private static int findFirstMiddle(CategoryAxis axis, int columnCount,
+            Rectangle2D area, RectangleEdge edge, double coordinate) {
+        int low = 0;
+        int high = columnCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (axis.getCategoryMiddle(mid, columnCount, area, edge)
+                    < coordinate) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns a new crosshair state with the same anchor, distance and
+     * values as the given state.
+     *
+     * @param source  the source state.
+     *
+     * @return The copy.
+     */
+    private static CategoryCrosshairState copyCrosshairState(
+            CategoryCrosshairState source) {
+        CategoryCrosshairState copy = new CategoryCrosshairState();
+        copy.setAnchor(source.getAnchor());
+        copy.setAnchorX(source.getAnchorX());
+        copy.setAnchorY(source.getAnchorY());
+        copy.setCrosshairDistance(source.getCrosshairDistance());
+        copy.setRowKey(source.getRowKey());
+        copy.setColumnKey(source.getColumnKey());
+        copy.setCrosshairX(source.getCrosshairX());
+        copy.setCrosshairY(source.getCrosshairY());
+        copy.setDatasetIndex(source.getDatasetIndex());
+        return copy;
+    }
+
+    /**
+     * Tests this plot for equality with an arbitrary object.  The pool is
+     * not considered.
+     *
+     * @param obj  the object ({@code null} permitted).
+     *
+     * @return A boolean.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof ParallelCategoryPlot)) {
+            return false;
+        }
+        ParallelCategoryPlot that = (ParallelCategoryPlot) obj;
+        if (this.tileCount != that.tileCount) {
+            return false;
+        }
+        if (this.minimumItemCount != that.minimumItemCount) {
+            return false;
+        }
+        return super.equals(obj);
+    }
+
+    /**
+     * The work for one tile.
+     */
+    private static class Tile {
+
+        /** The graphics device, clipped to the tile. */
+        final Graphics2D g2;
+
+        /** The state for the items owned by this tile. */
+        final CategoryItemRendererState owned;
+
+        /** The state for the items owned by neighbouring tiles. */
+        final CategoryItemRendererState borrowed;
+
+        /** The first column that can reach the tile. */
+        final int first;
+
+        /** The last column that can reach the tile. */
+        final int last;
+
+        /** The first column owned by the tile. */
+        final int ownedFirst;
+
+        /** The last column owned by the tile. */
+        final int ownedLast;
+
+        /** The entity count at the end of each pass. */
+        final int[] entityCounts;
+
+        Tile(Graphics2D g2, CategoryItemRendererState owned,
+                CategoryItemRendererState borrowed, int first, int last,
+                int ownedFirst, int ownedLast, int passCount) {
+            this.g2 = g2;
+            this.owned = owned;
+            this.borrowed = borrowed;
+            this.first = first;
+            this.last = last;
+            this.ownedFirst = ownedFirst;
+            this.ownedLast = ownedLast;
+            this.entityCounts = new int[passCount];
+        }
+
+    }
+
+}
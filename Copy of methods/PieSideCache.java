@@ -0,0 +1,179 @@
+package org.jfree.chart.plot;
+
+import java.awt.Shape;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Rectangle2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used cache of the side shapes drawn by
+ * {@link PiePlot3D#drawSide}.  Entries are keyed on everything that
+ * determines the side geometry: the plot area, the frame, start and extent
+ * of the section arc, the depth factor and the drawFront/drawBack flags.
+ * <P>
+ * Instances are not thread-safe (like the plot that owns them).
+ */
+class PieSideCache {
+
+    /** The maximum number of entries. */
+    private final int maximumSize;
+
+    /** The cached sides, in access order. */
+    private final LinkedHashMap<Key, Shape[]> sides;
+
+    /** A reusable key for lookups. */
+    private final Key probe;
+
+    /** The number of lookups that found an entry. */
+    private long hitCount;
+
+    /** The number of lookups that did not find an entry. */
+    private long missCount;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumSize  the maximum number of entries (greater than zero).
+     */
+    PieSideCache(final int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.sides = new LinkedHashMap<Key, Shape[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Shape[]> e) {
+                return size() > maximumSize;
+            }
+        };
+        this.probe = new Key();
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return The maximum number of entries.
+     */
+    int getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * Returns the number of lookups that found an entry.
+     *
+     * @return The hit count.
+     */
+    long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that did not find an entry.
+     *
+     * @return The miss count.
+     */
+    long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Removes all entries (the hit and miss counts are not reset).
+     */
+    void clear() {
+        this.sides.clear();
+    }
+
+    /**
+     * Returns the two-element array that holds the side shapes for a section.
+     * If there is no entry for the section yet, an empty array is added to
+     * the cache and returned, and the caller fills it in as the sides are
+     * computed.
+     *
+     * @param plotArea  the plot area.
+     * @param arc  the section arc.
+     * @param depthFactor  the depth factor of the plot.
+     * @param drawFront  draw the front?
+     * @param drawBack  draw the back?
+     *
+     * @return The side shapes (never {@code null}).
+     */
+    Shape[] getSides(Rectangle2D plotArea, Arc2D arc, double depthFactor,
+            boolean drawFront, boolean drawBack) {
+        this.probe.set(plotArea, arc, depthFactor, drawFront, drawBack);
+        Shape[] result = this.sides.get(this.probe);
+        if (result != null) {
+            this.hitCount++;
+            return result;
+        }
+        this.missCount++;
+        result = new Shape[2];
+        Key key = new Key();
+        key.set(plotArea, arc, depthFactor, drawFront, drawBack);
+        this.sides.put(key, result);
+        return result;
+    }
+
+    /**
+     * The cache key.
+     */
+    private static final class Key {
+
+        private double plotX, plotY, plotW, plotH;
+
+        private double arcX, arcY, arcW, arcH;
+
+        private double start, extent, depthFactor;
+
+        private boolean drawFront, drawBack;
+
+        void set(Rectangle2D plotArea, Arc2D arc, double depthFactor,
+                boolean drawFront, boolean drawBack) {
+            this.plotX = plotArea.getX();
+            this.plotY = plotArea.getY();
+            this.plotW = plotArea.getWidth();
+            this.plotH = plotArea.getHeight();
+            this.arcX = arc.getX();
+            this.arcY = arc.getY();
+            this.arcW = arc.getWidth();
+            this.arcH = arc.getHeight();
+            this.start = arc.getAngleStart();
+            this.extent = arc.getAngleExtent();
+            this.depthFactor = depthFactor;
+            this.drawFront = drawFront;
+            this.drawBack = drawBack;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return this.plotX == that.plotX && this.plotY == that.plotY
+                    && this.plotW == that.plotW && this.plotH == that.plotH
+                    && this.arcX == that.arcX && this.arcY == that.arcY
+                    && this.arcW == that.arcW && this.arcH == that.arcH
+                    && this.start == that.start && this.extent == that.extent
+                    && this.depthFactor == that.depthFactor
+                    && this.drawFront == that.drawFront
+                    && this.drawBack == that.drawBack;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = Double.doubleToLongBits(this.plotX);
+            h = 31 * h + Double.doubleToLongBits(this.plotY);
+            h = 31 * h + Double.doubleToLongBits(this.plotW);
+            h = 31 * h + Double.doubleToLongBits(this.plotH);
+            h = 31 * h + Double.doubleToLongBits(this.arcX);
+            h = 31 * h + Double.doubleToLongBits(this.arcY);
+            h = 31 * h + Double.doubleToLongBits(this.arcW);
+            h = 31 * h + Double.doubleToLongBits(this.arcH);
+            h = 31 * h + Double.doubleToLongBits(this.start);
+            h = 31 * h + Double.doubleToLongBits(this.extent);
+            h = 31 * h + Double.doubleToLongBits(this.depthFactor);
+            h = 31 * h + (this.drawFront ? 1 : 0);
+            h = 31 * h + (this.drawBack ? 1 : 0);
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+}
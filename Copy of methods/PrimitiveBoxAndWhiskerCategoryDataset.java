@@ -0,0 +1,136 @@
+package org.jfree.data.statistics;
+
+/**
+ * A {@link BoxAndWhiskerCategoryDataset} that can also return its values as
+ * primitive {@code double} values, so that renderers can read them without
+ * creating (or unboxing) a {@code Number} for each statistic.  A missing
+ * value is returned as {@code Double.NaN} where the {@code Number} methods
+ * would return {@code null}.
+ *
+ * @see ColumnarBoxAndWhiskerCategoryDataset
+ */
+public interface PrimitiveBoxAndWhiskerCategoryDataset
+        extends BoxAndWhiskerCategoryDataset {
+
+    /**
+     * Returns the mean value for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The mean value ({@code Double.NaN} if there is no value).
+     *
+     * @see #getMeanValue(int, int)
+     */
+    public double getMeanDouble(int row, int column);
+
+    /**
+     * Returns the median value for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The median value ({@code Double.NaN} if there is no value).
+     *
+     * @see #getMedianValue(int, int)
+     */
+    public double getMedianDouble(int row, int column);
+
+    /**
+     * Returns the q1 value for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The q1 value ({@code Double.NaN} if there is no value).
+     *
+     * @see #getQ1Value(int, int)
+     */
+    public double getQ1Double(int row, int column);
+
+    /**
+     * Returns the q3 value for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The q3 value ({@code Double.NaN} if there is no value).
+     *
+     * @see #getQ3Value(int, int)
+     */
+    public double getQ3Double(int row, int column);
+
+    /**
+     * Returns the minimum regular (non-outlier) value for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The minimum regular value ({@code Double.NaN} if there is no
+     *     value).
+     *
+     * @see #getMinRegularValue(int, int)
+     */
+    public double getMinRegularDouble(int row, int column);
+
+    /**
+     * Returns the maximum regular (non-outlier) value for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The maximum regular value ({@code Double.NaN} if there is no
+     *     value).
+     *
+     * @see #getMaxRegularValue(int, int)
+     */
+    public double getMaxRegularDouble(int row, int column);
+
+    /**
+     * Returns the minimum outlier (non-farout) value for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The minimum outlier ({@code Double.NaN} if there is no value).
+     *
+     * @see #getMinOutlier(int, int)
+     */
+    public double getMinOutlierDouble(int row, int column);
+
+    /**
+     * Returns the maximum outlier (non-farout) value for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The maximum outlier ({@code Double.NaN} if there is no value).
+     *
+     * @see #getMaxOutlier(int, int)
+     */
+    public double getMaxOutlierDouble(int row, int column);
+
+    /**
+     * Returns the number of outliers for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The number of outliers, or -1 where {@link #getOutliers(int,
+     *     int)} would return {@code null}.
+     */
+    public int getOutlierCount(int row, int column);
+
+    /**
+     * Returns one outlier for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     * @param index  the outlier index (less than
+     *     {@link #getOutlierCount(int, int)}).
+     *
+     * @return The outlier value.
+     */
+    public double getOutlierDouble(int row, int column, int index);
+
+}
@@ -0,0 +1,66 @@
+package org.jfree.data.gantt;
+
+import java.util.BitSet;
+
+/**
+ * A {@link GanttCategoryDataset} that can also return its values as
+ * primitive {@code double} values, and that can find the tasks overlapping
+ * a range of values without visiting every task.  A missing value is
+ * returned as {@code Double.NaN} where the {@code Number} methods would
+ * return {@code null}.
+ *
+ * @see ColumnarGanttCategoryDataset
+ */
+public interface PrimitiveGanttCategoryDataset extends GanttCategoryDataset {
+
+    /**
+     * Returns the start value for a task.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The start value ({@code Double.NaN} if there is no task).
+     *
+     * @see #getStartValue(int, int)
+     */
+    public double getStartDouble(int row, int column);
+
+    /**
+     * Returns the end value for a task.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The end value ({@code Double.NaN} if there is no task).
+     *
+     * @see #getEndValue(int, int)
+     */
+    public double getEndDouble(int row, int column);
+
+    /**
+     * Returns the percent complete for a task.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The percent complete ({@code Double.NaN} if there is no
+     *     value).
+     *
+     * @see #getPercentComplete(int, int)
+     */
+    public double getPercentCompleteDouble(int row, int column);
+
+    /**
+     * Finds the tasks that overlap a range of values (that is, the tasks
+     * whose start value is no greater than {@code upper} and whose end value
+     * is no less than {@code lower}).  For each such task, the bit
+     * {@code row * getColumnCount() + column} is set in {@code items}.  No
+     * bits are cleared.
+     *
+     * @param lower  the lower bound of the range.
+     * @param upper  the upper bound of the range.
+     * @param items  the bit set to update ({@code null} not permitted).
+     */
+    public void findItems(double lower, double upper, BitSet items);
+
+}
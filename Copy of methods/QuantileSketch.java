@@ -0,0 +1,434 @@
+package org.jfree.data.statistics;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A bounded-memory summary of a stream of values that can answer rank
+ * queries approximately (a KLL sketch).  Values are added to a buffer at
+ * level 0; when a level is full it is sorted and every second value is
+ * promoted to the next level, where it stands for twice as many values.
+ * Memory use grows only with the logarithm of the number of values added,
+ * and the error of a rank query is a small fraction of the count that
+ * shrinks as the size parameter grows.
+ * <P>
+ * Until the first compaction (that is, while fewer values than the size
+ * parameter have been added) the sketch holds every value, and rank queries
+ * are exact.
+ * <P>
+ * The promotion step uses a pseudo-random generator with a fixed seed, so
+ * the same stream of values always gives the same results.  Instances are
+ * not thread-safe.
+ *
+ * @see StreamingBoxAndWhiskerCategoryDataset
+ */
+public class QuantileSketch implements Cloneable, Serializable {
+
+    /** For serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /** The size parameter. */
+    private final int k;
+
+    /** The values held at each level (a value at level h has weight 2^h). */
+    private double[][] levels;
+
+    /** The number of values held at each level. */
+    private int[] sizes;
+
+    /** The number of levels in use. */
+    private int levelCount;
+
+    /** The number of values added. */
+    private long count;
+
+    /** The smallest value added. */
+    private double min;
+
+    /** The largest value added. */
+    private double max;
+
+    /** The state of the pseudo-random generator. */
+    private long random;
+
+    /** The held values in ascending order (built on demand). */
+    private transient double[] sortedValues;
+
+    /**
+     * The cumulative weights of {@code sortedValues} (built on demand).
+     */
+    private transient long[] sortedWeights;
+
+    /** The number of entries in {@code sortedValues}. */
+    private transient int sortedSize;
+
+    /** Are the sorted arrays up to date? */
+    private transient boolean sortedValid;
+
+    /**
+     * Creates a new, empty, sketch.
+     *
+     * @param k  the size parameter (8 or greater).  The sketch holds
+     *     roughly 3 * k values, and holds every value until {@code k}
+     *     values have been added.
+     */
+    public QuantileSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("Requires 'k' >= 8.");
+        }
+        this.k = k;
+        this.levels = new double[][] {new double[k]};
+        this.sizes = new int[1];
+        this.levelCount = 1;
+        this.min = Double.NaN;
+        this.max = Double.NaN;
+        this.random = 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Returns the size parameter.
+     *
+     * @return The size parameter.
+     */
+    public int getK() {
+        return this.k;
+    }
+
+    /**
+     * Returns the number of values that have been added.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the smallest value that has been added.
+     *
+     * @return The minimum ({@code Double.NaN} if the sketch is empty).
+     */
+    public double getMin() {
+        return this.min;
+    }
+
+    /**
+     * Returns the largest value that has been added.
+     *
+     * @return The maximum ({@code Double.NaN} if the sketch is empty).
+     */
+    public double getMax() {
+        return this.max;
+    }
+
+    /**
+     * Returns {@code true} if the sketch still holds every value added, in
+     * which case {@link #getValue(long)} is exact.
+     *
+     * @return A boolean.
+     */
+    public boolean isExact() {
+        return this.levelCount == 1;
+    }
+
+    /**
+     * Adds a value to the sketch.
+     *
+     * @param value  the value (must not be {@code Double.NaN}).
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("NaN is not permitted.");
+        }
+        if (this.count == 0) {
+            this.min = value;
+            this.max = value;
+        }
+        else {
+            this.min = Math.min(this.min, value);
+            this.max = Math.max(this.max, value);
+        }
+        this.count++;
+        if (this.sizes[0] >= capacity(0)) {
+            compress();
+        }
+        this.levels[0][this.sizes[0]++] = value;
+        this.sortedValid = false;
+    }
+
+    /**
+     * Returns (an estimate of) the value with the given rank, that is, the
+     * value that would be at index {@code rank} if all the values added were
+     * sorted into ascending order.
+     *
+     * @param rank  the rank (in the range 0 to {@code getCount() - 1}).
+     *
+     * @return The value.
+     */
+    public double getValue(long rank) {
+        if (rank < 0 || rank >= this.count) {
+            throw new IllegalArgumentException("Rank " + rank
+                    + " out of bounds.");
+        }
+        if (rank == 0) {
+            return this.min;
+        }
+        if (rank == this.count - 1) {
+            return this.max;
+        }
+        ensureSorted();
+        // the first value whose cumulative weight exceeds the rank
+        int lo = 0;
+        int hi = this.sortedSize - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.sortedWeights[mid] > rank) {
+                hi = mid;
+            }
+            else {
+                lo = mid + 1;
+            }
+        }
+        return this.sortedValues[lo];
+    }
+
+    /**
+     * Returns the number of values held by the sketch (the number of entries
+     * that {@link #getHeldValue(int)} can return).
+     *
+     * @return The number of values held.
+     */
+    public int getHeldCount() {
+        ensureSorted();
+        return this.sortedSize;
+    }
+
+    /**
+     * Returns one of the values held by the sketch, in ascending order.
+     * While the sketch is exact these are all the values added.
+     *
+     * @param index  the index (less than {@link #getHeldCount()}).
+     *
+     * @return The value.
+     */
+    public double getHeldValue(int index) {
+        ensureSorted();
+        if (index < 0 || index >= this.sortedSize) {
+            throw new IndexOutOfBoundsException("Index " + index
+                    + " out of bounds.");
+        }
+        return this.sortedValues[index];
+    }
+
+    /**
+     * Tests this sketch for equality with an arbitrary object.  Two sketches
+     * are equal if they have the same size parameter and hold the same
+     * values at each level, which is the case for sketches that have been
+     * given the same stream of values.
+     *
+     * @param obj  the object to test against ({@code null} permitted).
+     *
+     * @return A boolean.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof QuantileSketch)) {
+            return false;
+        }
+        QuantileSketch that = (QuantileSketch) obj;
+        if (this.k != that.k || this.count != that.count
+                || this.levelCount != that.levelCount
+                || this.random != that.random
+                || Double.doubleToLongBits(this.min)
+                != Double.doubleToLongBits(that.min)
+                || Double.doubleToLongBits(this.max)
+                != Double.doubleToLongBits(that.max)) {
+            return false;
+        }
+        for (int h = 0; h < this.levelCount; h++) {
+            // a level is sorted when it is queried, so compare sorted copies
+            double[] a = Arrays.copyOf(this.levels[h], this.sizes[h]);
+            double[] b = Arrays.copyOf(that.levels[h], that.sizes[h]);
+            Arrays.sort(a);
+            Arrays.sort(b);
+            if (!Arrays.equals(a, b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code for this sketch.
+     *
+     * @return A hash code.
+     */
+    @Override
+    public int hashCode() {
+        int result = 193;
+        result = 43 * result + this.k;
+        result = 43 * result + Long.hashCode(this.count);
+        return result;
+    }
+
+    /**
+     * Returns a clone of this sketch.
+     *
+     * @return A clone.
+     *
+     * @throws CloneNotSupportedException if cloning is not possible.
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        QuantileSketch clone = (QuantileSketch) super.clone();
+        clone.levels = new double[this.levels.length][];
+        for (int h = 0; h < this.levelCount; h++) {
+            clone.levels[h] = this.levels[h].clone();
+        }
+        clone.sizes = this.sizes.clone();
+        clone.sortedValues = null;
+        clone.sortedWeights = null;
+        clone.sortedValid = false;
+        return clone;
+    }
+
+    /**
+     * Returns the capacity of a level.  Lower levels get smaller
+     * capacities, decreasing geometrically from {@code k} at the top.
+     *
+     * @param level  the level.
+     *
+     * @return The capacity.
+     */
+    private int capacity(int level) {
+        int depth = this.levelCount - 1 - level;
+        return Math.max(2, (int) Math.ceil(this.k * Math.pow(2.0 / 3.0,
+                depth)));
+    }
+
+    /**
+     * Makes room at level 0 by compacting it, and then compacting each level
+     * above it in turn for as long as the promoted values leave that level
+     * at or over its capacity.
+     */
+    private void compress() {
+        int h = 0;
+        do {
+            if (h + 1 == this.levelCount) {
+                addLevel();
+            }
+            compact(h);
+            h++;
+        } while (this.sizes[h] >= capacity(h));
+    }
+
+    private void addLevel() {
+        if (this.levelCount == this.levels.length) {
+            this.levels = Arrays.copyOf(this.levels, this.levelCount + 1);
+            this.sizes = Arrays.copyOf(this.sizes, this.levelCount + 1);
+        }
+        this.levels[this.levelCount] = new double[this.k];
+        this.sizes[this.levelCount] = 0;
+        this.levelCount++;
+    }
+
+    /**
+     * Sorts a level and promotes every second value (starting at a random
+     * offset) to the level above.  With an odd number of values, the largest
+     * stays where it is.
+     *
+     * @param h  the level.
+     */
+    private void compact(int h) {
+        double[] level = this.levels[h];
+        int size = this.sizes[h];
+        Arrays.sort(level, 0, size);
+        int pairs = size / 2;
+        int offset = nextBit();
+        int above = this.sizes[h + 1];
+        double[] target = this.levels[h + 1];
+        if (target.length < above + pairs) {
+            target = Arrays.copyOf(target, Math.max(above + pairs,
+                    target.length * 2));
+            this.levels[h + 1] = target;
+        }
+        for (int i = 0; i < pairs; i++) {
+            target[above + i] = level[2 * i + offset];
+        }
+        this.sizes[h + 1] = above + pairs;
+        if (size % 2 == 1) {
+            level[0] = level[size - 1];
+            this.sizes[h] = 1;
+        }
+        else {
+            this.sizes[h] = 0;
+        }
+    }
+
+    private int nextBit() {
+        // xorshift64
+        long x = this.random;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        this.random = x;
+        return (int) (x >>> 63);
+    }
+
+    /**
+     * Builds the sorted values and cumulative weights, if they are out of
+     * date.
+     */
+    private void ensureSorted() {
+        if (this.sortedValid) {
+            return;
+        }
+        int total = 0;
+        for (int h = 0; h < this.levelCount; h++) {
+            total += this.sizes[h];
+        }
+        if (this.sortedValues == null || this.sortedValues.length < total) {
+            this.sortedValues = new double[total];
+            this.sortedWeights = new long[total];
+        }
+        double[] values = this.sortedValues;
+        long[] weights = this.sortedWeights;
+        // merge the sorted levels, lowest first, into values and weights
+        int n = 0;
+        double[] mergedValues = new double[total];
+        long[] mergedWeights = new long[total];
+        for (int h = 0; h < this.levelCount; h++) {
+            int size = this.sizes[h];
+            Arrays.sort(this.levels[h], 0, size);
+            long weight = 1L << h;
+            int i = 0;
+            int j = 0;
+            int m = 0;
+            while (i < n || j < size) {
+                if (j == size || (i < n
+                        && values[i] <= this.levels[h][j])) {
+                    mergedValues[m] = values[i];
+                    mergedWeights[m++] = weights[i++];
+                }
+                else {
+                    mergedValues[m] = this.levels[h][j++];
+                    mergedWeights[m++] = weight;
+                }
+            }
+            System.arraycopy(mergedValues, 0, values, 0, m);
+            System.arraycopy(mergedWeights, 0, weights, 0, m);
+            n = m;
+        }
+        long cumulative = 0;
+        for (int i = 0; i < n; i++) {
+            cumulative += weights[i];
+            weights[i] = cumulative;
+        }
+        this.sortedSize = n;
+        this.sortedValid = true;
+    }
+
+}
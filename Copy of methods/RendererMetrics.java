@@ -0,0 +1,375 @@
+package org.jfree.chart.renderer;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.jfree.chart.util.Args;
+
+/**
+ * Counters for the time spent in the drawing methods of the renderers, so
+ * that a slow chart can be attributed to a renderer (and to geometry,
+ * painting or entity creation within it) without a profiler.
+ * <P>
+ * Each instrumented method has a {@link Probe}, which counts the calls and
+ * the nanoseconds spent computing geometry, in {@code Graphics2D} fill and
+ * draw calls, and in creating entities, plus the number of shapes the
+ * method allocated.  A method marks the boundaries between these phases
+ * with {@link Probe#start()}, {@link Probe#geometry(long)},
+ * {@link Probe#draw(long)} and {@link Probe#entities(long)}, each of which
+ * adds the time since the previous mark to a counter.
+ * <P>
+ * The counters are off unless the system property
+ * {@value #ENABLED_PROPERTY} is {@code true} when this class is loaded.  The
+ * flag is a constant, so when it is off the JIT compiler removes the probe
+ * calls and the instrumented methods cost the same as before.  When it is
+ * on:
+ * <ul>
+ * <li>each probe is registered as a platform MXBean named
+ *     {@code org.jfree.chart:type=RendererMetrics,name="<probe name>"};</li>
+ * <li>a periodic JFR event ({@code org.jfree.chart.RendererMetrics}, once
+ *     a second by default) records the totals for each probe, when the
+ *     {@code jdk.jfr} module is present.</li>
+ * </ul>
+ */
+public final class RendererMetrics {
+
+    /** The system property that turns the counters on. */
+    public static final String ENABLED_PROPERTY
+            = "org.jfree.chart.renderer.metrics";
+
+    /** Are the counters on? */
+    private static final boolean ENABLED = Boolean.getBoolean(
+            ENABLED_PROPERTY);
+
+    /** The probes, by name. */
+    private static final ConcurrentMap<String, Probe> PROBES
+            = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            try {
+                RendererMetricsEvent.register();
+            }
+            catch (LinkageError | SecurityException e) {
+                // no JFR in this runtime, the JMX counters still work
+            }
+        }
+    }
+
+    private RendererMetrics() {
+        // no requirement to instantiate
+    }
+
+    /**
+     * Returns {@code true} if the counters are on (see the class
+     * description).
+     *
+     * @return A boolean.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns the probe with the given name, creating (and, if the counters
+     * are on, registering) it the first time.  Renderers keep their probes
+     * in static fields, named after the class and method, for example
+     * {@code "GanttRenderer.drawTask"}.
+     *
+     * @param name  the probe name ({@code null} not permitted).
+     *
+     * @return The probe (never {@code null}).
+     */
+    public static Probe getProbe(String name) {
+        Args.nullNotPermitted(name, "name");
+        return PROBES.computeIfAbsent(name, n -> {
+            Probe probe = new Probe(n);
+            if (ENABLED) {
+                register(probe);
+            }
+            return probe;
+        });
+    }
+
+    /**
+     * Returns all the probes created so far, sorted by name.
+     *
+     * @return A new list (never {@code null}).
+     */
+    public static List<Probe> getProbes() {
+        List<Probe> result = new ArrayList<>(PROBES.values());
+        Collections.sort(result, Comparator.comparing(Probe::getName));
+        return result;
+    }
+
+    /**
+     * Resets the counters of every probe to zero.
+     */
+    public static void reset() {
+        for (Probe probe : PROBES.values()) {
+            probe.reset();
+        }
+    }
+
+    /**
+     * Registers a probe with the platform MBean server.
+     *
+     * @param probe  the probe.
+     */
+    private static void register(Probe probe) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(
+                    "org.jfree.chart:type=RendererMetrics,name="
+                    + ObjectName.quote(probe.getName()));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(probe, name);
+            }
+        }
+        catch (JMException | SecurityException e) {
+            // the counters are still available through getProbes()
+        }
+    }
+
+    /**
+     * The management interface of a {@link Probe}.
+     */
+    public interface ProbeMXBean {
+
+        /**
+         * Returns the probe name.
+         *
+         * @return The name.
+         */
+        String getName();
+
+        /**
+         * Returns the number of calls to the instrumented method.
+         *
+         * @return The call count.
+         */
+        long getCallCount();
+
+        /**
+         * Returns the nanoseconds spent computing geometry.
+         *
+         * @return The time.
+         */
+        long getGeometryNanos();
+
+        /**
+         * Returns the nanoseconds spent in {@code Graphics2D} fill and draw
+         * calls (including the paint and stroke changes around them).
+         *
+         * @return The time.
+         */
+        long getDrawNanos();
+
+        /**
+         * Returns the nanoseconds spent creating entities.
+         *
+         * @return The time.
+         */
+        long getEntityNanos();
+
+        /**
+         * Returns the number of shapes allocated by the instrumented method.
+         *
+         * @return The shape count.
+         */
+        long getShapeCount();
+
+        /**
+         * Resets the counters to zero.
+         */
+        void reset();
+
+    }
+
+    /**
+     * The counters for one instrumented method.  All methods are safe to
+     * call from several threads, and do nothing (returning zero) when the
+     * counters are off.
+     */
+    public static final class Probe implements ProbeMXBean {
+
+        /** The probe name. */
+        private final String name;
+
+        /** The call count. */
+        private final LongAdder calls;
+
+        /** The geometry time. */
+        private final LongAdder geometryNanos;
+
+        /** The fill and draw time. */
+        private final LongAdder drawNanos;
+
+        /** The entity time. */
+        private final LongAdder entityNanos;
+
+        /** The shape count. */
+        private final LongAdder shapes;
+
+        /**
+         * Creates a new probe.
+         *
+         * @param name  the name.
+         */
+        private Probe(String name) {
+            this.name = name;
+            this.calls = new LongAdder();
+            this.geometryNanos = new LongAdder();
+            this.drawNanos = new LongAdder();
+            this.entityNanos = new LongAdder();
+            this.shapes = new LongAdder();
+        }
+
+        /**
+         * Counts a call to the instrumented method and returns the first
+         * mark.
+         *
+         * @return The mark (zero if the counters are off).
+         */
+        public long start() {
+            if (!ENABLED) {
+                return 0L;
+            }
+            this.calls.increment();
+            return System.nanoTime();
+        }
+
+        /**
+         * Returns a mark without counting a call, for a helper method that
+         * is timed separately from its caller.
+         *
+         * @return The mark (zero if the counters are off).
+         */
+        public long mark() {
+            return ENABLED ? System.nanoTime() : 0L;
+        }
+
+        /**
+         * Adds the time since {@code mark} to the geometry time.
+         *
+         * @param mark  the previous mark.
+         *
+         * @return The new mark.
+         */
+        public long geometry(long mark) {
+            return lap(this.geometryNanos, mark);
+        }
+
+        /**
+         * Adds the time since {@code mark} to the fill and draw time.
+         *
+         * @param mark  the previous mark.
+         *
+         * @return The new mark.
+         */
+        public long draw(long mark) {
+            return lap(this.drawNanos, mark);
+        }
+
+        /**
+         * Adds the time since {@code mark} to the entity time.
+         *
+         * @param mark  the previous mark.
+         *
+         * @return The new mark.
+         */
+        public long entities(long mark) {
+            return lap(this.entityNanos, mark);
+        }
+
+        /**
+         * Adds to the number of shapes allocated.
+         *
+         * @param count  the number of shapes.
+         */
+        public void shapes(int count) {
+            if (ENABLED) {
+                this.shapes.add(count);
+            }
+        }
+
+        /**
+         * Adds the time since a mark to a counter.
+         *
+         * @param counter  the counter.
+         * @param mark  the mark.
+         *
+         * @return The new mark.
+         */
+        private static long lap(LongAdder counter, long mark) {
+            if (!ENABLED) {
+                return 0L;
+            }
+            long now = System.nanoTime();
+            counter.add(now - mark);
+            return now;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public long getCallCount() {
+            return this.calls.sum();
+        }
+
+        @Override
+        public long getGeometryNanos() {
+            return this.geometryNanos.sum();
+        }
+
+        @Override
+        public long getDrawNanos() {
+            return this.drawNanos.sum();
+        }
+
+        @Override
+        public long getEntityNanos() {
+            return this.entityNanos.sum();
+        }
+
+        @Override
+        public long getShapeCount() {
+            return this.shapes.sum();
+        }
+
+        @Override
+        public void reset() {
+            this.calls.reset();
+            this.geometryNanos.reset();
+            this.drawNanos.reset();
+            this.entityNanos.reset();
+            this.shapes.reset();
+        }
+
+        /**
+         * Returns a string describing the probe and its counters.
+         *
+         * @return A string.
+         */
+        @Override
+        public String toString() {
+            return this.name + "[calls=" + getCallCount() + ", geometry="
+                    + getGeometryNanos() + "ns, draw=" + getDrawNanos()
+                    + "ns, entities=" + getEntityNanos() + "ns, shapes="
+                    + getShapeCount() + "]";
+        }
+
+    }
+
+}
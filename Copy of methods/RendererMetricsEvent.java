@@ -0,0 +1,72 @@
+package org.jfree.chart.renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A periodic JFR event with the totals of one {@link RendererMetrics.Probe}.
+ * One event is committed for each probe in every period.  This class is
+ * only loaded when the renderer metrics are on.
+ */
+@Name("org.jfree.chart.RendererMetrics")
+@Label("Renderer Metrics")
+@Category({"JFreeChart"})
+@Description("Calls and time spent in a renderer drawing method, since the "
+        + "counters were last reset")
+@Period("1 s")
+@StackTrace(false)
+class RendererMetricsEvent extends Event {
+
+    @Label("Probe")
+    String probe;
+
+    @Label("Calls")
+    long calls;
+
+    @Label("Geometry Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long geometry;
+
+    @Label("Fill and Draw Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long draw;
+
+    @Label("Entity Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long entities;
+
+    @Label("Shapes Allocated")
+    long shapes;
+
+    /**
+     * Adds the periodic hook that commits the events.
+     */
+    static void register() {
+        FlightRecorder.addPeriodicEvent(RendererMetricsEvent.class,
+                RendererMetricsEvent::emit);
+    }
+
+    /**
+     * Commits one event for each probe.
+     */
+    private static void emit() {
+        for (RendererMetrics.Probe p : RendererMetrics.getProbes()) {
+            RendererMetricsEvent event = new RendererMetricsEvent();
+            event.probe = p.getName();
+            event.calls = p.getCallCount();
+            event.geometry = p.getGeometryNanos();
+            event.draw = p.getDrawNanos();
+            event.entities = p.getEntityNanos();
+            event.shapes = p.getShapeCount();
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,275 @@
+package org.jfree.chart.renderer.category;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * The areas that a {@link GanttRenderer} painted for each task in its most
+ * recent pass, kept when {@link GanttRenderer#setRetainTaskBounds(boolean)}
+ * is set so that an {@link IncrementalGanttPainter} can find the tasks that
+ * overlap a changed task without looking at every task.  The area of a task
+ * is its bar, widened on every side by the distance that the shadow,
+ * outline and anti-aliasing can reach beyond the bar.  A task that was not
+ * painted (because it has no values or lies outside the data area) has no
+ * area, and a task whose area is not known (because it was drawn with
+ * sub-tasks or an item label) is counted, so that the painter can fall back
+ * to drawing the whole chart.
+ * <P>
+ * The object also keeps the renderer state of the pass, which is needed to
+ * draw a task again with the same bar width and category layout.
+ * <P>
+ * Instances are not thread-safe.
+ */
+class RetainedTaskBounds {
+
+    /** The marker (in the first slot of an item) for an unknown area. */
+    private static final double UNKNOWN = Double.NEGATIVE_INFINITY;
+
+    /** The renderer state of the pass. */
+    private CategoryItemRendererState state;
+
+    /** The number of rows in the dataset. */
+    private int rowCount;
+
+    /** The number of columns in the dataset. */
+    private int columnCount;
+
+    /**
+     * The minimum x, minimum y, maximum x and maximum y of each item, in
+     * four consecutive slots ({@code Double.NaN} in the first slot if the
+     * item was not painted).
+     */
+    private double[] bounds;
+
+    /** The number of items whose area is unknown. */
+    private int unknownCount;
+
+    /**
+     * The largest distance (in Java2D units) by which an item's area reaches
+     * beyond its category along the domain axis.
+     */
+    private double reach;
+
+    /** A flag that stops the areas from being changed. */
+    private boolean locked;
+
+    /**
+     * Creates a new instance, with no items.
+     */
+    RetainedTaskBounds() {
+        this.bounds = new double[0];
+    }
+
+    /**
+     * Clears the areas for a new pass.
+     *
+     * @param state  the renderer state for the pass.
+     * @param rowCount  the number of rows in the dataset.
+     * @param columnCount  the number of columns in the dataset.
+     */
+    void reset(CategoryItemRendererState state, int rowCount,
+            int columnCount) {
+        this.state = state;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        int length = rowCount * columnCount * 4;
+        if (this.bounds.length != length) {
+            this.bounds = new double[length];
+        }
+        Arrays.fill(this.bounds, Double.NaN);
+        this.unknownCount = 0;
+        this.reach = 0.0;
+        this.locked = false;
+    }
+
+    /**
+     * Returns the renderer state of the pass.
+     *
+     * @return The state ({@code null} before the first pass).
+     */
+    CategoryItemRendererState getState() {
+        return this.state;
+    }
+
+    /**
+     * Returns the number of rows in the dataset for the pass.
+     *
+     * @return The row count.
+     */
+    int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Returns the number of columns in the dataset for the pass.
+     *
+     * @return The column count.
+     */
+    int getColumnCount() {
+        return this.columnCount;
+    }
+
+    /**
+     * Returns the number of items whose area is unknown.
+     *
+     * @return The count.
+     */
+    int getUnknownCount() {
+        return this.unknownCount;
+    }
+
+    /**
+     * Returns the largest distance (in Java2D units) by which the area of an
+     * item reaches beyond its category along the domain axis.
+     *
+     * @return The distance (zero or more).
+     */
+    double getReach() {
+        return this.reach;
+    }
+
+    /**
+     * Sets the flag that stops the areas from being changed, so that tasks
+     * can be drawn again without replacing the areas recorded for them.
+     *
+     * @param locked  the new flag value.
+     */
+    void setLocked(boolean locked) {
+        this.locked = locked;
+    }
+
+    /**
+     * Records that an item was not painted.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     */
+    void clear(int row, int column) {
+        if (this.locked) {
+            return;
+        }
+        int i = index(row, column);
+        if (this.bounds[i] == UNKNOWN) {
+            this.unknownCount--;
+        }
+        this.bounds[i] = Double.NaN;
+    }
+
+    /**
+     * Records that an item was painted, but not where.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     */
+    void setUnknown(int row, int column) {
+        if (this.locked) {
+            return;
+        }
+        int i = index(row, column);
+        if (this.bounds[i] != UNKNOWN) {
+            this.unknownCount++;
+        }
+        this.bounds[i] = UNKNOWN;
+        this.bounds[i + 2] = Double.NaN;
+    }
+
+    /**
+     * Records the area that an item painted.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     * @param bar  the bar.
+     * @param margin  the distance that the item can paint beyond the bar.
+     * @param horizontal  {@code true} if the domain axis is vertical.
+     * @param categoryStart  the start of the item's category.
+     * @param categoryEnd  the end of the item's category.
+     */
+    void set(int row, int column, Rectangle2D bar, double margin,
+            boolean horizontal, double categoryStart, double categoryEnd) {
+        if (this.locked) {
+            return;
+        }
+        int i = index(row, column);
+        if (this.bounds[i] == UNKNOWN) {
+            this.unknownCount--;
+        }
+        double x0 = bar.getMinX() - margin;
+        double y0 = bar.getMinY() - margin;
+        double x1 = bar.getMaxX() + margin;
+        double y1 = bar.getMaxY() + margin;
+        this.bounds[i] = x0;
+        this.bounds[i + 1] = y0;
+        this.bounds[i + 2] = x1;
+        this.bounds[i + 3] = y1;
+        double r = horizontal ? Math.max(categoryStart - y0, y1 - categoryEnd)
+                : Math.max(categoryStart - x0, x1 - categoryEnd);
+        if (r > this.reach) {
+            this.reach = r;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the area of an item is not known.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return A boolean.
+     */
+    boolean isUnknown(int row, int column) {
+        return this.bounds[index(row, column)] == UNKNOWN;
+    }
+
+    /**
+     * Returns the area that an item painted.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The area, or {@code null} if the item was not painted or its
+     *     area is not known.
+     */
+    Rectangle2D getBounds(int row, int column) {
+        int i = index(row, column);
+        double x0 = this.bounds[i];
+        if (Double.isNaN(x0) || x0 == UNKNOWN) {
+            return null;
+        }
+        return new Rectangle2D.Double(x0, this.bounds[i + 1],
+                this.bounds[i + 2] - x0, this.bounds[i + 3]
+                - this.bounds[i + 1]);
+    }
+
+    /**
+     * Returns {@code true} if the known area of an item intersects a
+     * rectangle.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     * @param r  the rectangle.
+     *
+     * @return A boolean.
+     */
+    boolean intersects(int row, int column, Rectangle2D r) {
+        int i = index(row, column);
+        double x0 = this.bounds[i];
+        // false when the item was not painted, or its area is unknown
+        // (which has no maximum x)
+        return x0 < r.getMaxX() && this.bounds[i + 2] > r.getMinX()
+                && this.bounds[i + 1] < r.getMaxY()
+                && this.bounds[i + 3] > r.getMinY();
+    }
+
+    /**
+     * Returns the index of the first slot for an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The index.
+     */
+    private int index(int row, int column) {
+        return (row * this.columnCount + column) * 4;
+    }
+
+}
@@ -0,0 +1,217 @@
+package org.jfree.chart.renderer;
+
+import java.awt.Paint;
+import java.awt.Stroke;
+import java.util.Arrays;
+import org.jfree.chart.util.Args;
+
+/**
+ * A per-series cache of the paint and stroke for the items drawn by a
+ * renderer during one drawing pass.  {@link AbstractRenderer} returns the
+ * series settings for every item, but looks them up again (checking the
+ * series list, the default and the auto-populate flags) on each call, and a
+ * renderer asks for them several times per item.  The cache asks once per
+ * series and then returns the same instance for every item, which also lets
+ * a {@link org.jfree.chart.util.StateElidingGraphics2D} recognise repeated
+ * settings by identity.
+ * <P>
+ * A renderer subclass may override {@code getItemPaint()} and the other
+ * item methods to vary the settings by item.  In that case the cache is
+ * bypassed and every call is passed on to the renderer.
+ * <P>
+ * A cache belongs to a renderer state, so it does not see changes to the
+ * renderer's settings made during the pass.  Instances are not thread-safe.
+ */
+public final class SeriesStyleCache {
+
+    /**
+     * Records, for each renderer class, whether it uses the
+     * {@link AbstractRenderer} implementations of the item methods.
+     */
+    private static final ClassValue<Boolean> PER_SERIES
+            = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                for (String name : new String[] {"getItemPaint",
+                        "getItemStroke", "getItemOutlinePaint",
+                        "getItemOutlineStroke"}) {
+                    if (type.getMethod(name, int.class, int.class)
+                            .getDeclaringClass() != AbstractRenderer.class) {
+                        return Boolean.FALSE;
+                    }
+                }
+                return Boolean.TRUE;
+            }
+            catch (NoSuchMethodException | SecurityException e) {
+                return Boolean.FALSE;
+            }
+        }
+    };
+
+    /** The renderer. */
+    private final AbstractRenderer renderer;
+
+    /** Can the settings be cached by series? */
+    private final boolean perSeries;
+
+    /** The item paints, by series. */
+    private Paint[] paints;
+
+    /** The item strokes, by series. */
+    private Stroke[] strokes;
+
+    /** The item outline paints, by series. */
+    private Paint[] outlinePaints;
+
+    /** The item outline strokes, by series. */
+    private Stroke[] outlineStrokes;
+
+    /**
+     * Creates a new cache for a renderer.
+     *
+     * @param renderer  the renderer ({@code null} not permitted).
+     */
+    public SeriesStyleCache(AbstractRenderer renderer) {
+        Args.nullNotPermitted(renderer, "renderer");
+        this.renderer = renderer;
+        this.perSeries = PER_SERIES.get(renderer.getClass());
+        this.paints = new Paint[0];
+        this.strokes = new Stroke[0];
+        this.outlinePaints = new Paint[0];
+        this.outlineStrokes = new Stroke[0];
+    }
+
+    /**
+     * Returns the renderer that the cache was created for.
+     *
+     * @return The renderer (never {@code null}).
+     */
+    public AbstractRenderer getRenderer() {
+        return this.renderer;
+    }
+
+    /**
+     * Returns {@code true} if the settings are cached by series, and
+     * {@code false} if every call is passed on to the renderer.
+     *
+     * @return A boolean.
+     */
+    public boolean isPerSeries() {
+        return this.perSeries;
+    }
+
+    /**
+     * Returns the paint for an item, as for
+     * {@link AbstractRenderer#getItemPaint(int, int)}.
+     *
+     * @param row  the row (or series) index (zero-based).
+     * @param column  the column (or item) index (zero-based).
+     *
+     * @return The paint.
+     */
+    public Paint getItemPaint(int row, int column) {
+        if (!this.perSeries) {
+            return this.renderer.getItemPaint(row, column);
+        }
+        if (row >= this.paints.length) {
+            this.paints = Arrays.copyOf(this.paints,
+                    capacity(this.paints.length, row));
+        }
+        Paint result = this.paints[row];
+        if (result == null) {
+            result = this.renderer.getItemPaint(row, column);
+            this.paints[row] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the stroke for an item, as for
+     * {@link AbstractRenderer#getItemStroke(int, int)}.
+     *
+     * @param row  the row (or series) index (zero-based).
+     * @param column  the column (or item) index (zero-based).
+     *
+     * @return The stroke.
+     */
+    public Stroke getItemStroke(int row, int column) {
+        if (!this.perSeries) {
+            return this.renderer.getItemStroke(row, column);
+        }
+        if (row >= this.strokes.length) {
+            this.strokes = Arrays.copyOf(this.strokes,
+                    capacity(this.strokes.length, row));
+        }
+        Stroke result = this.strokes[row];
+        if (result == null) {
+            result = this.renderer.getItemStroke(row, column);
+            this.strokes[row] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the outline paint for an item, as for
+     * {@link AbstractRenderer#getItemOutlinePaint(int, int)}.
+     *
+     * @param row  the row (or series) index (zero-based).
+     * @param column  the column (or item) index (zero-based).
+     *
+     * @return The paint.
+     */
+    public Paint getItemOutlinePaint(int row, int column) {
+        if (!this.perSeries) {
+            return this.renderer.getItemOutlinePaint(row, column);
+        }
+        if (row >= this.outlinePaints.length) {
+            this.outlinePaints = Arrays.copyOf(this.outlinePaints,
+                    capacity(this.outlinePaints.length, row));
+        }
+        Paint result = this.outlinePaints[row];
+        if (result == null) {
+            result = this.renderer.getItemOutlinePaint(row, column);
+            this.outlinePaints[row] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the outline stroke for an item, as for
+     * {@link AbstractRenderer#getItemOutlineStroke(int, int)}.
+     *
+     * @param row  the row (or series) index (zero-based).
+     * @param column  the column (or item) index (zero-based).
+     *
+     * @return The stroke.
+     */
+    public Stroke getItemOutlineStroke(int row, int column) {
+        if (!this.perSeries) {
+            return this.renderer.getItemOutlineStroke(row, column);
+        }
+        if (row >= this.outlineStrokes.length) {
+            this.outlineStrokes = Arrays.copyOf(this.outlineStrokes,
+                    capacity(this.outlineStrokes.length, row));
+        }
+        Stroke result = this.outlineStrokes[row];
+        if (result == null) {
+            result = this.renderer.getItemOutlineStroke(row, column);
+            this.outlineStrokes[row] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the new length for an array that must hold the given series,
+     * doubling the length so that arrays grow a few times at most.
+     *
+     * @param length  the current length.
+     * @param row  the series index.
+     *
+     * @return The length.
+     */
+    private static int capacity(int length, int row) {
+        return Math.max(row + 1, Math.max(8, length * 2));
+    }
+
+}
@@ -0,0 +1,499 @@
+package org.jfree.chart.util;
+
+import java.awt.Shape;
+import java.awt.geom.CubicCurve2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.QuadCurve2D;
+
+/**
+ * Clips shapes against an axis-aligned rectangle without using
+ * {@link java.awt.geom.Area}.  The shape is clipped against each of the four
+ * sides of the rectangle in turn (Sutherland-Hodgman), with quadratic and
+ * cubic segments split exactly at the points where they cross a side, so the
+ * result keeps the original curves.
+ * <P>
+ * The result covers the same region as {@code Area.intersect()}, and its
+ * outline traces the same boundary whenever each line of the rectangle
+ * that actually cuts the shape crosses it in a single interval, which is
+ * the case for the front and back regions of a 3D pie and for convex
+ * polygons.  For other shapes the outline may contain zero-width edges
+ * along the rectangle.  The result is not the same path as the one
+ * {@code Area} builds, so the two do not always rasterize identically: for
+ * the sides of a 3D pie, anti-aliased fills differ by at most 1/255 in a
+ * pixel, fills without anti-aliasing in at most one pixel, and outlines
+ * can start at a different corner, which changes the line joins there
+ * (see {@code ShapeClipperTest}).
+ * <P>
+ * Subpaths that the shape leaves open are closed, as they would be when
+ * the shape is filled.
+ * <P>
+ * Instances hold their working buffers between calls, so clipping does not
+ * allocate once the buffers have grown to the size of the shapes being
+ * clipped.  Instances are not thread-safe.
+ */
+public class ShapeClipper {
+
+    /** The x-axis. */
+    private static final int X = 0;
+
+    /** The y-axis. */
+    private static final int Y = 1;
+
+    /**
+     * The largest area of a subpath, relative to the sum of the magnitudes
+     * of the terms that make it up, that is taken to be rounding error.  A
+     * subpath that runs out along a line and back (as the clipped outline
+     * of a polygon with no area does) has no area, but the terms need not
+     * cancel exactly.
+     */
+    private static final double ROUNDING = 1e-12;
+
+    /** Working buffer for the first and third clipping passes. */
+    private final Path2D.Double pass1;
+
+    /** Working buffer for the second clipping pass. */
+    private final Path2D.Double pass2;
+
+    /** The coordinates of the current path segment. */
+    private final double[] coords;
+
+    /** The control points of the current segment (start point first). */
+    private final double[] segment;
+
+    /** The control points of the piece of the segment being emitted. */
+    private final double[] piece;
+
+    /** Scratch space for the de Casteljau subdivision. */
+    private final double[] scratch;
+
+    /** The polynomial coefficients used when solving for crossings. */
+    private final double[] eqn;
+
+    /** The roots of the crossing polynomial. */
+    private final double[] roots;
+
+    /** The segment parameters at which the segment is split. */
+    private final double[] params;
+
+    /** The path that clipped segments are written to. */
+    private Path2D.Double out;
+
+    /** Has the current subpath been started in the output? */
+    private boolean penDown;
+
+    /** The first point of the current output subpath. */
+    private double startX, startY;
+
+    /** The last point written to the output. */
+    private double lastX, lastY;
+
+    /** Accumulate the area of the output? */
+    private boolean trackArea;
+
+    /** The signed area of the current output subpath (times two). */
+    private double subpathArea;
+
+    /** The sum of the magnitudes of the terms in {@code subpathArea}. */
+    private double subpathScale;
+
+    /** The area of the last clipped result. */
+    private double area;
+
+    /**
+     * Creates a new clipper.
+     */
+    public ShapeClipper() {
+        this.pass1 = new Path2D.Double();
+        this.pass2 = new Path2D.Double();
+        this.coords = new double[6];
+        this.segment = new double[8];
+        this.piece = new double[8];
+        this.scratch = new double[8];
+        this.eqn = new double[4];
+        this.roots = new double[4];
+        this.params = new double[6];
+    }
+
+    /**
+     * Returns the area of the result of the last call to
+     * {@link #clip(Shape, double, double, double, double, Path2D.Double)},
+     * measured on the polygon through the end points of its segments.
+     *
+     * @return The area (never negative).
+     */
+    public double getArea() {
+        return this.area;
+    }
+
+    /**
+     * Clips a shape to a rectangle, writing the result to {@code result}
+     * (which is reset first).  As with {@code Rectangle2D}, a rectangle with
+     * a zero or negative width or height is empty, and so is the result.
+     *
+     * @param shape  the shape ({@code null} not permitted).
+     * @param x  the x-coordinate of the rectangle.
+     * @param y  the y-coordinate of the rectangle.
+     * @param w  the width of the rectangle.
+     * @param h  the height of the rectangle.
+     * @param result  the path that receives the result ({@code null} not
+     *     permitted).
+     *
+     * @return A boolean that indicates whether or not the result encloses a
+     *     non-zero area (subpaths whose area is within rounding error of
+     *     zero do not count).
+     */
+    public boolean clip(Shape shape, double x, double y, double w, double h,
+            Path2D.Double result) {
+        Args.nullNotPermitted(shape, "shape");
+        Args.nullNotPermitted(result, "result");
+        result.reset();
+        this.area = 0.0;
+        if (!(w > 0.0 && h > 0.0)) {
+            return false;
+        }
+        clip(shape.getPathIterator(null), X, x, true, this.pass1, false);
+        clip(this.pass1.getPathIterator(null), X, x + w, false, this.pass2,
+                false);
+        clip(this.pass2.getPathIterator(null), Y, y, true, this.pass1,
+                false);
+        clip(this.pass1.getPathIterator(null), Y, y + h, false, result,
+                true);
+        return this.area > 0.0;
+    }
+
+    /**
+     * Clips a path against a single half-plane.
+     *
+     * @param pi  the path iterator for the input.
+     * @param axis  the axis ({@link #X} or {@link #Y}).
+     * @param c  the position of the clipping line on the axis.
+     * @param keepGreater  keep the side with coordinates greater than
+     *     {@code c}?
+     * @param output  the output path.
+     * @param trackArea  accumulate the area of the output?
+     */
+    private void clip(PathIterator pi, int axis, double c,
+            boolean keepGreater, Path2D.Double output, boolean trackArea) {
+        output.reset();
+        output.setWindingRule(pi.getWindingRule());
+        this.out = output;
+        this.trackArea = trackArea;
+        this.penDown = false;
+        double cx = 0.0, cy = 0.0;  // the current point
+        double mx = 0.0, my = 0.0;  // the start of the current subpath
+        boolean open = false;  // does the current subpath need closing?
+        double[] s = this.segment;
+        while (!pi.isDone()) {
+            int type = pi.currentSegment(this.coords);
+            switch (type) {
+                case PathIterator.SEG_MOVETO:
+                    if (open) {
+                        closeSubpath(cx, cy, mx, my, axis, c, keepGreater);
+                        open = false;
+                    }
+                    endSubpath(false);
+                    cx = mx = this.coords[0];
+                    cy = my = this.coords[1];
+                    break;
+                case PathIterator.SEG_LINETO:
+                case PathIterator.SEG_QUADTO:
+                case PathIterator.SEG_CUBICTO:
+                    int order = type == PathIterator.SEG_LINETO ? 1
+                            : type == PathIterator.SEG_QUADTO ? 2 : 3;
+                    s[0] = cx;
+                    s[1] = cy;
+                    System.arraycopy(this.coords, 0, s, 2, order * 2);
+                    clipSegment(order, axis, c, keepGreater);
+                    cx = s[order * 2];
+                    cy = s[order * 2 + 1];
+                    open = true;
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    closeSubpath(cx, cy, mx, my, axis, c, keepGreater);
+                    open = false;
+                    cx = mx;
+                    cy = my;
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected segment type "
+                            + type);
+            }
+            pi.next();
+        }
+        if (open) {
+            closeSubpath(cx, cy, mx, my, axis, c, keepGreater);
+        }
+        endSubpath(false);
+        this.out = null;
+    }
+
+    /**
+     * Clips the closing segment of a subpath and closes the output subpath.
+     * This is also done for a subpath that the input leaves open, since a
+     * filled shape (like an {@code Area}) is always closed.
+     *
+     * @param cx  the x-coordinate of the current point.
+     * @param cy  the y-coordinate of the current point.
+     * @param mx  the x-coordinate of the start of the subpath.
+     * @param my  the y-coordinate of the start of the subpath.
+     * @param axis  the axis.
+     * @param c  the clipping line.
+     * @param keepGreater  the side to keep.
+     */
+    private void closeSubpath(double cx, double cy, double mx, double my,
+            int axis, double c, boolean keepGreater) {
+        if (cx != mx || cy != my) {
+            double[] s = this.segment;
+            s[0] = cx;
+            s[1] = cy;
+            s[2] = mx;
+            s[3] = my;
+            clipSegment(1, axis, c, keepGreater);
+        }
+        endSubpath(true);
+    }
+
+    /**
+     * Clips the segment held in {@link #segment} and writes the pieces that
+     * lie inside the half-plane to the output.
+     *
+     * @param order  the order of the segment (1, 2 or 3).
+     * @param axis  the axis.
+     * @param c  the clipping line.
+     * @param keepGreater  the side to keep.
+     */
+    private void clipSegment(int order, int axis, double c,
+            boolean keepGreater) {
+        double[] s = this.segment;
+        double p0 = s[axis] - c;
+        double p1 = s[2 + axis] - c;
+        double p2 = order > 1 ? s[4 + axis] - c : 0.0;
+        double p3 = order > 2 ? s[6 + axis] - c : 0.0;
+        int count;
+        if (order == 1) {
+            count = 0;
+            if ((p0 < 0.0 && p1 > 0.0) || (p0 > 0.0 && p1 < 0.0)) {
+                this.roots[count++] = p0 / (p0 - p1);
+            }
+        }
+        else if (order == 2) {
+            this.eqn[0] = p0;
+            this.eqn[1] = 2.0 * (p1 - p0);
+            this.eqn[2] = p0 - 2.0 * p1 + p2;
+            count = QuadCurve2D.solveQuadratic(this.eqn, this.roots);
+        }
+        else {
+            this.eqn[0] = p0;
+            this.eqn[1] = 3.0 * (p1 - p0);
+            this.eqn[2] = 3.0 * (p0 - 2.0 * p1 + p2);
+            this.eqn[3] = p3 - 3.0 * p2 + 3.0 * p1 - p0;
+            count = CubicCurve2D.solveCubic(this.eqn, this.roots);
+        }
+
+        // collect the split parameters, in order, between 0 and 1
+        int n = 0;
+        this.params[n++] = 0.0;
+        for (int i = 0; i < count; i++) {
+            double t = this.roots[i];
+            if (t > 0.0 && t < 1.0) {
+                int j = n;
+                while (j > 1 && this.params[j - 1] > t) {
+                    this.params[j] = this.params[j - 1];
+                    j--;
+                }
+                this.params[j] = t;
+                n++;
+            }
+        }
+        this.params[n++] = 1.0;
+
+        for (int i = 0; i < n - 1; i++) {
+            double ta = this.params[i];
+            double tb = this.params[i + 1];
+            if (!(tb > ta)) {
+                continue;
+            }
+            double f = evaluate(order, axis, (ta + tb) / 2.0) - c;
+            boolean inside = keepGreater ? f >= 0.0 : f <= 0.0;
+            if (!inside) {
+                continue;
+            }
+            subdivide(order, ta, tb);
+            if (ta > 0.0) {
+                this.piece[axis] = c;
+            }
+            if (tb < 1.0) {
+                this.piece[order * 2 + axis] = c;
+            }
+            emit(order);
+        }
+    }
+
+    /**
+     * Evaluates one coordinate of the current segment.
+     *
+     * @param order  the segment order.
+     * @param axis  the axis.
+     * @param t  the curve parameter.
+     *
+     * @return The coordinate.
+     */
+    private double evaluate(int order, int axis, double t) {
+        double[] s = this.segment;
+        double u = 1.0 - t;
+        switch (order) {
+            case 1:
+                return u * s[axis] + t * s[2 + axis];
+            case 2:
+                return u * u * s[axis] + 2.0 * u * t * s[2 + axis]
+                        + t * t * s[4 + axis];
+            default:
+                return u * u * u * s[axis] + 3.0 * u * u * t * s[2 + axis]
+                        + 3.0 * u * t * t * s[4 + axis]
+                        + t * t * t * s[6 + axis];
+        }
+    }
+
+    /**
+     * Copies the part of the current segment between {@code ta} and
+     * {@code tb} into {@link #piece}.
+     *
+     * @param order  the segment order.
+     * @param ta  the start parameter.
+     * @param tb  the end parameter.
+     */
+    private void subdivide(int order, double ta, double tb) {
+        int len = (order + 1) * 2;
+        System.arraycopy(this.segment, 0, this.piece, 0, len);
+        if (tb < 1.0) {
+            split(order, tb, true);
+        }
+        if (ta > 0.0) {
+            split(order, ta / tb, false);
+        }
+    }
+
+    /**
+     * Splits the curve in {@link #piece} at {@code t} (de Casteljau) and
+     * keeps either the first or the second part.
+     *
+     * @param order  the segment order.
+     * @param t  the split parameter.
+     * @param keepFirst  keep the part before {@code t}?
+     */
+    private void split(int order, double t, boolean keepFirst) {
+        double[] p = this.piece;
+        double[] w = this.scratch;
+        int len = (order + 1) * 2;
+        System.arraycopy(p, 0, w, 0, len);
+        // after round k, w[0..order-k] hold the k-th level points
+        for (int k = 1; k <= order; k++) {
+            for (int i = 0; i <= order - k; i++) {
+                w[i * 2] = w[i * 2] + (w[i * 2 + 2] - w[i * 2]) * t;
+                w[i * 2 + 1] = w[i * 2 + 1]
+                        + (w[i * 2 + 3] - w[i * 2 + 1]) * t;
+            }
+            if (keepFirst) {
+                p[k * 2] = w[0];
+                p[k * 2 + 1] = w[1];
+            }
+            else {
+                int j = order - k;
+                p[j * 2] = w[j * 2];
+                p[j * 2 + 1] = w[j * 2 + 1];
+            }
+        }
+    }
+
+    /**
+     * Writes the segment held in {@link #piece} to the output, starting a
+     * new subpath or joining the previous piece along the clipping line as
+     * required.
+     *
+     * @param order  the segment order.
+     */
+    private void emit(int order) {
+        double[] p = this.piece;
+        if (!this.penDown) {
+            this.out.moveTo(p[0], p[1]);
+            this.penDown = true;
+            this.startX = this.lastX = p[0];
+            this.startY = this.lastY = p[1];
+            this.subpathArea = 0.0;
+            this.subpathScale = 0.0;
+        }
+        else if (p[0] != this.lastX || p[1] != this.lastY) {
+            lineTo(p[0], p[1]);
+        }
+        switch (order) {
+            case 1:
+                lineTo(p[2], p[3]);
+                break;
+            case 2:
+                this.out.quadTo(p[2], p[3], p[4], p[5]);
+                addArea(p[4], p[5]);
+                break;
+            default:
+                this.out.curveTo(p[2], p[3], p[4], p[5], p[6], p[7]);
+                addArea(p[6], p[7]);
+                break;
+        }
+    }
+
+    /**
+     * Adds a straight line to the output.
+     *
+     * @param x  the x-coordinate.
+     * @param y  the y-coordinate.
+     */
+    private void lineTo(double x, double y) {
+        this.out.lineTo(x, y);
+        addArea(x, y);
+    }
+
+    /**
+     * Updates the area accumulator for a segment ending at (x, y) and moves
+     * the last point.
+     *
+     * @param x  the x-coordinate.
+     * @param y  the y-coordinate.
+     */
+    private void addArea(double x, double y) {
+        if (this.trackArea) {
+            addTerm(this.lastX * y - x * this.lastY);
+        }
+        this.lastX = x;
+        this.lastY = y;
+    }
+
+    /**
+     * Finishes the current output subpath, if one has been started.
+     *
+     * @param close  close the subpath?
+     */
+    private void endSubpath(boolean close) {
+        if (!this.penDown) {
+            return;
+        }
+        if (close) {
+            if (this.lastX != this.startX || this.lastY != this.startY) {
+                lineTo(this.startX, this.startY);
+            }
+            this.out.closePath();
+        }
+        if (this.trackArea) {
+            addTerm(this.lastX * this.startY - this.startX * this.lastY);
+            if (Math.abs(this.subpathArea) > ROUNDING * this.subpathScale) {
+                this.area += Math.abs(this.subpathArea) / 2.0;
+            }
+        }
+        this.penDown = false;
+    }
+
+    private void addTerm(double term) {
+        this.subpathArea += term;
+        this.subpathScale += Math.abs(term);
+    }
+
+}
@@ -0,0 +1,575 @@
+package org.jfree.chart.entity;
+
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import org.jfree.chart.util.Args;
+import org.jfree.chart.util.PublicCloneable;
+
+/**
+ * An {@link EntityCollection} that indexes the bounds of its entities in a
+ * uniform grid, so that {@link #getEntity(double, double)} only tests the
+ * entities whose bounds overlap the grid cell containing the point, instead
+ * of every entity in the collection.  The index is updated as each entity is
+ * added, so a renderer fills this collection exactly as it would fill a
+ * {@link StandardEntityCollection}, and the two collections return the same
+ * entity for any point.  To use it for a chart, pass it to the
+ * {@code ChartRenderingInfo(EntityCollection)} constructor.
+ * <P>
+ * The grid covers Java2D space in square cells of a fixed size (32 by
+ * default), which are created only where entities lie.  An entity whose
+ * bounds would cover more than {@link #MAXIMUM_ENTITY_CELLS} cells (the
+ * entity for the whole chart or plot area, for example) is kept in a
+ * separate list that every query tests.  The bounds are recorded when an
+ * entity is added, so an entity's area should not be changed afterwards.
+ *
+ * @see StandardEntityCollection
+ */
+public class SpatialEntityCollection implements EntityCollection,
+        Cloneable, PublicCloneable, Serializable {
+
+    /** For serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /** The default cell size. */
+    public static final double DEFAULT_CELL_SIZE = 32.0;
+
+    /**
+     * The largest number of cells an entity is indexed in.  Larger entities
+     * are tested by every query.
+     */
+    public static final int MAXIMUM_ENTITY_CELLS = 64;
+
+    /** The size of the (square) grid cells. */
+    private final double cellSize;
+
+    /** Storage for the entities. */
+    private List<ChartEntity> entities;
+
+    /** The bounds of each entity (minX, minY, maxX, maxY). */
+    private transient double[] bounds;
+
+    /** The keys for the cell table (open addressing). */
+    private transient long[] cellKeys;
+
+    /** The cell for each key in the table (-1 for an empty slot). */
+    private transient int[] cellSlots;
+
+    /** The number of cells in use. */
+    private transient int cellCount;
+
+    /** The entity indices in each cell, in ascending order. */
+    private transient int[][] cellEntities;
+
+    /** The number of entity indices in each cell. */
+    private transient int[] cellSizes;
+
+    /** The indices of the entities that are not in the grid. */
+    private transient int[] large;
+
+    /** The number of entries in {@code large}. */
+    private transient int largeCount;
+
+    /** Marks the entities already seen by a rectangle query. */
+    private transient int[] marks;
+
+    /** The mark for the current rectangle query. */
+    private transient int mark;
+
+    /**
+     * Constructs a new entity collection (initially empty) with the default
+     * cell size.
+     */
+    public SpatialEntityCollection() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructs a new entity collection (initially empty).
+     *
+     * @param cellSize  the size of the grid cells, in Java2D units (must be
+     *     positive).  Cells about the size of a typical entity work best.
+     */
+    public SpatialEntityCollection(double cellSize) {
+        if (!(cellSize > 0.0) || Double.isInfinite(cellSize)) {
+            throw new IllegalArgumentException(
+                    "Requires 'cellSize' > 0 (and finite).");
+        }
+        this.cellSize = cellSize;
+        this.entities = new ArrayList<>();
+        initIndex();
+    }
+
+    /**
+     * Returns the size of the grid cells.
+     *
+     * @return The cell size.
+     */
+    public double getCellSize() {
+        return this.cellSize;
+    }
+
+    /**
+     * Returns the number of entities in the collection.
+     *
+     * @return The entity count.
+     */
+    @Override
+    public int getEntityCount() {
+        return this.entities.size();
+    }
+
+    /**
+     * Returns a chart entity from the collection.
+     *
+     * @param index  the entity index.
+     *
+     * @return The entity.
+     *
+     * @see #add(ChartEntity)
+     */
+    @Override
+    public ChartEntity getEntity(int index) {
+        return this.entities.get(index);
+    }
+
+    /**
+     * Clears all the entities from the collection.
+     */
+    @Override
+    public void clear() {
+        this.entities.clear();
+        initIndex();
+    }
+
+    /**
+     * Adds an entity to the collection.
+     *
+     * @param entity  the entity ({@code null} not permitted).
+     */
+    @Override
+    public void add(ChartEntity entity) {
+        Args.nullNotPermitted(entity, "entity");
+        this.entities.add(entity);
+        index(this.entities.size() - 1);
+    }
+
+    /**
+     * Adds all the entities from the specified collection.
+     *
+     * @param collection  the collection of entities ({@code null} not
+     *     permitted).
+     */
+    @Override
+    public void addAll(EntityCollection collection) {
+        for (Object entity : collection.getEntities()) {
+            add((ChartEntity) entity);
+        }
+    }
+
+    /**
+     * Returns the last entity in the list with an area that encloses the
+     * specified coordinates, or {@code null} if there is no such entity.
+     *
+     * @param x  the x coordinate.
+     * @param y  the y coordinate.
+     *
+     * @return The entity (possibly {@code null}).
+     */
+    @Override
+    public ChartEntity getEntity(double x, double y) {
+        int found = -1;
+        int cell = findCell(cellX(x), cellY(y));
+        if (cell >= 0) {
+            int[] items = this.cellEntities[cell];
+            for (int i = this.cellSizes[cell] - 1; i >= 0; i--) {
+                if (contains(items[i], x, y)) {
+                    found = items[i];
+                    break;
+                }
+            }
+        }
+        // a large entity added later takes precedence
+        for (int i = this.largeCount - 1; i >= 0; i--) {
+            int e = this.large[i];
+            if (e <= found) {
+                break;
+            }
+            if (contains(e, x, y)) {
+                found = e;
+                break;
+            }
+        }
+        return found < 0 ? null : this.entities.get(found);
+    }
+
+    /**
+     * Returns the entities with an area that intersects a rectangle, in the
+     * order they were added.
+     *
+     * @param area  the rectangle ({@code null} not permitted).
+     *
+     * @return A new list of entities (possibly empty).
+     */
+    public List<ChartEntity> getEntities(Rectangle2D area) {
+        Args.nullNotPermitted(area, "area");
+        double x = area.getX();
+        double y = area.getY();
+        double w = area.getWidth();
+        double h = area.getHeight();
+        int count = this.entities.size();
+        int[] found = new int[16];
+        int n = 0;
+        long x0 = cellX(x);
+        long x1 = cellX(x + w);
+        long y0 = cellY(y);
+        long y1 = cellY(y + h);
+        if ((double) (x1 - x0 + 1) * (y1 - y0 + 1) > this.cellCount) {
+            // the rectangle covers more cells than there are, so test
+            // every entity
+            for (int e = 0; e < count; e++) {
+                if (intersects(e, x, y, w, h)) {
+                    found = append(found, n++, e);
+                }
+            }
+        }
+        else {
+            nextMark();
+            for (long cx = x0; cx <= x1; cx++) {
+                for (long cy = y0; cy <= y1; cy++) {
+                    int cell = findCell(cx, cy);
+                    if (cell < 0) {
+                        continue;
+                    }
+                    int[] items = this.cellEntities[cell];
+                    for (int i = 0; i < this.cellSizes[cell]; i++) {
+                        int e = items[i];
+                        if (this.marks[e] != this.mark) {
+                            this.marks[e] = this.mark;
+                            if (intersects(e, x, y, w, h)) {
+                                found = append(found, n++, e);
+                            }
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < this.largeCount; i++) {
+                int e = this.large[i];
+                if (intersects(e, x, y, w, h)) {
+                    found = append(found, n++, e);
+                }
+            }
+            Arrays.sort(found, 0, n);
+        }
+        List<ChartEntity> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(this.entities.get(found[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the entities in an unmodifiable collection.
+     *
+     * @return The entities.
+     */
+    @Override
+    public Collection getEntities() {
+        return Collections.unmodifiableCollection(this.entities);
+    }
+
+    /**
+     * Returns an iterator for the entities in the collection.
+     *
+     * @return An iterator.
+     */
+    @Override
+    public Iterator iterator() {
+        return Collections.unmodifiableList(this.entities).iterator();
+    }
+
+    /**
+     * Tests this object for equality with an arbitrary object.
+     *
+     * @param obj  the object to test against ({@code null} permitted).
+     *
+     * @return A boolean.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof SpatialEntityCollection)) {
+            return false;
+        }
+        SpatialEntityCollection that = (SpatialEntityCollection) obj;
+        if (this.cellSize != that.cellSize) {
+            return false;
+        }
+        return Objects.equals(this.entities, that.entities);
+    }
+
+    /**
+     * Returns a hash code for this instance.
+     *
+     * @return A hash code.
+     */
+    @Override
+    public int hashCode() {
+        return this.entities.hashCode();
+    }
+
+    /**
+     * Returns a clone of this entity collection.
+     *
+     * @return A clone.
+     *
+     * @throws CloneNotSupportedException if the object cannot be cloned.
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        SpatialEntityCollection clone
+                = (SpatialEntityCollection) super.clone();
+        clone.entities = new ArrayList<>(this.entities.size());
+        clone.initIndex();
+        for (ChartEntity entity : this.entities) {
+            clone.add((ChartEntity) entity.clone());
+        }
+        return clone;
+    }
+
+    /**
+     * Provides serialization support.
+     *
+     * @param stream  the input stream.
+     *
+     * @throws IOException  if there is an I/O error.
+     * @throws ClassNotFoundException  if there is a classpath problem.
+     */
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        initIndex();
+        for (int i = 0; i < this.entities.size(); i++) {
+            index(i);
+        }
+    }
+
+    /**
+     * Resets the index to an empty state.
+     */
+    private void initIndex() {
+        this.bounds = new double[64];
+        this.cellKeys = new long[64];
+        this.cellSlots = new int[64];
+        Arrays.fill(this.cellSlots, -1);
+        this.cellCount = 0;
+        this.cellEntities = new int[16][];
+        this.cellSizes = new int[16];
+        this.large = new int[8];
+        this.largeCount = 0;
+        this.marks = null;
+        this.mark = 0;
+    }
+
+    /**
+     * Adds an entity, already in the list, to the index.
+     *
+     * @param e  the entity index.
+     */
+    private void index(int e) {
+        Shape area = this.entities.get(e).getArea();
+        Rectangle2D r = area.getBounds2D();
+        if (this.bounds.length < 4 * (e + 1)) {
+            this.bounds = Arrays.copyOf(this.bounds, this.bounds.length * 2);
+        }
+        this.bounds[4 * e] = r.getMinX();
+        this.bounds[4 * e + 1] = r.getMinY();
+        this.bounds[4 * e + 2] = r.getMaxX();
+        this.bounds[4 * e + 3] = r.getMaxY();
+        long x0 = cellX(r.getMinX());
+        long x1 = cellX(r.getMaxX());
+        long y0 = cellY(r.getMinY());
+        long y1 = cellY(r.getMaxY());
+        double sum = r.getMinX() + r.getMaxX() + r.getMinY() + r.getMaxY();
+        if (Double.isNaN(sum) || Double.isInfinite(sum)
+                || (double) (x1 - x0 + 1) * (y1 - y0 + 1)
+                > MAXIMUM_ENTITY_CELLS) {
+            if (this.largeCount == this.large.length) {
+                this.large = Arrays.copyOf(this.large, this.largeCount * 2);
+            }
+            this.large[this.largeCount++] = e;
+            return;
+        }
+        for (long cx = x0; cx <= x1; cx++) {
+            for (long cy = y0; cy <= y1; cy++) {
+                int cell = addCell(cx, cy);
+                int size = this.cellSizes[cell];
+                int[] items = this.cellEntities[cell];
+                if (size == items.length) {
+                    items = Arrays.copyOf(items, size * 2);
+                    this.cellEntities[cell] = items;
+                }
+                items[size] = e;
+                this.cellSizes[cell] = size + 1;
+            }
+        }
+    }
+
+    private long cellX(double x) {
+        return (long) Math.floor(x / this.cellSize);
+    }
+
+    private long cellY(double y) {
+        return (long) Math.floor(y / this.cellSize);
+    }
+
+    private static long key(long cx, long cy) {
+        return (cx << 32) ^ (cy & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    /**
+     * Returns the index of a grid cell, or -1 if there is no such cell.
+     *
+     * @param cx  the column of the cell.
+     * @param cy  the row of the cell.
+     *
+     * @return The cell index.
+     */
+    private int findCell(long cx, long cy) {
+        long key = key(cx, cy);
+        int mask = this.cellKeys.length - 1;
+        int slot = hash(key, mask);
+        while (this.cellSlots[slot] >= 0) {
+            if (this.cellKeys[slot] == key) {
+                return this.cellSlots[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of a grid cell, creating the cell if necessary.
+     *
+     * @param cx  the column of the cell.
+     * @param cy  the row of the cell.
+     *
+     * @return The cell index.
+     */
+    private int addCell(long cx, long cy) {
+        int cell = findCell(cx, cy);
+        if (cell >= 0) {
+            return cell;
+        }
+        if (2 * (this.cellCount + 1) > this.cellKeys.length) {
+            rehash(this.cellKeys.length * 2);
+        }
+        if (this.cellCount == this.cellSizes.length) {
+            int capacity = this.cellCount * 2;
+            this.cellEntities = Arrays.copyOf(this.cellEntities, capacity);
+            this.cellSizes = Arrays.copyOf(this.cellSizes, capacity);
+        }
+        cell = this.cellCount++;
+        this.cellEntities[cell] = new int[4];
+        putCell(key(cx, cy), cell);
+        return cell;
+    }
+
+    private void putCell(long key, int cell) {
+        int mask = this.cellKeys.length - 1;
+        int slot = hash(key, mask);
+        while (this.cellSlots[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.cellKeys[slot] = key;
+        this.cellSlots[slot] = cell;
+    }
+
+    private void rehash(int capacity) {
+        long[] keys = this.cellKeys;
+        int[] slots = this.cellSlots;
+        this.cellKeys = new long[capacity];
+        this.cellSlots = new int[capacity];
+        Arrays.fill(this.cellSlots, -1);
+        for (int i = 0; i < keys.length; i++) {
+            if (slots[i] >= 0) {
+                putCell(keys[i], slots[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if an entity's area contains a point, testing its
+     * recorded bounds first.
+     *
+     * @param e  the entity index.
+     * @param x  the x-coordinate.
+     * @param y  the y-coordinate.
+     *
+     * @return A boolean.
+     */
+    private boolean contains(int e, double x, double y) {
+        double[] b = this.bounds;
+        return x >= b[4 * e] && x <= b[4 * e + 2] && y >= b[4 * e + 1]
+                && y <= b[4 * e + 3]
+                && this.entities.get(e).getArea().contains(x, y);
+    }
+
+    /**
+     * Returns {@code true} if an entity's area intersects a rectangle,
+     * testing its recorded bounds first.
+     *
+     * @param e  the entity index.
+     * @param x  the x-coordinate of the rectangle.
+     * @param y  the y-coordinate of the rectangle.
+     * @param w  the width of the rectangle.
+     * @param h  the height of the rectangle.
+     *
+     * @return A boolean.
+     */
+    private boolean intersects(int e, double x, double y, double w,
+            double h) {
+        double[] b = this.bounds;
+        return x <= b[4 * e + 2] && x + w >= b[4 * e] && y <= b[4 * e + 3]
+                && y + h >= b[4 * e + 1]
+                && this.entities.get(e).getArea().intersects(x, y, w, h);
+    }
+
+    private void nextMark() {
+        int count = this.entities.size();
+        if (this.marks == null || this.marks.length < count) {
+            this.marks = new int[Math.max(count, 16)];
+            this.mark = 0;
+        }
+        this.mark++;
+        if (this.mark == 0) {
+            Arrays.fill(this.marks, 0);
+            this.mark = 1;
+        }
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size] = value;
+        return array;
+    }
+
+}
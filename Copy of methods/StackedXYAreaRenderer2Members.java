@@ -0,0 +1,111 @@
+    /** The metrics for {@link #drawItem}. */
+    private static final RendererMetrics.Probe DRAW_ITEM_METRICS
+            = RendererMetrics.getProbe("StackedXYAreaRenderer2.drawItem");
+
+    /**
+     * A flag that controls whether or not items that are less than a pixel
+     * apart are merged into one envelope for each pixel column (only when no
+     * entities are being collected).
+     */
+    private boolean decimateItems;
+
+    /**
+     * Returns the flag that controls whether or not items that are less than
+     * a pixel apart along the domain axis are merged before they are drawn.
+     *
+     * @return A boolean.
+     *
+     * @see #setDecimateItems(boolean)
+     */
+    public boolean getDecimateItems() {
+        return this.decimateItems;
+    }
+
+    /**
+     * Sets the flag that controls whether or not items that are less than a
+     * pixel apart along the domain axis are merged before they are drawn, and
+     * sends a {@link RendererChangeEvent} to all registered listeners.  When
+     * it is set, an item whose area is no more than a pixel wide is not
+     * filled on its own: the renderer works out which part of the pixel
+     * column the item's area would colour, merges that with the other items
+     * in the column, and fills one rectangle per column (for positive and for
+     * negative items) instead of two polygons per item.  The part of the
+     * column is worked out from the transformed corners of the polygons, so
+     * at 1x scale without anti-aliasing this colours the same pixels for any
+     * range axis (whether linear or not), apart from the odd pixel whose
+     * centre is within rounding error of an edge, and the cost of drawing a
+     * long series depends on the width of the chart rather than the number of
+     * items.  Wider items are drawn as usual.  The flag has no effect when
+     * entities are being collected, since each item needs its own entity.
+     *
+     * @param decimate  the new flag value.
+     *
+     * @see #getDecimateItems()
+     */
+    public void setDecimateItems(boolean decimate) {
+        this.decimateItems = decimate;
+        fireChangeEvent();
+    }
+
+    /**
+     * A flag that controls whether the areas of the items in a series are
+     * combined into one path and filled at the end of the series.
+     */
+    private boolean batchFills;
+
+    /**
+     * Returns the flag that controls whether the item areas are batched.
+     *
+     * @return A boolean.
+     *
+     * @see #setBatchFills(boolean)
+     */
+    public boolean getBatchFills() {
+        return this.batchFills;
+    }
+
+    /**
+     * Sets the flag that controls whether the item areas are batched, and
+     * sends a {@link RendererChangeEvent} to all registered listeners.  When
+     * it is set, the two polygons for each item are added to one path for
+     * the series (see {@link DeferredFills}), which is filled when the plot
+     * has drawn the last item in the series.  A long series is then drawn
+     * with one fill call rather than two per item, and becomes one element in
+     * SVG or PDF output.  The areas of the items in a series do not overlap,
+     * so the chart looks the same, except that with anti-aliasing there are
+     * no faint seams between neighbouring items (and, with
+     * {@link #setDecimateItems(boolean) decimation}, the edges of the
+     * merged columns may differ by a shade).
+     *
+     * @param batch  the new flag value.
+     *
+     * @see #getBatchFills()
+     */
+    public void setBatchFills(boolean batch) {
+        this.batchFills = batch;
+        fireChangeEvent();
+    }
+
+    /**
+     * Initialises the renderer and returns a state object that should be
+     * passed to all subsequent calls to the drawItem() method.  The state
+     * holds a table of the stack values for the dataset, which is built on
+     * the first call to drawItem().
+     *
+     * @param g2  the graphics device.
+     * @param dataArea  the area inside the axes.
+     * @param plot  the plot.
+     * @param data  the data.
+     * @param info  an optional info collection object to return data back to
+     *              the caller.
+     *
+     * @return A state object for use by the renderer.
+     */
+    @Override
+    public XYItemRendererState initialise(Graphics2D g2, Rectangle2D dataArea,
+            XYPlot plot, XYDataset data, PlotRenderingInfo info) {
+        StackedXYAreaRenderer2State state = new StackedXYAreaRenderer2State(
+                info);
+        state.setBatchFills(this.batchFills);
+        return state;
+    }
@@ -0,0 +1,622 @@
+package org.jfree.chart.renderer.xy;
+
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.PlotRenderingInfo;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.AbstractRenderer;
+import org.jfree.chart.renderer.DeferredFills;
+import org.jfree.chart.renderer.SeriesStyleCache;
+import org.jfree.chart.util.ShapeClipper;
+import org.jfree.data.xy.TableXYDataset;
+import org.jfree.data.xy.XYDataset;
+
+/**
+ * The state for a {@link StackedXYAreaRenderer2} during one drawing pass.
+ * It holds a table of stack values (the running totals of the positive and
+ * negative y-values of the series below each series), so that the renderer
+ * can look them up instead of adding up all the lower series for every
+ * item.
+ * <P>
+ * The series are split into blocks of about the square root of the series
+ * count.  The table keeps the totals for the first series of each block,
+ * plus the totals for every series in the block that is currently being
+ * drawn, which it rebuilds from the block's first series when the renderer
+ * moves on to another block.  Whichever order the series are drawn in, the
+ * whole table is built with about two additions per data value, and the
+ * totals are added up in the same order as
+ * {@code StackedXYAreaRenderer2.getStackValues()}, so they are exactly the
+ * same values.
+ * <P>
+ * When the table would hold more than {@link #MAXIMUM_TABLE_SIZE} values,
+ * it is not built and the renderer falls back to adding up the stack values
+ * for each item.
+ * <P>
+ * The state also carries a window over the last item drawn: its data values
+ * and stack values, those of the item after it, and the transformed
+ * coordinates of the right-hand edge of its area.  When the next call to
+ * drawItem() is for the next item of the same series, the renderer takes
+ * these from the window instead of reading and transforming them again.
+ * <P>
+ * In decimation mode (see {@code StackedXYAreaRenderer2.setDecimateItems()})
+ * the state also collects an envelope for the pixel columns that the current
+ * items fall in: the lowest and highest Java2D coordinates that the series'
+ * area reaches at the centre of each column (separately for positive and
+ * negative items).  These are interpolated between the transformed corners
+ * of the item polygons, as the polygon fill would, so the envelope is right
+ * for any range axis, including a non-linear one such as a
+ * {@link org.jfree.chart.axis.LogAxis}.  A column is filled with a single
+ * rectangle once the renderer moves past it, or when the series ends.
+ */
+class StackedXYAreaRenderer2State extends XYItemRendererState {
+
+    /** The maximum number of values (for each sign) held in the table. */
+    static final int MAXIMUM_TABLE_SIZE = 1 << 22;
+
+    /** The dataset the table was built for. */
+    private TableXYDataset dataset;
+
+    /** Is the table available for {@code dataset}? */
+    private boolean available;
+
+    /** The number of series. */
+    private int seriesCount;
+
+    /** The number of items in each series. */
+    private int itemCount;
+
+    /** The number of series in a block. */
+    private int blockSize;
+
+    /** The positive totals for the first series of each block. */
+    private double[] checkpointPositive;
+
+    /** The negative totals for the first series of each block. */
+    private double[] checkpointNegative;
+
+    /** The positive totals for each series of the current block. */
+    private double[] blockPositive;
+
+    /** The negative totals for each series of the current block. */
+    private double[] blockNegative;
+
+    /** The index of the current block (-1 for none). */
+    private int block;
+
+    /** The dataset for the item in the window. */
+    private XYDataset windowDataset;
+
+    /** The series for the item in the window. */
+    private int windowSeries;
+
+    /** The item in the window (-1 for none). */
+    private int windowItem;
+
+    /** The x-value of the item in the window. */
+    double x1;
+
+    /** The y-value of the item in the window (NaN replaced by zero). */
+    double y1;
+
+    /** The x-value of the item after the item in the window. */
+    double x2;
+
+    /** The y-value of the item after the item in the window. */
+    double y2;
+
+    /** The negative stack value of the item in the window. */
+    double stack1Neg;
+
+    /** The positive stack value of the item in the window. */
+    double stack1Pos;
+
+    /** The negative stack value of the item after it. */
+    double stack2Neg;
+
+    /** The positive stack value of the item after it. */
+    double stack2Pos;
+
+    /** The Java2D x-coordinate of the right edge of the item's area. */
+    float transXRight;
+
+    /**
+     * The Java2D coordinate of the top of the right edge of the item's area
+     * (NaN if it was not calculated).
+     */
+    float transYRight;
+
+    /**
+     * The Java2D coordinate of the stack at the right edge of the item's
+     * area, for the sign given by {@code transStackRightPositive}.  It is
+     * set for every item in the window, whether the item was drawn or added
+     * to the envelope.
+     */
+    float transStackRight;
+
+    /** Was {@code transStackRight} calculated for a positive value? */
+    boolean transStackRightPositive;
+
+    /** The graphics device for the envelope. */
+    private Graphics2D envelopeG2;
+
+    /** The paint for the envelope. */
+    private Paint envelopePaint;
+
+    /** The plot for the envelope. */
+    private XYPlot envelopePlot;
+
+    /** Is the envelope empty? */
+    private boolean envelopeEmpty;
+
+    /** The first of the two pixel columns held by the envelope. */
+    private int envelopeColumn;
+
+    /**
+     * The lowest values for the envelope, at index {@code 2 * c} for
+     * negative items and {@code 2 * c + 1} for positive items in column
+     * {@code envelopeColumn + c} (NaN for none).
+     */
+    private final double[] envelopeMin;
+
+    /** The highest values for the envelope, indexed as for the lowest. */
+    private final double[] envelopeMax;
+
+    /** A rectangle for filling the envelope. */
+    private final Rectangle2D envelopeRect;
+
+    /** Clips entity areas to the data area (created on first use). */
+    private ShapeClipper clipper;
+
+    /**
+     * The scratch paths for an item's polygons and entity area (created on
+     * first use).
+     */
+    private GeneralPath[] scratchPaths;
+
+    /** The scratch path for a clipped entity area (created on first use). */
+    private Path2D.Double scratchHotspot;
+
+    /** The series paints and strokes (created on first use). */
+    private SeriesStyleCache seriesStyles;
+
+    /** The draw list for the item areas ({@code null} if not batching). */
+    private DeferredFills deferredFills;
+
+    /**
+     * Creates a new state.
+     *
+     * @param info  the plot rendering info ({@code null} permitted).
+     */
+    StackedXYAreaRenderer2State(PlotRenderingInfo info) {
+        super(info);
+        this.block = -1;
+        this.windowItem = -1;
+        this.envelopeEmpty = true;
+        this.envelopeMin = new double[4];
+        this.envelopeMax = new double[4];
+        this.envelopeRect = new Rectangle2D.Double();
+        clearEnvelope(0);
+        clearEnvelope(1);
+    }
+
+    /**
+     * Returns {@code true} if the window holds the item before
+     * {@code item}, so that its fields can be used in place of the values
+     * for {@code item - 1} and {@code item}.
+     *
+     * @param dataset  the dataset.
+     * @param series  the series index.
+     * @param item  the item index.
+     *
+     * @return A boolean.
+     */
+    boolean isWindowBefore(XYDataset dataset, int series, int item) {
+        return this.windowItem >= 0 && this.windowItem == item - 1
+                && this.windowSeries == series
+                && this.windowDataset == dataset;
+    }
+
+    /**
+     * Records the item that the window fields now describe.
+     *
+     * @param dataset  the dataset.
+     * @param series  the series index.
+     * @param item  the item index.
+     */
+    void setWindowItem(XYDataset dataset, int series, int item) {
+        this.windowDataset = dataset;
+        this.windowSeries = series;
+        this.windowItem = item;
+    }
+
+    /**
+     * Returns one of the three paths that the renderer uses for the left and
+     * right polygons of an item and for its entity area, emptied and ready
+     * to be filled in.  The same paths are returned for every item, so they
+     * must not be kept.
+     *
+     * @param index  the path index (0, 1 or 2).
+     *
+     * @return The path (never {@code null}).
+     */
+    GeneralPath getScratchPath(int index) {
+        if (this.scratchPaths == null) {
+            this.scratchPaths = new GeneralPath[] {new GeneralPath(),
+                    new GeneralPath(), new GeneralPath()};
+        }
+        GeneralPath path = this.scratchPaths[index];
+        path.reset();
+        return path;
+    }
+
+    /**
+     * Returns the path that the renderer clips an item's entity area into.
+     * The same path is returned for every item, so it must not be kept.
+     *
+     * @return The path (never {@code null}).
+     */
+    Path2D.Double getScratchHotspot() {
+        if (this.scratchHotspot == null) {
+            this.scratchHotspot = new Path2D.Double();
+        }
+        return this.scratchHotspot;
+    }
+
+    /**
+     * Returns the cache of series paints and strokes that the renderer uses
+     * in place of {@code getItemPaint()} during this pass.
+     *
+     * @param renderer  the renderer.
+     *
+     * @return The cache (never {@code null}).
+     */
+    SeriesStyleCache getSeriesStyles(AbstractRenderer renderer) {
+        if (this.seriesStyles == null
+                || this.seriesStyles.getRenderer() != renderer) {
+            this.seriesStyles = new SeriesStyleCache(renderer);
+        }
+        return this.seriesStyles;
+    }
+
+    /**
+     * Sets whether the item areas (and the envelope) are added to a draw
+     * list for each series, rather than filled one at a time.
+     *
+     * @param batch  batch the fills?
+     */
+    void setBatchFills(boolean batch) {
+        this.deferredFills = batch ? new DeferredFills() : null;
+    }
+
+    /**
+     * Returns the draw list for the item areas.
+     *
+     * @return The draw list, or {@code null} if the fills are not batched.
+     */
+    DeferredFills getDeferredFills() {
+        return this.deferredFills;
+    }
+
+    /**
+     * Returns the clipper used to limit entity areas to the data area.
+     *
+     * @return The clipper (never {@code null}).
+     */
+    ShapeClipper getClipper() {
+        if (this.clipper == null) {
+            this.clipper = new ShapeClipper();
+        }
+        return this.clipper;
+    }
+
+    /**
+     * Prepares the envelope for items drawn with the given settings, filling
+     * whatever it holds first if any of them has changed.
+     *
+     * @param g2  the graphics device.
+     * @param paint  the item paint.
+     * @param plot  the plot.
+     */
+    void startEnvelope(Graphics2D g2, Paint paint, XYPlot plot) {
+        if (g2 != this.envelopeG2 || paint != this.envelopePaint
+                || plot != this.envelopePlot) {
+            flushEnvelope();
+            this.envelopeG2 = g2;
+            this.envelopePaint = paint;
+            this.envelopePlot = plot;
+        }
+    }
+
+    /**
+     * Extends the envelope to include one of the two polygons that make up
+     * an item's area: the polygon between the item's x-coordinate and one
+     * edge of the area, at most a pixel wide.  The polygon is added to the
+     * pixel column whose centre it covers (if any), as the range between
+     * its lower and upper sides at that centre.  The sides are interpolated
+     * between the polygon's corners in Java2D space, so this is the part of
+     * the column that filling the polygon would colour.
+     *
+     * @param positive  is the item positive?
+     * @param transX  the Java2D x-coordinate of the item.
+     * @param transStack  the Java2D coordinate of the stack at the item.
+     * @param transValue  the Java2D coordinate of the top of the area at the
+     *     item.
+     * @param transXEdge  the Java2D x-coordinate of the edge.
+     * @param transStackEdge  the Java2D coordinate of the stack at the edge.
+     * @param transValueEdge  the Java2D coordinate of the top of the area at
+     *     the edge.
+     */
+    void addToEnvelope(boolean positive, float transX, float transStack,
+            float transValue, float transXEdge, float transStackEdge,
+            float transValueEdge) {
+        float low = Math.min(transX, transXEdge);
+        float high = Math.max(transX, transXEdge);
+        int column = (int) Math.ceil(low - 0.5);
+        double centre = column + 0.5;
+        if (!(centre < high)) {
+            return;  // too narrow to cover a pixel centre
+        }
+        double f = (centre - transX) / (transXEdge - transX);
+        include(column, positive, interpolate(transStack, transStackEdge, f));
+        include(column, positive, interpolate(transValue, transValueEdge, f));
+    }
+
+    /**
+     * Returns the coordinate a fraction of the way from one coordinate to
+     * another.  Equal coordinates are returned as they are, so that an
+     * infinite coordinate (a zero stack on a log axis, for example) does not
+     * become NaN.
+     *
+     * @param t0  the first coordinate.
+     * @param t1  the second coordinate.
+     * @param f  the fraction.
+     *
+     * @return The coordinate.
+     */
+    private static double interpolate(float t0, float t1, double f) {
+        return t0 == t1 ? t0 : t0 + f * (t1 - t0);
+    }
+
+    /**
+     * Extends the envelope for a pixel column to include a value.  The
+     * envelope holds two adjacent columns, so adding a value for a column
+     * further on fills the columns that have been passed.
+     *
+     * @param column  the pixel column (along the domain axis).
+     * @param positive  is the value for a positive item?
+     * @param value  the value (in Java2D space).
+     */
+    private void include(int column, boolean positive, double value) {
+        if (this.envelopeEmpty) {
+            this.envelopeColumn = column;
+            this.envelopeEmpty = false;
+        }
+        else if (column == this.envelopeColumn + 2) {
+            fillEnvelope(0);
+            System.arraycopy(this.envelopeMin, 2, this.envelopeMin, 0, 2);
+            System.arraycopy(this.envelopeMax, 2, this.envelopeMax, 0, 2);
+            clearEnvelope(1);
+            this.envelopeColumn++;
+        }
+        else if (column < this.envelopeColumn
+                || column > this.envelopeColumn + 1) {
+            flushEnvelope();
+            this.envelopeColumn = column;
+            this.envelopeEmpty = false;
+        }
+        int i = 2 * (column - this.envelopeColumn) + (positive ? 1 : 0);
+        if (Double.isNaN(this.envelopeMin[i])) {
+            this.envelopeMin[i] = value;
+            this.envelopeMax[i] = value;
+        }
+        else {
+            this.envelopeMin[i] = Math.min(this.envelopeMin[i], value);
+            this.envelopeMax[i] = Math.max(this.envelopeMax[i], value);
+        }
+    }
+
+    /**
+     * Fills the columns held by the envelope, and empties it.
+     */
+    void flushEnvelope() {
+        if (this.envelopeEmpty) {
+            return;
+        }
+        fillEnvelope(0);
+        fillEnvelope(1);
+        clearEnvelope(0);
+        clearEnvelope(1);
+        this.envelopeEmpty = true;
+    }
+
+    /**
+     * Fills the envelope, and draws the batched item areas, at the end of
+     * each series.
+     *
+     * @param dataset  the dataset.
+     * @param series  the current series.
+     * @param firstItem  the first item in the series.
+     * @param lastItem  the last item in the series.
+     * @param pass  the pass index.
+     * @param passCount  the number of passes.
+     */
+    @Override
+    public void endSeriesPass(XYDataset dataset, int series, int firstItem,
+            int lastItem, int pass, int passCount) {
+        flushEnvelope();
+        if (this.deferredFills != null) {
+            this.deferredFills.flush();
+        }
+    }
+
+    private void clearEnvelope(int c) {
+        for (int i = 2 * c; i < 2 * c + 2; i++) {
+            this.envelopeMin[i] = Double.NaN;
+            this.envelopeMax[i] = Double.NaN;
+        }
+    }
+
+    /**
+     * Fills one of the columns held by the envelope with a rectangle for the
+     * negative items and another for the positive items.
+     *
+     * @param c  the column (0 or 1, relative to {@code envelopeColumn}).
+     */
+    private void fillEnvelope(int c) {
+        PlotOrientation orientation = this.envelopePlot.getOrientation();
+        for (int i = 2 * c; i < 2 * c + 2; i++) {
+            if (Double.isNaN(this.envelopeMin[i])) {
+                continue;
+            }
+            double low = this.envelopeMin[i];
+            double length = this.envelopeMax[i] - low;
+            int column = this.envelopeColumn + c;
+            if (orientation == PlotOrientation.VERTICAL) {
+                this.envelopeRect.setRect(column, low, 1.0, length);
+            }
+            else {
+                this.envelopeRect.setRect(low, column, length, 1.0);
+            }
+            if (this.deferredFills != null) {
+                this.deferredFills.fill(this.envelopeG2, 0,
+                        this.envelopePaint, this.envelopeRect);
+            }
+            else {
+                this.envelopeG2.setPaint(this.envelopePaint);
+                this.envelopeG2.fill(this.envelopeRect);
+            }
+        }
+    }
+
+    /**
+     * Prepares the stack table for a dataset, building it on the first call
+     * for the dataset.
+     *
+     * @param dataset  the dataset ({@code null} not permitted).
+     *
+     * @return {@code true} if the table can be used, or {@code false} if it
+     *     would be too large.
+     */
+    boolean prepareStacks(TableXYDataset dataset) {
+        if (dataset != this.dataset) {
+            this.dataset = dataset;
+            this.available = buildCheckpoints();
+        }
+        return this.available;
+    }
+
+    /**
+     * Returns the total of the positive y-values of the series before
+     * {@code series} for an item.
+     *
+     * @param series  the series index.
+     * @param item  the item index.
+     *
+     * @return The total.
+     */
+    double getPositiveStack(int series, int item) {
+        return this.blockPositive[row(series) * this.itemCount + item];
+    }
+
+    /**
+     * Returns the total of the negative y-values of the series before
+     * {@code series} for an item.
+     *
+     * @param series  the series index.
+     * @param item  the item index.
+     *
+     * @return The total.
+     */
+    double getNegativeStack(int series, int item) {
+        return this.blockNegative[row(series) * this.itemCount + item];
+    }
+
+    private boolean buildCheckpoints() {
+        this.seriesCount = this.dataset.getSeriesCount();
+        this.itemCount = this.dataset.getItemCount();
+        this.blockSize = Math.max(1,
+                (int) Math.ceil(Math.sqrt(this.seriesCount)));
+        int blocks = (this.seriesCount + this.blockSize - 1) / this.blockSize;
+        long size = (long) (blocks + this.blockSize) * this.itemCount;
+        this.block = -1;
+        if (size > MAXIMUM_TABLE_SIZE) {
+            this.checkpointPositive = null;
+            this.checkpointNegative = null;
+            this.blockPositive = null;
+            this.blockNegative = null;
+            return false;
+        }
+        int n = this.itemCount;
+        this.checkpointPositive = new double[blocks * n];
+        this.checkpointNegative = new double[blocks * n];
+        this.blockPositive = new double[this.blockSize * n];
+        this.blockNegative = new double[this.blockSize * n];
+        // use the first row of the block arrays for the running totals
+        for (int s = 0; s < this.seriesCount; s++) {
+            if (s % this.blockSize == 0) {
+                int offset = (s / this.blockSize) * n;
+                System.arraycopy(this.blockPositive, 0,
+                        this.checkpointPositive, offset, n);
+                System.arraycopy(this.blockNegative, 0,
+                        this.checkpointNegative, offset, n);
+            }
+            accumulate(s, 0);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the row in the block arrays that holds the totals for a
+     * series, loading the series' block first if necessary.
+     *
+     * @param series  the series index.
+     *
+     * @return The row.
+     */
+    private int row(int series) {
+        int b = series / this.blockSize;
+        if (b != this.block) {
+            int n = this.itemCount;
+            System.arraycopy(this.checkpointPositive, b * n,
+                    this.blockPositive, 0, n);
+            System.arraycopy(this.checkpointNegative, b * n,
+                    this.blockNegative, 0, n);
+            int first = b * this.blockSize;
+            for (int r = 1; r < this.blockSize
+                    && first + r < this.seriesCount; r++) {
+                System.arraycopy(this.blockPositive, (r - 1) * n,
+                        this.blockPositive, r * n, n);
+                System.arraycopy(this.blockNegative, (r - 1) * n,
+                        this.blockNegative, r * n, n);
+                accumulate(first + r - 1, r * n);
+            }
+            this.block = b;
+        }
+        return series - b * this.blockSize;
+    }
+
+    /**
+     * Adds the y-values of one series to a row of running totals.
+     *
+     * @param series  the series to add.
+     * @param offset  the offset of the row in the block arrays.
+     */
+    private void accumulate(int series, int offset) {
+        for (int i = 0; i < this.itemCount; i++) {
+            double v = this.dataset.getYValue(series, i);
+            if (!Double.isNaN(v)) {
+                if (v >= 0.0) {
+                    this.blockPositive[offset + i] += v;
+                }
+                else {
+                    this.blockNegative[offset + i] += v;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,570 @@
+package org.jfree.chart.util;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.text.AttributedCharacterIterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@code Graphics2D} that passes every call on to another
+ * {@code Graphics2D}, except for paint and stroke changes that would not
+ * change anything.  Renderers set the paint and stroke for each item (and
+ * often several times per item), even when every item in a series uses the
+ * same settings.  On a vector target such as SVG or PDF each change can
+ * turn into output, and on a raster target it invalidates the rendering
+ * pipeline, so dropping the repeated ones makes the output smaller and the
+ * drawing faster.  To use it, wrap the target before drawing the chart:
+ * <pre>
+ * StateElidingGraphics2D g2 = new StateElidingGraphics2D(target);
+ * chart.draw(g2, area);
+ * </pre>
+ * A paint is treated as unchanged when it is the same instance as the
+ * current paint, or an equal {@code Color}.  A stroke is treated as
+ * unchanged when it is the same instance, or an equal {@code BasicStroke}.
+ * Other paints and strokes are compared by identity only, since their
+ * {@code equals()} methods may be slow or missing.
+ * <P>
+ * The wrapper keeps track of the paint and stroke that it has set.  If the
+ * wrapped {@code Graphics2D} is changed directly, call {@link #sync()}
+ * before using the wrapper again.  A {@code Graphics2D} created with
+ * {@link #create()} is also a wrapper, and its counts are added to those of
+ * this wrapper, even when the copies draw on other threads (as the strips
+ * of a {@link org.jfree.chart.plot.ParallelCategoryPlot} do).  Apart from
+ * that, like the {@code Graphics2D} it wraps, this class is not
+ * thread-safe.
+ */
+public class StateElidingGraphics2D extends Graphics2D {
+
+    /** The index of the paint count in {@code counts}. */
+    private static final int PAINT = 0;
+
+    /** The index of the stroke count in {@code counts}. */
+    private static final int STROKE = 1;
+
+    /** The target. */
+    private final Graphics2D delegate;
+
+    /** The counts, shared with any wrappers created from this one. */
+    private final AtomicLongArray counts;
+
+    /** The paint last set on the target. */
+    private Paint paint;
+
+    /** The stroke last set on the target. */
+    private Stroke stroke;
+
+    /**
+     * Creates a new wrapper.
+     *
+     * @param delegate  the target ({@code null} not permitted).
+     */
+    public StateElidingGraphics2D(Graphics2D delegate) {
+        this(delegate, new AtomicLongArray(2));
+    }
+
+    /**
+     * Creates a new wrapper that shares its counts with another.
+     *
+     * @param delegate  the target.
+     * @param counts  the counts.
+     */
+    private StateElidingGraphics2D(Graphics2D delegate,
+            AtomicLongArray counts) {
+        Args.nullNotPermitted(delegate, "delegate");
+        this.delegate = delegate;
+        this.counts = counts;
+        sync();
+    }
+
+    /**
+     * Returns the {@code Graphics2D} that this wrapper draws to.
+     *
+     * @return The target (never {@code null}).
+     */
+    public Graphics2D getDelegate() {
+        return this.delegate;
+    }
+
+    /**
+     * Reads the current paint and stroke from the target.  Call this after
+     * changing the target directly rather than through the wrapper.
+     */
+    public void sync() {
+        this.paint = this.delegate.getPaint();
+        this.stroke = this.delegate.getStroke();
+    }
+
+    /**
+     * Returns the number of calls to {@link #setPaint(Paint)} and
+     * {@link #setColor(Color)} that were dropped because they would not have
+     * changed the paint.
+     *
+     * @return The count.
+     */
+    public long getElidedPaintCount() {
+        return this.counts.get(PAINT);
+    }
+
+    /**
+     * Returns the number of calls to {@link #setStroke(Stroke)} that were
+     * dropped because they would not have changed the stroke.
+     *
+     * @return The count.
+     */
+    public long getElidedStrokeCount() {
+        return this.counts.get(STROKE);
+    }
+
+    /**
+     * Returns the total number of paint and stroke changes dropped.
+     *
+     * @return The count.
+     */
+    public long getElidedCount() {
+        return this.counts.get(PAINT) + this.counts.get(STROKE);
+    }
+
+    /**
+     * Resets the counts to zero.
+     */
+    public void resetCounts() {
+        this.counts.set(PAINT, 0L);
+        this.counts.set(STROKE, 0L);
+    }
+
+    /**
+     * Returns {@code true} if setting the given paint would not change the
+     * current paint.
+     *
+     * @param p  the paint.
+     *
+     * @return A boolean.
+     */
+    private boolean isCurrentPaint(Paint p) {
+        return p == this.paint || (p instanceof Color && p.equals(this.paint));
+    }
+
+    @Override
+    public void setPaint(Paint paint) {
+        if (paint == null) {
+            // ignored by the target, as the Graphics2D contract allows
+            this.delegate.setPaint(null);
+            return;
+        }
+        if (isCurrentPaint(paint)) {
+            this.counts.incrementAndGet(PAINT);
+            return;
+        }
+        this.delegate.setPaint(paint);
+        this.paint = this.delegate.getPaint();
+    }
+
+    @Override
+    public void setColor(Color c) {
+        if (c == null) {
+            this.delegate.setColor(null);
+            return;
+        }
+        if (isCurrentPaint(c)) {
+            this.counts.incrementAndGet(PAINT);
+            return;
+        }
+        this.delegate.setColor(c);
+        this.paint = this.delegate.getPaint();
+    }
+
+    @Override
+    public void setStroke(Stroke s) {
+        if (s == this.stroke || (s instanceof BasicStroke
+                && s.equals(this.stroke))) {
+            this.counts.incrementAndGet(STROKE);
+            return;
+        }
+        this.delegate.setStroke(s);
+        this.stroke = this.delegate.getStroke();
+    }
+
+    @Override
+    public Paint getPaint() {
+        return this.delegate.getPaint();
+    }
+
+    @Override
+    public Color getColor() {
+        return this.delegate.getColor();
+    }
+
+    @Override
+    public Stroke getStroke() {
+        return this.delegate.getStroke();
+    }
+
+    @Override
+    public Graphics create() {
+        return new StateElidingGraphics2D(
+                (Graphics2D) this.delegate.create(), this.counts);
+    }
+
+    @Override
+    public void draw(Shape s) {
+        this.delegate.draw(s);
+    }
+
+    @Override
+    public void fill(Shape s) {
+        this.delegate.fill(s);
+    }
+
+    @Override
+    public boolean drawImage(Image img, AffineTransform xform,
+            ImageObserver obs) {
+        return this.delegate.drawImage(img, xform, obs);
+    }
+
+    @Override
+    public void drawImage(BufferedImage img, BufferedImageOp op, int x,
+            int y) {
+        this.delegate.drawImage(img, op, x, y);
+    }
+
+    @Override
+    public void drawRenderedImage(RenderedImage img, AffineTransform xform) {
+        this.delegate.drawRenderedImage(img, xform);
+    }
+
+    @Override
+    public void drawRenderableImage(RenderableImage img,
+            AffineTransform xform) {
+        this.delegate.drawRenderableImage(img, xform);
+    }
+
+    @Override
+    public void drawString(String str, int x, int y) {
+        this.delegate.drawString(str, x, y);
+    }
+
+    @Override
+    public void drawString(String str, float x, float y) {
+        this.delegate.drawString(str, x, y);
+    }
+
+    @Override
+    public void drawString(AttributedCharacterIterator iterator, int x,
+            int y) {
+        this.delegate.drawString(iterator, x, y);
+    }
+
+    @Override
+    public void drawString(AttributedCharacterIterator iterator, float x,
+            float y) {
+        this.delegate.drawString(iterator, x, y);
+    }
+
+    @Override
+    public void drawGlyphVector(GlyphVector g, float x, float y) {
+        this.delegate.drawGlyphVector(g, x, y);
+    }
+
+    @Override
+    public boolean hit(Rectangle rect, Shape s, boolean onStroke) {
+        return this.delegate.hit(rect, s, onStroke);
+    }
+
+    @Override
+    public GraphicsConfiguration getDeviceConfiguration() {
+        return this.delegate.getDeviceConfiguration();
+    }
+
+    @Override
+    public void setComposite(Composite comp) {
+        this.delegate.setComposite(comp);
+    }
+
+    @Override
+    public Composite getComposite() {
+        return this.delegate.getComposite();
+    }
+
+    @Override
+    public void setRenderingHint(RenderingHints.Key hintKey,
+            Object hintValue) {
+        this.delegate.setRenderingHint(hintKey, hintValue);
+    }
+
+    @Override
+    public Object getRenderingHint(RenderingHints.Key hintKey) {
+        return this.delegate.getRenderingHint(hintKey);
+    }
+
+    @Override
+    public void setRenderingHints(Map<?, ?> hints) {
+        this.delegate.setRenderingHints(hints);
+    }
+
+    @Override
+    public void addRenderingHints(Map<?, ?> hints) {
+        this.delegate.addRenderingHints(hints);
+    }
+
+    @Override
+    public RenderingHints getRenderingHints() {
+        return this.delegate.getRenderingHints();
+    }
+
+    @Override
+    public void translate(int x, int y) {
+        this.delegate.translate(x, y);
+    }
+
+    @Override
+    public void translate(double tx, double ty) {
+        this.delegate.translate(tx, ty);
+    }
+
+    @Override
+    public void rotate(double theta) {
+        this.delegate.rotate(theta);
+    }
+
+    @Override
+    public void rotate(double theta, double x, double y) {
+        this.delegate.rotate(theta, x, y);
+    }
+
+    @Override
+    public void scale(double sx, double sy) {
+        this.delegate.scale(sx, sy);
+    }
+
+    @Override
+    public void shear(double shx, double shy) {
+        this.delegate.shear(shx, shy);
+    }
+
+    @Override
+    public void transform(AffineTransform tx) {
+        this.delegate.transform(tx);
+    }
+
+    @Override
+    public void setTransform(AffineTransform tx) {
+        this.delegate.setTransform(tx);
+    }
+
+    @Override
+    public AffineTransform getTransform() {
+        return this.delegate.getTransform();
+    }
+
+    @Override
+    public void setBackground(Color color) {
+        this.delegate.setBackground(color);
+    }
+
+    @Override
+    public Color getBackground() {
+        return this.delegate.getBackground();
+    }
+
+    @Override
+    public void clip(Shape s) {
+        this.delegate.clip(s);
+    }
+
+    @Override
+    public FontRenderContext getFontRenderContext() {
+        return this.delegate.getFontRenderContext();
+    }
+
+    @Override
+    public void setPaintMode() {
+        this.delegate.setPaintMode();
+    }
+
+    @Override
+    public void setXORMode(Color c1) {
+        this.delegate.setXORMode(c1);
+    }
+
+    @Override
+    public Font getFont() {
+        return this.delegate.getFont();
+    }
+
+    @Override
+    public void setFont(Font font) {
+        this.delegate.setFont(font);
+    }
+
+    @Override
+    public FontMetrics getFontMetrics(Font f) {
+        return this.delegate.getFontMetrics(f);
+    }
+
+    @Override
+    public Rectangle getClipBounds() {
+        return this.delegate.getClipBounds();
+    }
+
+    @Override
+    public void clipRect(int x, int y, int width, int height) {
+        this.delegate.clipRect(x, y, width, height);
+    }
+
+    @Override
+    public void setClip(int x, int y, int width, int height) {
+        this.delegate.setClip(x, y, width, height);
+    }
+
+    @Override
+    public Shape getClip() {
+        return this.delegate.getClip();
+    }
+
+    @Override
+    public void setClip(Shape clip) {
+        this.delegate.setClip(clip);
+    }
+
+    @Override
+    public void copyArea(int x, int y, int width, int height, int dx,
+            int dy) {
+        this.delegate.copyArea(x, y, width, height, dx, dy);
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.delegate.drawLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void drawRect(int x, int y, int width, int height) {
+        this.delegate.drawRect(x, y, width, height);
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height) {
+        this.delegate.fillRect(x, y, width, height);
+    }
+
+    @Override
+    public void clearRect(int x, int y, int width, int height) {
+        this.delegate.clearRect(x, y, width, height);
+    }
+
+    @Override
+    public void drawRoundRect(int x, int y, int width, int height,
+            int arcWidth, int arcHeight) {
+        this.delegate.drawRoundRect(x, y, width, height, arcWidth, arcHeight);
+    }
+
+    @Override
+    public void fillRoundRect(int x, int y, int width, int height,
+            int arcWidth, int arcHeight) {
+        this.delegate.fillRoundRect(x, y, width, height, arcWidth, arcHeight);
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        this.delegate.drawOval(x, y, width, height);
+    }
+
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        this.delegate.fillOval(x, y, width, height);
+    }
+
+    @Override
+    public void drawArc(int x, int y, int width, int height, int startAngle,
+            int arcAngle) {
+        this.delegate.drawArc(x, y, width, height, startAngle, arcAngle);
+    }
+
+    @Override
+    public void fillArc(int x, int y, int width, int height, int startAngle,
+            int arcAngle) {
+        this.delegate.fillArc(x, y, width, height, startAngle, arcAngle);
+    }
+
+    @Override
+    public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+        this.delegate.drawPolyline(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+        this.delegate.drawPolygon(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+        this.delegate.fillPolygon(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y,
+            ImageObserver observer) {
+        return this.delegate.drawImage(img, x, y, observer);
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, int width, int height,
+            ImageObserver observer) {
+        return this.delegate.drawImage(img, x, y, width, height, observer);
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, Color bgcolor,
+            ImageObserver observer) {
+        return this.delegate.drawImage(img, x, y, bgcolor, observer);
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, int width, int height,
+            Color bgcolor, ImageObserver observer) {
+        return this.delegate.drawImage(img, x, y, width, height, bgcolor,
+                observer);
+    }
+
+    @Override
+    public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2,
+            int sx1, int sy1, int sx2, int sy2, ImageObserver observer) {
+        return this.delegate.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2,
+                sy2, observer);
+    }
+
+    @Override
+    public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2,
+            int sx1, int sy1, int sx2, int sy2, Color bgcolor,
+            ImageObserver observer) {
+        return this.delegate.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2,
+                sy2, bgcolor, observer);
+    }
+
+    @Override
+    public void dispose() {
+        this.delegate.dispose();
+    }
+
+}
@@ -0,0 +1,904 @@
+package org.jfree.data.statistics;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jfree.chart.util.Args;
+import org.jfree.chart.util.PublicCloneable;
+import org.jfree.data.KeyedObjects2D;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.UnknownKeyException;
+import org.jfree.data.general.AbstractDataset;
+
+/**
+ * A {@link BoxAndWhiskerCategoryDataset} that is built from a stream of raw
+ * sample values, without keeping the samples.  For each item the dataset
+ * keeps the count and sum of the samples, a {@link QuantileSketch}, and the
+ * {@code outlierLimit} smallest and largest samples.  The statistics are
+ * calculated from these on demand (and cached until the next sample arrives
+ * for the item), following the same rules as
+ * {@link BoxAndWhiskerCalculator#calculateBoxAndWhiskerStatistics(List)}:
+ * <ul>
+ * <li>while an item has no more samples than the sketch size parameter,
+ * the sketch holds every sample and the statistics are the same as those
+ * calculated from the full list of samples;</li>
+ * <li>after that, the median and quartiles are estimates with a rank error
+ * of a small fraction of the sample count, the mean is the exact running
+ * mean, and the outliers are the samples beyond the outlier thresholds
+ * among the {@code outlierLimit} smallest and largest samples (so at most
+ * {@code outlierLimit} outliers are reported on each side).</li>
+ * </ul>
+ * Samples that are {@code Double.NaN} are ignored, as they are by the
+ * calculator.  The memory used for an item is bounded by the sketch size
+ * and the outlier limit, however many samples are added.
+ * <P>
+ * The dataset implements {@link PrimitiveBoxAndWhiskerCategoryDataset}, so
+ * the box-and-whisker renderers read it without boxing.  Like the other
+ * datasets, it is not thread-safe: samples arriving on other threads must be
+ * added on the thread that draws the chart, or under the same lock.
+ */
+public class StreamingBoxAndWhiskerCategoryDataset extends AbstractDataset
+        implements PrimitiveBoxAndWhiskerCategoryDataset, RangeInfo,
+        PublicCloneable {
+
+    /** For serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /** The index of the mean in {@code Cell.stats}. */
+    private static final int MEAN = 0;
+
+    /** The index of the median in {@code Cell.stats}. */
+    private static final int MEDIAN = 1;
+
+    /** The index of Q1 in {@code Cell.stats}. */
+    private static final int Q1 = 2;
+
+    /** The index of Q3 in {@code Cell.stats}. */
+    private static final int Q3 = 3;
+
+    /** The index of the minimum regular value in {@code Cell.stats}. */
+    private static final int MIN_REGULAR = 4;
+
+    /** The index of the maximum regular value in {@code Cell.stats}. */
+    private static final int MAX_REGULAR = 5;
+
+    /** The index of the minimum outlier in {@code Cell.stats}. */
+    private static final int MIN_OUTLIER = 6;
+
+    /** The index of the maximum outlier in {@code Cell.stats}. */
+    private static final int MAX_OUTLIER = 7;
+
+    /** The default size parameter for the quantile sketches. */
+    public static final int DEFAULT_SKETCH_SIZE = 200;
+
+    /** The default number of extreme samples kept at each end. */
+    public static final int DEFAULT_OUTLIER_LIMIT = 64;
+
+    /** The size parameter for the quantile sketches. */
+    private final int sketchSize;
+
+    /** The number of extreme samples kept at each end of each item. */
+    private final int outlierLimit;
+
+    /** Storage for the items (one {@code Cell} per row and column). */
+    private KeyedObjects2D data;
+
+    /** The range bounds (valid only when {@code rangeBoundsValid}). */
+    private transient Range rangeBounds;
+
+    /** Is {@code rangeBounds} up to date? */
+    private transient boolean rangeBoundsValid;
+
+    /**
+     * Creates a new, empty, dataset with the default sketch size and
+     * outlier limit.
+     */
+    public StreamingBoxAndWhiskerCategoryDataset() {
+        this(DEFAULT_SKETCH_SIZE, DEFAULT_OUTLIER_LIMIT);
+    }
+
+    /**
+     * Creates a new, empty, dataset.
+     *
+     * @param sketchSize  the size parameter for the quantile sketches (8 or
+     *     greater).  Items with up to this many samples have exact
+     *     statistics.
+     * @param outlierLimit  the number of outliers that can be reported at
+     *     each end of an item (1 or greater).
+     */
+    public StreamingBoxAndWhiskerCategoryDataset(int sketchSize,
+            int outlierLimit) {
+        if (sketchSize < 8) {
+            throw new IllegalArgumentException("Requires 'sketchSize' >= 8.");
+        }
+        if (outlierLimit < 1) {
+            throw new IllegalArgumentException(
+                    "Requires 'outlierLimit' >= 1.");
+        }
+        this.sketchSize = sketchSize;
+        this.outlierLimit = outlierLimit;
+        this.data = new KeyedObjects2D();
+    }
+
+    /**
+     * Returns the size parameter for the quantile sketches.
+     *
+     * @return The sketch size.
+     */
+    public int getSketchSize() {
+        return this.sketchSize;
+    }
+
+    /**
+     * Returns the number of outliers that can be reported at each end of an
+     * item.
+     *
+     * @return The outlier limit.
+     */
+    public int getOutlierLimit() {
+        return this.outlierLimit;
+    }
+
+    /**
+     * Adds a sample to an item, and sends a
+     * {@link org.jfree.data.general.DatasetChangeEvent} to all registered
+     * listeners.  To add many samples, use {@link #add(double[], Comparable,
+     * Comparable)} or switch off notification while adding them.
+     *
+     * @param value  the sample value ({@code Double.NaN} is ignored).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     */
+    public void add(double value, Comparable rowKey, Comparable columnKey) {
+        Cell cell = getOrAddCell(rowKey, columnKey);
+        if (!Double.isNaN(value)) {
+            cell.add(value);
+        }
+        this.rangeBoundsValid = false;
+        fireDatasetChanged();
+    }
+
+    /**
+     * Adds samples to an item, and sends a single
+     * {@link org.jfree.data.general.DatasetChangeEvent} to all registered
+     * listeners.
+     *
+     * @param values  the sample values ({@code null} not permitted,
+     *     {@code Double.NaN} values are ignored).
+     * @param rowKey  the row key ({@code null} not permitted).
+     * @param columnKey  the column key ({@code null} not permitted).
+     */
+    public void add(double[] values, Comparable rowKey, Comparable columnKey) {
+        Args.nullNotPermitted(values, "values");
+        Cell cell = getOrAddCell(rowKey, columnKey);
+        for (double value : values) {
+            if (!Double.isNaN(value)) {
+                cell.add(value);
+            }
+        }
+        this.rangeBoundsValid = false;
+        fireDatasetChanged();
+    }
+
+    /**
+     * Removes all data from the dataset and sends a
+     * {@link org.jfree.data.general.DatasetChangeEvent} to all registered
+     * listeners.
+     */
+    public void clear() {
+        this.data.clear();
+        this.rangeBoundsValid = false;
+        fireDatasetChanged();
+    }
+
+    /**
+     * Returns the number of samples added to an item.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The sample count.
+     */
+    public long getSampleCount(int row, int column) {
+        Cell cell = (Cell) this.data.getObject(row, column);
+        return cell == null ? 0 : cell.sketch.getCount();
+    }
+
+    /**
+     * Returns the statistics for an item as a new {@link BoxAndWhiskerItem}.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The item ({@code null} if the item has no samples).
+     */
+    public BoxAndWhiskerItem getItem(int row, int column) {
+        Cell cell = stats(row, column);
+        if (cell == null) {
+            return null;
+        }
+        return new BoxAndWhiskerItem(cell.stats[MEAN], cell.stats[MEDIAN],
+                cell.stats[Q1], cell.stats[Q3], cell.stats[MIN_REGULAR],
+                cell.stats[MAX_REGULAR], cell.stats[MIN_OUTLIER],
+                cell.stats[MAX_OUTLIER], getOutliers(row, column));
+    }
+
+    /**
+     * Returns the value used as the y-value for the item (the median).
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The value (possibly {@code null}).
+     */
+    @Override
+    public Number getValue(int row, int column) {
+        return getMedianValue(row, column);
+    }
+
+    /**
+     * Returns the value used as the y-value for the item (the median).
+     *
+     * @param rowKey  the row key.
+     * @param columnKey  the column key.
+     *
+     * @return The value (possibly {@code null}).
+     */
+    @Override
+    public Number getValue(Comparable rowKey, Comparable columnKey) {
+        return getMedianValue(rowKey, columnKey);
+    }
+
+    @Override
+    public double getMeanDouble(int row, int column) {
+        return stat(row, column, MEAN);
+    }
+
+    @Override
+    public Number getMeanValue(int row, int column) {
+        return number(getMeanDouble(row, column));
+    }
+
+    @Override
+    public Number getMeanValue(Comparable rowKey, Comparable columnKey) {
+        return getMeanValue(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getMedianDouble(int row, int column) {
+        return stat(row, column, MEDIAN);
+    }
+
+    @Override
+    public Number getMedianValue(int row, int column) {
+        return number(getMedianDouble(row, column));
+    }
+
+    @Override
+    public Number getMedianValue(Comparable rowKey, Comparable columnKey) {
+        return getMedianValue(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getQ1Double(int row, int column) {
+        return stat(row, column, Q1);
+    }
+
+    @Override
+    public Number getQ1Value(int row, int column) {
+        return number(getQ1Double(row, column));
+    }
+
+    @Override
+    public Number getQ1Value(Comparable rowKey, Comparable columnKey) {
+        return getQ1Value(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getQ3Double(int row, int column) {
+        return stat(row, column, Q3);
+    }
+
+    @Override
+    public Number getQ3Value(int row, int column) {
+        return number(getQ3Double(row, column));
+    }
+
+    @Override
+    public Number getQ3Value(Comparable rowKey, Comparable columnKey) {
+        return getQ3Value(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getMinRegularDouble(int row, int column) {
+        return stat(row, column, MIN_REGULAR);
+    }
+
+    @Override
+    public Number getMinRegularValue(int row, int column) {
+        return number(getMinRegularDouble(row, column));
+    }
+
+    @Override
+    public Number getMinRegularValue(Comparable rowKey, Comparable columnKey) {
+        return getMinRegularValue(rowIndex(rowKey),
+                columnIndex(columnKey));
+    }
+
+    @Override
+    public double getMaxRegularDouble(int row, int column) {
+        return stat(row, column, MAX_REGULAR);
+    }
+
+    @Override
+    public Number getMaxRegularValue(int row, int column) {
+        return number(getMaxRegularDouble(row, column));
+    }
+
+    @Override
+    public Number getMaxRegularValue(Comparable rowKey, Comparable columnKey) {
+        return getMaxRegularValue(rowIndex(rowKey),
+                columnIndex(columnKey));
+    }
+
+    @Override
+    public double getMinOutlierDouble(int row, int column) {
+        return stat(row, column, MIN_OUTLIER);
+    }
+
+    @Override
+    public Number getMinOutlier(int row, int column) {
+        return number(getMinOutlierDouble(row, column));
+    }
+
+    @Override
+    public Number getMinOutlier(Comparable rowKey, Comparable columnKey) {
+        return getMinOutlier(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public double getMaxOutlierDouble(int row, int column) {
+        return stat(row, column, MAX_OUTLIER);
+    }
+
+    @Override
+    public Number getMaxOutlier(int row, int column) {
+        return number(getMaxOutlierDouble(row, column));
+    }
+
+    @Override
+    public Number getMaxOutlier(Comparable rowKey, Comparable columnKey) {
+        return getMaxOutlier(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public int getOutlierCount(int row, int column) {
+        Cell cell = stats(row, column);
+        return cell == null ? -1 : cell.outlierCount;
+    }
+
+    @Override
+    public double getOutlierDouble(int row, int column, int index) {
+        Cell cell = stats(row, column);
+        if (cell == null || index < 0 || index >= cell.outlierCount) {
+            throw new IndexOutOfBoundsException("Outlier index " + index
+                    + " out of bounds.");
+        }
+        return cell.outliers[index];
+    }
+
+    /**
+     * Returns a new list containing the outliers for an item, in ascending
+     * order.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return A list of outlier values (possibly {@code null}).
+     */
+    @Override
+    public List getOutliers(int row, int column) {
+        Cell cell = stats(row, column);
+        if (cell == null) {
+            return null;
+        }
+        List<Double> result = new ArrayList<>(cell.outlierCount);
+        for (int i = 0; i < cell.outlierCount; i++) {
+            result.add(cell.outliers[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new list containing the outliers for an item, in ascending
+     * order.
+     *
+     * @param rowKey  the row key.
+     * @param columnKey  the column key.
+     *
+     * @return A list of outlier values (possibly {@code null}).
+     */
+    @Override
+    public List getOutliers(Comparable rowKey, Comparable columnKey) {
+        return getOutliers(rowIndex(rowKey), columnIndex(columnKey));
+    }
+
+    @Override
+    public int getColumnIndex(Comparable key) {
+        return this.data.getColumnIndex(key);
+    }
+
+    @Override
+    public Comparable getColumnKey(int column) {
+        return this.data.getColumnKey(column);
+    }
+
+    @Override
+    public List getColumnKeys() {
+        return this.data.getColumnKeys();
+    }
+
+    @Override
+    public int getRowIndex(Comparable key) {
+        return this.data.getRowIndex(key);
+    }
+
+    @Override
+    public Comparable getRowKey(int row) {
+        return this.data.getRowKey(row);
+    }
+
+    @Override
+    public List getRowKeys() {
+        return this.data.getRowKeys();
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.data.getRowCount();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.data.getColumnCount();
+    }
+
+    /**
+     * Returns the minimum y-value in the dataset (the lowest minimum
+     * outlier).
+     *
+     * @param includeInterval  ignored.
+     *
+     * @return The minimum value ({@code Double.NaN} if the dataset is empty).
+     */
+    @Override
+    public double getRangeLowerBound(boolean includeInterval) {
+        Range bounds = getRangeBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getLowerBound();
+    }
+
+    /**
+     * Returns the maximum y-value in the dataset (the highest maximum
+     * outlier).
+     *
+     * @param includeInterval  ignored.
+     *
+     * @return The maximum value ({@code Double.NaN} if the dataset is empty).
+     */
+    @Override
+    public double getRangeUpperBound(boolean includeInterval) {
+        Range bounds = getRangeBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getUpperBound();
+    }
+
+    /**
+     * Returns the range of the values in this dataset's range, from the
+     * lowest minimum outlier to the highest maximum outlier.
+     *
+     * @param includeInterval  ignored.
+     *
+     * @return The range ({@code null} if the dataset has no samples).
+     */
+    @Override
+    public Range getRangeBounds(boolean includeInterval) {
+        if (!this.rangeBoundsValid) {
+            double min = Double.NaN;
+            double max = Double.NaN;
+            for (int r = 0; r < getRowCount(); r++) {
+                for (int c = 0; c < getColumnCount(); c++) {
+                    Cell cell = stats(r, c);
+                    if (cell == null) {
+                        continue;
+                    }
+                    double minv = cell.stats[MIN_OUTLIER];
+                    if (minv < min || Double.isNaN(min)) {
+                        min = minv;
+                    }
+                    double maxv = cell.stats[MAX_OUTLIER];
+                    if (maxv > max || Double.isNaN(max)) {
+                        max = maxv;
+                    }
+                }
+            }
+            this.rangeBounds = Double.isNaN(min) || Double.isNaN(max)
+                    ? null : new Range(min, max);
+            this.rangeBoundsValid = true;
+        }
+        return this.rangeBounds;
+    }
+
+    /**
+     * Tests this dataset for equality with an arbitrary object.  Two
+     * datasets are equal if they have the same settings and keys, and the
+     * same samples have been added to each item.
+     *
+     * @param obj  the object to test against ({@code null} permitted).
+     *
+     * @return A boolean.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof StreamingBoxAndWhiskerCategoryDataset)) {
+            return false;
+        }
+        StreamingBoxAndWhiskerCategoryDataset that
+                = (StreamingBoxAndWhiskerCategoryDataset) obj;
+        return this.sketchSize == that.sketchSize
+                && this.outlierLimit == that.outlierLimit
+                && this.data.equals(that.data);
+    }
+
+    /**
+     * Returns a hash code for this dataset.
+     *
+     * @return A hash code.
+     */
+    @Override
+    public int hashCode() {
+        int result = 193;
+        result = 43 * result + this.data.getRowKeys().hashCode();
+        result = 43 * result + this.data.getColumnKeys().hashCode();
+        return result;
+    }
+
+    /**
+     * Returns a clone of this dataset.  The clone has its own copy of each
+     * item's summary, so samples added to one do not affect the other.
+     *
+     * @return A clone.
+     *
+     * @throws CloneNotSupportedException if cloning is not possible.
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        StreamingBoxAndWhiskerCategoryDataset clone
+                = (StreamingBoxAndWhiskerCategoryDataset) super.clone();
+        clone.data = (KeyedObjects2D) this.data.clone();
+        return clone;
+    }
+
+    private int rowIndex(Comparable rowKey) {
+        int result = getRowIndex(rowKey);
+        if (result < 0) {
+            throw new UnknownKeyException("Row key (" + rowKey
+                    + ") not recognised.");
+        }
+        return result;
+    }
+
+    private int columnIndex(Comparable columnKey) {
+        int result = getColumnIndex(columnKey);
+        if (result < 0) {
+            throw new UnknownKeyException("Column key (" + columnKey
+                    + ") not recognised.");
+        }
+        return result;
+    }
+
+    private Cell getOrAddCell(Comparable rowKey, Comparable columnKey) {
+        Args.nullNotPermitted(rowKey, "rowKey");
+        Args.nullNotPermitted(columnKey, "columnKey");
+        Cell cell = null;
+        int row = this.data.getRowIndex(rowKey);
+        int column = this.data.getColumnIndex(columnKey);
+        if (row >= 0 && column >= 0) {
+            cell = (Cell) this.data.getObject(row, column);
+        }
+        if (cell == null) {
+            cell = new Cell(this.sketchSize, this.outlierLimit);
+            this.data.setObject(cell, rowKey, columnKey);
+        }
+        return cell;
+    }
+
+    /**
+     * Returns the cell for an item, with its statistics up to date.
+     *
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     *
+     * @return The cell ({@code null} if the item has no samples).
+     */
+    private Cell stats(int row, int column) {
+        Cell cell = (Cell) this.data.getObject(row, column);
+        if (cell == null || cell.sketch.getCount() == 0) {
+            return null;
+        }
+        if (!cell.valid) {
+            cell.calculate();
+        }
+        return cell;
+    }
+
+    private double stat(int row, int column, int stat) {
+        Cell cell = stats(row, column);
+        return cell == null ? Double.NaN : cell.stats[stat];
+    }
+
+    private static Number number(double d) {
+        return Double.isNaN(d) ? null : d;
+    }
+
+    /**
+     * The samples summary and cached statistics for one item.  A cell is
+     * cloned (by {@link KeyedObjects2D#clone()}) when the dataset is.
+     */
+    private static final class Cell implements PublicCloneable,
+            Serializable {
+
+        /** The quantile sketch (which also counts the samples). */
+        QuantileSketch sketch;
+
+        /** The running sum of the samples. */
+        double sum;
+
+        /** The smallest samples, in ascending order. */
+        double[] low;
+
+        /** The number of entries in {@code low}. */
+        int lowSize;
+
+        /** The largest samples, in ascending order. */
+        double[] high;
+
+        /** The number of entries in {@code high}. */
+        int highSize;
+
+        /** Are {@code stats} and {@code outliers} up to date? */
+        boolean valid;
+
+        /** The statistics, indexed by MEAN, MEDIAN and so on. */
+        double[] stats;
+
+        /** The outliers, in ascending order. */
+        double[] outliers;
+
+        /** The number of entries in {@code outliers}. */
+        int outlierCount;
+
+        Cell(int sketchSize, int outlierLimit) {
+            this.sketch = new QuantileSketch(sketchSize);
+            this.low = new double[outlierLimit];
+            this.high = new double[outlierLimit];
+            this.stats = new double[8];
+            this.outliers = new double[0];
+        }
+
+        /**
+         * Tests this cell for equality with an arbitrary object.  The cached
+         * statistics are not compared, as they follow from the samples.
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Cell)) {
+                return false;
+            }
+            Cell that = (Cell) obj;
+            return Double.doubleToLongBits(this.sum)
+                    == Double.doubleToLongBits(that.sum)
+                    && this.sketch.equals(that.sketch)
+                    && Arrays.equals(Arrays.copyOf(this.low, this.lowSize),
+                    Arrays.copyOf(that.low, that.lowSize))
+                    && Arrays.equals(Arrays.copyOf(this.high, this.highSize),
+                    Arrays.copyOf(that.high, that.highSize));
+        }
+
+        @Override
+        public int hashCode() {
+            return this.sketch.hashCode();
+        }
+
+        @Override
+        public Object clone() throws CloneNotSupportedException {
+            Cell clone = (Cell) super.clone();
+            clone.sketch = (QuantileSketch) this.sketch.clone();
+            clone.low = this.low.clone();
+            clone.high = this.high.clone();
+            clone.stats = this.stats.clone();
+            clone.outliers = this.outliers.clone();
+            return clone;
+        }
+
+        void add(double value) {
+            this.sketch.add(value);
+            this.sum += value;
+            int limit = this.low.length;
+            if (this.lowSize < limit || value < this.low[limit - 1]) {
+                // insert, dropping the largest entry if the array is full
+                int i = Math.min(this.lowSize, limit - 1);
+                while (i > 0 && this.low[i - 1] > value) {
+                    this.low[i] = this.low[i - 1];
+                    i--;
+                }
+                this.low[i] = value;
+                this.lowSize = Math.min(this.lowSize + 1, limit);
+            }
+            if (this.highSize < limit) {
+                int i = this.highSize++;
+                while (i > 0 && this.high[i - 1] > value) {
+                    this.high[i] = this.high[i - 1];
+                    i--;
+                }
+                this.high[i] = value;
+            }
+            else if (value > this.high[0]) {
+                // insert, dropping the smallest entry
+                int i = 0;
+                while (i < limit - 1 && this.high[i + 1] < value) {
+                    this.high[i] = this.high[i + 1];
+                    i++;
+                }
+                this.high[i] = value;
+            }
+            this.valid = false;
+        }
+
+        /**
+         * Calculates the statistics, using the same formulas as
+         * {@link BoxAndWhiskerCalculator} with the sketch standing in for
+         * the sorted list of samples.
+         */
+        void calculate() {
+            long n = this.sketch.getCount();
+            if (this.sketch.isExact()) {
+                // sum in ascending order, as the calculator does
+                double total = 0.0;
+                for (int i = 0; i < this.sketch.getHeldCount(); i++) {
+                    total = total + this.sketch.getHeldValue(i);
+                }
+                this.stats[MEAN] = total / n;
+            }
+            else {
+                this.stats[MEAN] = this.sum / n;
+            }
+            this.stats[MEDIAN] = median(0, n - 1);
+            double q1;
+            double q3;
+            if (n % 2 == 1) {
+                if (n > 1) {
+                    q1 = median(0, n / 2);
+                    q3 = median(n / 2, n - 1);
+                }
+                else {
+                    q1 = median(0, 0);
+                    q3 = q1;
+                }
+            }
+            else {
+                q1 = median(0, n / 2 - 1);
+                q3 = median(n / 2, n - 1);
+            }
+            this.stats[Q1] = q1;
+            this.stats[Q3] = q3;
+
+            double interQuartileRange = q3 - q1;
+            double upperOutlierThreshold = q3 + (interQuartileRange * 1.5);
+            double lowerOutlierThreshold = q1 - (interQuartileRange * 1.5);
+            double upperFaroutThreshold = q3 + (interQuartileRange * 2.0);
+            double lowerFaroutThreshold = q1 - (interQuartileRange * 2.0);
+
+            double minRegularValue = smallestAtLeast(lowerOutlierThreshold);
+            double maxRegularValue = largestAtMost(upperOutlierThreshold);
+            this.stats[MIN_REGULAR] = minRegularValue;
+            this.stats[MAX_REGULAR] = maxRegularValue;
+            this.stats[MIN_OUTLIER] = Math.min(minRegularValue,
+                    smallestAtLeast(lowerFaroutThreshold));
+            this.stats[MAX_OUTLIER] = Math.max(maxRegularValue,
+                    largestAtMost(upperFaroutThreshold));
+
+            // the outliers: every sample beyond the thresholds while all
+            // samples are in the low array, otherwise the ones among the
+            // extreme samples kept at each end
+            int count = 0;
+            double[] result = new double[this.lowSize + this.highSize];
+            boolean all = this.lowSize == n;
+            for (int i = 0; i < this.lowSize; i++) {
+                double v = this.low[i];
+                if (v < lowerOutlierThreshold
+                        || (all && v > upperOutlierThreshold)) {
+                    result[count++] = v;
+                }
+            }
+            if (!all) {
+                for (int i = 0; i < this.highSize; i++) {
+                    double v = this.high[i];
+                    if (v > upperOutlierThreshold) {
+                        result[count++] = v;
+                    }
+                }
+            }
+            this.outliers = result;
+            this.outlierCount = count;
+            this.valid = true;
+        }
+
+        /**
+         * Returns the median of the samples with ranks {@code start} to
+         * {@code end} (inclusive), as {@code Statistics.calculateMedian()}.
+         */
+        private double median(long start, long end) {
+            long count = end - start + 1;
+            if (count % 2 == 1) {
+                return this.sketch.getValue(start + (count - 1) / 2);
+            }
+            return (this.sketch.getValue(start + count / 2 - 1)
+                    + this.sketch.getValue(start + count / 2)) / 2.0;
+        }
+
+        /**
+         * Returns the smallest sample that is greater than or equal to
+         * {@code t}, or positive infinity if there is none.  The result is
+         * exact when the low array holds such a sample (or holds every
+         * sample), and otherwise comes from the sketch.
+         */
+        private double smallestAtLeast(double t) {
+            for (int i = 0; i < this.lowSize; i++) {
+                if (this.low[i] >= t) {
+                    return this.low[i];
+                }
+            }
+            if (this.lowSize < this.low.length) {
+                return Double.POSITIVE_INFINITY;
+            }
+            for (int i = 0; i < this.sketch.getHeldCount(); i++) {
+                double v = this.sketch.getHeldValue(i);
+                if (v >= t) {
+                    return v;
+                }
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Returns the largest sample that is less than or equal to
+         * {@code t}, or negative infinity if there is none.
+         */
+        private double largestAtMost(double t) {
+            for (int i = this.highSize - 1; i >= 0; i--) {
+                if (this.high[i] <= t) {
+                    return this.high[i];
+                }
+            }
+            if (this.highSize < this.high.length) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            for (int i = this.sketch.getHeldCount() - 1; i >= 0; i--) {
+                double v = this.sketch.getHeldValue(i);
+                if (v <= t) {
+                    return v;
+                }
+            }
+            return Double.NEGATIVE_INFINITY;
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+    /**
+     * Creates the item entities recorded in a {@link LazyEntityCollection}.
+     */
+    private static final LazyEntityCollection.EntityFactory ITEM_ENTITY_FACTORY
+            = (owner, source, series, item, area)
+            -> ((AbstractXYItemRenderer) owner).createItemEntity(
+            (XYDataset) source, series, item, area);
+
+    /**
+     * Adds an entity to the collection.  Note the the {@code entityX} and
+     * {@code entityY} coordinates are in Java2D space, should already be 
+     * adjusted for the plot orientation, and will only be used if 
+     * {@code hotspot} is {@code null}.  If the collection is a
+     * {@link LazyEntityCollection}, only the item and its hotspot are
+     * recorded, and the entity (with its tool tip and URL) is created when
+     * the collection needs it.
+     *
+     * @param entities  the entity collection being populated.
+     * @param hotspot  the entity area (if {@code null} a default will be
+     *              used).
+     * @param dataset  the dataset.
+     * @param series  the series.
+     * @param item  the item.
+     * @param entityX  the entity x-coordinate (in Java2D space, only used if 
+     *         {@code hotspot} is {@code null}).
+     * @param entityY  the entity y-coordinate (in Java2D space, only used if 
+     *         {@code hotspot} is {@code null}).
+     */
+    protected void addEntity(EntityCollection entities, Shape hotspot,
+            XYDataset dataset, int series, int item, double entityX, 
+            double entityY) {
+        
+        if (!getItemCreateEntity(series, item)) {
+            return;
+        }
+
+        // if not hotspot is provided, we create a default based on the 
+        // provided data coordinates (which are already in Java2D space)
+        if (hotspot == null) {
+            double r = getDefaultEntityRadius();
+            double w = r * 2;
+            hotspot = new Ellipse2D.Double(entityX - r, entityY - r, w, w);
+        }
+        if (entities instanceof LazyEntityCollection) {
+            ((LazyEntityCollection) entities).add(ITEM_ENTITY_FACTORY, this,
+                    dataset, series, item, hotspot);
+            return;
+        }
+        entities.add(createItemEntity(dataset, series, item, hotspot));
+    }
+
+    /**
+     * Adds an entity for an item whose hotspot is one of the renderer
+     * state's scratch paths, which will be reused for the next item.  A
+     * {@link LazyEntityCollection} copies the hotspot, so it is passed on
+     * as is; any other collection keeps the shape in the entity, so it is
+     * given a copy (unless no entity is created for the item).
+     *
+     * @param entities  the entity collection.
+     * @param hotspot  the scratch hotspot ({@code null} not permitted).
+     * @param dataset  the dataset.
+     * @param series  the series.
+     * @param item  the item.
+     */
+    protected void addScratchEntity(EntityCollection entities,
+            Path2D hotspot, XYDataset dataset, int series, int item) {
+        Args.nullNotPermitted(hotspot, "hotspot");
+        if (!getItemCreateEntity(series, item)) {
+            return;
+        }
+        Shape area = hotspot;
+        if (!(entities instanceof LazyEntityCollection)) {
+            area = (Shape) hotspot.clone();
+        }
+        addEntity(entities, area, dataset, series, item, 0.0, 0.0);
+    }
+
+    /**
+     * Creates the entity for an item.
+     *
+     * @param dataset  the dataset.
+     * @param series  the series.
+     * @param item  the item.
+     * @param hotspot  the entity area.
+     *
+     * @return The entity.
+     */
+    private XYItemEntity createItemEntity(XYDataset dataset, int series,
+            int item, Shape hotspot) {
+        String tip = null;
+        XYToolTipGenerator generator = getToolTipGenerator(series, item);
+        if (generator != null) {
+            tip = generator.generateToolTip(dataset, series, item);
+        }
+        String url = null;
+        if (getURLGenerator() != null) {
+            url = getURLGenerator().generateURL(dataset, series, item);
+        }
+        return new XYItemEntity(hotspot, dataset, series, item, tip, url);
+    }
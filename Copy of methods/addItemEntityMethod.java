@@ -0,0 +1,87 @@
+    /**
+     * Creates the item entities recorded in a {@link LazyEntityCollection}.
+     */
+    private static final LazyEntityCollection.EntityFactory ITEM_ENTITY_FACTORY
+            = (owner, source, row, column, area)
+            -> ((AbstractCategoryItemRenderer) owner).createItemEntity(
+            (CategoryDataset) source, row, column, area);
+
+    /**
+     * Adds an entity with the specified hotspot.  If the collection is a
+     * {@link LazyEntityCollection}, only the item and its hotspot are
+     * recorded, and the entity (with its tool tip and URL) is created when
+     * the collection needs it.
+     *
+     * @param entities  the entity collection.
+     * @param dataset  the dataset.
+     * @param row  the row index.
+     * @param column  the column index.
+     * @param hotspot  the hotspot ({@code null} not permitted).
+     */
+    protected void addItemEntity(EntityCollection entities,
+            CategoryDataset dataset, int row, int column, Shape hotspot) {
+        Args.nullNotPermitted(hotspot, "hotspot");
+        if (!getItemCreateEntity(row, column)) {
+            return;
+        }
+        if (entities instanceof LazyEntityCollection) {
+            ((LazyEntityCollection) entities).add(ITEM_ENTITY_FACTORY, this,
+                    dataset, row, column, hotspot);
+            return;
+        }
+        entities.add(createItemEntity(dataset, row, column, hotspot));
+    }
+
+    /**
+     * Adds an entity for an item whose hotspot is one of the renderer
+     * state's scratch shapes, which will be reused for the next item.  A
+     * {@link LazyEntityCollection} records the coordinates of the hotspot,
+     * so it is passed on as is; any other collection keeps the shape in the
+     * entity, so it is given a copy (unless no entity is created for the
+     * item).
+     *
+     * @param entities  the entity collection.
+     * @param dataset  the dataset.
+     * @param row  the row index.
+     * @param column  the column index.
+     * @param hotspot  the scratch hotspot ({@code null} not permitted).
+     */
+    protected void addScratchItemEntity(EntityCollection entities,
+            CategoryDataset dataset, int row, int column,
+            RectangularShape hotspot) {
+        Args.nullNotPermitted(hotspot, "hotspot");
+        if (!getItemCreateEntity(row, column)) {
+            return;
+        }
+        Shape area = hotspot;
+        if (!(entities instanceof LazyEntityCollection)) {
+            area = (Shape) hotspot.clone();
+        }
+        addItemEntity(entities, dataset, row, column, area);
+    }
+
+    /**
+     * Creates the entity for an item.
+     *
+     * @param dataset  the dataset.
+     * @param row  the row index.
+     * @param column  the column index.
+     * @param hotspot  the hotspot.
+     *
+     * @return The entity.
+     */
+    private CategoryItemEntity createItemEntity(CategoryDataset dataset,
+            int row, int column, Shape hotspot) {
+        String tip = null;
+        CategoryToolTipGenerator tipster = getToolTipGenerator(row, column);
+        if (tipster != null) {
+            tip = tipster.generateToolTip(dataset, row, column);
+        }
+        String url = null;
+        CategoryURLGenerator urlster = getItemURLGenerator(row, column);
+        if (urlster != null) {
+            url = urlster.generateURL(dataset, row, column);
+        }
+        return new CategoryItemEntity(hotspot, tip, url, dataset,
+                dataset.getRowKey(row), dataset.getColumnKey(column));
+    }
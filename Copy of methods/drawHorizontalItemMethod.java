@@ -19,102 +19,105 @@
             CategoryPlot plot, CategoryAxis domainAxis, ValueAxis rangeAxis,
             CategoryDataset dataset, int row, int column) {
 
+        long mark = DRAW_HORIZONTAL_ITEM_METRICS.start();
         BoxAndWhiskerCategoryDataset bawDataset
                 = (BoxAndWhiskerCategoryDataset) dataset;
 
-        double categoryEnd = domainAxis.getCategoryEnd(column,
-                getColumnCount(), dataArea, plot.getDomainAxisEdge());
-        double categoryStart = domainAxis.getCategoryStart(column,
-                getColumnCount(), dataArea, plot.getDomainAxisEdge());
-        double categoryWidth = Math.abs(categoryEnd - categoryStart);
-
-        double yy = categoryStart;
+        // the category positions and series offsets are the same for the
+        // whole pass, so they are kept in the state's category layout
         int seriesCount = getRowCount();
-        int categoryCount = getColumnCount();
-
+        double seriesGap = 0.0;
         if (seriesCount > 1) {
-            double seriesGap = dataArea.getHeight() * getItemMargin()
-                               / (categoryCount * (seriesCount - 1));
-            double usedWidth = (state.getBarWidth() * seriesCount)
-                               + (seriesGap * (seriesCount - 1));
-            // offset the start of the boxes if the total width used is smaller
-            // than the category width
-            double offset = (categoryWidth - usedWidth) / 2;
-            yy = yy + offset + (row * (state.getBarWidth() + seriesGap));
-        }
-        else {
-            // offset the start of the box if the box width is smaller than
-            // the category width
-            double offset = (categoryWidth - state.getBarWidth()) / 2;
-            yy = yy + offset;
+            seriesGap = dataArea.getHeight() * getItemMargin()
+                    / (getColumnCount() * (seriesCount - 1));
         }
-
-        g2.setPaint(getItemPaint(row, column));
-        Stroke s = getItemStroke(row, column);
+        double yy = state.getCategoryLayout(domainAxis, dataset, dataArea,
+                plot.getDomainAxisEdge()).getItemStart(row, column,
+                state.getBarWidth(), seriesGap);
+
+        // the series settings are looked up once per pass, and the same
+        // instances are returned for every item, so a StateElidingGraphics2D
+        // can drop the repeated changes
+        SeriesStyleCache styles = state.getSeriesStyles(this);
+        Paint itemPaint = styles.getItemPaint(row, column);
+        g2.setPaint(itemPaint);
+        Stroke s = styles.getItemStroke(row, column);
         g2.setStroke(s);
 
         RectangleEdge location = plot.getRangeAxisEdge();
 
-        Number xQ1 = bawDataset.getQ1Value(row, column);
-        Number xQ3 = bawDataset.getQ3Value(row, column);
-        Number xMax = bawDataset.getMaxRegularValue(row, column);
-        Number xMin = bawDataset.getMinRegularValue(row, column);
-
-        Shape box = null;
-        if (xQ1 != null && xQ3 != null && xMax != null && xMin != null) {
-
-            double xxQ1 = rangeAxis.valueToJava2D(xQ1.doubleValue(), dataArea,
-                    location);
-            double xxQ3 = rangeAxis.valueToJava2D(xQ3.doubleValue(), dataArea,
-                    location);
-            double xxMax = rangeAxis.valueToJava2D(xMax.doubleValue(), dataArea,
-                    location);
-            double xxMin = rangeAxis.valueToJava2D(xMin.doubleValue(), dataArea,
-                    location);
+        // read the statistics once, as primitives (without boxing for a
+        // PrimitiveBoxAndWhiskerCategoryDataset), and convert them to Java2D
+        // space in one batch
+        double[] values = state.getBoxValues();
+        readBoxValues(bawDataset, row, column, values);
+        double[] coords = state.getBoxCoordinates();
+        AxisTransforms.valueToJava2D(rangeAxis, values, coords, values.length,
+                dataArea, location);
+        double xQ1 = values[2];
+        double xQ3 = values[3];
+        double xMax = values[5];
+        double xMin = values[4];
+
+        mark = DRAW_HORIZONTAL_ITEM_METRICS.geometry(mark);
+        Rectangle2D.Double box = null;
+        if (!Double.isNaN(xQ1) && !Double.isNaN(xQ3)
+                && !Double.isNaN(xMax) && !Double.isNaN(xMin)) {
+
+            double xxQ1 = coords[2];
+            double xxQ3 = coords[3];
+            double xxMax = coords[5];
+            double xxMin = coords[4];
             double yymid = yy + state.getBarWidth() / 2.0;
             double halfW = (state.getBarWidth() / 2.0) * this.whiskerWidth;
 
             // draw the box...
-            box = new Rectangle2D.Double(Math.min(xxQ1, xxQ3), yy,
-                    Math.abs(xxQ1 - xxQ3), state.getBarWidth());
+            // the box and lines are the state's scratch shapes, so no shape
+            // is allocated per item
+            box = state.getScratchRectangle(0);
+            box.setRect(Math.min(xxQ1, xxQ3), yy, Math.abs(xxQ1 - xxQ3),
+                    state.getBarWidth());
             if (this.fillBox) {
                 g2.fill(box);
             }
 
-            Paint outlinePaint = getItemOutlinePaint(row, column);
+            Paint outlinePaint = styles.getItemOutlinePaint(row, column);
             if (this.useOutlinePaintForWhiskers) {
                 g2.setPaint(outlinePaint);
             }
+            Line2D.Double line = state.getScratchLine();
             // draw the upper shadow...
-            g2.draw(new Line2D.Double(xxMax, yymid, xxQ3, yymid));
-            g2.draw(new Line2D.Double(xxMax, yymid - halfW, xxMax,
-                    yymid + halfW));
+            line.setLine(xxMax, yymid, xxQ3, yymid);
+            g2.draw(line);
+            line.setLine(xxMax, yymid - halfW, xxMax, yymid + halfW);
+            g2.draw(line);
 
             // draw the lower shadow...
-            g2.draw(new Line2D.Double(xxMin, yymid, xxQ1, yymid));
-            g2.draw(new Line2D.Double(xxMin, yymid - halfW, xxMin,
-                    yymid + halfW));
+            line.setLine(xxMin, yymid, xxQ1, yymid);
+            g2.draw(line);
+            line.setLine(xxMin, yymid - halfW, xxMin, yymid + halfW);
+            g2.draw(line);
 
-            g2.setStroke(getItemOutlineStroke(row, column));
+            g2.setStroke(styles.getItemOutlineStroke(row, column));
             g2.setPaint(outlinePaint);
             g2.draw(box);
         }
 
         // draw mean - SPECIAL AIMS REQUIREMENT...
         g2.setPaint(this.artifactPaint);
-        double aRadius;                 // average radius
+        double aRadius = 0;             // average radius
         if (this.meanVisible) {
-            Number xMean = bawDataset.getMeanValue(row, column);
-            if (xMean != null) {
-                double xxMean = rangeAxis.valueToJava2D(xMean.doubleValue(),
-                        dataArea, location);
+            double xMean = values[0];
+            if (!Double.isNaN(xMean)) {
+                double xxMean = coords[0];
                 aRadius = state.getBarWidth() / 4;
                 // here we check that the average marker will in fact be
                 // visible before drawing it...
                 if ((xxMean > (dataArea.getMinX() - aRadius))
                         && (xxMean < (dataArea.getMaxX() + aRadius))) {
-                    Ellipse2D.Double avgEllipse = new Ellipse2D.Double(xxMean
-                            - aRadius, yy + aRadius, aRadius * 2, aRadius * 2);
+                    Ellipse2D.Double avgEllipse = state.getScratchEllipse();
+                    avgEllipse.setFrame(xxMean - aRadius, yy + aRadius,
+                            aRadius * 2, aRadius * 2);
                     g2.fill(avgEllipse);
                     g2.draw(avgEllipse);
                 }
@@ -123,21 +126,29 @@
 
         // draw median...
         if (this.medianVisible) {
-            Number xMedian = bawDataset.getMedianValue(row, column);
-            if (xMedian != null) {
-                double xxMedian = rangeAxis.valueToJava2D(xMedian.doubleValue(),
-                        dataArea, location);
-                g2.draw(new Line2D.Double(xxMedian, yy, xxMedian,
-                        yy + state.getBarWidth()));
+            double xMedian = values[1];
+            if (!Double.isNaN(xMedian)) {
+                double xxMedian = coords[1];
+                Line2D.Double line = state.getScratchLine();
+                line.setLine(xxMedian, yy, xxMedian,
+                        yy + state.getBarWidth());
+                g2.draw(line);
             }
         }
 
+        // draw xOutliers...
+        g2.setPaint(itemPaint);
+        drawOutliers(g2, state, dataArea, rangeAxis, location, bawDataset,
+                row, column, yy + state.getBarWidth() / 2.0, aRadius, false);
+        mark = DRAW_HORIZONTAL_ITEM_METRICS.draw(mark);
+
         // collect entity and tool tip information...
         if (state.getInfo() != null && box != null) {
             EntityCollection entities = state.getEntityCollection();
             if (entities != null) {
-                addItemEntity(entities, dataset, row, column, box);
+                addScratchItemEntity(entities, dataset, row, column, box);
             }
         }
+        DRAW_HORIZONTAL_ITEM_METRICS.entities(mark);
 
     }
\ No newline at end of file
@@ -21,6 +21,7 @@
             ValueAxis domainAxis, ValueAxis rangeAxis, XYDataset dataset,
             int series, int item, CrosshairState crosshairState, int pass) {
 
+        long mark = DRAW_ITEM_METRICS.start();
         // setup for collecting optional entity info...
         EntityCollection entities = null;
         if (info != null) {
@@ -30,47 +31,105 @@
         TableXYDataset tdataset = (TableXYDataset) dataset;
         PlotOrientation orientation = plot.getOrientation();
 
-        // get the data point...
-        double x1 = dataset.getXValue(series, item);
-        double y1 = dataset.getYValue(series, item);
-        if (Double.isNaN(y1)) {
-            y1 = 0.0;
+        StackedXYAreaRenderer2State s2state = null;
+        if (state instanceof StackedXYAreaRenderer2State) {
+            s2state = (StackedXYAreaRenderer2State) state;
         }
-        double[] stack1 = getStackValues(tdataset, series, item);
+        boolean stackTable = s2state != null
+                && s2state.prepareStacks(tdataset);
 
-        // get the previous point and the next point so we can calculate a
-        // "hot spot" for the area (used by the chart entity)...
-        double x0 = dataset.getXValue(series, Math.max(item - 1, 0));
-        double y0 = dataset.getYValue(series, Math.max(item - 1, 0));
-        if (Double.isNaN(y0)) {
-            y0 = 0.0;
+        // if the previous call drew the previous item of this series, the
+        // state's window already holds this item and the one before it...
+        boolean slide = s2state != null
+                && s2state.isWindowBefore(dataset, series, item);
+
+        // the stack values, with index 0 for the negative total and 1 for
+        // the positive total (see getStackValues())...
+        double x0, y0, x1, y1;
+        double stack0Neg, stack0Pos, stack1Neg, stack1Pos;
+        int item0 = Math.max(item - 1, 0);
+        if (slide) {
+            x0 = s2state.x1;
+            y0 = s2state.y1;
+            stack0Neg = s2state.stack1Neg;
+            stack0Pos = s2state.stack1Pos;
+            x1 = s2state.x2;
+            y1 = s2state.y2;
+            stack1Neg = s2state.stack2Neg;
+            stack1Pos = s2state.stack2Pos;
+        }
+        else {
+            // get the data point...
+            x1 = dataset.getXValue(series, item);
+            y1 = dataset.getYValue(series, item);
+            if (Double.isNaN(y1)) {
+                y1 = 0.0;
+            }
+
+            // get the previous point so we can calculate a "hot spot" for
+            // the area (used by the chart entity)...
+            x0 = dataset.getXValue(series, item0);
+            y0 = dataset.getYValue(series, item0);
+            if (Double.isNaN(y0)) {
+                y0 = 0.0;
+            }
+            if (stackTable) {
+                stack0Neg = s2state.getNegativeStack(series, item0);
+                stack0Pos = s2state.getPositiveStack(series, item0);
+                stack1Neg = s2state.getNegativeStack(series, item);
+                stack1Pos = s2state.getPositiveStack(series, item);
+            }
+            else {
+                double[] stack0 = getStackValues(tdataset, series, item0);
+                double[] stack1 = getStackValues(tdataset, series, item);
+                stack0Neg = stack0[0];
+                stack0Pos = stack0[1];
+                stack1Neg = stack1[0];
+                stack1Pos = stack1[1];
+            }
         }
-        double[] stack0 = getStackValues(tdataset, series, Math.max(item - 1,
-                0));
 
+        // ...and the next point
         int itemCount = dataset.getItemCount(series);
-        double x2 = dataset.getXValue(series, Math.min(item + 1,
-                itemCount - 1));
-        double y2 = dataset.getYValue(series, Math.min(item + 1,
-                itemCount - 1));
+        int item2 = Math.min(item + 1, itemCount - 1);
+        double x2 = dataset.getXValue(series, item2);
+        double y2 = dataset.getYValue(series, item2);
         if (Double.isNaN(y2)) {
             y2 = 0.0;
         }
-        double[] stack2 = getStackValues(tdataset, series, Math.min(item + 1,
-                itemCount - 1));
+        double stack2Neg, stack2Pos;
+        if (stackTable) {
+            stack2Neg = s2state.getNegativeStack(series, item2);
+            stack2Pos = s2state.getPositiveStack(series, item2);
+        }
+        else {
+            double[] stack2 = getStackValues(tdataset, series, item2);
+            stack2Neg = stack2[0];
+            stack2Pos = stack2[1];
+        }
 
         double xleft = (x0 + x1) / 2.0;
         double xright = (x1 + x2) / 2.0;
-        double[] stackLeft = averageStackValues(stack0, stack1);
-        double[] stackRight = averageStackValues(stack1, stack2);
-        double[] adjStackLeft = adjustedStackValues(stack0, stack1);
-        double[] adjStackRight = adjustedStackValues(stack1, stack2);
+        // as averageStackValues() and adjustedStackValues()
+        double stackLeftNeg = (stack0Neg + stack1Neg) / 2.0;
+        double stackLeftPos = (stack0Pos + stack1Pos) / 2.0;
+        double stackRightNeg = (stack1Neg + stack2Neg) / 2.0;
+        double stackRightPos = (stack1Pos + stack2Pos) / 2.0;
+        double adjStackLeftNeg = (stack0Neg == 0.0 || stack1Neg == 0.0)
+                ? 0.0 : stackLeftNeg;
+        double adjStackLeftPos = (stack0Pos == 0.0 || stack1Pos == 0.0)
+                ? 0.0 : stackLeftPos;
+        double adjStackRightNeg = (stack1Neg == 0.0 || stack2Neg == 0.0)
+                ? 0.0 : stackRightNeg;
+        double adjStackRightPos = (stack1Pos == 0.0 || stack2Pos == 0.0)
+                ? 0.0 : stackRightPos;
 
         RectangleEdge edge0 = plot.getDomainAxisEdge();
 
         float transX1 = (float) domainAxis.valueToJava2D(x1, dataArea, edge0);
-        float transXLeft = (float) domainAxis.valueToJava2D(xleft, dataArea,
-                edge0);
+        // the left edge of this item's area is the right edge of the last
+        float transXLeft = slide ? s2state.transXRight
+                : (float) domainAxis.valueToJava2D(xleft, dataArea, edge0);
         float transXRight = (float) domainAxis.valueToJava2D(xright, dataArea,
                 edge0);
 
@@ -79,25 +138,108 @@
             transXLeft = Math.round(transXLeft);
             transXRight = Math.round(transXRight);
         }
-        float transY1;
 
         RectangleEdge edge1 = plot.getRangeAxisEdge();
 
-        GeneralPath left = new GeneralPath();
-        GeneralPath right = new GeneralPath();
+        // in decimation mode, an item whose area is no more than a pixel wide
+        // only extends the state's envelope for the pixel column it covers,
+        // and the state fills each column once...
+        if (this.decimateItems && entities == null && s2state != null
+                && pass == 0 && Math.abs(transXRight - transXLeft) <= 1.0f) {
+            if (!slide) {
+                s2state.flushEnvelope();
+            }
+            // the corners of the two polygons are transformed as they are
+            // below, so that the envelope follows the polygons for any range
+            // axis, and where the neighbour has the other sign, the polygon
+            // is a triangle that ends at the stack
+            boolean positive = y1 >= 0.0;
+            double stack1 = positive ? stack1Pos : stack1Neg;
+            float transY1 = (float) rangeAxis.valueToJava2D(y1 + stack1,
+                    dataArea, edge1);
+            float transStack1 = (float) rangeAxis.valueToJava2D(stack1,
+                    dataArea, edge1);
+            float transStackLeft = slide
+                    && s2state.transStackRightPositive == positive
+                    ? s2state.transStackRight : (float) rangeAxis.valueToJava2D(
+                    positive ? adjStackLeftPos : adjStackLeftNeg, dataArea,
+                    edge1);
+            float transYLeft = transStackLeft;
+            if ((y0 >= 0.0) == positive) {
+                transYLeft = slide ? s2state.transYRight
+                        : (float) rangeAxis.valueToJava2D((y0 + y1) / 2.0
+                        + (positive ? stackLeftPos : stackLeftNeg), dataArea,
+                        edge1);
+            }
+            float transStackRight = (float) rangeAxis.valueToJava2D(
+                    positive ? adjStackRightPos : adjStackRightNeg, dataArea,
+                    edge1);
+            float transYRight = Float.NaN;
+            if ((y2 >= 0.0) == positive) {
+                transYRight = (float) rangeAxis.valueToJava2D((y1 + y2) / 2.0
+                        + (positive ? stackRightPos : stackRightNeg), dataArea,
+                        edge1);
+            }
+            s2state.startEnvelope(g2, s2state.getSeriesStyles(this)
+                    .getItemPaint(series, item), plot);
+            s2state.addToEnvelope(positive, transX1, transStack1, transY1,
+                    transXLeft, transStackLeft, transYLeft);
+            s2state.addToEnvelope(positive, transX1, transStack1, transY1,
+                    transXRight, transStackRight, Float.isNaN(transYRight)
+                    ? transStackRight : transYRight);
+
+            // keep this item and the next in the window, for the next call
+            s2state.x1 = x1;
+            s2state.y1 = y1;
+            s2state.stack1Neg = stack1Neg;
+            s2state.stack1Pos = stack1Pos;
+            s2state.x2 = x2;
+            s2state.y2 = y2;
+            s2state.stack2Neg = stack2Neg;
+            s2state.stack2Pos = stack2Pos;
+            s2state.transXRight = transXRight;
+            s2state.transYRight = transYRight;
+            s2state.transStackRight = transStackRight;
+            s2state.transStackRightPositive = positive;
+            s2state.setWindowItem(dataset, series, item);
+            DRAW_ITEM_METRICS.geometry(mark);
+            return;
+        }
+
+        // the corners of the item's area (the tops of the left and right
+        // edges are NaN where the polygon on that side is a triangle)
+        float transY1;
+        float transStack1;
+        float transStackLeft;
+        float transYLeft = Float.NaN;
+        float transYRight = Float.NaN;
+        float transStackRight;
+
+        GeneralPath left;
+        GeneralPath right;
+        if (s2state != null) {
+            left = s2state.getScratchPath(0);
+            right = s2state.getScratchPath(1);
+        }
+        else {
+            left = new GeneralPath();
+            right = new GeneralPath();
+            DRAW_ITEM_METRICS.shapes(2);
+        }
         if (y1 >= 0.0) {  // handle positive value
-            transY1 = (float) rangeAxis.valueToJava2D(y1 + stack1[1], dataArea,
+            transY1 = (float) rangeAxis.valueToJava2D(y1 + stack1Pos, dataArea,
                     edge1);
-            float transStack1 = (float) rangeAxis.valueToJava2D(stack1[1],
+            transStack1 = (float) rangeAxis.valueToJava2D(stack1Pos,
                     dataArea, edge1);
-            float transStackLeft = (float) rangeAxis.valueToJava2D(
-                    adjStackLeft[1], dataArea, edge1);
+            transStackLeft = slide && s2state.transStackRightPositive
+                    ? s2state.transStackRight : (float) rangeAxis.valueToJava2D(
+                    adjStackLeftPos, dataArea, edge1);
 
             // LEFT POLYGON
             if (y0 >= 0.0) {
-                double yleft = (y0 + y1) / 2.0 + stackLeft[1];
-                float transYLeft
-                    = (float) rangeAxis.valueToJava2D(yleft, dataArea, edge1);
+                double yleft = (y0 + y1) / 2.0 + stackLeftPos;
+                transYLeft = slide ? s2state.transYRight
+                    : (float) rangeAxis.valueToJava2D(yleft, dataArea, edge1);
                 if (orientation == PlotOrientation.VERTICAL) {
                     left.moveTo(transX1, transY1);
                     left.lineTo(transX1, transStack1);
@@ -123,12 +265,12 @@
                 left.closePath();
             }
 
-            float transStackRight = (float) rangeAxis.valueToJava2D(
-                    adjStackRight[1], dataArea, edge1);
+            transStackRight = (float) rangeAxis.valueToJava2D(
+                    adjStackRightPos, dataArea, edge1);
             // RIGHT POLYGON
             if (y2 >= 0.0) {
-                double yright = (y1 + y2) / 2.0 + stackRight[1];
-                float transYRight
+                double yright = (y1 + y2) / 2.0 + stackRightPos;
+                transYRight
                     = (float) rangeAxis.valueToJava2D(yright, dataArea, edge1);
                 if (orientation == PlotOrientation.VERTICAL) {
                     right.moveTo(transX1, transStack1);
@@ -157,12 +299,13 @@
             }
         }
         else {  // handle negative value
-            transY1 = (float) rangeAxis.valueToJava2D(y1 + stack1[0], dataArea,
+            transY1 = (float) rangeAxis.valueToJava2D(y1 + stack1Neg, dataArea,
                     edge1);
-            float transStack1 = (float) rangeAxis.valueToJava2D(stack1[0],
+            transStack1 = (float) rangeAxis.valueToJava2D(stack1Neg,
                     dataArea, edge1);
-            float transStackLeft = (float) rangeAxis.valueToJava2D(
-                    adjStackLeft[0], dataArea, edge1);
+            transStackLeft = slide && !s2state.transStackRightPositive
+                    ? s2state.transStackRight : (float) rangeAxis.valueToJava2D(
+                    adjStackLeftNeg, dataArea, edge1);
 
             // LEFT POLYGON
             if (y0 >= 0.0) {
@@ -177,9 +320,10 @@
                 }
                 left.clone();
             } else {
-                double yleft = (y0 + y1) / 2.0 + stackLeft[0];
-                float transYLeft = (float) rangeAxis.valueToJava2D(yleft,
-                        dataArea, edge1);
+                double yleft = (y0 + y1) / 2.0 + stackLeftNeg;
+                transYLeft = slide ? s2state.transYRight
+                        : (float) rangeAxis.valueToJava2D(yleft, dataArea,
+                        edge1);
                 if (orientation == PlotOrientation.VERTICAL) {
                     left.moveTo(transX1, transY1);
                     left.lineTo(transX1, transStack1);
@@ -193,8 +337,8 @@
                 }
                 left.closePath();
             }
-            float transStackRight = (float) rangeAxis.valueToJava2D(
-                    adjStackRight[0], dataArea, edge1);
+            transStackRight = (float) rangeAxis.valueToJava2D(
+                    adjStackRightNeg, dataArea, edge1);
 
             // RIGHT POLYGON
             if (y2 >= 0.0) {
@@ -209,8 +353,8 @@
                 }
                 right.closePath();
             } else {
-                double yright = (y1 + y2) / 2.0 + stackRight[0];
-                float transYRight = (float) rangeAxis.valueToJava2D(yright,
+                double yright = (y1 + y2) / 2.0 + stackRightNeg;
+                transYRight = (float) rangeAxis.valueToJava2D(yright,
                         dataArea, edge1);
                 if (orientation == PlotOrientation.VERTICAL) {
                     right.moveTo(transX1, transStack1);
@@ -227,24 +371,98 @@
             }
         }
 
+        // keep this item and the next in the window, for the next call
+        if (s2state != null) {
+            s2state.x1 = x1;
+            s2state.y1 = y1;
+            s2state.stack1Neg = stack1Neg;
+            s2state.stack1Pos = stack1Pos;
+            s2state.x2 = x2;
+            s2state.y2 = y2;
+            s2state.stack2Neg = stack2Neg;
+            s2state.stack2Pos = stack2Pos;
+            s2state.transXRight = transXRight;
+            s2state.transYRight = transYRight;
+            s2state.transStackRight = transStackRight;
+            s2state.transStackRightPositive = y1 >= 0.0;
+            s2state.setWindowItem(dataset, series, item);
+        }
+
+        mark = DRAW_ITEM_METRICS.geometry(mark);
+
         //  Get series Paint and Stroke
-        Paint itemPaint = getItemPaint(series, item);
+        Paint itemPaint = s2state != null
+                ? s2state.getSeriesStyles(this).getItemPaint(series, item)
+                : getItemPaint(series, item);
         if (pass == 0) {
-            g2.setPaint(itemPaint);
-            g2.fill(left);
-            g2.fill(right);
+            DeferredFills batch = null;
+            if (s2state != null) {
+                s2state.flushEnvelope();
+                batch = s2state.getDeferredFills();
+            }
+            if (batch != null) {
+                batch.fill(g2, 0, itemPaint, left);
+                batch.fill(g2, 0, itemPaint, right);
+            }
+            else {
+                g2.setPaint(itemPaint);
+                g2.fill(left);
+                g2.fill(right);
+            }
         }
+        mark = DRAW_ITEM_METRICS.draw(mark);
 
         // add an entity for the item...
         if (entities != null) {
-            // Create the entity area and limit it to the data area
-            Area dataAreaHotspot = new Area(left);
-            dataAreaHotspot.add(new Area(right));
-            dataAreaHotspot.intersect(new Area(dataArea));
-
-            if (!dataAreaHotspot.isEmpty()) {
-                addEntity(entities, dataAreaHotspot, dataset, series, item,
-                     0.0, 0.0);
+            // The left and right polygons share the edge at transX1, so the
+            // entity area is their union, as one polygon: along the bottom
+            // of the area from left to right and back along the top.  It is
+            // clipped to the data area once, which gives the same region as
+            // an Area intersection, for far less work
+            GeneralPath hotspot;
+            Path2D.Double dataAreaHotspot;
+            ShapeClipper clipper;
+            if (s2state != null) {
+                hotspot = s2state.getScratchPath(2);
+                dataAreaHotspot = s2state.getScratchHotspot();
+                clipper = s2state.getClipper();
+            }
+            else {
+                hotspot = new GeneralPath();
+                dataAreaHotspot = new Path2D.Double();
+                clipper = new ShapeClipper();
+                DRAW_ITEM_METRICS.shapes(2);
+            }
+            if (orientation == PlotOrientation.VERTICAL) {
+                hotspot.moveTo(transXLeft, transStackLeft);
+                hotspot.lineTo(transX1, transStack1);
+                hotspot.lineTo(transXRight, transStackRight);
+                if (!Float.isNaN(transYRight)) {
+                    hotspot.lineTo(transXRight, transYRight);
+                }
+                hotspot.lineTo(transX1, transY1);
+                if (!Float.isNaN(transYLeft)) {
+                    hotspot.lineTo(transXLeft, transYLeft);
+                }
+            } else {
+                hotspot.moveTo(transStackLeft, transXLeft);
+                hotspot.lineTo(transStack1, transX1);
+                hotspot.lineTo(transStackRight, transXRight);
+                if (!Float.isNaN(transYRight)) {
+                    hotspot.lineTo(transYRight, transXRight);
+                }
+                hotspot.lineTo(transY1, transX1);
+                if (!Float.isNaN(transYLeft)) {
+                    hotspot.lineTo(transYLeft, transXLeft);
+                }
+            }
+            hotspot.closePath();
+            if (clipper.clip(hotspot, dataArea.getX(), dataArea.getY(),
+                    dataArea.getWidth(), dataArea.getHeight(),
+                    dataAreaHotspot)) {
+                addScratchEntity(entities, dataAreaHotspot, dataset, series,
+                        item);
             }
         }
-    }
\ No newline at end of file
+        DRAW_ITEM_METRICS.entities(mark);
+    }
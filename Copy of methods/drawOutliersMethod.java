@@ -0,0 +1,318 @@
+    /** The metrics for {@link #drawVerticalItem}. */
+    private static final RendererMetrics.Probe DRAW_VERTICAL_ITEM_METRICS
+            = RendererMetrics.getProbe(
+            "BoxAndWhiskerRenderer.drawVerticalItem");
+
+    /** The metrics for {@link #drawHorizontalItem}. */
+    private static final RendererMetrics.Probe DRAW_HORIZONTAL_ITEM_METRICS
+            = RendererMetrics.getProbe(
+            "BoxAndWhiskerRenderer.drawHorizontalItem");
+
+    /** The font for the outlier counts drawn in aggregated mode. */
+    private static final Font OUTLIER_COUNT_FONT
+            = new Font("SansSerif", Font.PLAIN, 9);
+
+    /**
+     * The number of outliers (for one item) above which the outliers are
+     * aggregated into buckets instead of being grouped individually.
+     */
+    private int outlierDensityThreshold = Integer.MAX_VALUE;
+
+    /**
+     * Returns the number of outliers for a single item above which the
+     * outliers are aggregated into buckets.  The default value is
+     * {@code Integer.MAX_VALUE}, which means outliers are never aggregated.
+     *
+     * @return The threshold.
+     *
+     * @see #setOutlierDensityThreshold(int)
+     */
+    public int getOutlierDensityThreshold() {
+        return this.outlierDensityThreshold;
+    }
+
+    /**
+     * Sets the number of outliers for a single item above which the outliers
+     * are aggregated, and sends a {@link RendererChangeEvent} to all
+     * registered listeners.  Aggregated outliers are counted into buckets
+     * one outlier-glyph wide along the range axis, and each bucket is drawn
+     * once, with its count beside it when it holds more than one outlier.
+     * This keeps the drawing cost of an item proportional to the length of
+     * the range axis, however many outliers it has.
+     *
+     * @param threshold  the threshold (zero or greater).
+     *
+     * @see #getOutlierDensityThreshold()
+     */
+    public void setOutlierDensityThreshold(int threshold) {
+        Args.requireNonNegative(threshold, "threshold");
+        this.outlierDensityThreshold = threshold;
+        fireChangeEvent();
+    }
+
+    /**
+     * Draws the outliers and far-out indicators for one item, in either
+     * orientation.
+     *
+     * @param g2  the graphics device.
+     * @param state  the renderer state.
+     * @param dataArea  the area within which the plot is being drawn.
+     * @param rangeAxis  the range axis.
+     * @param location  the range axis edge.
+     * @param dataset  the dataset.
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     * @param centre  the Java2D coordinate of the middle of the box, across
+     *                the range axis.
+     * @param aRadius  the radius of the average marker (used to size and
+     *                 place the far-out indicators).
+     * @param vertical  {@code true} for a vertical plot orientation.
+     */
+    private void drawOutliers(Graphics2D g2, CategoryItemRendererState state,
+            Rectangle2D dataArea, ValueAxis rangeAxis, RectangleEdge location,
+            BoxAndWhiskerCategoryDataset dataset, int row, int column,
+            double centre, double aRadius, boolean vertical) {
+
+        // From outlier array sort out which are outliers and which are
+        // farouts.  The thresholds are the same for every outlier of the
+        // item, so they are read once, and the outliers to draw are sorted
+        // once, in Java2D space, before they are grouped
+        OutlierStage outliers = state.getOutlierStage();
+        if (dataset instanceof PrimitiveBoxAndWhiskerCategoryDataset) {
+            PrimitiveBoxAndWhiskerCategoryDataset primitive
+                    = (PrimitiveBoxAndWhiskerCategoryDataset) dataset;
+            if (primitive.getOutlierCount(row, column) <= 0) {
+                return;
+            }
+            outliers.classify(primitive, row, column, rangeAxis, dataArea,
+                    location);
+        }
+        else {
+            List values = dataset.getOutliers(row, column);
+            if (values == null || values.isEmpty()) {
+                return;
+            }
+            outliers.classify(values,
+                    dataset.getMinOutlier(row, column).doubleValue(),
+                    dataset.getMaxOutlier(row, column).doubleValue(),
+                    dataset.getMinRegularValue(row, column).doubleValue(),
+                    dataset.getMaxRegularValue(row, column).doubleValue(),
+                    rangeAxis, dataArea, location);
+        }
+        outliers.sort();
+        double oRadius = state.getBarWidth() / 3;    // outlier radius
+
+        // Process outliers. Each outlier is either added to the appropriate
+        // group or a new group is made, unless there are so many that they
+        // are counted into buckets instead
+        boolean aggregated
+                = outliers.getCount() > this.outlierDensityThreshold;
+        if (aggregated) {
+            outliers.aggregate(centre, oRadius, Math.max(oRadius, 1.0));
+        }
+        else {
+            outliers.group(centre, oRadius);
+        }
+        Point2D point = new Point2D.Double();
+        for (int i = 0; i < outliers.getGroupCount(); i++) {
+            if (vertical) {
+                point.setLocation(outliers.getGroupCentre(i),
+                        outliers.getGroupValue(i));
+            }
+            else {
+                point.setLocation(outliers.getGroupValue(i),
+                        outliers.getGroupCentre(i));
+            }
+            if (aggregated) {
+                drawOutlierBucket(point, oRadius, outliers.getGroupSize(i),
+                        vertical, g2);
+            }
+            else if (outliers.isGroupMultiple(i)) {
+                if (vertical) {
+                    drawMultipleEllipse(point, state.getBarWidth(), oRadius,
+                            g2);
+                }
+                else {
+                    drawHorizontalMultipleEllipse(point, state.getBarWidth(),
+                            oRadius, g2);
+                }
+            }
+            else {
+                if (vertical) {
+                    drawEllipse(point, oRadius, g2);
+                }
+                else {
+                    drawHorizontalEllipse(point, oRadius, g2);
+                }
+            }
+        }
+
+        // draw farout indicators, just inside the ends of the range axis
+        double upper = rangeAxis.valueToJava2D(rangeAxis.getUpperBound(),
+                dataArea, location);
+        double lower = rangeAxis.valueToJava2D(rangeAxis.getLowerBound(),
+                dataArea, location);
+        if (vertical) {
+            if (outliers.isHighFarOut()) {
+                drawHighFarOut(aRadius / 2.0, g2, centre, upper + aRadius);
+            }
+            if (outliers.isLowFarOut()) {
+                drawLowFarOut(aRadius / 2.0, g2, centre, lower - aRadius);
+            }
+        }
+        else {
+            if (outliers.isHighFarOut()) {
+                drawRightFarOut(aRadius / 2.0, g2, centre, upper - aRadius);
+            }
+            if (outliers.isLowFarOut()) {
+                drawLeftFarOut(aRadius / 2.0, g2, centre, lower + aRadius);
+            }
+        }
+    }
+
+    /**
+     * Draws a dot to represent an outlier in a horizontal plot.
+     *
+     * @param point  the location (the top-left of the outlier's bounds, as
+     *               for {@code Outlier}).
+     * @param oRadius  the radius.
+     * @param g2  the graphics device.
+     */
+    private void drawHorizontalEllipse(Point2D point, double oRadius,
+            Graphics2D g2) {
+        Ellipse2D dot = new Ellipse2D.Double(point.getX() + oRadius / 2,
+                point.getY() + oRadius / 2, oRadius, oRadius);
+        g2.draw(dot);
+    }
+
+    /**
+     * Draws two dots to represent the average value of more than one outlier
+     * in a horizontal plot.
+     *
+     * @param point  the location.
+     * @param boxWidth  the box width.
+     * @param oRadius  the radius.
+     * @param g2  the graphics device.
+     */
+    private void drawHorizontalMultipleEllipse(Point2D point, double boxWidth,
+            double oRadius, Graphics2D g2) {
+        Ellipse2D dot1 = new Ellipse2D.Double(point.getX() + oRadius / 2,
+                point.getY() - (boxWidth / 2) + oRadius, oRadius, oRadius);
+        Ellipse2D dot2 = new Ellipse2D.Double(point.getX() + oRadius / 2,
+                point.getY() + (boxWidth / 2), oRadius, oRadius);
+        g2.draw(dot1);
+        g2.draw(dot2);
+    }
+
+    /**
+     * Draws one bucket of aggregated outliers: a dot, filled when the bucket
+     * holds more than one outlier, with the outlier count beside it.
+     *
+     * @param point  the location (the top-left of the outlier's bounds).
+     * @param oRadius  the radius.
+     * @param count  the number of outliers in the bucket.
+     * @param vertical  {@code true} for a vertical plot orientation.
+     * @param g2  the graphics device.
+     */
+    private void drawOutlierBucket(Point2D point, double oRadius, int count,
+            boolean vertical, Graphics2D g2) {
+        if (count == 1) {
+            if (vertical) {
+                drawEllipse(point, oRadius, g2);
+            }
+            else {
+                drawHorizontalEllipse(point, oRadius, g2);
+            }
+            return;
+        }
+        // the same position as drawEllipse() or drawHorizontalEllipse()
+        Ellipse2D dot = new Ellipse2D.Double(point.getX() + oRadius / 2,
+                vertical ? point.getY() : point.getY() + oRadius / 2,
+                oRadius, oRadius);
+        g2.fill(dot);
+        g2.draw(dot);
+        Font savedFont = g2.getFont();
+        g2.setFont(OUTLIER_COUNT_FONT);
+        if (vertical) {
+            // to the right of the dot
+            g2.drawString(String.valueOf(count),
+                    (float) (dot.getMaxX() + 2.0), (float) dot.getMaxY());
+        }
+        else {
+            // above the dot
+            g2.drawString(String.valueOf(count), (float) dot.getX(),
+                    (float) (dot.getY() - 2.0));
+        }
+        g2.setFont(savedFont);
+    }
+
+    /**
+     * Draws a triangle pointing right to indicate the presence of far-out
+     * values above the range axis bounds in a horizontal plot.
+     *
+     * @param aRadius  the radius.
+     * @param g2  the graphics device.
+     * @param yy  the y coordinate.
+     * @param m  the x coordinate.
+     */
+    private void drawRightFarOut(double aRadius, Graphics2D g2, double yy,
+            double m) {
+        double side = aRadius * 2;
+        g2.draw(new Line2D.Double(m - side, yy - side, m - side, yy + side));
+        g2.draw(new Line2D.Double(m - side, yy - side, m, yy));
+        g2.draw(new Line2D.Double(m - side, yy + side, m, yy));
+    }
+
+    /**
+     * Draws a triangle pointing left to indicate the presence of far-out
+     * values below the range axis bounds in a horizontal plot.
+     *
+     * @param aRadius  the radius.
+     * @param g2  the graphics device.
+     * @param yy  the y coordinate.
+     * @param m  the x coordinate.
+     */
+    private void drawLeftFarOut(double aRadius, Graphics2D g2, double yy,
+            double m) {
+        double side = aRadius * 2;
+        g2.draw(new Line2D.Double(m + side, yy - side, m + side, yy + side));
+        g2.draw(new Line2D.Double(m + side, yy - side, m, yy));
+        g2.draw(new Line2D.Double(m + side, yy + side, m, yy));
+    }
+
+    /**
+     * Reads the box statistics for one item into {@code result}, in the order
+     * mean, median, Q1, Q3, minimum regular value and maximum regular value,
+     * with {@code Double.NaN} for a missing value.  Datasets that implement
+     * {@link PrimitiveBoxAndWhiskerCategoryDataset} are read without boxing.
+     *
+     * @param dataset  the dataset.
+     * @param row  the row index (zero-based).
+     * @param column  the column index (zero-based).
+     * @param result  the array to fill (at least six elements).
+     */
+    private static void readBoxValues(BoxAndWhiskerCategoryDataset dataset,
+            int row, int column, double[] result) {
+        if (dataset instanceof PrimitiveBoxAndWhiskerCategoryDataset) {
+            PrimitiveBoxAndWhiskerCategoryDataset primitive
+                    = (PrimitiveBoxAndWhiskerCategoryDataset) dataset;
+            result[0] = primitive.getMeanDouble(row, column);
+            result[1] = primitive.getMedianDouble(row, column);
+            result[2] = primitive.getQ1Double(row, column);
+            result[3] = primitive.getQ3Double(row, column);
+            result[4] = primitive.getMinRegularDouble(row, column);
+            result[5] = primitive.getMaxRegularDouble(row, column);
+        }
+        else {
+            result[0] = doubleValue(dataset.getMeanValue(row, column));
+            result[1] = doubleValue(dataset.getMedianValue(row, column));
+            result[2] = doubleValue(dataset.getQ1Value(row, column));
+            result[3] = doubleValue(dataset.getQ3Value(row, column));
+            result[4] = doubleValue(dataset.getMinRegularValue(row, column));
+            result[5] = doubleValue(dataset.getMaxRegularValue(row, column));
+        }
+    }
+
+    private static double doubleValue(Number n) {
+        return n == null ? Double.NaN : n.doubleValue();
+    }
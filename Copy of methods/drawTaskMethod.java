@@ -21,24 +21,47 @@
                             int row,
                             int column) {
 
+        long mark = DRAW_TASK_METRICS.start();
         PlotOrientation orientation = plot.getOrientation();
         RectangleEdge rangeAxisLocation = plot.getRangeAxisEdge();
+        RetainedTaskBounds retained = this.taskBounds;
+        if (retained != null) {
+            // until the bar is known, the task has painted nothing
+            retained.clear(row, column);
+        }
 
-        // Y0
-        Number value0 = dataset.getEndValue(row, column);
-        if (value0 == null) {
-            return;
+        // read the start and end values as primitives where the dataset
+        // supports it, to avoid boxing them for every task
+        double value0, value1;
+        if (dataset instanceof PrimitiveGanttCategoryDataset) {
+            PrimitiveGanttCategoryDataset pgcd
+                    = (PrimitiveGanttCategoryDataset) dataset;
+            value0 = pgcd.getEndDouble(row, column);
+            value1 = pgcd.getStartDouble(row, column);
+            if (Double.isNaN(value0) || Double.isNaN(value1)) {
+                return;
+            }
         }
-        double java2dValue0 = rangeAxis.valueToJava2D(value0.doubleValue(),
-                dataArea, rangeAxisLocation);
+        else {
+            Number n0 = dataset.getEndValue(row, column);
+            if (n0 == null) {
+                return;
+            }
+            Number n1 = dataset.getStartValue(row, column);
+            if (n1 == null) {
+                return;
+            }
+            value0 = n0.doubleValue();
+            value1 = n1.doubleValue();
+        }
+
+        // Y0
+        double java2dValue0 = rangeAxis.valueToJava2D(value0, dataArea,
+                rangeAxisLocation);
 
         // Y1
-        Number value1 = dataset.getStartValue(row, column);
-        if (value1 == null) {
-            return;
-        }
-        double java2dValue1 = rangeAxis.valueToJava2D(value1.doubleValue(),
-                dataArea, rangeAxisLocation);
+        double java2dValue1 = rangeAxis.valueToJava2D(value1, dataArea,
+                rangeAxisLocation);
 
         if (java2dValue1 < java2dValue0) {
             double temp = java2dValue1;
@@ -47,98 +70,200 @@
             value1 = value0;
         }
 
+        // a task that lies entirely outside the data area along the range
+        // axis is not drawn, but it can still be the nearest candidate for
+        // the crosshair
+        if (isTaskOutsideDataArea(orientation, dataArea, java2dValue0,
+                java2dValue1, row, column)) {
+            if (state instanceof GanttRendererState) {
+                ((GanttRendererState) state).addCulledTask();
+            }
+            CategoryCrosshairState crosshairState = state.getCrosshairState();
+            if (crosshairState != null && crosshairState.getAnchor() != null) {
+                double xx = state.getCategoryLayout(domainAxis, dataset,
+                        dataArea, plot.getDomainAxisEdge()).getSeriesMiddle(
+                        row, column, getItemMargin());
+                updateCrosshairValues(crosshairState, dataset.getRowKey(row),
+                        dataset.getColumnKey(column), value1,
+                        plot.indexOf(dataset), xx, java2dValue1, orientation);
+            }
+            DRAW_TASK_METRICS.geometry(mark);
+            return;
+        }
+
         double rectStart = calculateBarW0(plot, orientation, dataArea,
                 domainAxis, state, row, column);
         double rectBreadth = state.getBarWidth();
         double rectLength = Math.abs(java2dValue1 - java2dValue0);
 
-        Rectangle2D bar = null;
+        // the bars are the state's scratch rectangles, so no shape is
+        // allocated per task (the entity gets a copy)
+        Rectangle2D.Double bar = null;
         RectangleEdge barBase = null;
         if (orientation == PlotOrientation.HORIZONTAL) {
-            bar = new Rectangle2D.Double(java2dValue0, rectStart, rectLength,
-                    rectBreadth);
+            bar = state.getScratchRectangle(0);
+            bar.setRect(java2dValue0, rectStart, rectLength, rectBreadth);
             barBase = RectangleEdge.LEFT;
         }
         else if (orientation == PlotOrientation.VERTICAL) {
-            bar = new Rectangle2D.Double(rectStart, java2dValue1, rectBreadth,
-                    rectLength);
+            bar = state.getScratchRectangle(0);
+            bar.setRect(rectStart, java2dValue1, rectBreadth, rectLength);
             barBase = RectangleEdge.BOTTOM;
         }
 
-        Rectangle2D completeBar = null;
-        Rectangle2D incompleteBar = null;
-        Number percent = dataset.getPercentComplete(row, column);
+        Rectangle2D.Double completeBar = null;
+        Rectangle2D.Double incompleteBar = null;
+        double p;
+        if (dataset instanceof PrimitiveGanttCategoryDataset) {
+            p = ((PrimitiveGanttCategoryDataset) dataset)
+                    .getPercentCompleteDouble(row, column);
+        }
+        else {
+            Number percent = dataset.getPercentComplete(row, column);
+            p = percent == null ? Double.NaN : percent.doubleValue();
+        }
         double start = getStartPercent();
         double end = getEndPercent();
-        if (percent != null) {
-            double p = percent.doubleValue();
+        if (!Double.isNaN(p)) {
             if (plot.getOrientation() == PlotOrientation.HORIZONTAL) {
-                completeBar = new Rectangle2D.Double(java2dValue0,
+                completeBar = state.getScratchRectangle(1);
+                completeBar.setRect(java2dValue0,
                         rectStart + start * rectBreadth, rectLength * p,
                         rectBreadth * (end - start));
-                incompleteBar = new Rectangle2D.Double(java2dValue0
-                        + rectLength * p, rectStart + start * rectBreadth,
+                incompleteBar = state.getScratchRectangle(2);
+                incompleteBar.setRect(java2dValue0 + rectLength * p,
+                        rectStart + start * rectBreadth,
                         rectLength * (1 - p), rectBreadth * (end - start));
             }
             else if (plot.getOrientation() == PlotOrientation.VERTICAL) {
-                completeBar = new Rectangle2D.Double(rectStart + start
-                        * rectBreadth, java2dValue1 + rectLength * (1 - p),
+                completeBar = state.getScratchRectangle(1);
+                completeBar.setRect(rectStart + start * rectBreadth,
+                        java2dValue1 + rectLength * (1 - p),
                         rectBreadth * (end - start), rectLength * p);
-                incompleteBar = new Rectangle2D.Double(rectStart + start
-                        * rectBreadth, java2dValue1, rectBreadth * (end
-                        - start), rectLength * (1 - p));
+                incompleteBar = state.getScratchRectangle(2);
+                incompleteBar.setRect(rectStart + start * rectBreadth,
+                        java2dValue1, rectBreadth * (end - start),
+                        rectLength * (1 - p));
             }
 
         }
 
+        if (retained != null) {
+            double margin = calculateCullMargin(row, column);
+            if (Double.isNaN(margin)) {
+                retained.setUnknown(row, column);
+            }
+            else {
+                CategoryLayout layout = state.getCategoryLayout(domainAxis,
+                        dataset, dataArea, plot.getDomainAxisEdge());
+                retained.set(row, column, bar, margin,
+                        orientation == PlotOrientation.HORIZONTAL,
+                        layout.getCategoryStart(column),
+                        layout.getCategoryEnd(column));
+            }
+        }
+
+        mark = DRAW_TASK_METRICS.geometry(mark);
+        // when the fills are batched, the shapes are added to the state's
+        // draw list in the order they are painted here (bar, bar outline,
+        // progress indicator, outline), one layer each, and drawn at the end
+        // of the pass; a shadow can fall across the neighbouring tasks, so
+        // with shadows the shapes are drawn straight away
+        SeriesStyleCache styles = state.getSeriesStyles(this);
+        DeferredFills batch = null;
+        if (this.batchFills && !getShadowsVisible()) {
+            batch = state.getDeferredFills();
+        }
         if (getShadowsVisible()) {
             getBarPainter().paintBarShadow(g2, this, row, column, bar,
                     barBase, true);
         }
-        getBarPainter().paintBar(g2, this, row, column, bar, barBase);
+        Paint itemPaint = styles.getItemPaint(row, column);
+        if (batch != null && getBarPainter().getClass()
+                == StandardBarPainter.class && !(itemPaint
+                instanceof GradientPaint && getGradientPaintTransformer()
+                != null)) {
+            // the same as StandardBarPainter.paintBar()
+            batch.fill(g2, 0, itemPaint, bar);
+            if (isDrawBarOutline()) {
+                Stroke stroke = styles.getItemOutlineStroke(row, column);
+                Paint paint = styles.getItemOutlinePaint(row, column);
+                if (stroke != null && paint != null) {
+                    batch.draw(g2, 1, paint, stroke, bar);
+                }
+            }
+        }
+        else {
+            getBarPainter().paintBar(g2, this, row, column, bar, barBase);
+        }
 
         if (completeBar != null) {
-            g2.setPaint(getCompletePaint());
-            g2.fill(completeBar);
+            if (batch != null) {
+                batch.fill(g2, 2, getCompletePaint(), completeBar);
+            }
+            else {
+                g2.setPaint(getCompletePaint());
+                g2.fill(completeBar);
+            }
         }
         if (incompleteBar != null) {
-            g2.setPaint(getIncompletePaint());
-            g2.fill(incompleteBar);
+            if (batch != null) {
+                batch.fill(g2, 3, getIncompletePaint(), incompleteBar);
+            }
+            else {
+                g2.setPaint(getIncompletePaint());
+                g2.fill(incompleteBar);
+            }
         }
 
         // draw the outline...
         if (isDrawBarOutline()
                 && state.getBarWidth() > BAR_OUTLINE_WIDTH_THRESHOLD) {
-            Stroke stroke = getItemOutlineStroke(row, column);
-            Paint paint = getItemOutlinePaint(row, column);
+            Stroke stroke = styles.getItemOutlineStroke(row, column);
+            Paint paint = styles.getItemOutlinePaint(row, column);
             if (stroke != null && paint != null) {
-                g2.setStroke(stroke);
-                g2.setPaint(paint);
-                g2.draw(bar);
+                if (batch != null) {
+                    batch.draw(g2, 4, paint, stroke, bar);
+                }
+                else {
+                    g2.setStroke(stroke);
+                    g2.setPaint(paint);
+                    g2.draw(bar);
+                }
             }
         }
 
         CategoryItemLabelGenerator generator = getItemLabelGenerator(row,
                 column);
         if (generator != null && isItemLabelVisible(row, column)) {
+            // the label is drawn over the tasks drawn so far
+            if (batch != null) {
+                batch.flush();
+            }
             drawItemLabel(g2, dataset, row, column, plot, generator, bar,
                     false);
         }
+        mark = DRAW_TASK_METRICS.draw(mark);
 
-        // submit the current data point as a crosshair candidate
-        int datasetIndex = plot.indexOf(dataset);
-        Comparable columnKey = dataset.getColumnKey(column);
-        Comparable rowKey = dataset.getRowKey(row);
-        double xx = domainAxis.getCategorySeriesMiddle(columnKey, rowKey,
-                dataset, getItemMargin(), dataArea, plot.getDomainAxisEdge());
-        updateCrosshairValues(state.getCrosshairState(),
-                dataset.getRowKey(row), dataset.getColumnKey(column),
-                value1.doubleValue(), datasetIndex, xx, java2dValue1,
-                orientation);
+        // submit the current data point as a crosshair candidate (it can
+        // only be taken if the crosshair has an anchor, so the keys are not
+        // looked up otherwise), taking the series middle from the category
+        // layout by index rather than mapping the keys back to indices
+        CategoryCrosshairState crosshairState = state.getCrosshairState();
+        if (crosshairState != null && crosshairState.getAnchor() != null) {
+            double xx = state.getCategoryLayout(domainAxis, dataset, dataArea,
+                    plot.getDomainAxisEdge()).getSeriesMiddle(row, column,
+                    getItemMargin());
+            updateCrosshairValues(crosshairState, dataset.getRowKey(row),
+                    dataset.getColumnKey(column), value1,
+                    plot.indexOf(dataset), xx, java2dValue1, orientation);
+        }
+        mark = DRAW_TASK_METRICS.geometry(mark);
 
         // collect entity and tool tip information...
         EntityCollection entities = state.getEntityCollection();
         if (entities != null) {
-            addItemEntity(entities, dataset, row, column, bar);
+            addScratchItemEntity(entities, dataset, row, column, bar);
         }
+        DRAW_TASK_METRICS.entities(mark);
     }
\ No newline at end of file
@@ -18,86 +18,89 @@
         Rectangle2D dataArea, CategoryPlot plot, CategoryAxis domainAxis,
         ValueAxis rangeAxis, CategoryDataset dataset, int row, int column) {
 
+        long mark = DRAW_VERTICAL_ITEM_METRICS.start();
         BoxAndWhiskerCategoryDataset bawDataset
                 = (BoxAndWhiskerCategoryDataset) dataset;
 
-        double categoryEnd = domainAxis.getCategoryEnd(column,
-                getColumnCount(), dataArea, plot.getDomainAxisEdge());
-        double categoryStart = domainAxis.getCategoryStart(column,
-                getColumnCount(), dataArea, plot.getDomainAxisEdge());
-        double categoryWidth = categoryEnd - categoryStart;
-
-        double xx = categoryStart;
+        // the category positions and series offsets are the same for the
+        // whole pass, so they are kept in the state's category layout
         int seriesCount = getRowCount();
-        int categoryCount = getColumnCount();
-
+        double seriesGap = 0.0;
         if (seriesCount > 1) {
-            double seriesGap = dataArea.getWidth() * getItemMargin()
-                               / (categoryCount * (seriesCount - 1));
-            double usedWidth = (state.getBarWidth() * seriesCount)
-                               + (seriesGap * (seriesCount - 1));
-            // offset the start of the boxes if the total width used is smaller
-            // than the category width
-            double offset = (categoryWidth - usedWidth) / 2;
-            xx = xx + offset + (row * (state.getBarWidth() + seriesGap));
-        }
-        else {
-            // offset the start of the box if the box width is smaller than the
-            // category width
-            double offset = (categoryWidth - state.getBarWidth()) / 2;
-            xx = xx + offset;
+            seriesGap = dataArea.getWidth() * getItemMargin()
+                    / (getColumnCount() * (seriesCount - 1));
         }
+        double xx = state.getCategoryLayout(domainAxis, dataset, dataArea,
+                plot.getDomainAxisEdge()).getItemStart(row, column,
+                state.getBarWidth(), seriesGap);
 
         double yyAverage;
-        double yyOutlier;
 
-        Paint itemPaint = getItemPaint(row, column);
+        // the series settings are looked up once per pass, and the same
+        // instances are returned for every item, so a StateElidingGraphics2D
+        // can drop the repeated changes
+        SeriesStyleCache styles = state.getSeriesStyles(this);
+        Paint itemPaint = styles.getItemPaint(row, column);
         g2.setPaint(itemPaint);
-        Stroke s = getItemStroke(row, column);
+        Stroke s = styles.getItemStroke(row, column);
         g2.setStroke(s);
 
         double aRadius = 0;                 // average radius
 
         RectangleEdge location = plot.getRangeAxisEdge();
 
-        Number yQ1 = bawDataset.getQ1Value(row, column);
-        Number yQ3 = bawDataset.getQ3Value(row, column);
-        Number yMax = bawDataset.getMaxRegularValue(row, column);
-        Number yMin = bawDataset.getMinRegularValue(row, column);
-        Shape box = null;
-        if (yQ1 != null && yQ3 != null && yMax != null && yMin != null) {
-
-            double yyQ1 = rangeAxis.valueToJava2D(yQ1.doubleValue(), dataArea,
-                    location);
-            double yyQ3 = rangeAxis.valueToJava2D(yQ3.doubleValue(), dataArea,
-                    location);
-            double yyMax = rangeAxis.valueToJava2D(yMax.doubleValue(),
-                    dataArea, location);
-            double yyMin = rangeAxis.valueToJava2D(yMin.doubleValue(),
-                    dataArea, location);
+        // read the statistics once, as primitives (without boxing for a
+        // PrimitiveBoxAndWhiskerCategoryDataset), and convert them to Java2D
+        // space in one batch
+        double[] values = state.getBoxValues();
+        readBoxValues(bawDataset, row, column, values);
+        double[] coords = state.getBoxCoordinates();
+        AxisTransforms.valueToJava2D(rangeAxis, values, coords, values.length,
+                dataArea, location);
+        double yQ1 = values[2];
+        double yQ3 = values[3];
+        double yMax = values[5];
+        double yMin = values[4];
+        mark = DRAW_VERTICAL_ITEM_METRICS.geometry(mark);
+        Rectangle2D.Double box = null;
+        if (!Double.isNaN(yQ1) && !Double.isNaN(yQ3)
+                && !Double.isNaN(yMax) && !Double.isNaN(yMin)) {
+
+            double yyQ1 = coords[2];
+            double yyQ3 = coords[3];
+            double yyMax = coords[5];
+            double yyMin = coords[4];
             double xxmid = xx + state.getBarWidth() / 2.0;
             double halfW = (state.getBarWidth() / 2.0) * this.whiskerWidth;
 
             // draw the body...
-            box = new Rectangle2D.Double(xx, Math.min(yyQ1, yyQ3),
-                    state.getBarWidth(), Math.abs(yyQ1 - yyQ3));
+            // the box and lines are the state's scratch shapes, so no shape
+            // is allocated per item
+            box = state.getScratchRectangle(0);
+            box.setRect(xx, Math.min(yyQ1, yyQ3), state.getBarWidth(),
+                    Math.abs(yyQ1 - yyQ3));
             if (this.fillBox) {
                 g2.fill(box);
             }
 
-            Paint outlinePaint = getItemOutlinePaint(row, column);
+            Paint outlinePaint = styles.getItemOutlinePaint(row, column);
             if (this.useOutlinePaintForWhiskers) {
                 g2.setPaint(outlinePaint);
             }
+            Line2D.Double line = state.getScratchLine();
             // draw the upper shadow...
-            g2.draw(new Line2D.Double(xxmid, yyMax, xxmid, yyQ3));
-            g2.draw(new Line2D.Double(xxmid - halfW, yyMax, xxmid + halfW, yyMax));
+            line.setLine(xxmid, yyMax, xxmid, yyQ3);
+            g2.draw(line);
+            line.setLine(xxmid - halfW, yyMax, xxmid + halfW, yyMax);
+            g2.draw(line);
 
             // draw the lower shadow...
-            g2.draw(new Line2D.Double(xxmid, yyMin, xxmid, yyQ1));
-            g2.draw(new Line2D.Double(xxmid - halfW, yyMin, xxmid + halfW, yyMin));
+            line.setLine(xxmid, yyMin, xxmid, yyQ1);
+            g2.draw(line);
+            line.setLine(xxmid - halfW, yyMin, xxmid + halfW, yyMin);
+            g2.draw(line);
 
-            g2.setStroke(getItemOutlineStroke(row, column));
+            g2.setStroke(styles.getItemOutlineStroke(row, column));
             g2.setPaint(outlinePaint);
             g2.draw(box);
         }
@@ -106,18 +109,17 @@
 
         // draw mean - SPECIAL AIMS REQUIREMENT...
         if (this.meanVisible) {
-            Number yMean = bawDataset.getMeanValue(row, column);
-            if (yMean != null) {
-                yyAverage = rangeAxis.valueToJava2D(yMean.doubleValue(),
-                        dataArea, location);
+            double yMean = values[0];
+            if (!Double.isNaN(yMean)) {
+                yyAverage = coords[0];
                 aRadius = state.getBarWidth() / 4;
                 // here we check that the average marker will in fact be
                 // visible before drawing it...
                 if ((yyAverage > (dataArea.getMinY() - aRadius))
                         && (yyAverage < (dataArea.getMaxY() + aRadius))) {
-                    Ellipse2D.Double avgEllipse = new Ellipse2D.Double(
-                            xx + aRadius, yyAverage - aRadius, aRadius * 2,
-                            aRadius * 2);
+                    Ellipse2D.Double avgEllipse = state.getScratchEllipse();
+                    avgEllipse.setFrame(xx + aRadius, yyAverage - aRadius,
+                            aRadius * 2, aRadius * 2);
                     g2.fill(avgEllipse);
                     g2.draw(avgEllipse);
                 }
@@ -126,100 +128,29 @@
 
         // draw median...
         if (this.medianVisible) {
-            Number yMedian = bawDataset.getMedianValue(row, column);
-            if (yMedian != null) {
-                double yyMedian = rangeAxis.valueToJava2D(
-                        yMedian.doubleValue(), dataArea, location);
-                g2.draw(new Line2D.Double(xx, yyMedian, 
-                        xx + state.getBarWidth(), yyMedian));
+            double yMedian = values[1];
+            if (!Double.isNaN(yMedian)) {
+                double yyMedian = coords[1];
+                Line2D.Double line = state.getScratchLine();
+                line.setLine(xx, yyMedian, xx + state.getBarWidth(),
+                        yyMedian);
+                g2.draw(line);
             }
         }
 
         // draw yOutliers...
-        double maxAxisValue = rangeAxis.valueToJava2D(
-                rangeAxis.getUpperBound(), dataArea, location) + aRadius;
-        double minAxisValue = rangeAxis.valueToJava2D(
-                rangeAxis.getLowerBound(), dataArea, location) - aRadius;
-
         g2.setPaint(itemPaint);
+        drawOutliers(g2, state, dataArea, rangeAxis, location, bawDataset,
+                row, column, xx + state.getBarWidth() / 2.0, aRadius, true);
+        mark = DRAW_VERTICAL_ITEM_METRICS.draw(mark);
 
-        // draw outliers
-        double oRadius = state.getBarWidth() / 3;    // outlier radius
-        List outliers = new ArrayList();
-        OutlierListCollection outlierListCollection
-                = new OutlierListCollection();
-
-        // From outlier array sort out which are outliers and put these into a
-        // list If there are any farouts, set the flag on the
-        // OutlierListCollection
-        List yOutliers = bawDataset.getOutliers(row, column);
-        if (yOutliers != null) {
-            for (int i = 0; i < yOutliers.size(); i++) {
-                double outlier = ((Number) yOutliers.get(i)).doubleValue();
-                Number minOutlier = bawDataset.getMinOutlier(row, column);
-                Number maxOutlier = bawDataset.getMaxOutlier(row, column);
-                Number minRegular = bawDataset.getMinRegularValue(row, column);
-                Number maxRegular = bawDataset.getMaxRegularValue(row, column);
-                if (outlier > maxOutlier.doubleValue()) {
-                    outlierListCollection.setHighFarOut(true);
-                }
-                else if (outlier < minOutlier.doubleValue()) {
-                    outlierListCollection.setLowFarOut(true);
-                }
-                else if (outlier > maxRegular.doubleValue()) {
-                    yyOutlier = rangeAxis.valueToJava2D(outlier, dataArea,
-                            location);
-                    outliers.add(new Outlier(xx + state.getBarWidth() / 2.0,
-                            yyOutlier, oRadius));
-                }
-                else if (outlier < minRegular.doubleValue()) {
-                    yyOutlier = rangeAxis.valueToJava2D(outlier, dataArea,
-                            location);
-                    outliers.add(new Outlier(xx + state.getBarWidth() / 2.0,
-                            yyOutlier, oRadius));
-                }
-                Collections.sort(outliers);
-            }
-
-            // Process outliers. Each outlier is either added to the
-            // appropriate outlier list or a new outlier list is made
-            for (Iterator iterator = outliers.iterator(); iterator.hasNext();) {
-                Outlier outlier = (Outlier) iterator.next();
-                outlierListCollection.add(outlier);
-            }
-
-            for (Iterator iterator = outlierListCollection.iterator();
-                     iterator.hasNext();) {
-                OutlierList list = (OutlierList) iterator.next();
-                Outlier outlier = list.getAveragedOutlier();
-                Point2D point = outlier.getPoint();
-
-                if (list.isMultiple()) {
-                    drawMultipleEllipse(point, state.getBarWidth(), oRadius,
-                            g2);
-                }
-                else {
-                    drawEllipse(point, oRadius, g2);
-                }
-            }
-
-            // draw farout indicators
-            if (outlierListCollection.isHighFarOut()) {
-                drawHighFarOut(aRadius / 2.0, g2,
-                        xx + state.getBarWidth() / 2.0, maxAxisValue);
-            }
-
-            if (outlierListCollection.isLowFarOut()) {
-                drawLowFarOut(aRadius / 2.0, g2,
-                        xx + state.getBarWidth() / 2.0, minAxisValue);
-            }
-        }
         // collect entity and tool tip information...
         if (state.getInfo() != null && box != null) {
             EntityCollection entities = state.getEntityCollection();
             if (entities != null) {
-                addItemEntity(entities, dataset, row, column, box);
+                addScratchItemEntity(entities, dataset, row, column, box);
             }
         }
+        DRAW_VERTICAL_ITEM_METRICS.entities(mark);
 
     }
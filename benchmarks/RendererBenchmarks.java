@@ -0,0 +1,944 @@
+package org.jfree.chart.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.jfree.chart.ChartRenderingInfo;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.entity.ChartEntity;
+import org.jfree.chart.entity.EntityCollection;
+import org.jfree.chart.entity.SpatialEntityCollection;
+import org.jfree.chart.entity.StandardEntityCollection;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.ParallelCategoryPlot;
+import org.jfree.chart.plot.PiePlot3D;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.PlotRenderingInfo;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.category.BoxAndWhiskerRenderer;
+import org.jfree.chart.renderer.category.CategoryItemRendererState;
+import org.jfree.chart.renderer.category.GanttRenderer;
+import org.jfree.chart.renderer.xy.StackedXYAreaRenderer2;
+import org.jfree.chart.renderer.xy.XYItemRendererState;
+import org.jfree.data.category.CategoryDataset;
+import org.jfree.data.gantt.ColumnarGanttCategoryDataset;
+import org.jfree.data.gantt.GanttCategoryDataset;
+import org.jfree.data.general.AbstractDataset;
+import org.jfree.data.general.DefaultPieDataset;
+import org.jfree.data.statistics.BoxAndWhiskerCategoryDataset;
+import org.jfree.data.statistics.BoxAndWhiskerItem;
+import org.jfree.data.statistics.ColumnarBoxAndWhiskerCategoryDataset;
+import org.jfree.data.xy.AbstractXYDataset;
+import org.jfree.data.xy.TableXYDataset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the five renderer methods copied under
+ * {@code Copy of methods/}.  Each benchmark invocation draws exactly one
+ * item (one box, one stacked area item, one task or one pie section side)
+ * onto a headless {@link BufferedImage}, cycling through a synthetic
+ * dataset of {@code items} entries, so the reported time is nanoseconds per
+ * item.  Run with {@code -prof gc} and read {@code gc.alloc.rate.norm} for
+ * the bytes allocated per item.
+ * <P>
+ * The {@code drawZoomedTasks} benchmark draws a whole chart of
+ * {@code items} tasks with the range axis zoomed in on 100 of them, so its
+ * score is the time for one rendering pass.
+ * <P>
+ * The {@code renderTasks} benchmark draws every task in a chart of
+ * {@code items} tasks with a {@link ParallelCategoryPlot} split into
+ * {@code tiles} tiles, each on its own thread (one tile draws on the calling
+ * thread, as {@code CategoryPlot} does).
+ * <P>
+ * The {@code getEntity} benchmark measures one mouse hit-test against the
+ * entities that drawing a chart of {@code items} tasks would produce, for the
+ * standard (linear) and the spatial entity collections.
+ * <P>
+ * The suite compiles against JFreeChart 1.5.4 with the classes that the
+ * copied methods belong to rebuilt from the upstream sources, with the
+ * copies merged in (see {@code pom.xml} and the README).  Typical
+ * invocation:
+ * <pre>
+ * mvn package
+ * java -jar target/benchmarks.jar RendererBenchmarks -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4g"})
+public class RendererBenchmarks {
+
+    /** The width of the target image. */
+    static final int WIDTH = 1600;
+
+    /** The height of the target image. */
+    static final int HEIGHT = 1000;
+
+    /**
+     * Shared image, graphics device and entity settings.
+     */
+    @State(Scope.Thread)
+    public abstract static class Canvas {
+
+        /** The number of items in the synthetic dataset. */
+        @Param({"10", "1000", "100000", "1000000"})
+        public int items;
+
+        /** Collect chart entities while drawing? */
+        @Param({"false", "true"})
+        public boolean entities;
+
+        BufferedImage image;
+
+        Graphics2D g2;
+
+        Rectangle2D dataArea;
+
+        ChartRenderingInfo chartInfo;
+
+        PlotRenderingInfo plotInfo;
+
+        /** The index of the next item to draw. */
+        int cursor;
+
+        void setUpCanvas() {
+            System.setProperty("java.awt.headless", "true");
+            this.image = new BufferedImage(WIDTH, HEIGHT,
+                    BufferedImage.TYPE_INT_ARGB);
+            this.g2 = this.image.createGraphics();
+            this.g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    RenderingHints.VALUE_ANTIALIAS_ON);
+            this.dataArea = new Rectangle2D.Double(50, 20, WIDTH - 70,
+                    HEIGHT - 70);
+            if (this.entities) {
+                this.chartInfo = new ChartRenderingInfo();
+                this.plotInfo = this.chartInfo.getPlotInfo();
+            }
+        }
+
+        /**
+         * Returns the index of the next item to draw, clearing the entity
+         * collection each time the dataset wraps around so that it does not
+         * grow without bound.
+         *
+         * @param count  the number of drawable items.
+         *
+         * @return The item index.
+         */
+        int next(int count) {
+            if (this.cursor >= count) {
+                this.cursor = 0;
+                if (this.chartInfo != null) {
+                    this.chartInfo.getEntityCollection().clear();
+                }
+            }
+            return this.cursor++;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            this.g2.dispose();
+        }
+    }
+
+    /**
+     * Box-and-whisker renderer state, used for both orientations.
+     */
+    public static class BoxState extends Canvas {
+
+        /** The number of outliers per box. */
+        @Param({"0", "16"})
+        public int outliers;
+
+        /**
+         * The dataset implementation: "synthetic" computes boxed values on
+         * each call, "columnar" is a
+         * {@link ColumnarBoxAndWhiskerCategoryDataset} read without boxing.
+         */
+        @Param({"synthetic", "columnar"})
+        public String store;
+
+        BoxAndWhiskerRenderer renderer;
+
+        CategoryPlot verticalPlot;
+
+        CategoryPlot horizontalPlot;
+
+        CategoryItemRendererState verticalState;
+
+        CategoryItemRendererState horizontalState;
+
+        BoxAndWhiskerCategoryDataset dataset;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            setUpCanvas();
+            SyntheticBoxDataset synthetic = new SyntheticBoxDataset(
+                    this.items, this.outliers);
+            if ("columnar".equals(this.store)) {
+                ColumnarBoxAndWhiskerCategoryDataset columnar
+                        = new ColumnarBoxAndWhiskerCategoryDataset();
+                for (int c = 0; c < this.items; c++) {
+                    columnar.add(synthetic.getItem(c), synthetic.getRowKey(0),
+                            synthetic.getColumnKey(c));
+                }
+                this.dataset = columnar;
+            }
+            else {
+                this.dataset = synthetic;
+            }
+            this.renderer = new BoxAndWhiskerRenderer();
+            this.verticalPlot = new CategoryPlot(this.dataset,
+                    new CategoryAxis(), new NumberAxis(), this.renderer);
+            this.horizontalPlot = new CategoryPlot(this.dataset,
+                    new CategoryAxis(), new NumberAxis(),
+                    new BoxAndWhiskerRenderer());
+            this.horizontalPlot.setOrientation(PlotOrientation.HORIZONTAL);
+            this.verticalState = this.renderer.initialise(this.g2,
+                    this.dataArea, this.verticalPlot, 0, this.plotInfo);
+            this.horizontalState = this.renderer.initialise(this.g2,
+                    this.dataArea, this.horizontalPlot, 0, this.plotInfo);
+        }
+    }
+
+    /**
+     * Stacked XY area renderer state.
+     */
+    public static class StackedAreaState extends Canvas {
+
+        /** The number of series in the stack. */
+        @Param({"10", "200"})
+        public int series;
+
+        /** Merge items that are less than a pixel wide? */
+        @Param({"false", "true"})
+        public boolean decimate;
+
+        StackedXYAreaRenderer2 renderer;
+
+        XYPlot plot;
+
+        XYItemRendererState state;
+
+        SyntheticTableXYDataset dataset;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            setUpCanvas();
+            this.dataset = new SyntheticTableXYDataset(this.series,
+                    Math.max(1, this.items / this.series));
+            this.renderer = new StackedXYAreaRenderer2();
+            this.renderer.setDecimateItems(this.decimate);
+            this.plot = new XYPlot(this.dataset, new NumberAxis(),
+                    new NumberAxis(), this.renderer);
+            this.plot.getDomainAxis().setRange(0.0,
+                    this.dataset.getItemCount());
+            this.plot.getRangeAxis().setRange(-this.series, this.series);
+            this.state = this.renderer.initialise(this.g2, this.dataArea,
+                    this.plot, this.dataset, this.plotInfo);
+        }
+    }
+
+    /**
+     * Gantt renderer state.
+     */
+    public static class GanttState extends Canvas {
+
+        /**
+         * The dataset implementation: "synthetic" computes boxed values on
+         * each call, "columnar" is a {@link ColumnarGanttCategoryDataset}
+         * read without boxing and queried through its interval tree.
+         */
+        @Param({"synthetic", "columnar"})
+        public String store;
+
+        BenchmarkGanttRenderer renderer;
+
+        CategoryPlot plot;
+
+        /** A plot whose range axis shows only 100 of the tasks. */
+        CategoryPlot zoomedPlot;
+
+        CategoryItemRendererState state;
+
+        GanttCategoryDataset dataset;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            setUpCanvas();
+            SyntheticGanttDataset synthetic = new SyntheticGanttDataset(
+                    this.items);
+            if ("columnar".equals(this.store)) {
+                ColumnarGanttCategoryDataset columnar
+                        = new ColumnarGanttCategoryDataset();
+                for (int c = 0; c < this.items; c++) {
+                    columnar.add(c, c + 10, 0.5, synthetic.getRowKey(0),
+                            synthetic.getColumnKey(c));
+                }
+                this.dataset = columnar;
+            }
+            else {
+                this.dataset = synthetic;
+            }
+            this.renderer = new BenchmarkGanttRenderer();
+            this.plot = new CategoryPlot(this.dataset, new CategoryAxis(),
+                    new NumberAxis(), this.renderer);
+            this.plot.setOrientation(PlotOrientation.HORIZONTAL);
+            this.plot.getRangeAxis().setRange(0.0, this.items + 10.0);
+            this.state = this.renderer.initialise(this.g2, this.dataArea,
+                    this.plot, 0, this.plotInfo);
+            this.zoomedPlot = new CategoryPlot(this.dataset,
+                    new CategoryAxis(), new NumberAxis(),
+                    new BenchmarkGanttRenderer());
+            this.zoomedPlot.setOrientation(PlotOrientation.HORIZONTAL);
+            this.zoomedPlot.getRangeAxis().setRange(this.items / 2,
+                    this.items / 2 + 100.0);
+        }
+    }
+
+    /**
+     * 3D pie state.  The {@code items} parameter is the number of sections.
+     */
+    public static class PieState extends Canvas {
+
+        BenchmarkPiePlot3D plot;
+
+        Rectangle2D pieArea;
+
+        List<Arc2D> arcs;
+
+        Area front;
+
+        Area back;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            setUpCanvas();
+            this.plot = new BenchmarkPiePlot3D();
+            this.pieArea = new Rectangle2D.Double(100, 100, 800, 600);
+            double depth = this.pieArea.getHeight() * 0.12;
+            Ellipse2D top = new Ellipse2D.Double(this.pieArea.getX(),
+                    this.pieArea.getY(), this.pieArea.getWidth(),
+                    this.pieArea.getHeight() - depth);
+            Ellipse2D bottom = new Ellipse2D.Double(this.pieArea.getX(),
+                    this.pieArea.getY() + depth, this.pieArea.getWidth(),
+                    this.pieArea.getHeight() - depth);
+            Rectangle2D lower = new Rectangle2D.Double(top.getX(),
+                    top.getCenterY(), this.pieArea.getWidth(),
+                    bottom.getMaxY() - top.getCenterY());
+            Rectangle2D upper = new Rectangle2D.Double(this.pieArea.getX(),
+                    top.getY(), this.pieArea.getWidth(),
+                    bottom.getCenterY() - top.getY());
+            Area a = new Area(top);
+            a.add(new Area(lower));
+            Area b = new Area(bottom);
+            b.add(new Area(upper));
+            Area pie = new Area(a);
+            pie.intersect(b);
+            this.front = new Area(pie);
+            this.front.subtract(new Area(top));
+            this.back = new Area(pie);
+            this.back.subtract(new Area(bottom));
+
+            // the sections run clockwise from 90 degrees, as in PiePlot3D
+            this.arcs = new ArrayList<>(this.items);
+            double extent = 360.0 / this.items;
+            for (int i = 0; i < this.items; i++) {
+                this.arcs.add(new Arc2D.Double(this.pieArea.getX(),
+                        this.pieArea.getY() + depth, this.pieArea.getWidth(),
+                        this.pieArea.getHeight() - depth,
+                        90.0 - i * extent, -extent, Arc2D.PIE));
+            }
+        }
+    }
+
+    /**
+     * Parallel rendering state: a Gantt chart of {@code items} tasks drawn
+     * by a {@link ParallelCategoryPlot} with a pool of {@code tiles} threads.
+     */
+    public static class ParallelState extends Canvas {
+
+        /** The number of tiles (and pool threads). */
+        @Param({"1", "8", "64"})
+        public int tiles;
+
+        ParallelCategoryPlot plot;
+
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            setUpCanvas();
+            SyntheticGanttDataset synthetic = new SyntheticGanttDataset(
+                    this.items);
+            ColumnarGanttCategoryDataset dataset
+                    = new ColumnarGanttCategoryDataset();
+            for (int c = 0; c < this.items; c++) {
+                dataset.add(c, c + 10, 0.5, synthetic.getRowKey(0),
+                        synthetic.getColumnKey(c));
+            }
+            this.pool = new ForkJoinPool(this.tiles);
+            this.plot = new ParallelCategoryPlot(dataset, new CategoryAxis(),
+                    new NumberAxis(), new GanttRenderer());
+            this.plot.setOrientation(PlotOrientation.HORIZONTAL);
+            this.plot.getRangeAxis().setRange(0.0, this.items + 10.0);
+            this.plot.setTileCount(this.tiles);
+            this.plot.setMinimumItemCount(0);
+            this.plot.setPool(this.pool);
+        }
+
+        @TearDown(Level.Trial)
+        public void shutDown() {
+            this.pool.shutdown();
+        }
+    }
+
+    /**
+     * Entity hit-testing state: {@code items} task-bar entities laid out in a
+     * grid over the data area, as drawTask() would add them, held in either
+     * the standard (linear) collection or the spatial one.
+     */
+    @State(Scope.Thread)
+    public static class EntityState {
+
+        /** The number of entities. */
+        @Param({"1000", "100000", "500000"})
+        public int items;
+
+        /** The entity collection to query. */
+        @Param({"standard", "spatial"})
+        public String collection;
+
+        EntityCollection entities;
+
+        /** The query points (x, y pairs). */
+        double[] points;
+
+        /** The index of the next query point. */
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.entities = "spatial".equals(this.collection)
+                    ? new SpatialEntityCollection()
+                    : new StandardEntityCollection();
+            int rows = Math.max(1, (int) Math.sqrt(this.items));
+            int columns = (this.items + rows - 1) / rows;
+            double w = (WIDTH - 70.0) / columns;
+            double h = (HEIGHT - 70.0) / rows;
+            for (int i = 0; i < this.items; i++) {
+                Rectangle2D bar = new Rectangle2D.Double(
+                        50.0 + (i % columns) * w, 20.0 + (i / columns) * h,
+                        w, h * 0.8);
+                this.entities.add(new ChartEntity(bar, "Task " + i));
+            }
+            Random random = new Random(1L);
+            this.points = new double[2048];
+            for (int i = 0; i < this.points.length; i += 2) {
+                this.points[i] = random.nextDouble() * WIDTH;
+                this.points[i + 1] = random.nextDouble() * HEIGHT;
+            }
+        }
+    }
+
+    @Benchmark
+    public void drawVerticalItem(BoxState s) {
+        int column = s.next(s.dataset.getColumnCount());
+        s.renderer.drawVerticalItem(s.g2, s.verticalState, s.dataArea,
+                s.verticalPlot, s.verticalPlot.getDomainAxis(),
+                s.verticalPlot.getRangeAxis(), s.dataset, 0, column);
+    }
+
+    @Benchmark
+    public void drawHorizontalItem(BoxState s) {
+        int column = s.next(s.dataset.getColumnCount());
+        s.renderer.drawHorizontalItem(s.g2, s.horizontalState, s.dataArea,
+                s.horizontalPlot, s.horizontalPlot.getDomainAxis(),
+                s.horizontalPlot.getRangeAxis(), s.dataset, 0, column);
+    }
+
+    @Benchmark
+    public void drawItem(StackedAreaState s) {
+        int itemCount = s.dataset.getItemCount();
+        int index = s.next(itemCount * s.series);
+        s.renderer.drawItem(s.g2, s.state, s.dataArea, s.plotInfo, s.plot,
+                s.plot.getDomainAxis(), s.plot.getRangeAxis(), s.dataset,
+                index / itemCount, index % itemCount, null, 0);
+    }
+
+    @Benchmark
+    public void drawSeries(StackedAreaState s) {
+        int itemCount = s.dataset.getItemCount();
+        int series = s.next(s.series);
+        for (int item = 0; item < itemCount; item++) {
+            s.renderer.drawItem(s.g2, s.state, s.dataArea, s.plotInfo, s.plot,
+                    s.plot.getDomainAxis(), s.plot.getRangeAxis(), s.dataset,
+                    series, item, null, 0);
+        }
+        s.state.endSeriesPass(s.dataset, series, 0, itemCount - 1, 0, 1);
+    }
+
+    @Benchmark
+    public void drawTask(GanttState s) {
+        int column = s.next(s.dataset.getColumnCount());
+        s.renderer.drawTask(s.g2, s.state, s.dataArea, s.plot,
+                s.plot.getDomainAxis(), s.plot.getRangeAxis(), s.dataset, 0,
+                column);
+    }
+
+    @Benchmark
+    public int drawZoomedTasks(GanttState s) {
+        GanttRenderer renderer = (GanttRenderer) s.zoomedPlot.getRenderer();
+        CategoryItemRendererState state = renderer.initialise(s.g2,
+                s.dataArea, s.zoomedPlot, 0, s.plotInfo);
+        int columnCount = s.dataset.getColumnCount();
+        for (int column = 0; column < columnCount; column++) {
+            renderer.drawItem(s.g2, state, s.dataArea, s.zoomedPlot,
+                    s.zoomedPlot.getDomainAxis(),
+                    s.zoomedPlot.getRangeAxis(), s.dataset, 0, column, 0);
+        }
+        if (s.chartInfo != null) {
+            s.chartInfo.getEntityCollection().clear();
+        }
+        return renderer.getCulledTaskCount();
+    }
+
+    @Benchmark
+    public boolean renderTasks(ParallelState s) {
+        boolean result = s.plot.render(s.g2, s.dataArea, 0, s.plotInfo,
+                null);
+        if (s.chartInfo != null) {
+            s.chartInfo.getEntityCollection().clear();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void drawSide(PieState s) {
+        Arc2D arc = s.arcs.get(s.next(s.items));
+        s.plot.drawSide(s.g2, s.pieArea, arc, s.front, s.back,
+                java.awt.Color.BLUE, java.awt.Color.BLACK,
+                PiePlot3D.DEFAULT_OUTLINE_STROKE, false, true);
+        s.plot.drawSide(s.g2, s.pieArea, arc, s.front, s.back,
+                java.awt.Color.BLUE, java.awt.Color.BLACK,
+                PiePlot3D.DEFAULT_OUTLINE_STROKE, true, false);
+    }
+
+    @Benchmark
+    public ChartEntity getEntity(EntityState s) {
+        int i = s.cursor;
+        s.cursor = (i + 2) % s.points.length;
+        return s.entities.getEntity(s.points[i], s.points[i + 1]);
+    }
+
+    /**
+     * Exposes the protected {@code drawTask()} method.
+     */
+    static class BenchmarkGanttRenderer extends GanttRenderer {
+
+        @Override
+        public void drawTask(Graphics2D g2, CategoryItemRendererState state,
+                Rectangle2D dataArea, CategoryPlot plot,
+                CategoryAxis domainAxis,
+                org.jfree.chart.axis.ValueAxis rangeAxis,
+                GanttCategoryDataset dataset, int row, int column) {
+            super.drawTask(g2, state, dataArea, plot, domainAxis, rangeAxis,
+                    dataset, row, column);
+        }
+    }
+
+    /**
+     * Exposes the protected {@code drawSide()} method.
+     */
+    static class BenchmarkPiePlot3D extends PiePlot3D {
+
+        BenchmarkPiePlot3D() {
+            super(new DefaultPieDataset<String>());
+        }
+
+        @Override
+        public void drawSide(Graphics2D g2, Rectangle2D plotArea, Arc2D arc,
+                Area front, Area back, java.awt.Paint paint,
+                java.awt.Paint outlinePaint, java.awt.Stroke outlineStroke,
+                boolean drawFront, boolean drawBack) {
+            super.drawSide(g2, plotArea, arc, front, back, paint,
+                    outlinePaint, outlineStroke, drawFront, drawBack);
+        }
+    }
+
+    /**
+     * A category dataset with one row and {@code columns} columns, with
+     * keys generated on demand.
+     */
+    abstract static class SyntheticCategoryDataset extends AbstractDataset
+            implements CategoryDataset {
+
+        final int columns;
+
+        SyntheticCategoryDataset(int columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public Comparable getRowKey(int row) {
+            return "S" + row;
+        }
+
+        @Override
+        public int getRowIndex(Comparable key) {
+            return "S0".equals(key) ? 0 : -1;
+        }
+
+        @Override
+        public List getRowKeys() {
+            return Collections.singletonList("S0");
+        }
+
+        @Override
+        public Comparable getColumnKey(int column) {
+            return column;
+        }
+
+        @Override
+        public int getColumnIndex(Comparable key) {
+            int column = ((Integer) key).intValue();
+            return column < this.columns ? column : -1;
+        }
+
+        @Override
+        public List getColumnKeys() {
+            List<Integer> keys = new ArrayList<>(this.columns);
+            for (int i = 0; i < this.columns; i++) {
+                keys.add(i);
+            }
+            return keys;
+        }
+
+        @Override
+        public int getRowCount() {
+            return 1;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return this.columns;
+        }
+
+        @Override
+        public Number getValue(Comparable rowKey, Comparable columnKey) {
+            return getValue(getRowIndex(rowKey), getColumnIndex(columnKey));
+        }
+    }
+
+    /**
+     * Synthetic box-and-whisker statistics around a slowly drifting median.
+     */
+    static class SyntheticBoxDataset extends SyntheticCategoryDataset
+            implements BoxAndWhiskerCategoryDataset {
+
+        final List<Double>[] outliers;
+
+        SyntheticBoxDataset(int columns, int outlierCount) {
+            super(columns);
+            this.outliers = new List[columns];
+            for (int c = 0; c < columns; c++) {
+                List<Double> list = new ArrayList<>(outlierCount);
+                double median = median(c);
+                for (int i = 0; i < outlierCount; i++) {
+                    // alternate regular outliers and far-outs on each side
+                    double offset = 3.0 + (i % 4);
+                    list.add(i % 2 == 0 ? median + offset : median - offset);
+                }
+                this.outliers[c] = list;
+            }
+        }
+
+        private static double median(int column) {
+            return 10.0 + Math.sin(column * 0.01) * 2.0;
+        }
+
+        @Override
+        public Number getValue(int row, int column) {
+            return getMedianValue(row, column);
+        }
+
+        @Override
+        public Number getMeanValue(int row, int column) {
+            return median(column) + 0.1;
+        }
+
+        @Override
+        public Number getMeanValue(Comparable rowKey, Comparable columnKey) {
+            return getMeanValue(0, getColumnIndex(columnKey));
+        }
+
+        @Override
+        public Number getMedianValue(int row, int column) {
+            return median(column);
+        }
+
+        @Override
+        public Number getMedianValue(Comparable rowKey, Comparable columnKey) {
+            return getMedianValue(0, getColumnIndex(columnKey));
+        }
+
+        @Override
+        public Number getQ1Value(int row, int column) {
+            return median(column) - 1.0;
+        }
+
+        @Override
+        public Number getQ1Value(Comparable rowKey, Comparable columnKey) {
+            return getQ1Value(0, getColumnIndex(columnKey));
+        }
+
+        @Override
+        public Number getQ3Value(int row, int column) {
+            return median(column) + 1.0;
+        }
+
+        @Override
+        public Number getQ3Value(Comparable rowKey, Comparable columnKey) {
+            return getQ3Value(0, getColumnIndex(columnKey));
+        }
+
+        @Override
+        public Number getMinRegularValue(int row, int column) {
+            return median(column) - 2.5;
+        }
+
+        @Override
+        public Number getMinRegularValue(Comparable rowKey,
+                Comparable columnKey) {
+            return getMinRegularValue(0, getColumnIndex(columnKey));
+        }
+
+        @Override
+        public Number getMaxRegularValue(int row, int column) {
+            return median(column) + 2.5;
+        }
+
+        @Override
+        public Number getMaxRegularValue(Comparable rowKey,
+                Comparable columnKey) {
+            return getMaxRegularValue(0, getColumnIndex(columnKey));
+        }
+
+        @Override
+        public Number getMinOutlier(int row, int column) {
+            return median(column) - 5.0;
+        }
+
+        @Override
+        public Number getMinOutlier(Comparable rowKey, Comparable columnKey) {
+            return getMinOutlier(0, getColumnIndex(columnKey));
+        }
+
+        @Override
+        public Number getMaxOutlier(int row, int column) {
+            return median(column) + 5.0;
+        }
+
+        @Override
+        public Number getMaxOutlier(Comparable rowKey, Comparable columnKey) {
+            return getMaxOutlier(0, getColumnIndex(columnKey));
+        }
+
+        @Override
+        public List getOutliers(int row, int column) {
+            return this.outliers[column];
+        }
+
+        @Override
+        public List getOutliers(Comparable rowKey, Comparable columnKey) {
+            return getOutliers(0, getColumnIndex(columnKey));
+        }
+
+        BoxAndWhiskerItem getItem(int column) {
+            return new BoxAndWhiskerItem(getMeanValue(0, column),
+                    getMedianValue(0, column), getQ1Value(0, column),
+                    getQ3Value(0, column), getMinRegularValue(0, column),
+                    getMaxRegularValue(0, column), getMinOutlier(0, column),
+                    getMaxOutlier(0, column), getOutliers(0, column));
+        }
+    }
+
+    /**
+     * Synthetic tasks, one per column, each one unit long and half complete.
+     */
+    static class SyntheticGanttDataset extends SyntheticCategoryDataset
+            implements GanttCategoryDataset {
+
+        SyntheticGanttDataset(int columns) {
+            super(columns);
+        }
+
+        @Override
+        public Number getValue(int row, int column) {
+            return getStartValue(row, column);
+        }
+
+        @Override
+        public Number getStartValue(int row, int column) {
+            return (double) column;
+        }
+
+        @Override
+        public Number getStartValue(Comparable rowKey, Comparable columnKey) {
+            return getStartValue(0, getColumnIndex(columnKey));
+        }
+
+        @Override
+        public Number getEndValue(int row, int column) {
+            return column + 10.0;
+        }
+
+        @Override
+        public Number getEndValue(Comparable rowKey, Comparable columnKey) {
+            return getEndValue(0, getColumnIndex(columnKey));
+        }
+
+        @Override
+        public Number getPercentComplete(int row, int column) {
+            return 0.5;
+        }
+
+        @Override
+        public Number getPercentComplete(Comparable rowKey,
+                Comparable columnKey) {
+            return 0.5;
+        }
+
+        @Override
+        public int getSubIntervalCount(int row, int column) {
+            return 0;
+        }
+
+        @Override
+        public int getSubIntervalCount(Comparable rowKey,
+                Comparable columnKey) {
+            return 0;
+        }
+
+        @Override
+        public Number getStartValue(int row, int column, int subinterval) {
+            return null;
+        }
+
+        @Override
+        public Number getStartValue(Comparable rowKey, Comparable columnKey,
+                int subinterval) {
+            return null;
+        }
+
+        @Override
+        public Number getEndValue(int row, int column, int subinterval) {
+            return null;
+        }
+
+        @Override
+        public Number getEndValue(Comparable rowKey, Comparable columnKey,
+                int subinterval) {
+            return null;
+        }
+
+        @Override
+        public Number getPercentComplete(int row, int column,
+                int subinterval) {
+            return null;
+        }
+
+        @Override
+        public Number getPercentComplete(Comparable rowKey,
+                Comparable columnKey, int subinterval) {
+            return null;
+        }
+    }
+
+    /**
+     * A table of {@code series} series sharing the x-values 0, 1, 2...,
+     * with y-values that mix positive, negative and missing values.
+     */
+    static class SyntheticTableXYDataset extends AbstractXYDataset
+            implements TableXYDataset {
+
+        final double[][] y;
+
+        SyntheticTableXYDataset(int series, int itemCount) {
+            this.y = new double[series][itemCount];
+            for (int s = 0; s < series; s++) {
+                for (int i = 0; i < itemCount; i++) {
+                    this.y[s][i] = (i + s) % 97 == 0 ? Double.NaN
+                            : Math.sin((i + s * 13) * 0.05);
+                }
+            }
+        }
+
+        @Override
+        public int getItemCount() {
+            return this.y[0].length;
+        }
+
+        @Override
+        public int getSeriesCount() {
+            return this.y.length;
+        }
+
+        @Override
+        public Comparable getSeriesKey(int series) {
+            return "S" + series;
+        }
+
+        @Override
+        public int getItemCount(int series) {
+            return this.y[series].length;
+        }
+
+        @Override
+        public Number getX(int series, int item) {
+            return (double) item;
+        }
+
+        @Override
+        public double getXValue(int series, int item) {
+            return item;
+        }
+
+        @Override
+        public Number getY(int series, int item) {
+            return this.y[series][item];
+        }
+
+        @Override
+        public double getYValue(int series, int item) {
+            return this.y[series][item];
+        }
+    }
+
+}
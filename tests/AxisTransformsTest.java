@@ -0,0 +1,228 @@
+package org.jfree.chart.axis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Date;
+import java.util.Random;
+
+import org.jfree.chart.ui.RectangleEdge;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link AxisTransforms#valueToJava2D(ValueAxis, double[],
+ * double[], int, Rectangle2D, RectangleEdge)} gives exactly the results of
+ * the axis' own {@code valueToJava2D()} method, bit for bit.
+ */
+public class AxisTransformsTest {
+
+    /** The axis locations. */
+    private static final RectangleEdge[] EDGES = {RectangleEdge.TOP,
+            RectangleEdge.BOTTOM, RectangleEdge.LEFT, RectangleEdge.RIGHT};
+
+    /**
+     * Converts values with the batch method, into a separate array and in
+     * place, and checks each result against the axis.
+     *
+     * @param axis  the axis.
+     * @param values  the values.
+     * @param random  the random number generator.
+     */
+    private static void check(ValueAxis axis, double[] values,
+            Random random) {
+        for (int a = 0; a < 5; a++) {
+            Rectangle2D area = new Rectangle2D.Double(
+                    random.nextDouble() * 100.0 - 20.0,
+                    random.nextDouble() * 100.0 - 20.0,
+                    random.nextDouble() * 1000.0 + 1.0,
+                    random.nextDouble() * 1000.0 + 1.0);
+            for (RectangleEdge edge : EDGES) {
+                for (boolean inverted : new boolean[] {false, true}) {
+                    axis.setInverted(inverted);
+                    double[] result = new double[values.length];
+                    AxisTransforms.valueToJava2D(axis, values, result,
+                            values.length, area, edge);
+                    double[] inPlace = values.clone();
+                    AxisTransforms.valueToJava2D(axis, inPlace, inPlace,
+                            values.length, area, edge);
+                    for (int i = 0; i < values.length; i++) {
+                        String message = axis.getClass().getSimpleName()
+                                + " " + axis.getRange() + " " + edge
+                                + (inverted ? " inverted" : "") + " value "
+                                + values[i];
+                        long expected = Double.doubleToLongBits(
+                                axis.valueToJava2D(values[i], area, edge));
+                        assertEquals(expected,
+                                Double.doubleToLongBits(result[i]), message);
+                        assertEquals(expected,
+                                Double.doubleToLongBits(inPlace[i]), message);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns random values in and around a range, with some special
+     * values.
+     *
+     * @param random  the random number generator.
+     * @param lower  the lower bound of the range.
+     * @param upper  the upper bound of the range.
+     *
+     * @return The values.
+     */
+    private static double[] createValues(Random random, double lower,
+            double upper) {
+        double[] values = new double[500];
+        double span = upper - lower;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = lower - span + random.nextDouble() * span * 3.0;
+        }
+        values[0] = lower;
+        values[1] = upper;
+        values[2] = Double.NaN;
+        values[3] = Double.POSITIVE_INFINITY;
+        values[4] = Double.NEGATIVE_INFINITY;
+        values[5] = 0.0;
+        values[6] = -0.0;
+        values[7] = Double.MIN_VALUE;
+        return values;
+    }
+
+    /**
+     * The fast path for {@link NumberAxis}, for ranges of different sizes
+     * and positions.
+     */
+    @Test
+    public void testNumberAxis() {
+        Random random = new Random(1);
+        NumberAxis axis = new NumberAxis();
+        double[][] ranges = {{0.0, 1.0}, {-1e6, 3e-3}, {1e-9, 2e-9},
+                {12345.678, 12345.679}, {-5.0, 5.0}};
+        for (double[] range : ranges) {
+            axis.setRange(range[0], range[1]);
+            check(axis, createValues(random, range[0], range[1]), random);
+        }
+    }
+
+    /**
+     * The fast path for {@link LogAxis}, including values at and below zero,
+     * different bases, and an axis with a smallest value above its lower
+     * bound.
+     */
+    @Test
+    public void testLogAxis() {
+        Random random = new Random(2);
+        double[][] ranges = {{1.0, 1000.0}, {1e-5, 1e5}, {0.3, 0.7},
+                {2.0, 3.0e12}};
+        for (double base : new double[] {10.0, 2.0, Math.E}) {
+            for (double[] range : ranges) {
+                LogAxis axis = new LogAxis();
+                axis.setBase(base);
+                axis.setRange(range[0], range[1]);
+                check(axis, createValues(random, range[0], range[1]), random);
+            }
+        }
+        LogAxis axis = new LogAxis();
+        axis.setSmallestValue(0.5);
+        axis.setRange(1.0, 100.0);
+        check(axis, createValues(random, 0.0, 100.0), random);
+        axis.setSmallestValue(50.0);
+        axis.setAutoRange(false);
+        axis.setRange(10.0, 100.0);
+        check(axis, createValues(random, 0.0, 100.0), random);
+    }
+
+    /**
+     * A timeline that leaves out the last hour of every day, standing in for
+     * the timelines that skip weekends or out-of-hours periods.
+     */
+    private static class DaytimeTimeline implements Timeline {
+
+        /** The milliseconds in an hour. */
+        private static final long HOUR = 60L * 60L * 1000L;
+
+        @Override
+        public long toTimelineValue(long millisecond) {
+            long day = Math.floorDiv(millisecond, 24 * HOUR);
+            long time = Math.min(millisecond - day * 24 * HOUR, 23 * HOUR);
+            return day * 23 * HOUR + time;
+        }
+
+        @Override
+        public long toTimelineValue(Date date) {
+            return toTimelineValue(date.getTime());
+        }
+
+        @Override
+        public long toMillisecond(long timelineValue) {
+            long day = Math.floorDiv(timelineValue, 23 * HOUR);
+            return day * 24 * HOUR + (timelineValue - day * 23 * HOUR);
+        }
+
+        @Override
+        public boolean containsDomainValue(long millisecond) {
+            return Math.floorMod(millisecond, 24 * HOUR) < 23 * HOUR;
+        }
+
+        @Override
+        public boolean containsDomainValue(Date date) {
+            return containsDomainValue(date.getTime());
+        }
+
+        @Override
+        public boolean containsDomainRange(long fromMillisecond,
+                long toMillisecond) {
+            return containsDomainValue(fromMillisecond)
+                    && containsDomainValue(toMillisecond)
+                    && Math.floorDiv(fromMillisecond, 24 * HOUR)
+                    == Math.floorDiv(toMillisecond, 24 * HOUR);
+        }
+
+        @Override
+        public boolean containsDomainRange(Date fromDate, Date toDate) {
+            return containsDomainRange(fromDate.getTime(), toDate.getTime());
+        }
+
+    }
+
+    /**
+     * The fast path for {@link DateAxis}, with the default timeline and a
+     * timeline that leaves out part of each day.
+     */
+    @Test
+    public void testDateAxis() {
+        Random random = new Random(3);
+        for (Timeline timeline : new Timeline[] {null,
+                new DaytimeTimeline()}) {
+            DateAxis axis = new DateAxis();
+            if (timeline != null) {
+                axis.setTimeline(timeline);
+            }
+            double lower = 1.6e12;
+            double upper = lower + 90L * 24 * 60 * 60 * 1000;
+            axis.setRange(lower, upper);
+            check(axis, createValues(random, lower, upper), random);
+        }
+    }
+
+    /**
+     * An axis subclass, which may override the conversion, is asked for
+     * each value.
+     */
+    @Test
+    public void testSubclass() {
+        Random random = new Random(4);
+        NumberAxis axis = new NumberAxis() {
+            @Override
+            public double valueToJava2D(double value, Rectangle2D area,
+                    RectangleEdge edge) {
+                return Math.floor(super.valueToJava2D(value, area, edge));
+            }
+        };
+        axis.setRange(-10.0, 10.0);
+        check(axis, createValues(random, -10.0, 10.0), random);
+    }
+
+}
@@ -0,0 +1,250 @@
+package org.jfree.chart.renderer.category;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.jfree.chart.ChartRenderingInfo;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.data.statistics.BoxAndWhiskerItem;
+import org.jfree.data.statistics.DefaultBoxAndWhiskerCategoryDataset;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the outliers drawn by {@link BoxAndWhiskerRenderer} in
+ * horizontal plots, and for the aggregation of dense outliers.
+ */
+public class BoxAndWhiskerRendererTest {
+
+    /** The width of the test images. */
+    private static final int WIDTH = 800;
+
+    /** The height of the test images. */
+    private static final int HEIGHT = 600;
+
+    /** The item paint, which the outliers are drawn with. */
+    private static final int RED = Color.RED.getRGB();
+
+    /** The image drawn by {@link #draw}. */
+    private BufferedImage image;
+
+    /** The data area of the chart drawn by {@link #draw}. */
+    private Rectangle2D dataArea;
+
+    /** The range axis of the chart drawn by {@link #draw}. */
+    private NumberAxis rangeAxis;
+
+    /**
+     * Creates a dataset with one item: regular values from 30 to 70, and
+     * far-out values below 10 and above 90.
+     *
+     * @param outliers  the outliers.
+     *
+     * @return The dataset.
+     */
+    private static DefaultBoxAndWhiskerCategoryDataset createDataset(
+            List<Double> outliers) {
+        DefaultBoxAndWhiskerCategoryDataset dataset
+                = new DefaultBoxAndWhiskerCategoryDataset();
+        dataset.add(new BoxAndWhiskerItem(50.0, 50.0, 40.0, 60.0, 30.0, 70.0,
+                10.0, 90.0, outliers), "S", "C");
+        return dataset;
+    }
+
+    /**
+     * Draws a chart without anti-aliasing, keeping the image, the data area
+     * and the range axis in this test's fields.
+     *
+     * @param dataset  the dataset.
+     * @param renderer  the renderer.
+     * @param orientation  the plot orientation.
+     */
+    private void draw(DefaultBoxAndWhiskerCategoryDataset dataset,
+            BoxAndWhiskerRenderer renderer, PlotOrientation orientation) {
+        renderer.setSeriesPaint(0, Color.RED);
+        renderer.setSeriesOutlinePaint(0, Color.BLACK);
+        renderer.setArtifactPaint(Color.BLACK);
+        renderer.setMaximumBarWidth(0.05);
+        this.rangeAxis = new NumberAxis("Value");
+        this.rangeAxis.setRange(0.0, 100.0);
+        CategoryPlot plot = new CategoryPlot(dataset,
+                new CategoryAxis("Category"), this.rangeAxis, renderer);
+        plot.setOrientation(orientation);
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setRangeGridlinesVisible(false);
+        JFreeChart chart = new JFreeChart(plot);
+        chart.setAntiAlias(false);
+        this.image = new BufferedImage(WIDTH, HEIGHT,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = this.image.createGraphics();
+        ChartRenderingInfo info = new ChartRenderingInfo();
+        chart.draw(g2, new Rectangle(WIDTH, HEIGHT), info);
+        g2.dispose();
+        this.dataArea = info.getPlotInfo().getDataArea();
+    }
+
+    /**
+     * Returns the bounds of the red pixels in a region of the image.
+     *
+     * @param x0  the lowest x-coordinate.
+     * @param x1  the highest x-coordinate.
+     * @param y0  the lowest y-coordinate.
+     * @param y1  the highest y-coordinate.
+     *
+     * @return The bounds ({@code null} if there are no red pixels).
+     */
+    private Rectangle redBounds(double x0, double x1, double y0, double y1) {
+        Rectangle bounds = null;
+        for (int y = (int) y0; y <= (int) y1; y++) {
+            for (int x = (int) x0; x <= (int) x1; x++) {
+                if (this.image.getRGB(x, y) == RED) {
+                    if (bounds == null) {
+                        bounds = new Rectangle(x, y, 1, 1);
+                    }
+                    else {
+                        bounds.add(new Rectangle(x, y, 1, 1));
+                    }
+                }
+            }
+        }
+        return bounds;
+    }
+
+    private double toX(double value) {
+        return this.rangeAxis.valueToJava2D(value, this.dataArea,
+                RectangleEdge.BOTTOM);
+    }
+
+    /**
+     * In a horizontal plot, a single outlier is drawn as a dot centred on
+     * the outlier's value, across the middle of the box; overlapping
+     * outliers are drawn as two dots either side of the middle; and far-out
+     * values are shown by a triangle at the end of the axis.
+     */
+    @Test
+    public void testHorizontalOutlierPlacement() {
+        draw(createDataset(Arrays.asList(80.0, 20.0, 20.5, 95.0)),
+                new BoxAndWhiskerRenderer(), PlotOrientation.HORIZONTAL);
+        double middle = this.dataArea.getCenterY();
+        double top = this.dataArea.getMinY();
+        double bottom = this.dataArea.getMaxY() - 1;
+
+        // the single outlier at 80
+        Rectangle single = redBounds(toX(75.0), toX(85.0), top, bottom);
+        assertEquals(toX(80.0), single.getCenterX(), 1.0);
+        assertEquals(middle, single.getCenterY(), 1.0);
+
+        // 20 and 20.5 overlap, and (as OutlierList does) the group is placed
+        // at the outliers that joined it after the first
+        Rectangle multiple = redBounds(toX(15.0), toX(25.0), top, bottom);
+        assertEquals(toX(20.5), multiple.getCenterX(), 1.0);
+        assertEquals(middle, multiple.getCenterY(), 1.0);
+        assertTrue(redBounds(toX(15.0), toX(25.0), middle - 2,
+                middle + 2) == null);
+
+        // the far-out value at 95 is beyond the maximum outlier
+        assertTrue(redBounds(toX(90.0), toX(94.0), top, bottom) == null);
+        Rectangle farOut = redBounds(toX(97.0), this.dataArea.getMaxX() - 1,
+                top, bottom);
+        assertEquals(middle, farOut.getCenterY(), 1.0);
+    }
+
+    /**
+     * The outliers of an item are aggregated only when there are more of
+     * them than the threshold.
+     */
+    @Test
+    public void testOutlierDensityThreshold() {
+        Random random = new Random(1);
+        List<Double> outliers = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            outliers.add(72.0 + random.nextDouble() * 16.0);
+        }
+        DefaultBoxAndWhiskerCategoryDataset dataset = createDataset(outliers);
+        for (PlotOrientation orientation : new PlotOrientation[] {
+                PlotOrientation.VERTICAL, PlotOrientation.HORIZONTAL}) {
+            draw(dataset, new BoxAndWhiskerRenderer(), orientation);
+            BufferedImage grouped = this.image;
+            BoxAndWhiskerRenderer renderer = new BoxAndWhiskerRenderer();
+            renderer.setOutlierDensityThreshold(30);
+            draw(dataset, renderer, orientation);
+            assertTrue(sameImage(grouped, this.image), orientation.toString());
+            renderer = new BoxAndWhiskerRenderer();
+            renderer.setOutlierDensityThreshold(29);
+            draw(dataset, renderer, orientation);
+            assertFalse(sameImage(grouped, this.image),
+                    orientation.toString());
+        }
+    }
+
+    /**
+     * Aggregation counts every outlier into a bucket at the middle of the
+     * bucket that holds it.
+     */
+    @Test
+    public void testAggregate() {
+        Random random = new Random(1);
+        List<Double> outliers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            outliers.add(72.0 + random.nextDouble() * 16.0);
+        }
+        NumberAxis axis = new NumberAxis();
+        axis.setRange(0.0, 100.0);
+        Rectangle2D area = new Rectangle2D.Double(0.0, 0.0, 500.0, 300.0);
+        OutlierStage stage = new OutlierStage();
+        stage.classify(outliers, 10.0, 90.0, 30.0, 70.0, axis, area,
+                RectangleEdge.BOTTOM);
+        stage.sort();
+        double radius = 2.0;
+        double bucketSize = 3.0;
+        stage.aggregate(100.0, radius, bucketSize);
+        int total = 0;
+        double last = Double.NEGATIVE_INFINITY;
+        for (int g = 0; g < stage.getGroupCount(); g++) {
+            double middle = stage.getGroupValue(g) + radius;
+            assertEquals(0.5, middle / bucketSize
+                    - Math.floor(middle / bucketSize), 1e-9);
+            assertTrue(middle > last);
+            last = middle;
+            assertEquals(100.0 - radius, stage.getGroupCentre(g));
+            int count = 0;
+            for (int i = 0; i < stage.getCount(); i++) {
+                if (Math.floor(stage.getValue(i) / bucketSize)
+                        == Math.floor(middle / bucketSize)) {
+                    count++;
+                }
+            }
+            assertEquals(count, stage.getGroupSize(g));
+            total += count;
+        }
+        assertEquals(1000, total);
+        assertEquals(1000, stage.getCount());
+    }
+
+    private static boolean sameImage(BufferedImage a, BufferedImage b) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (a.getRGB(x, y) != b.getRGB(x, y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+}
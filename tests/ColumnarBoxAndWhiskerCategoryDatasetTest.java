@@ -0,0 +1,253 @@
+package org.jfree.data.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.renderer.category.BoxAndWhiskerRenderer;
+import org.jfree.data.category.CategoryDataset;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares {@link ColumnarBoxAndWhiskerCategoryDataset} with
+ * {@link DefaultBoxAndWhiskerCategoryDataset} after the same sequence of
+ * items has been added to each.
+ */
+public class ColumnarBoxAndWhiskerCategoryDatasetTest {
+
+    /**
+     * Creates a random item.  The outlier list is sometimes {@code null} or
+     * empty, and the mean is sometimes missing.
+     *
+     * @param random  the random number generator.
+     *
+     * @return The item.
+     */
+    private static BoxAndWhiskerItem createItem(Random random) {
+        double median = random.nextGaussian() * 10.0;
+        List<Double> outliers = null;
+        int count = random.nextInt(12) - 2;
+        if (count >= 0) {
+            outliers = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                outliers.add(median + random.nextGaussian() * 30.0);
+            }
+        }
+        Double mean = random.nextInt(10) == 0 ? null
+                : median + random.nextGaussian();
+        return new BoxAndWhiskerItem(mean, (Number) median,
+                median - 5.0, median + 5.0, median - 15.0, median + 15.0,
+                median - 20.0 - random.nextInt(20),
+                median + 20.0 + random.nextInt(20), outliers);
+    }
+
+    /**
+     * Adds the same random items to both datasets, including items that
+     * replace earlier ones.
+     *
+     * @param random  the random number generator.
+     * @param count  the number of items to add.
+     * @param rows  the number of row keys to choose from.
+     * @param columns  the number of column keys to choose from.
+     * @param expected  the default dataset.
+     * @param actual  the columnar dataset.
+     */
+    private static void addItems(Random random, int count, int rows,
+            int columns, DefaultBoxAndWhiskerCategoryDataset expected,
+            ColumnarBoxAndWhiskerCategoryDataset actual) {
+        for (int i = 0; i < count; i++) {
+            BoxAndWhiskerItem item = createItem(random);
+            String rowKey = "R" + random.nextInt(rows);
+            String columnKey = "C" + random.nextInt(columns);
+            expected.add(item, rowKey, columnKey);
+            actual.add(item, rowKey, columnKey);
+        }
+    }
+
+    /**
+     * Checks that every value of two datasets is the same, through the
+     * {@code Number} and {@code List} methods and through the primitive
+     * methods that the renderers use.
+     *
+     * @param expected  the default dataset.
+     * @param actual  the columnar dataset.
+     */
+    private static void assertSameData(
+            DefaultBoxAndWhiskerCategoryDataset expected,
+            ColumnarBoxAndWhiskerCategoryDataset actual) {
+        assertEquals(expected.getRowKeys(), actual.getRowKeys());
+        assertEquals(expected.getColumnKeys(), actual.getColumnKeys());
+        for (int r = 0; r < expected.getRowCount(); r++) {
+            for (int c = 0; c < expected.getColumnCount(); c++) {
+                String cell = r + "," + c;
+                BoxAndWhiskerItem item = expected.getItem(r, c);
+                if (item == null) {
+                    assertNull(actual.getItem(r, c), cell);
+                    assertNull(actual.getMedianValue(r, c), cell);
+                    assertNull(actual.getOutliers(r, c), cell);
+                    assertEquals(-1, actual.getOutlierCount(r, c), cell);
+                    continue;
+                }
+                assertEquals(item, actual.getItem(r, c), cell);
+                assertEquals(expected.getValue(r, c), actual.getValue(r, c));
+                assertEquals(expected.getMeanValue(r, c),
+                        actual.getMeanValue(r, c), cell);
+                assertEquals(expected.getMaxOutlier(r, c),
+                        actual.getMaxOutlier(r, c), cell);
+                assertEquals(expected.getOutliers(r, c),
+                        actual.getOutliers(r, c), cell);
+                assertEquals(doubleValue(item.getMean()),
+                        actual.getMeanDouble(r, c), cell);
+                assertEquals(doubleValue(item.getMedian()),
+                        actual.getMedianDouble(r, c), cell);
+                assertEquals(doubleValue(item.getQ1()),
+                        actual.getQ1Double(r, c), cell);
+                assertEquals(doubleValue(item.getQ3()),
+                        actual.getQ3Double(r, c), cell);
+                assertEquals(doubleValue(item.getMinRegularValue()),
+                        actual.getMinRegularDouble(r, c), cell);
+                assertEquals(doubleValue(item.getMaxRegularValue()),
+                        actual.getMaxRegularDouble(r, c), cell);
+                assertEquals(doubleValue(item.getMinOutlier()),
+                        actual.getMinOutlierDouble(r, c), cell);
+                assertEquals(doubleValue(item.getMaxOutlier()),
+                        actual.getMaxOutlierDouble(r, c), cell);
+                List outliers = item.getOutliers();
+                int count = outliers == null ? -1 : outliers.size();
+                assertEquals(count, actual.getOutlierCount(r, c), cell);
+                for (int i = 0; i < count; i++) {
+                    assertEquals(((Number) outliers.get(i)).doubleValue(),
+                            actual.getOutlierDouble(r, c, i), cell);
+                }
+            }
+        }
+        assertEquals(expected.getRangeBounds(false),
+                actual.getRangeBounds(false));
+    }
+
+    private static double doubleValue(Number n) {
+        return n == null ? Double.NaN : n.doubleValue();
+    }
+
+    /**
+     * The datasets hold the same values after items have been added in a
+     * random order of keys, so that rows and columns are added in between.
+     */
+    @Test
+    public void testSameData() {
+        Random random = new Random(1);
+        DefaultBoxAndWhiskerCategoryDataset expected
+                = new DefaultBoxAndWhiskerCategoryDataset();
+        ColumnarBoxAndWhiskerCategoryDataset actual
+                = new ColumnarBoxAndWhiskerCategoryDataset();
+        for (int round = 0; round < 10; round++) {
+            addItems(random, 50, 7, 23, expected, actual);
+            assertSameData(expected, actual);
+        }
+    }
+
+    /**
+     * Replacing the items many times leaves the outliers of replaced items
+     * behind in the shared array until it is compacted; the values read
+     * afterwards are still those of the latest items.
+     */
+    @Test
+    public void testOutlierCompaction() {
+        Random random = new Random(2);
+        DefaultBoxAndWhiskerCategoryDataset expected
+                = new DefaultBoxAndWhiskerCategoryDataset();
+        ColumnarBoxAndWhiskerCategoryDataset actual
+                = new ColumnarBoxAndWhiskerCategoryDataset();
+        addItems(random, 200, 3, 5, expected, actual);
+        for (int round = 0; round < 20; round++) {
+            // replace the items of a few cells many times over
+            addItems(random, 100, 2, 2, expected, actual);
+            assertSameData(expected, actual);
+        }
+    }
+
+    /**
+     * After {@code clear()}, the dataset is empty and equal to a new one,
+     * and can be filled again.
+     */
+    @Test
+    public void testClear() {
+        Random random = new Random(3);
+        DefaultBoxAndWhiskerCategoryDataset expected
+                = new DefaultBoxAndWhiskerCategoryDataset();
+        ColumnarBoxAndWhiskerCategoryDataset actual
+                = new ColumnarBoxAndWhiskerCategoryDataset();
+        addItems(random, 500, 10, 40, expected, actual);
+        actual.clear();
+        assertEquals(0, actual.getRowCount());
+        assertEquals(0, actual.getColumnCount());
+        assertNull(actual.getRangeBounds(false));
+        assertEquals(new ColumnarBoxAndWhiskerCategoryDataset(), actual);
+        expected.clear();
+        addItems(random, 100, 4, 9, expected, actual);
+        assertSameData(expected, actual);
+    }
+
+    /**
+     * Draws a box-and-whisker chart.
+     *
+     * @param dataset  the dataset.
+     * @param orientation  the plot orientation.
+     *
+     * @return The image.
+     */
+    private static BufferedImage draw(CategoryDataset dataset,
+            PlotOrientation orientation) {
+        CategoryPlot plot = new CategoryPlot(dataset,
+                new CategoryAxis("Category"), new NumberAxis("Value"),
+                new BoxAndWhiskerRenderer());
+        plot.setOrientation(orientation);
+        JFreeChart chart = new JFreeChart(plot);
+        BufferedImage image = new BufferedImage(800, 600,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        chart.draw(g2, new Rectangle(800, 600));
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * The renderer, which reads the columnar dataset through its primitive
+     * methods, draws the same chart as it does for the default dataset.
+     */
+    @Test
+    public void testSameChart() {
+        Random random = new Random(4);
+        DefaultBoxAndWhiskerCategoryDataset expected
+                = new DefaultBoxAndWhiskerCategoryDataset();
+        ColumnarBoxAndWhiskerCategoryDataset actual
+                = new ColumnarBoxAndWhiskerCategoryDataset();
+        addItems(random, 100, 3, 12, expected, actual);
+        for (PlotOrientation orientation : new PlotOrientation[] {
+                PlotOrientation.VERTICAL, PlotOrientation.HORIZONTAL}) {
+            BufferedImage e = draw(expected, orientation);
+            BufferedImage a = draw(actual, orientation);
+            int pixels = 0;
+            for (int y = 0; y < e.getHeight(); y++) {
+                for (int x = 0; x < e.getWidth(); x++) {
+                    if (e.getRGB(x, y) != a.getRGB(x, y)) {
+                        pixels++;
+                    }
+                }
+            }
+            assertEquals(0, pixels, orientation.toString());
+        }
+    }
+
+}
@@ -0,0 +1,190 @@
+package org.jfree.data.gantt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the tasks that {@link ColumnarGanttCategoryDataset#findItems}
+ * finds with its interval tree against a scan of every task.
+ */
+public class ColumnarGanttCategoryDatasetTest {
+
+    /**
+     * Returns the tasks that overlap a range, found by testing every cell.
+     *
+     * @param dataset  the dataset.
+     * @param lower  the lower bound of the range.
+     * @param upper  the upper bound of the range.
+     *
+     * @return The items, indexed by {@code row * columnCount + column}.
+     */
+    private static BitSet scan(ColumnarGanttCategoryDataset dataset,
+            double lower, double upper) {
+        BitSet items = new BitSet();
+        int columns = dataset.getColumnCount();
+        for (int r = 0; r < dataset.getRowCount(); r++) {
+            for (int c = 0; c < columns; c++) {
+                Number start = dataset.getStartValue(r, c);
+                if (start == null) {
+                    continue;
+                }
+                if (dataset.getEndDouble(r, c) >= lower
+                        && start.doubleValue() <= upper) {
+                    items.set(r * columns + c);
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Checks {@code findItems()} against a scan for random ranges, ranges
+     * that begin or end exactly on a task's start or end, single points,
+     * and ranges that cover every task or none.
+     *
+     * @param random  the random number generator.
+     * @param dataset  the dataset.
+     * @param span  the span of the task values.
+     */
+    private static void checkFindItems(Random random,
+            ColumnarGanttCategoryDataset dataset, long span) {
+        double[][] ranges = new double[400][];
+        for (int i = 0; i < ranges.length; i++) {
+            double a = random.nextDouble() * span * 1.2 - span * 0.1;
+            double length = i % 4 == 0 ? span : span * 0.1;
+            double b = a + random.nextDouble() * length;
+            if (i % 5 == 1 || i % 5 == 2) {
+                // end points on task values
+                int r = random.nextInt(dataset.getRowCount());
+                int c = random.nextInt(dataset.getColumnCount());
+                if (dataset.getStartValue(r, c) != null) {
+                    a = i % 5 == 1 ? dataset.getEndDouble(r, c)
+                            : dataset.getStartDouble(r, c);
+                    b = i % 5 == 1 ? a + random.nextInt(50)
+                            : dataset.getStartDouble(r, c);
+                }
+            }
+            ranges[i] = new double[] {a, b};
+        }
+        ranges[0] = new double[] {Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY};
+        ranges[1] = new double[] {-span, -1.0};
+        ranges[2] = new double[] {span * 3.0, span * 4.0};
+        for (double[] range : ranges) {
+            BitSet items = new BitSet();
+            dataset.findItems(range[0], range[1], items);
+            assertEquals(scan(dataset, range[0], range[1]), items,
+                    range[0] + " to " + range[1]);
+        }
+    }
+
+    /**
+     * Fills a dataset with random tasks in some of its cells, adding rows
+     * and columns in an interleaved order so that the storage is resized
+     * while it fills.  Many tasks share a start value.
+     *
+     * @param random  the random number generator.
+     * @param dataset  the dataset.
+     * @param count  the number of tasks to add.
+     * @param rows  the number of row keys to choose from.
+     * @param columns  the number of column keys to choose from.
+     * @param span  the span of the task values.
+     */
+    private static void addTasks(Random random,
+            ColumnarGanttCategoryDataset dataset, int count, int rows,
+            int columns, long span) {
+        for (int i = 0; i < count; i++) {
+            long start = random.nextInt(3) == 0 ? (random.nextInt(8)
+                    * (span / 8)) : (long) (random.nextDouble() * span);
+            long length = random.nextInt(10) == 0 ? 0L
+                    : (long) (random.nextDouble() * random.nextDouble()
+                    * span / 2);
+            dataset.add(start, start + length, Double.NaN,
+                    "R" + random.nextInt(rows), "C" + random.nextInt(columns));
+        }
+    }
+
+    /**
+     * The interval tree finds the same tasks as a scan, for datasets of
+     * different sizes with empty cells, equal start values and zero-length
+     * tasks.
+     */
+    @Test
+    public void testFindItems() {
+        Random random = new Random(1);
+        for (int size : new int[] {1, 2, 3, 10, 100, 1000, 5000}) {
+            ColumnarGanttCategoryDataset dataset
+                    = new ColumnarGanttCategoryDataset();
+            int rows = 1 + (int) Math.sqrt(size) / 2;
+            int columns = 1 + size / rows;
+            addTasks(random, dataset, size, rows, columns, 100000L);
+            checkFindItems(random, dataset, 100000L);
+        }
+    }
+
+    /**
+     * The interval tree is rebuilt after tasks are replaced and added, and
+     * after the dataset is cleared.
+     */
+    @Test
+    public void testFindItemsAfterChanges() {
+        Random random = new Random(2);
+        ColumnarGanttCategoryDataset dataset
+                = new ColumnarGanttCategoryDataset();
+        addTasks(random, dataset, 300, 10, 40, 1000L);
+        checkFindItems(random, dataset, 1000L);
+        for (int round = 0; round < 5; round++) {
+            // replace some tasks and add new rows and columns
+            addTasks(random, dataset, 100, 12 + round, 45 + round, 1000L);
+            checkFindItems(random, dataset, 1000L);
+        }
+        dataset.clear();
+        BitSet items = new BitSet();
+        dataset.findItems(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                items);
+        assertEquals(0, items.cardinality());
+        addTasks(random, dataset, 50, 3, 30, 1000L);
+        checkFindItems(random, dataset, 1000L);
+    }
+
+    /**
+     * Tasks that all start at the same value are found by their end values,
+     * which the tree prunes on.
+     */
+    @Test
+    public void testFindItemsEqualStarts() {
+        Random random = new Random(3);
+        ColumnarGanttCategoryDataset dataset
+                = new ColumnarGanttCategoryDataset();
+        Map<Integer, Long> ends = new HashMap<>();
+        for (int c = 0; c < 200; c++) {
+            long end = 100L + random.nextInt(1000);
+            // leave every seventh cell in the second row empty
+            dataset.add(100L, end, 50.0, "R0", "C" + c);
+            if (c % 7 != 0) {
+                dataset.add(100L, end + 1, 50.0, "R1", "C" + c);
+            }
+            ends.put(c, end);
+        }
+        assertNull(dataset.getStartValue(1, 0));
+        for (long lower = 0L; lower <= 1200L; lower += 17L) {
+            BitSet items = new BitSet();
+            dataset.findItems(lower, lower + 5.5, items);
+            BitSet expected = scan(dataset, lower, lower + 5.5);
+            assertEquals(expected, items, "lower " + lower);
+            for (int c = 0; c < 200; c++) {
+                assertEquals(ends.get(c) >= lower && lower + 5.5 >= 100L,
+                        items.get(c), "column " + c);
+            }
+        }
+        checkFindItems(random, dataset, 1200L);
+    }
+
+}
@@ -0,0 +1,222 @@
+package org.jfree.chart.renderer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Date;
+import java.util.Random;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.category.GanttRenderer;
+import org.jfree.chart.renderer.xy.StackedXYAreaRenderer2;
+import org.jfree.data.gantt.Task;
+import org.jfree.data.gantt.TaskSeries;
+import org.jfree.data.gantt.TaskSeriesCollection;
+import org.jfree.data.time.SimpleTimePeriod;
+import org.jfree.data.xy.DefaultTableXYDataset;
+import org.jfree.data.xy.XYSeries;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the shapes filled through a {@link DeferredFills} colour the
+ * same pixels as the shapes filled one at a time (without anti-aliasing).
+ */
+public class DeferredFillsTest {
+
+    /** The width of the test images. */
+    private static final int WIDTH = 800;
+
+    /** The height of the test images. */
+    private static final int HEIGHT = 600;
+
+    /**
+     * Creates an image with a white background.
+     *
+     * @return The image.
+     */
+    private static BufferedImage createImage() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setPaint(Color.WHITE);
+        g2.fillRect(0, 0, WIDTH, HEIGHT);
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * Returns the number of pixels that differ between two images.
+     *
+     * @param a  the first image.
+     * @param b  the second image.
+     *
+     * @return The count.
+     */
+    private static int countDifferences(BufferedImage a, BufferedImage b) {
+        int count = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (a.getRGB(x, y) != b.getRGB(x, y)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A rectangle and shapes traced the other way that overlap it, in the
+     * same layer and paint, fill their overlap.
+     */
+    @Test
+    public void testOverlapWithOppositeWinding() {
+        Rectangle2D rect = new Rectangle2D.Double(100, 100, 200, 200);
+        Path2D.Double polygon = new Path2D.Double();
+        polygon.moveTo(150, 150);
+        polygon.lineTo(150, 400);
+        polygon.lineTo(400, 400);
+        polygon.lineTo(400, 150);
+        polygon.closePath();
+        Ellipse2D ellipse = new Ellipse2D.Double(250, 50, 300, 200);
+        // an ellipse with its curves traced the other way
+        AffineTransform flip = new AffineTransform(-1, 0, 0, 1, 500, 0);
+        Shape flipped = flip.createTransformedShape(
+                new Ellipse2D.Double(180, 220, 150, 250));
+
+        BufferedImage expected = createImage();
+        Graphics2D g2 = expected.createGraphics();
+        g2.setPaint(Color.BLUE);
+        g2.fill(rect);
+        g2.fill(polygon);
+        g2.fill(ellipse);
+        g2.fill(flipped);
+        g2.dispose();
+
+        BufferedImage actual = createImage();
+        g2 = actual.createGraphics();
+        DeferredFills fills = new DeferredFills();
+        fills.fill(g2, 0, Color.BLUE, rect);
+        fills.fill(g2, 0, Color.BLUE, polygon);
+        fills.fill(g2, 0, Color.BLUE, ellipse);
+        fills.fill(g2, 0, Color.BLUE, flipped);
+        fills.flush();
+        g2.dispose();
+        // one path for the shapes traced each way
+        assertEquals(2, fills.getPathCount());
+        assertEquals(0, countDifferences(expected, actual));
+    }
+
+    /**
+     * Draws a stacked area chart.
+     *
+     * @param dataset  the dataset.
+     * @param decimate  decimate the items?
+     * @param batch  batch the fills?
+     *
+     * @return The image.
+     */
+    private static BufferedImage drawStackedArea(
+            DefaultTableXYDataset dataset, boolean decimate, boolean batch) {
+        StackedXYAreaRenderer2 renderer = new StackedXYAreaRenderer2();
+        renderer.setDecimateItems(decimate);
+        renderer.setBatchFills(batch);
+        XYPlot plot = new XYPlot(dataset, new NumberAxis("X"),
+                new NumberAxis("Y"), renderer);
+        JFreeChart chart = new JFreeChart(plot);
+        chart.setAntiAlias(false);
+        BufferedImage image = createImage();
+        Graphics2D g2 = image.createGraphics();
+        chart.draw(g2, new Rectangle(WIDTH, HEIGHT));
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * A stacked area chart with positive and negative values is drawn the
+     * same with and without batched fills, with and without decimation.
+     * With decimation the envelope rectangles share a path with the
+     * polygons of the wider items.
+     */
+    @Test
+    public void testStackedAreaBatchFills() {
+        DefaultTableXYDataset dataset = new DefaultTableXYDataset();
+        Random random = new Random(1);
+        for (int s = 0; s < 3; s++) {
+            XYSeries series = new XYSeries("S" + s, true, false);
+            for (int i = 0; i < 5000; i++) {
+                // mostly dense items, with a few wide gaps
+                double x = i + (i / 1000) * 400;
+                series.add(x, random.nextGaussian() * 10.0 - 2.0);
+            }
+            dataset.addSeries(series);
+        }
+        for (boolean decimate : new boolean[] {false, true}) {
+            BufferedImage expected = drawStackedArea(dataset, decimate, false);
+            BufferedImage actual = drawStackedArea(dataset, decimate, true);
+            assertEquals(0, countDifferences(expected, actual),
+                    "decimate=" + decimate);
+        }
+    }
+
+    /**
+     * Draws a Gantt chart.
+     *
+     * @param dataset  the dataset.
+     * @param batch  batch the fills?
+     *
+     * @return The image.
+     */
+    private static BufferedImage drawGantt(TaskSeriesCollection dataset,
+            boolean batch) {
+        GanttRenderer renderer = new GanttRenderer();
+        renderer.setShadowVisible(false);
+        renderer.setDrawBarOutline(true);
+        renderer.setBatchFills(batch);
+        CategoryPlot plot = new CategoryPlot(dataset,
+                new CategoryAxis("Task"), new DateAxis("Date"), renderer);
+        JFreeChart chart = new JFreeChart(plot);
+        chart.setAntiAlias(false);
+        BufferedImage image = createImage();
+        Graphics2D g2 = image.createGraphics();
+        chart.draw(g2, new Rectangle(WIDTH, HEIGHT));
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * A Gantt chart is drawn the same with and without batched fills.
+     */
+    @Test
+    public void testGanttBatchFills() {
+        TaskSeriesCollection dataset = new TaskSeriesCollection();
+        Random random = new Random(1);
+        for (int s = 0; s < 2; s++) {
+            TaskSeries series = new TaskSeries("S" + s);
+            for (int i = 0; i < 40; i++) {
+                long start = 100000L * random.nextInt(1000);
+                long end = start + 100000L * (1 + random.nextInt(200));
+                Task task = new Task("T" + i, new SimpleTimePeriod(
+                        new Date(start), new Date(end)));
+                task.setPercentComplete(random.nextDouble());
+                series.add(task);
+            }
+            dataset.add(series);
+        }
+        assertEquals(0, countDifferences(drawGantt(dataset, false),
+                drawGantt(dataset, true)));
+    }
+
+}
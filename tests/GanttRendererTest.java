@@ -0,0 +1,119 @@
+package org.jfree.chart.renderer.category;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.BasicStroke;
+import java.awt.Graphics2D;
+import java.awt.Stroke;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.labels.StandardCategoryItemLabelGenerator;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.gantt.ColumnarGanttCategoryDataset;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the visible tasks that {@link GanttRenderer} finds when a pass
+ * starts, and the margin it widens the visible range by.
+ */
+public class GanttRendererTest {
+
+    /**
+     * Creates a dataset with two rows of tasks: one task in each row inside
+     * the range 0 to 1000, which the tests show, and the others far beyond
+     * it.
+     *
+     * @return The dataset.
+     */
+    private static ColumnarGanttCategoryDataset createDataset() {
+        ColumnarGanttCategoryDataset dataset
+                = new ColumnarGanttCategoryDataset();
+        for (int row = 0; row < 2; row++) {
+            dataset.add(100L, 200L, Double.NaN, "R" + row, "C0");
+            for (int column = 1; column < 6; column++) {
+                dataset.add(5000L + column, 6000L, Double.NaN, "R" + row,
+                        "C" + column);
+            }
+        }
+        return dataset;
+    }
+
+    /**
+     * Initialises a renderer for a vertical plot that shows the range 0 to
+     * 1000.
+     *
+     * @param renderer  the renderer.
+     *
+     * @return The renderer state.
+     */
+    private static GanttRendererState initialise(GanttRenderer renderer) {
+        DateAxis rangeAxis = new DateAxis("Date");
+        rangeAxis.setRange(0.0, 1000.0);
+        CategoryPlot plot = new CategoryPlot(createDataset(),
+                new CategoryAxis("Task"), rangeAxis, renderer);
+        plot.setOrientation(PlotOrientation.VERTICAL);
+        BufferedImage image = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        GanttRendererState state = (GanttRendererState) renderer.initialise(
+                g2, new Rectangle2D.Double(0.0, 0.0, 400.0, 300.0), plot, 0,
+                null);
+        g2.dispose();
+        return state;
+    }
+
+    /**
+     * The visible range is widened by the largest margin of any task, not
+     * just those in the first column, so tasks needing that margin can
+     * still be culled.
+     */
+    @Test
+    public void testCullMarginCoversEveryTask() {
+        GanttRenderer renderer = new GanttRenderer() {
+            @Override
+            public Stroke getItemOutlineStroke(int row, int column) {
+                return new BasicStroke(column == 3 ? 6.0f : 1.0f);
+            }
+        };
+        renderer.setDrawBarOutline(true);
+        renderer.setShadowVisible(false);
+        GanttRendererState state = initialise(renderer);
+        // one pixel for anti-aliasing and the width of the thick outline
+        assertTrue(state.isItemOutside(1, 3, 7.0));
+        assertFalse(state.isItemOutside(1, 0, 7.0));
+    }
+
+    /**
+     * A task with a visible item label is never culled, so when any task
+     * has one the visible tasks are not found and no task is skipped for
+     * lying outside the visible range.
+     */
+    @Test
+    public void testVisibleLabelDisablesCulling() {
+        GanttRenderer renderer = new GanttRenderer() {
+            @Override
+            public boolean isItemLabelVisible(int row, int column) {
+                return row == 1 && column == 4;
+            }
+        };
+        renderer.setDefaultItemLabelGenerator(
+                new StandardCategoryItemLabelGenerator());
+        GanttRendererState state = initialise(renderer);
+        for (int column = 1; column < 6; column++) {
+            assertFalse(state.isItemOutside(0, column, 0.0));
+            assertFalse(state.isItemOutside(1, column, 0.0));
+        }
+
+        renderer = new GanttRenderer();
+        state = initialise(renderer);
+        for (int column = 1; column < 6; column++) {
+            assertTrue(state.isItemOutside(0, column, 0.0));
+        }
+    }
+
+}
@@ -0,0 +1,219 @@
+package org.jfree.chart.renderer.category;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.util.SortOrder;
+import org.jfree.data.gantt.ColumnarGanttCategoryDataset;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the image an {@link IncrementalGanttPainter} keeps up to date
+ * after each change to a task is the same as a fresh paint of the chart.
+ */
+public class IncrementalGanttPainterTest {
+
+    /** The width of the images. */
+    private static final int WIDTH = 800;
+
+    /** The height of the images. */
+    private static final int HEIGHT = 600;
+
+    /** The number of rows (series). */
+    private static final int ROWS = 3;
+
+    /** The number of columns (tasks in each series). */
+    private static final int COLUMNS = 25;
+
+    /** The upper bound of the range axis. */
+    private static final long RANGE = 100000L;
+
+    /**
+     * Creates a Gantt chart whose bars fill their categories, with shadows
+     * and thick outlines, so that each task paints over the edges of the
+     * tasks in the neighbouring columns.
+     *
+     * @param dataset  the dataset.
+     * @param orientation  the plot orientation.
+     * @param order  the row and column rendering order.
+     *
+     * @return The chart.
+     */
+    private static JFreeChart createChart(
+            ColumnarGanttCategoryDataset dataset, PlotOrientation orientation,
+            SortOrder order) {
+        CategoryAxis domainAxis = new CategoryAxis("Task");
+        domainAxis.setLowerMargin(0.0);
+        domainAxis.setUpperMargin(0.0);
+        domainAxis.setCategoryMargin(0.0);
+        DateAxis rangeAxis = new DateAxis("Date");
+        rangeAxis.setRange(0.0, RANGE);
+        GanttRenderer renderer = new GanttRenderer();
+        renderer.setItemMargin(0.0);
+        renderer.setShadowVisible(true);
+        renderer.setShadowXOffset(5.0);
+        renderer.setShadowYOffset(5.0);
+        renderer.setDrawBarOutline(true);
+        renderer.setDefaultOutlineStroke(new BasicStroke(3.0f));
+        renderer.setSeriesPaint(0, new Color(255, 0, 0, 160));
+        CategoryPlot plot = new CategoryPlot(dataset, domainAxis, rangeAxis,
+                renderer);
+        plot.setOrientation(orientation);
+        plot.setColumnRenderingOrder(order);
+        plot.setRowRenderingOrder(order);
+        return new JFreeChart(plot);
+    }
+
+    /**
+     * Sets a task to a random interval: mostly inside the range of the
+     * axis, but sometimes partly or wholly outside it.
+     *
+     * @param random  the random number generator.
+     * @param dataset  the dataset.
+     * @param row  the row index.
+     * @param column  the column index.
+     */
+    private static void setTask(Random random,
+            ColumnarGanttCategoryDataset dataset, int row, int column) {
+        long start = (long) (random.nextDouble() * RANGE * 1.4)
+                - RANGE / 5;
+        long end = start + (long) (random.nextDouble() * RANGE / 3);
+        dataset.add(start, end, random.nextDouble(), "R" + row,
+                "C" + column);
+    }
+
+    /**
+     * Paints a chart in full, without the painter.
+     *
+     * @param chart  the chart.
+     *
+     * @return The image.
+     */
+    private static BufferedImage paint(JFreeChart chart) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        chart.draw(g2, new Rectangle(WIDTH, HEIGHT), null, null);
+        g2.dispose();
+        return image;
+    }
+
+    private static int countDifferences(BufferedImage a, BufferedImage b) {
+        int pixels = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (a.getRGB(x, y) != b.getRGB(x, y)) {
+                    pixels++;
+                }
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * Moves random tasks one at a time, some of them far enough to pass
+     * over the tasks of other columns, and checks the painter's image
+     * against a fresh paint after each update.
+     *
+     * @param orientation  the plot orientation.
+     * @param order  the row and column rendering order.
+     * @param seed  the seed for the random number generator.
+     */
+    private static void check(PlotOrientation orientation, SortOrder order,
+            long seed) {
+        Random random = new Random(seed);
+        ColumnarGanttCategoryDataset dataset
+                = new ColumnarGanttCategoryDataset();
+        for (int column = 0; column < COLUMNS; column++) {
+            for (int row = 0; row < ROWS; row++) {
+                setTask(random, dataset, row, column);
+            }
+        }
+        IncrementalGanttPainter painter = new IncrementalGanttPainter(
+                createChart(dataset, orientation, order), WIDTH, HEIGHT);
+        JFreeChart reference = createChart(dataset, orientation, order);
+        painter.paint();
+        String name = orientation + " " + order;
+        assertEquals(0, countDifferences(paint(reference),
+                painter.getImage()), name);
+        for (int i = 0; i < 40; i++) {
+            int row = random.nextInt(ROWS);
+            int column = random.nextInt(COLUMNS);
+            setTask(random, dataset, row, column);
+            painter.update(row, column);
+            assertEquals(0, countDifferences(paint(reference),
+                    painter.getImage()), name + " update " + i);
+        }
+        // every change was drawn without painting the whole chart
+        assertEquals(1, painter.getPaintCount(), name);
+        assertEquals(40, painter.getUpdateCount(), name);
+    }
+
+    /**
+     * Updates in a horizontal plot, in both rendering orders.
+     */
+    @Test
+    public void testHorizontal() {
+        check(PlotOrientation.HORIZONTAL, SortOrder.ASCENDING, 1);
+        check(PlotOrientation.HORIZONTAL, SortOrder.DESCENDING, 2);
+    }
+
+    /**
+     * Updates in a vertical plot, in both rendering orders.
+     */
+    @Test
+    public void testVertical() {
+        check(PlotOrientation.VERTICAL, SortOrder.ASCENDING, 3);
+        check(PlotOrientation.VERTICAL, SortOrder.DESCENDING, 4);
+    }
+
+    /**
+     * A task that moves from one end of the axis to the other passes over
+     * the area of every task in its column and the edges of the tasks in
+     * the neighbouring columns, which are drawn again in their order.
+     */
+    @Test
+    public void testLongMove() {
+        for (PlotOrientation orientation : new PlotOrientation[] {
+                PlotOrientation.HORIZONTAL, PlotOrientation.VERTICAL}) {
+            ColumnarGanttCategoryDataset dataset
+                    = new ColumnarGanttCategoryDataset();
+            for (int column = 0; column < COLUMNS; column++) {
+                for (int row = 0; row < ROWS; row++) {
+                    long start = RANGE * (column % 5) / 5;
+                    dataset.add(start, start + RANGE / 4, 0.5, "R" + row,
+                            "C" + column);
+                }
+            }
+            IncrementalGanttPainter painter = new IncrementalGanttPainter(
+                    createChart(dataset, orientation, SortOrder.ASCENDING),
+                    WIDTH, HEIGHT);
+            JFreeChart reference = createChart(dataset, orientation,
+                    SortOrder.ASCENDING);
+            painter.paint();
+            dataset.add(RANGE / 100, RANGE - RANGE / 100, 0.5, "R1", "C12");
+            painter.update(1, 12);
+            assertTrue(painter.getRedrawnTaskCount() > ROWS);
+            assertEquals(0, countDifferences(paint(reference),
+                    painter.getImage()), orientation.toString());
+            dataset.add(RANGE / 2, RANGE / 2 + 10, 0.5, "R1", "C12");
+            painter.update(1, 12);
+            assertEquals(0, countDifferences(paint(reference),
+                    painter.getImage()), orientation.toString());
+            assertEquals(1, painter.getPaintCount());
+        }
+    }
+
+}
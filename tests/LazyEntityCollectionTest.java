@@ -0,0 +1,361 @@
+package org.jfree.chart.entity;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RectangularShape;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartRenderingInfo;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.labels.StandardCategoryToolTipGenerator;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.renderer.AbstractRenderer;
+import org.jfree.chart.renderer.category.BarRenderer;
+import org.jfree.data.category.CategoryDataset;
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.gantt.Task;
+import org.jfree.data.gantt.TaskSeries;
+import org.jfree.data.gantt.TaskSeriesCollection;
+import org.jfree.data.statistics.BoxAndWhiskerCalculator;
+import org.jfree.data.statistics.DefaultBoxAndWhiskerCategoryDataset;
+import org.jfree.data.xy.DefaultTableXYDataset;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares {@link LazyEntityCollection} with {@link StandardEntityCollection}
+ * for the entities of charts drawn by renderers that record their items in a
+ * lazy collection, with plain and scratch hotspots.
+ */
+public class LazyEntityCollectionTest {
+
+    /** The width of the charts. */
+    private static final int WIDTH = 800;
+
+    /** The height of the charts. */
+    private static final int HEIGHT = 600;
+
+    /**
+     * Draws a chart, collecting its entities.
+     *
+     * @param chart  the chart.
+     * @param entities  the collection for the entities.
+     */
+    private static void draw(JFreeChart chart, EntityCollection entities) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        chart.draw(g2, new Rectangle(WIDTH, HEIGHT),
+                new ChartRenderingInfo(entities));
+        g2.dispose();
+    }
+
+    /**
+     * Checks that two shapes have the same path, with the coordinates of
+     * each compared at {@code float} precision (the precision a lazy
+     * collection holds path hotspots with).
+     *
+     * @param expected  the expected shape.
+     * @param actual  the actual shape.
+     * @param message  the message for a failure.
+     */
+    private static void assertSamePath(Shape expected, Shape actual,
+            String message) {
+        PathIterator e = expected.getPathIterator(null);
+        PathIterator a = actual.getPathIterator(null);
+        assertEquals(e.getWindingRule(), a.getWindingRule(), message);
+        float[] ec = new float[6];
+        float[] ac = new float[6];
+        while (!e.isDone()) {
+            assertTrue(!a.isDone(), message);
+            assertEquals(e.currentSegment(ec), a.currentSegment(ac), message);
+            assertArrayEquals(ec, ac, message);
+            e.next();
+            a.next();
+        }
+        assertTrue(a.isDone(), message);
+    }
+
+    /**
+     * Draws a chart into a standard and a lazy collection, and checks that
+     * the lazy collection holds the same entities, and returns the same
+     * entity at every other pixel.
+     *
+     * @param chart  the chart.
+     */
+    private static void checkChart(JFreeChart chart) {
+        StandardEntityCollection expected = new StandardEntityCollection();
+        LazyEntityCollection actual = new LazyEntityCollection();
+        draw(chart, expected);
+        draw(chart, actual);
+        assertEquals(expected.getEntityCount(), actual.getEntityCount());
+
+        // hit-test first, while the item entities are still to be created
+        List<ChartEntity> found = new ArrayList<>();
+        for (int y = 0; y < HEIGHT; y += 2) {
+            for (int x = 0; x < WIDTH; x += 2) {
+                found.add(actual.getEntity(x + 0.5, y + 0.5));
+            }
+        }
+        Map<ChartEntity, Integer> expectedIndex = indexes(expected);
+        Map<ChartEntity, Integer> actualIndex = indexes(actual);
+        int p = 0;
+        for (int y = 0; y < HEIGHT; y += 2) {
+            for (int x = 0; x < WIDTH; x += 2) {
+                assertEquals(
+                        expectedIndex.get(expected.getEntity(x + 0.5, y + 0.5)),
+                        actualIndex.get(found.get(p++)), x + ", " + y);
+            }
+        }
+
+        for (int i = 0; i < expected.getEntityCount(); i++) {
+            ChartEntity e = expected.getEntity(i);
+            ChartEntity a = actual.getEntity(i);
+            String message = "entity " + i + ": " + e;
+            if (e.getArea() instanceof RectangularShape) {
+                assertEquals(e, a, message);
+                continue;
+            }
+            // a path hotspot is created as a new GeneralPath, which entities
+            // compare by identity, so compare the parts one by one
+            assertEquals(e.getClass(), a.getClass(), message);
+            assertEquals(e.getToolTipText(), a.getToolTipText(), message);
+            assertEquals(e.getURLText(), a.getURLText(), message);
+            assertSamePath(e.getArea(), a.getArea(), message);
+            if (e instanceof XYItemEntity) {
+                XYItemEntity ex = (XYItemEntity) e;
+                XYItemEntity ax = (XYItemEntity) a;
+                assertEquals(ex.getDataset(), ax.getDataset(), message);
+                assertEquals(ex.getSeriesIndex(), ax.getSeriesIndex(),
+                        message);
+                assertEquals(ex.getItem(), ax.getItem(), message);
+            }
+            else if (e instanceof CategoryItemEntity) {
+                CategoryItemEntity ec = (CategoryItemEntity) e;
+                CategoryItemEntity ac = (CategoryItemEntity) a;
+                assertEquals(ec.getRowKey(), ac.getRowKey(), message);
+                assertEquals(ec.getColumnKey(), ac.getColumnKey(), message);
+            }
+        }
+    }
+
+    /**
+     * Returns the position of each entity in a collection.
+     *
+     * @param entities  the collection.
+     *
+     * @return A map from each entity to its index.
+     */
+    private static Map<ChartEntity, Integer> indexes(
+            EntityCollection entities) {
+        Map<ChartEntity, Integer> result = new IdentityHashMap<>();
+        for (int i = 0; i < entities.getEntityCount(); i++) {
+            result.put(entities.getEntity(i), i);
+        }
+        return result;
+    }
+
+    /**
+     * Turns off the entities of the second series, so that the renderer
+     * skips those items.
+     *
+     * @param renderer  the renderer.
+     */
+    private static void skipSecondSeries(AbstractRenderer renderer) {
+        renderer.setSeriesCreateEntities(1, false);
+    }
+
+    /**
+     * A bar chart: rectangle hotspots passed to {@code addItemEntity()}.
+     */
+    @Test
+    public void testBarChart() {
+        Random random = new Random(1);
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 40; c++) {
+                dataset.addValue(random.nextGaussian() * 10.0, "R" + r,
+                        "C" + c);
+            }
+        }
+        JFreeChart chart = ChartFactory.createBarChart("Bar", "Category",
+                "Value", dataset, PlotOrientation.VERTICAL, true, true, true);
+        skipSecondSeries((AbstractRenderer) chart.getCategoryPlot()
+                .getRenderer());
+        checkChart(chart);
+    }
+
+    /**
+     * A Gantt chart: scratch rectangle hotspots passed to
+     * {@code addScratchItemEntity()}.
+     */
+    @Test
+    public void testGanttChart() {
+        Random random = new Random(2);
+        TaskSeriesCollection dataset = new TaskSeriesCollection();
+        for (int s = 0; s < 3; s++) {
+            TaskSeries series = new TaskSeries("S" + s);
+            for (int t = 0; t < 30; t++) {
+                Calendar calendar = new GregorianCalendar(2020, 0, 1);
+                calendar.add(Calendar.DATE, random.nextInt(300));
+                Date start = calendar.getTime();
+                calendar.add(Calendar.DATE, 1 + random.nextInt(60));
+                series.add(new Task("T" + t, start, calendar.getTime()));
+            }
+            dataset.add(series);
+        }
+        for (PlotOrientation orientation : new PlotOrientation[] {
+                PlotOrientation.HORIZONTAL, PlotOrientation.VERTICAL}) {
+            JFreeChart chart = ChartFactory.createGanttChart("Gantt", "Task",
+                    "Date", dataset, true, true, true);
+            chart.getCategoryPlot().setOrientation(orientation);
+            skipSecondSeries((AbstractRenderer) chart.getCategoryPlot()
+                    .getRenderer());
+            checkChart(chart);
+        }
+    }
+
+    /**
+     * A box-and-whisker chart: scratch rectangle hotspots passed to
+     * {@code addScratchItemEntity()}.
+     */
+    @Test
+    public void testBoxAndWhiskerChart() {
+        Random random = new Random(3);
+        DefaultBoxAndWhiskerCategoryDataset dataset
+                = new DefaultBoxAndWhiskerCategoryDataset();
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 12; c++) {
+                List<Double> values = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    values.add(random.nextGaussian() * 10.0 + c);
+                }
+                dataset.add(BoxAndWhiskerCalculator
+                        .calculateBoxAndWhiskerStatistics(values),
+                        "R" + r, "C" + c);
+            }
+        }
+        for (PlotOrientation orientation : new PlotOrientation[] {
+                PlotOrientation.HORIZONTAL, PlotOrientation.VERTICAL}) {
+            JFreeChart chart = ChartFactory.createBoxAndWhiskerChart("Box",
+                    "Category", "Value", dataset, true);
+            CategoryPlot plot = chart.getCategoryPlot();
+            plot.setOrientation(orientation);
+            plot.getRenderer().setDefaultToolTipGenerator(
+                    new StandardCategoryToolTipGenerator());
+            skipSecondSeries((AbstractRenderer) plot.getRenderer());
+            checkChart(chart);
+        }
+    }
+
+    /**
+     * A scatter chart: shape hotspots passed to {@code addEntity()}.
+     */
+    @Test
+    public void testScatterChart() {
+        Random random = new Random(4);
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        for (int s = 0; s < 3; s++) {
+            XYSeries series = new XYSeries("S" + s);
+            for (int i = 0; i < 300; i++) {
+                series.add(random.nextGaussian(), random.nextGaussian());
+            }
+            dataset.addSeries(series);
+        }
+        JFreeChart chart = ChartFactory.createScatterPlot("Scatter", "X",
+                "Y", dataset, PlotOrientation.VERTICAL, true, true, true);
+        skipSecondSeries((AbstractRenderer) chart.getXYPlot().getRenderer());
+        checkChart(chart);
+    }
+
+    /**
+     * A stacked area chart: scratch path hotspots passed to
+     * {@code addScratchEntity()}.
+     */
+    @Test
+    public void testStackedAreaChart() {
+        Random random = new Random(5);
+        DefaultTableXYDataset dataset = new DefaultTableXYDataset();
+        for (int s = 0; s < 3; s++) {
+            XYSeries series = new XYSeries("S" + s, true, false);
+            for (int i = 0; i < 60; i++) {
+                series.add(i, random.nextDouble() * 10.0 - 2.0);
+            }
+            dataset.addSeries(series);
+        }
+        for (PlotOrientation orientation : new PlotOrientation[] {
+                PlotOrientation.HORIZONTAL, PlotOrientation.VERTICAL}) {
+            JFreeChart chart = ChartFactory.createStackedXYAreaChart("Area",
+                    "X", "Y", dataset, orientation, true, true, true);
+            skipSecondSeries((AbstractRenderer) chart.getXYPlot()
+                    .getRenderer());
+            checkChart(chart);
+        }
+    }
+
+    /**
+     * Only the entities that are asked for are created: drawing creates
+     * none of the item entities, and finding the entity under a point
+     * creates just that one.
+     */
+    @Test
+    public void testEntitiesCreatedOnDemand() {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        for (int c = 0; c < 20; c++) {
+            dataset.addValue(c + 1, "R", "C" + c);
+        }
+        JFreeChart chart = ChartFactory.createBarChart("Bar", "Category",
+                "Value", dataset, PlotOrientation.VERTICAL, false, false,
+                false);
+        int[] tips = new int[1];
+        BarRenderer renderer = (BarRenderer) chart.getCategoryPlot()
+                .getRenderer();
+        renderer.setDefaultToolTipGenerator(
+                new StandardCategoryToolTipGenerator() {
+                    @Override
+                    public String generateToolTip(CategoryDataset dataset,
+                            int row, int column) {
+                        tips[0]++;
+                        return super.generateToolTip(dataset, row, column);
+                    }
+                });
+        LazyEntityCollection entities = new LazyEntityCollection();
+        draw(chart, entities);
+        assertEquals(0, tips[0]);
+        StandardEntityCollection expected = new StandardEntityCollection();
+        draw(chart, expected);
+        tips[0] = 0;
+        for (int i = 0; i < expected.getEntityCount(); i++) {
+            ChartEntity e = expected.getEntity(i);
+            if (e instanceof CategoryItemEntity) {
+                Rectangle2D b = e.getArea().getBounds2D();
+                ChartEntity a = entities.getEntity(b.getCenterX(),
+                        b.getCenterY());
+                assertNotNull(a);
+                assertEquals(e, a);
+                assertEquals(1, tips[0]);
+                break;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,439 @@
+package org.jfree.chart.renderer.category;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.entity.EntityCollection;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.renderer.Outlier;
+import org.jfree.chart.renderer.OutlierList;
+import org.jfree.chart.renderer.OutlierListCollection;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.data.category.CategoryDataset;
+import org.jfree.data.statistics.BoxAndWhiskerCategoryDataset;
+import org.jfree.data.statistics.DefaultBoxAndWhiskerCategoryDataset;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link OutlierStage} finds the same outlier groups as
+ * {@link OutlierListCollection}, and that {@code drawVerticalItem()} draws
+ * the same image as the method that used it.
+ */
+public class OutlierStageTest {
+
+    /**
+     * Returns a list of values with a few clusters of outliers and far-out
+     * values above and below the regular values.
+     *
+     * @param random  the random number generator.
+     *
+     * @return The values.
+     */
+    private static List<Double> createValues(Random random) {
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            values.add(random.nextGaussian() * 10.0);
+        }
+        int clusters = random.nextInt(6);
+        for (int c = 0; c < clusters; c++) {
+            double centre = (random.nextBoolean() ? 1 : -1)
+                    * (20.0 + random.nextDouble() * 40.0);
+            int n = 1 + random.nextInt(8);
+            for (int i = 0; i < n; i++) {
+                values.add(centre + random.nextGaussian() * 2.0);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Groups outliers as the renderer did before the outlier stage: each
+     * one as an {@link Outlier}, sorted and added to an
+     * {@link OutlierListCollection}.
+     */
+    private static OutlierListCollection groupWithCollection(
+            BoxAndWhiskerCategoryDataset dataset, int row, int column,
+            ValueAxis rangeAxis, Rectangle2D dataArea, double centre,
+            double radius) {
+        OutlierListCollection collection = new OutlierListCollection();
+        List<Outlier> outliers = new ArrayList<>();
+        for (Object obj : dataset.getOutliers(row, column)) {
+            double outlier = ((Number) obj).doubleValue();
+            if (outlier > dataset.getMaxOutlier(row, column).doubleValue()) {
+                collection.setHighFarOut(true);
+            }
+            else if (outlier < dataset.getMinOutlier(row, column)
+                    .doubleValue()) {
+                collection.setLowFarOut(true);
+            }
+            else if (outlier > dataset.getMaxRegularValue(row, column)
+                    .doubleValue() || outlier < dataset.getMinRegularValue(
+                    row, column).doubleValue()) {
+                outliers.add(new Outlier(centre, rangeAxis.valueToJava2D(
+                        outlier, dataArea, RectangleEdge.LEFT), radius));
+            }
+        }
+        Collections.sort(outliers);
+        for (Outlier outlier : outliers) {
+            collection.add(outlier);
+        }
+        return collection;
+    }
+
+    /**
+     * The stage finds the same groups, averaged positions, multiple flags
+     * and far-out flags as the collection.
+     */
+    @Test
+    public void testGroupMatchesOutlierListCollection() {
+        Random random = new Random(1);
+        DefaultBoxAndWhiskerCategoryDataset dataset
+                = new DefaultBoxAndWhiskerCategoryDataset();
+        for (int i = 0; i < 200; i++) {
+            dataset.add(createValues(random), "S", "C" + i);
+        }
+        NumberAxis rangeAxis = new NumberAxis("Value");
+        rangeAxis.setRange(-40.0, 40.0);
+        Rectangle2D dataArea = new Rectangle2D.Double(10, 10, 100, 400);
+        double centre = 50.0;
+        double radius = 4.0;
+        OutlierStage stage = new OutlierStage();
+        for (int column = 0; column < dataset.getColumnCount(); column++) {
+            OutlierListCollection expected = groupWithCollection(dataset, 0,
+                    column, rangeAxis, dataArea, centre, radius);
+            stage.classify(dataset.getOutliers(0, column),
+                    dataset.getMinOutlier(0, column).doubleValue(),
+                    dataset.getMaxOutlier(0, column).doubleValue(),
+                    dataset.getMinRegularValue(0, column).doubleValue(),
+                    dataset.getMaxRegularValue(0, column).doubleValue(),
+                    rangeAxis, dataArea, RectangleEdge.LEFT);
+            stage.sort();
+            stage.group(centre, radius);
+            String item = "column " + column;
+            assertEquals(expected.isHighFarOut(), stage.isHighFarOut(), item);
+            assertEquals(expected.isLowFarOut(), stage.isLowFarOut(), item);
+            int g = 0;
+            for (Iterator it = expected.iterator(); it.hasNext(); g++) {
+                OutlierList list = (OutlierList) it.next();
+                Point2D point = list.getAveragedOutlier().getPoint();
+                assertEquals(point.getX(), stage.getGroupCentre(g), item);
+                assertEquals(point.getY(), stage.getGroupValue(g), item);
+                assertEquals(list.isMultiple(), stage.isGroupMultiple(g),
+                        item);
+            }
+            assertEquals(g, stage.getGroupCount(), item);
+        }
+    }
+
+    /**
+     * Draws a chart.
+     *
+     * @param dataset  the dataset.
+     * @param renderer  the renderer.
+     *
+     * @return The image.
+     */
+    private static BufferedImage draw(CategoryDataset dataset,
+            BoxAndWhiskerRenderer renderer) {
+        CategoryPlot plot = new CategoryPlot(dataset,
+                new CategoryAxis("Category"), new NumberAxis("Value"),
+                renderer);
+        ((NumberAxis) plot.getRangeAxis()).setRange(-45.0, 45.0);
+        JFreeChart chart = new JFreeChart(plot);
+        BufferedImage image = new BufferedImage(800, 600,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        chart.draw(g2, new Rectangle(800, 600));
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * The renderer draws the same image as the method that grouped the
+     * outliers with an {@link OutlierListCollection}.
+     */
+    @Test
+    public void testVerticalItemMatchesOutlierListCollection() {
+        Random random = new Random(2);
+        DefaultBoxAndWhiskerCategoryDataset dataset
+                = new DefaultBoxAndWhiskerCategoryDataset();
+        for (int s = 0; s < 2; s++) {
+            for (int i = 0; i < 6; i++) {
+                dataset.add(createValues(random), "S" + s, "C" + i);
+            }
+        }
+        BufferedImage expected = draw(dataset,
+                new OutlierListCollectionRenderer());
+        BufferedImage actual = draw(dataset, new BoxAndWhiskerRenderer());
+        int differences = 0;
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                if (expected.getRGB(x, y) != actual.getRGB(x, y)) {
+                    differences++;
+                }
+            }
+        }
+        assertEquals(0, differences);
+    }
+
+    /**
+     * A renderer with the {@code drawVerticalItem()} method as it was before
+     * the outlier stage.
+     */
+    static class OutlierListCollectionRenderer extends BoxAndWhiskerRenderer {
+
+        @Override
+        public void drawVerticalItem(Graphics2D g2,
+                CategoryItemRendererState state, Rectangle2D dataArea,
+                CategoryPlot plot, CategoryAxis domainAxis,
+                ValueAxis rangeAxis, CategoryDataset dataset, int row,
+                int column) {
+
+            BoxAndWhiskerCategoryDataset bawDataset
+                    = (BoxAndWhiskerCategoryDataset) dataset;
+
+            double categoryEnd = domainAxis.getCategoryEnd(column,
+                    getColumnCount(), dataArea, plot.getDomainAxisEdge());
+            double categoryStart = domainAxis.getCategoryStart(column,
+                    getColumnCount(), dataArea, plot.getDomainAxisEdge());
+            double categoryWidth = categoryEnd - categoryStart;
+
+            double xx = categoryStart;
+            int seriesCount = getRowCount();
+            int categoryCount = getColumnCount();
+
+            if (seriesCount > 1) {
+                double seriesGap = dataArea.getWidth() * getItemMargin()
+                        / (categoryCount * (seriesCount - 1));
+                double usedWidth = (state.getBarWidth() * seriesCount)
+                        + (seriesGap * (seriesCount - 1));
+                double offset = (categoryWidth - usedWidth) / 2;
+                xx = xx + offset + (row * (state.getBarWidth() + seriesGap));
+            }
+            else {
+                double offset = (categoryWidth - state.getBarWidth()) / 2;
+                xx = xx + offset;
+            }
+
+            double yyAverage;
+            double yyOutlier;
+
+            Paint itemPaint = getItemPaint(row, column);
+            g2.setPaint(itemPaint);
+            Stroke s = getItemStroke(row, column);
+            g2.setStroke(s);
+
+            double aRadius = 0;
+
+            RectangleEdge location = plot.getRangeAxisEdge();
+
+            Number yQ1 = bawDataset.getQ1Value(row, column);
+            Number yQ3 = bawDataset.getQ3Value(row, column);
+            Number yMax = bawDataset.getMaxRegularValue(row, column);
+            Number yMin = bawDataset.getMinRegularValue(row, column);
+            Shape box = null;
+            if (yQ1 != null && yQ3 != null && yMax != null && yMin != null) {
+
+                double yyQ1 = rangeAxis.valueToJava2D(yQ1.doubleValue(),
+                        dataArea, location);
+                double yyQ3 = rangeAxis.valueToJava2D(yQ3.doubleValue(),
+                        dataArea, location);
+                double yyMax = rangeAxis.valueToJava2D(yMax.doubleValue(),
+                        dataArea, location);
+                double yyMin = rangeAxis.valueToJava2D(yMin.doubleValue(),
+                        dataArea, location);
+                double xxmid = xx + state.getBarWidth() / 2.0;
+                double halfW = (state.getBarWidth() / 2.0) * getWhiskerWidth();
+
+                box = new Rectangle2D.Double(xx, Math.min(yyQ1, yyQ3),
+                        state.getBarWidth(), Math.abs(yyQ1 - yyQ3));
+                if (getFillBox()) {
+                    g2.fill(box);
+                }
+
+                Paint outlinePaint = getItemOutlinePaint(row, column);
+                if (getUseOutlinePaintForWhiskers()) {
+                    g2.setPaint(outlinePaint);
+                }
+                g2.draw(new Line2D.Double(xxmid, yyMax, xxmid, yyQ3));
+                g2.draw(new Line2D.Double(xxmid - halfW, yyMax,
+                        xxmid + halfW, yyMax));
+
+                g2.draw(new Line2D.Double(xxmid, yyMin, xxmid, yyQ1));
+                g2.draw(new Line2D.Double(xxmid - halfW, yyMin,
+                        xxmid + halfW, yyMin));
+
+                g2.setStroke(getItemOutlineStroke(row, column));
+                g2.setPaint(outlinePaint);
+                g2.draw(box);
+            }
+
+            g2.setPaint(getArtifactPaint());
+
+            if (isMeanVisible()) {
+                Number yMean = bawDataset.getMeanValue(row, column);
+                if (yMean != null) {
+                    yyAverage = rangeAxis.valueToJava2D(yMean.doubleValue(),
+                            dataArea, location);
+                    aRadius = state.getBarWidth() / 4;
+                    if ((yyAverage > (dataArea.getMinY() - aRadius))
+                            && (yyAverage < (dataArea.getMaxY() + aRadius))) {
+                        Ellipse2D.Double avgEllipse = new Ellipse2D.Double(
+                                xx + aRadius, yyAverage - aRadius,
+                                aRadius * 2, aRadius * 2);
+                        g2.fill(avgEllipse);
+                        g2.draw(avgEllipse);
+                    }
+                }
+            }
+
+            if (isMedianVisible()) {
+                Number yMedian = bawDataset.getMedianValue(row, column);
+                if (yMedian != null) {
+                    double yyMedian = rangeAxis.valueToJava2D(
+                            yMedian.doubleValue(), dataArea, location);
+                    g2.draw(new Line2D.Double(xx, yyMedian,
+                            xx + state.getBarWidth(), yyMedian));
+                }
+            }
+
+            double maxAxisValue = rangeAxis.valueToJava2D(
+                    rangeAxis.getUpperBound(), dataArea, location) + aRadius;
+            double minAxisValue = rangeAxis.valueToJava2D(
+                    rangeAxis.getLowerBound(), dataArea, location) - aRadius;
+
+            g2.setPaint(itemPaint);
+
+            double oRadius = state.getBarWidth() / 3;
+            List outliers = new ArrayList();
+            OutlierListCollection outlierListCollection
+                    = new OutlierListCollection();
+
+            List yOutliers = bawDataset.getOutliers(row, column);
+            if (yOutliers != null) {
+                for (int i = 0; i < yOutliers.size(); i++) {
+                    double outlier = ((Number) yOutliers.get(i)).doubleValue();
+                    Number minOutlier = bawDataset.getMinOutlier(row, column);
+                    Number maxOutlier = bawDataset.getMaxOutlier(row, column);
+                    Number minRegular = bawDataset.getMinRegularValue(row,
+                            column);
+                    Number maxRegular = bawDataset.getMaxRegularValue(row,
+                            column);
+                    if (outlier > maxOutlier.doubleValue()) {
+                        outlierListCollection.setHighFarOut(true);
+                    }
+                    else if (outlier < minOutlier.doubleValue()) {
+                        outlierListCollection.setLowFarOut(true);
+                    }
+                    else if (outlier > maxRegular.doubleValue()) {
+                        yyOutlier = rangeAxis.valueToJava2D(outlier, dataArea,
+                                location);
+                        outliers.add(new Outlier(xx + state.getBarWidth()
+                                / 2.0, yyOutlier, oRadius));
+                    }
+                    else if (outlier < minRegular.doubleValue()) {
+                        yyOutlier = rangeAxis.valueToJava2D(outlier, dataArea,
+                                location);
+                        outliers.add(new Outlier(xx + state.getBarWidth()
+                                / 2.0, yyOutlier, oRadius));
+                    }
+                    Collections.sort(outliers);
+                }
+
+                for (Iterator iterator = outliers.iterator();
+                        iterator.hasNext();) {
+                    Outlier outlier = (Outlier) iterator.next();
+                    outlierListCollection.add(outlier);
+                }
+
+                for (Iterator iterator = outlierListCollection.iterator();
+                        iterator.hasNext();) {
+                    OutlierList list = (OutlierList) iterator.next();
+                    Outlier outlier = list.getAveragedOutlier();
+                    Point2D point = outlier.getPoint();
+
+                    if (list.isMultiple()) {
+                        drawMultipleEllipse(point, state.getBarWidth(),
+                                oRadius, g2);
+                    }
+                    else {
+                        drawEllipse(point, oRadius, g2);
+                    }
+                }
+
+                if (outlierListCollection.isHighFarOut()) {
+                    drawHighFarOut(aRadius / 2.0, g2,
+                            xx + state.getBarWidth() / 2.0, maxAxisValue);
+                }
+
+                if (outlierListCollection.isLowFarOut()) {
+                    drawLowFarOut(aRadius / 2.0, g2,
+                            xx + state.getBarWidth() / 2.0, minAxisValue);
+                }
+            }
+            if (state.getInfo() != null && box != null) {
+                EntityCollection entities = state.getEntityCollection();
+                if (entities != null) {
+                    addItemEntity(entities, dataset, row, column, box);
+                }
+            }
+        }
+
+        private void drawEllipse(Point2D point, double oRadius,
+                Graphics2D g2) {
+            Ellipse2D dot = new Ellipse2D.Double(point.getX() + oRadius / 2,
+                    point.getY(), oRadius, oRadius);
+            g2.draw(dot);
+        }
+
+        private void drawMultipleEllipse(Point2D point, double boxWidth,
+                double oRadius, Graphics2D g2) {
+            Ellipse2D dot1 = new Ellipse2D.Double(point.getX()
+                    - (boxWidth / 2) + oRadius, point.getY(), oRadius,
+                    oRadius);
+            Ellipse2D dot2 = new Ellipse2D.Double(point.getX()
+                    + (boxWidth / 2), point.getY(), oRadius, oRadius);
+            g2.draw(dot1);
+            g2.draw(dot2);
+        }
+
+        private void drawHighFarOut(double aRadius, Graphics2D g2, double xx,
+                double m) {
+            double side = aRadius * 2;
+            g2.draw(new Line2D.Double(xx - side, m + side, xx + side,
+                    m + side));
+            g2.draw(new Line2D.Double(xx - side, m + side, xx, m));
+            g2.draw(new Line2D.Double(xx + side, m + side, xx, m));
+        }
+
+        private void drawLowFarOut(double aRadius, Graphics2D g2, double xx,
+                double m) {
+            double side = aRadius * 2;
+            g2.draw(new Line2D.Double(xx - side, m - side, xx + side,
+                    m - side));
+            g2.draw(new Line2D.Double(xx - side, m - side, xx, m));
+            g2.draw(new Line2D.Double(xx + side, m - side, xx, m));
+        }
+
+    }
+
+}
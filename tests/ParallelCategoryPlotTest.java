@@ -0,0 +1,383 @@
+package org.jfree.chart.plot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.BasicStroke;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.jfree.chart.ChartRenderingInfo;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.entity.ChartEntity;
+import org.jfree.chart.renderer.category.BoxAndWhiskerRenderer;
+import org.jfree.chart.renderer.category.CategoryItemRenderer;
+import org.jfree.chart.renderer.category.CategoryItemRendererState;
+import org.jfree.chart.renderer.category.GanttRenderer;
+import org.jfree.chart.util.SortOrder;
+import org.jfree.chart.util.StateElidingGraphics2D;
+import org.jfree.data.category.CategoryDataset;
+import org.jfree.data.gantt.ColumnarGanttCategoryDataset;
+import org.jfree.data.gantt.Task;
+import org.jfree.data.gantt.TaskSeries;
+import org.jfree.data.gantt.TaskSeriesCollection;
+import org.jfree.data.statistics.DefaultBoxAndWhiskerCategoryDataset;
+import org.jfree.data.time.SimpleTimePeriod;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a {@link ParallelCategoryPlot} draws the same image, entities
+ * and crosshair values as a {@link CategoryPlot} on a single thread, for the
+ * renderers it draws in parallel and for a Gantt renderer that batches its
+ * fills (which it draws on a single thread).
+ */
+public class ParallelCategoryPlotTest {
+
+    /** The number of tasks in each Gantt series. */
+    private static final int TASK_COUNT = 1000;
+
+    /** The chart width. */
+    private static final int WIDTH = 1200;
+
+    /** The chart height. */
+    private static final int HEIGHT = 900;
+
+    /**
+     * The results of drawing a chart.
+     */
+    private static class Result {
+
+        /** The image. */
+        BufferedImage image;
+
+        /** A description of each entity, in order. */
+        List<String> entities;
+
+        /** The crosshair values. */
+        String crosshair;
+
+        /** The number of culled Gantt tasks. */
+        int culled;
+
+    }
+
+    /**
+     * Creates a Gantt dataset with two series whose tasks start and end at
+     * different times, so that some fall outside the range of the axis.
+     *
+     * @param columnar  create a {@link ColumnarGanttCategoryDataset}?
+     *
+     * @return The dataset.
+     */
+    private static CategoryDataset createGanttDataset(boolean columnar) {
+        ColumnarGanttCategoryDataset columns
+                = new ColumnarGanttCategoryDataset();
+        TaskSeriesCollection collection = new TaskSeriesCollection();
+        for (int s = 0; s < 2; s++) {
+            TaskSeries series = new TaskSeries("S" + s);
+            for (int i = 0; i < TASK_COUNT; i++) {
+                long start = 100000L * (i % 97 * 25 + s * 3);
+                long end = start + 100000L * (20 + i % 13);
+                Task task = new Task("T" + i, new SimpleTimePeriod(
+                        new Date(start), new Date(end)));
+                task.setPercentComplete(0.5);
+                series.add(task);
+                columns.add(task, "S" + s);
+            }
+            collection.add(series);
+        }
+        return columnar ? columns : collection;
+    }
+
+    /**
+     * Creates a plot.
+     *
+     * @param parallel  create a {@link ParallelCategoryPlot}?
+     * @param dataset  the dataset.
+     * @param renderer  the renderer.
+     * @param rangeAxis  the range axis.
+     *
+     * @return The plot.
+     */
+    private static CategoryPlot createPlot(boolean parallel,
+            CategoryDataset dataset, CategoryItemRenderer renderer,
+            ValueAxis rangeAxis) {
+        CategoryPlot plot;
+        if (parallel) {
+            ParallelCategoryPlot p = new ParallelCategoryPlot(dataset,
+                    new CategoryAxis("Category"), rangeAxis, renderer);
+            p.setTileCount(8);
+            p.setMinimumItemCount(0);
+            plot = p;
+        }
+        else {
+            plot = new CategoryPlot(dataset, new CategoryAxis("Category"),
+                    rangeAxis, renderer);
+        }
+        plot.setRangeCrosshairVisible(true);
+        plot.setRangeCrosshairLockedOnData(true);
+        return plot;
+    }
+
+    /**
+     * Draws a chart for a plot, with an anchor for the crosshair.
+     *
+     * @param plot  the plot.
+     * @param antialias  anti-alias the chart?
+     *
+     * @return The results.
+     */
+    private static Result draw(CategoryPlot plot, boolean antialias) {
+        JFreeChart chart = new JFreeChart(plot);
+        chart.setAntiAlias(antialias);
+        Result result = new Result();
+        result.image = new BufferedImage(WIDTH, HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = result.image.createGraphics();
+        ChartRenderingInfo info = new ChartRenderingInfo();
+        chart.draw(g2, new Rectangle(WIDTH, HEIGHT),
+                new Point2D.Double(WIDTH / 2, HEIGHT / 2), info);
+        g2.dispose();
+        result.entities = new ArrayList<>();
+        for (Object obj : info.getEntityCollection().getEntities()) {
+            ChartEntity entity = (ChartEntity) obj;
+            result.entities.add(entity.getClass().getSimpleName()
+                    + entity.getArea().getBounds2D()
+                    + entity.getToolTipText());
+        }
+        result.crosshair = plot.getRangeCrosshairValue() + " "
+                + plot.getDomainCrosshairRowKey() + " "
+                + plot.getDomainCrosshairColumnKey();
+        if (plot.getRenderer() instanceof GanttRenderer) {
+            result.culled = ((GanttRenderer) plot.getRenderer())
+                    .getCulledTaskCount();
+        }
+        return result;
+    }
+
+    /**
+     * Checks that two sets of results are the same.
+     *
+     * @param name  a description of the chart.
+     * @param expected  the results on a single thread.
+     * @param actual  the results of the parallel plot.
+     */
+    private static void assertSameResults(String name, Result expected,
+            Result actual) {
+        int pixels = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (expected.image.getRGB(x, y) != actual.image.getRGB(x, y)) {
+                    pixels++;
+                }
+            }
+        }
+        assertEquals(0, pixels, name + ": differing pixels");
+        assertEquals(expected.entities, actual.entities, name + ": entities");
+        assertEquals(expected.crosshair, actual.crosshair,
+                name + ": crosshair");
+        assertEquals(expected.culled, actual.culled, name + ": culled tasks");
+    }
+
+    /**
+     * Draws Gantt charts on one thread and in parallel, and checks that the
+     * results are the same.
+     *
+     * @param batchFills  batch the fills?
+     */
+    private static void checkGantt(boolean batchFills) {
+        for (boolean columnar : new boolean[] {false, true}) {
+            CategoryDataset dataset = createGanttDataset(columnar);
+            for (boolean antialias : new boolean[] {true, false}) {
+                for (SortOrder order : new SortOrder[] {SortOrder.ASCENDING,
+                        SortOrder.DESCENDING}) {
+                    Result[] results = new Result[2];
+                    for (int i = 0; i < 2; i++) {
+                        GanttRenderer renderer = new GanttRenderer();
+                        renderer.setBatchFills(batchFills);
+                        renderer.setShadowVisible(!batchFills);
+                        renderer.setDefaultOutlineStroke(
+                                new BasicStroke(3.0f));
+                        renderer.setDrawBarOutline(true);
+                        DateAxis rangeAxis = new DateAxis("Date");
+                        rangeAxis.setRange(100000L * 300, 100000L * 1500);
+                        CategoryPlot plot = createPlot(i == 1, dataset,
+                                renderer, rangeAxis);
+                        plot.setOrientation(PlotOrientation.HORIZONTAL);
+                        plot.setColumnRenderingOrder(order);
+                        plot.setRowRenderingOrder(order);
+                        results[i] = draw(plot, antialias);
+                    }
+                    assertSameResults("columnar=" + columnar + " antialias="
+                            + antialias + " order=" + order, results[0],
+                            results[1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * The tasks are drawn in parallel.
+     */
+    @Test
+    public void testGantt() {
+        checkGantt(false);
+    }
+
+    /**
+     * A renderer that batches its fills is drawn on a single thread, so the
+     * result is still the same.
+     */
+    @Test
+    public void testGanttBatchFills() {
+        checkGantt(true);
+    }
+
+    /**
+     * The boxes are drawn in parallel.
+     */
+    @Test
+    public void testBoxAndWhisker() {
+        DefaultBoxAndWhiskerCategoryDataset dataset
+                = new DefaultBoxAndWhiskerCategoryDataset();
+        Random random = new Random(1);
+        for (int s = 0; s < 3; s++) {
+            for (int i = 0; i < 100; i++) {
+                List<Double> values = new ArrayList<>();
+                for (int k = 0; k < 30; k++) {
+                    values.add(random.nextGaussian() * 10 + i % 20);
+                }
+                dataset.add(values, "S" + s, "C" + i);
+            }
+        }
+        for (boolean antialias : new boolean[] {true, false}) {
+            Result[] results = new Result[2];
+            for (int i = 0; i < 2; i++) {
+                CategoryPlot plot = createPlot(i == 1, dataset,
+                        new BoxAndWhiskerRenderer(), new NumberAxis("Value"));
+                results[i] = draw(plot, antialias);
+            }
+            assertSameResults("antialias=" + antialias, results[0],
+                    results[1]);
+        }
+    }
+
+
+    /**
+     * Draws a Gantt chart with a plot that runs its tiles on a pool of its
+     * own, and returns the threads that drew the tasks.
+     *
+     * @param plot  the plot.
+     * @param g2  the graphics device.
+     *
+     * @return The threads.
+     */
+    private static Set<Thread> drawingThreads(ParallelCategoryPlot plot,
+            Graphics2D g2) {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        plot.setDataset(createGanttDataset(true));
+        plot.setDomainAxis(new CategoryAxis("Category"));
+        plot.setRangeAxis(new DateAxis("Date"));
+        plot.setRenderer(new GanttRenderer() {
+            @Override
+            public void drawItem(Graphics2D g2,
+                    CategoryItemRendererState state, Rectangle2D dataArea,
+                    CategoryPlot plot, CategoryAxis domainAxis,
+                    ValueAxis rangeAxis, CategoryDataset dataset, int row,
+                    int column, int pass) {
+                threads.add(Thread.currentThread());
+                super.drawItem(g2, state, dataArea, plot, domainAxis,
+                        rangeAxis, dataset, row, column, pass);
+            }
+        });
+        plot.setTileCount(8);
+        plot.setMinimumItemCount(0);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        plot.setPool(pool);
+        new JFreeChart(plot).draw(g2, new Rectangle(WIDTH, HEIGHT));
+        pool.shutdown();
+        return threads;
+    }
+
+    /**
+     * The tasks are drawn on the pool's threads for a {@code Graphics2D}
+     * that draws to an image, and on the calling thread for a target that
+     * the plot refuses.
+     */
+    @Test
+    public void testParallelTarget() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        Set<Thread> threads = drawingThreads(new ParallelCategoryPlot(), g2);
+        assertFalse(threads.contains(Thread.currentThread()));
+        assertTrue(threads.stream().allMatch(
+                t -> t instanceof ForkJoinWorkerThread));
+
+        ParallelCategoryPlot plot = new ParallelCategoryPlot() {
+            @Override
+            protected boolean isParallelTarget(Graphics2D g2) {
+                return false;
+            }
+        };
+        threads = drawingThreads(plot, g2);
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+        g2.dispose();
+    }
+
+
+    /**
+     * A {@link StateElidingGraphics2D} wrapped around an image is drawn to
+     * in parallel, and gives the same image as drawing on one thread.
+     */
+    @Test
+    public void testStateElidingTarget() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        StateElidingGraphics2D g2 = new StateElidingGraphics2D(
+                image.createGraphics());
+        Set<Thread> threads = drawingThreads(new ParallelCategoryPlot(), g2);
+        g2.dispose();
+        assertTrue(threads.stream().allMatch(
+                t -> t instanceof ForkJoinWorkerThread));
+        assertTrue(g2.getElidedCount() > 0);
+
+        BufferedImage expected = new BufferedImage(WIDTH, HEIGHT,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2e = expected.createGraphics();
+        drawingThreads(new ParallelCategoryPlot() {
+            @Override
+            protected boolean isParallelTarget(Graphics2D g2) {
+                return false;
+            }
+        }, g2e);
+        g2e.dispose();
+        int pixels = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (expected.getRGB(x, y) != image.getRGB(x, y)) {
+                    pixels++;
+                }
+            }
+        }
+        assertEquals(0, pixels);
+    }
+
+}
@@ -0,0 +1,137 @@
+package org.jfree.data.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link QuantileSketch}.
+ */
+public class QuantileSketchTest {
+
+    /**
+     * The largest rank error allowed, as a fraction of the count, for the
+     * default size parameter of {@link StreamingBoxAndWhiskerCategoryDataset}.
+     */
+    private static final double RANK_ERROR = 0.02;
+
+    /**
+     * Up to {@code k} values, the sketch holds every value and returns the
+     * value at each rank exactly, including repeated values.
+     */
+    @Test
+    public void testExactBelowCapacity() {
+        Random random = new Random(1);
+        int k = 50;
+        for (int n = 1; n <= k; n++) {
+            QuantileSketch sketch = new QuantileSketch(k);
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = random.nextInt(20) - 10;
+                sketch.add(values[i]);
+            }
+            Arrays.sort(values);
+            assertTrue(sketch.isExact(), "n=" + n);
+            assertEquals(n, sketch.getHeldCount());
+            for (int r = 0; r < n; r++) {
+                assertEquals(values[r], sketch.getValue(r), "n=" + n);
+                assertEquals(values[r], sketch.getHeldValue(r), "n=" + n);
+            }
+        }
+        QuantileSketch sketch = new QuantileSketch(k);
+        for (int i = 0; i <= k; i++) {
+            sketch.add(i);
+        }
+        assertFalse(sketch.isExact());
+    }
+
+    /**
+     * Checks the rank error of a sketch of a permutation of the values 0 to
+     * {@code n - 1}, for which the true rank of each value is the value
+     * itself.
+     *
+     * @param values  the values in the order they are added.
+     */
+    private static void checkRankError(double[] values) {
+        int n = values.length;
+        QuantileSketch sketch = new QuantileSketch(200);
+        for (double v : values) {
+            sketch.add(v);
+        }
+        assertFalse(sketch.isExact());
+        assertEquals(n, sketch.getCount());
+        assertEquals(0.0, sketch.getMin());
+        assertEquals(n - 1, sketch.getMax());
+        assertTrue(sketch.getHeldCount() < 1000);
+        double maxError = 0.0;
+        for (long r = 0; r < n; r += 97) {
+            maxError = Math.max(maxError, Math.abs(sketch.getValue(r) - r));
+        }
+        assertTrue(maxError <= RANK_ERROR * n, "rank error " + maxError
+                + " for " + n + " values");
+    }
+
+    /**
+     * Above {@code k} values, the rank of each value returned is within
+     * {@link #RANK_ERROR} of the count of the rank asked for, for values
+     * added in random, ascending and descending order.
+     */
+    @Test
+    public void testRankErrorAboveCapacity() {
+        Random random = new Random(2);
+        for (int n : new int[] {201, 1000, 20000, 300000}) {
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = i;
+            }
+            checkRankError(values);
+            double[] reversed = new double[n];
+            for (int i = 0; i < n; i++) {
+                reversed[i] = n - 1 - i;
+            }
+            checkRankError(reversed);
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                double t = values[i];
+                values[i] = values[j];
+                values[j] = t;
+            }
+            checkRankError(values);
+        }
+    }
+
+    /**
+     * Sketches given the same values are equal, whether or not they have
+     * been queried, and a clone is independent of the original.
+     */
+    @Test
+    public void testEqualsAndClone() throws CloneNotSupportedException {
+        QuantileSketch s1 = new QuantileSketch(20);
+        QuantileSketch s2 = new QuantileSketch(20);
+        Random random = new Random(3);
+        for (int i = 0; i < 1000; i++) {
+            double v = random.nextGaussian();
+            s1.add(v);
+            s2.add(v);
+            if (i % 7 == 0) {
+                s1.getValue(i / 2);
+            }
+        }
+        assertEquals(s1, s2);
+        assertEquals(s1.hashCode(), s2.hashCode());
+        QuantileSketch clone = (QuantileSketch) s1.clone();
+        assertEquals(s1, clone);
+        clone.add(5.0);
+        assertNotEquals(s1, clone);
+        s1.add(5.0);
+        assertEquals(s1, clone);
+        assertEquals(s1.getValue(500), clone.getValue(500));
+    }
+
+}
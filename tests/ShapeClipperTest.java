@@ -0,0 +1,195 @@
+package org.jfree.chart.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares {@link ShapeClipper} with {@code Area.intersect()} for the sides
+ * of a 3D pie, which is how {@code PiePlot3D.drawSide()} uses it.  The
+ * clipped shapes cover the same region, but they are not the same paths, so
+ * anti-aliased fills can differ by a shade where the rasterizer splits the
+ * coverage of a pixel differently, a fill without anti-aliasing can differ
+ * in a pixel whose centre lies on a clipped edge, and an outline can start
+ * at a different corner, which changes the line joins there.
+ */
+public class ShapeClipperTest {
+
+    /**
+     * The largest difference allowed in any colour component of a pixel
+     * between the two fills (out of 255).
+     */
+    static final int FILL_TOLERANCE = 1;
+
+    /**
+     * The number of pixels allowed to differ between two fills without
+     * anti-aliasing.
+     */
+    static final int ALIASED_PIXEL_TOLERANCE = 1;
+
+    /**
+     * The number of pixels allowed to differ by more than
+     * {@link #FILL_TOLERANCE} between two anti-aliased outlines.
+     */
+    static final int OUTLINE_PIXEL_TOLERANCE = 20;
+
+    /** The width of the test images. */
+    private static final int WIDTH = 1100;
+
+    /** The height of the test images. */
+    private static final int HEIGHT = 1000;
+
+    /** The front and back of a pie, built as PiePlot3D builds them. */
+    private final Area front;
+
+    private final Area back;
+
+    /** The pie area. */
+    private final Rectangle2D pieArea;
+
+    public ShapeClipperTest() {
+        this.pieArea = new Rectangle2D.Double(100.3, 100.7, 800, 600);
+        double depth = 72;
+        Ellipse2D top = new Ellipse2D.Double(this.pieArea.getX(),
+                this.pieArea.getY(), this.pieArea.getWidth(),
+                this.pieArea.getHeight() - depth);
+        Ellipse2D bottom = new Ellipse2D.Double(this.pieArea.getX(),
+                this.pieArea.getY() + depth, this.pieArea.getWidth(),
+                this.pieArea.getHeight() - depth);
+        Rectangle2D lower = new Rectangle2D.Double(top.getX(),
+                top.getCenterY(), this.pieArea.getWidth(),
+                bottom.getMaxY() - top.getCenterY());
+        Rectangle2D upper = new Rectangle2D.Double(this.pieArea.getX(),
+                top.getY(), this.pieArea.getWidth(),
+                bottom.getCenterY() - top.getY());
+        Area a = new Area(top);
+        a.add(new Area(lower));
+        Area b = new Area(bottom);
+        b.add(new Area(upper));
+        Area pie = new Area(a);
+        pie.intersect(b);
+        this.front = new Area(pie);
+        this.front.subtract(new Area(top));
+        this.back = new Area(pie);
+        this.back.subtract(new Area(bottom));
+    }
+
+    /**
+     * Clips the front and back of the pie to random strips, and checks that
+     * the clipper finds the same strips empty as {@code Area.intersect()}
+     * and that the filled sides differ by at most {@link #FILL_TOLERANCE}.
+     */
+    @Test
+    public void testFillMatchesAreaIntersect() {
+        check(true, false);
+    }
+
+    /**
+     * Without anti-aliasing each pixel is in or out, and the fills differ in
+     * at most {@link #ALIASED_PIXEL_TOLERANCE} pixels.
+     */
+    @Test
+    public void testFillMatchesAreaIntersectWithoutAntialiasing() {
+        check(false, false);
+    }
+
+    /**
+     * Checks that the outlined sides differ by more than
+     * {@link #FILL_TOLERANCE} in at most {@link #OUTLINE_PIXEL_TOLERANCE}
+     * pixels.
+     */
+    @Test
+    public void testOutlineMatchesAreaIntersect() {
+        check(true, true);
+    }
+
+    private void check(boolean antialias, boolean outline) {
+        ShapeClipper clipper = new ShapeClipper();
+        Path2D.Double clipped = new Path2D.Double();
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            double x = 50 + random.nextDouble() * 900;
+            double w = random.nextDouble() * 500 - 50;
+            Area source = i % 2 == 0 ? this.front : this.back;
+            Area expected = new Area(new Rectangle2D.Double(x,
+                    this.pieArea.getY(), w, this.pieArea.getHeight()));
+            expected.intersect(source);
+            boolean nonEmpty = clipper.clip(source, x, this.pieArea.getY(),
+                    w, this.pieArea.getHeight(), clipped);
+            assertEquals(!expected.isEmpty(), nonEmpty, "strip " + i);
+            BufferedImage e = draw(expected, antialias, outline);
+            BufferedImage c = draw(clipped, antialias, outline);
+            int maxDiff = 0;
+            int pixels = 0;
+            int outlinePixels = 0;
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int xx = 0; xx < WIDTH; xx++) {
+                    // the fills are grey, so compare the blue components
+                    int d = Math.abs((e.getRGB(xx, y) & 0xff)
+                            - (c.getRGB(xx, y) & 0xff));
+                    if (d > 0) {
+                        maxDiff = Math.max(maxDiff, d);
+                        pixels++;
+                    }
+                    if (d > FILL_TOLERANCE) {
+                        outlinePixels++;
+                    }
+                }
+            }
+            if (outline) {
+                assertTrue(outlinePixels <= OUTLINE_PIXEL_TOLERANCE, "strip "
+                        + i + " differs in " + outlinePixels + " pixels");
+            }
+            else if (antialias) {
+                assertTrue(maxDiff <= FILL_TOLERANCE, "strip " + i
+                        + " differs by " + maxDiff);
+            }
+            else {
+                assertTrue(pixels <= ALIASED_PIXEL_TOLERANCE, "strip " + i
+                        + " differs in " + pixels + " pixels");
+            }
+        }
+    }
+
+    /**
+     * Fills a shape in white on black, and optionally outlines it in grey.
+     *
+     * @param shape  the shape.
+     * @param antialias  anti-alias the drawing?
+     * @param outline  outline the shape?
+     *
+     * @return The image.
+     */
+    private static BufferedImage draw(Shape shape, boolean antialias,
+            boolean outline) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialias
+                ? RenderingHints.VALUE_ANTIALIAS_ON
+                : RenderingHints.VALUE_ANTIALIAS_OFF);
+        g2.setPaint(Color.WHITE);
+        g2.fill(shape);
+        if (outline) {
+            g2.setStroke(new BasicStroke(1.0f));
+            g2.setPaint(Color.GRAY);
+            g2.draw(shape);
+        }
+        g2.dispose();
+        return image;
+    }
+
+}
@@ -0,0 +1,308 @@
+package org.jfree.chart.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.jfree.chart.ChartRenderingInfo;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares {@link SpatialEntityCollection} with
+ * {@link StandardEntityCollection} after the same entities have been added
+ * to each.
+ */
+public class SpatialEntityCollectionTest {
+
+    /** The width of the region the entities are placed in. */
+    private static final double WIDTH = 1000.0;
+
+    /** The height of the region the entities are placed in. */
+    private static final double HEIGHT = 800.0;
+
+    /**
+     * Creates a random shape: a rectangle (sometimes with no width or
+     * height), an ellipse or a triangle, mostly small but sometimes covering
+     * more than {@link SpatialEntityCollection#MAXIMUM_ENTITY_CELLS} cells.
+     *
+     * @param random  the random number generator.
+     *
+     * @return The shape.
+     */
+    private static Shape createShape(Random random) {
+        double size = random.nextInt(10) == 0 ? 400.0 : 40.0;
+        double x = random.nextDouble() * WIDTH - 50.0;
+        double y = random.nextDouble() * HEIGHT - 50.0;
+        double w = random.nextDouble() * size;
+        double h = random.nextDouble() * size;
+        switch (random.nextInt(4)) {
+            case 0:
+                return new Ellipse2D.Double(x, y, w, h);
+            case 1:
+                Path2D path = new Path2D.Double();
+                path.moveTo(x, y);
+                path.lineTo(x + w, y + random.nextDouble() * h);
+                path.lineTo(x + random.nextDouble() * w, y + h);
+                path.closePath();
+                return path;
+            case 2:
+                // whole-pixel rectangles, with edges on the cell boundaries
+                return new Rectangle2D.Double(Math.floor(x / 8.0) * 8.0,
+                        Math.floor(y / 8.0) * 8.0, Math.ceil(w), Math.ceil(h));
+            default:
+                return new Rectangle2D.Double(x, y,
+                        random.nextInt(8) == 0 ? 0.0 : w, h);
+        }
+    }
+
+    /**
+     * Returns a list of random points in and around the region the entities
+     * are placed in, including points on the cell boundaries and at the
+     * corners of the entities.
+     *
+     * @param random  the random number generator.
+     * @param entities  the entities.
+     *
+     * @return The points, as x and y pairs.
+     */
+    private static List<double[]> createPoints(Random random,
+            EntityCollection entities) {
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            double x = random.nextDouble() * (WIDTH + 200.0) - 100.0;
+            double y = random.nextDouble() * (HEIGHT + 200.0) - 100.0;
+            if (i % 4 == 0) {
+                x = Math.floor(x / 8.0) * 8.0;
+                y = Math.floor(y / 8.0) * 8.0;
+            }
+            points.add(new double[] {x, y});
+        }
+        for (int i = 0; i < entities.getEntityCount(); i++) {
+            Rectangle2D b = entities.getEntity(i).getArea().getBounds2D();
+            points.add(new double[] {b.getMinX(), b.getMinY()});
+            points.add(new double[] {b.getMaxX(), b.getMaxY()});
+            points.add(new double[] {b.getCenterX(), b.getCenterY()});
+        }
+        return points;
+    }
+
+    /**
+     * Checks that two entity collections return the same entity for every
+     * point.
+     *
+     * @param expected  the standard collection.
+     * @param actual  the spatial collection.
+     * @param points  the points.
+     */
+    private static void assertSameEntities(StandardEntityCollection expected,
+            SpatialEntityCollection actual, List<double[]> points) {
+        assertEquals(expected.getEntityCount(), actual.getEntityCount());
+        for (int i = 0; i < expected.getEntityCount(); i++) {
+            assertSame(expected.getEntity(i), actual.getEntity(i));
+        }
+        for (double[] p : points) {
+            assertSame(expected.getEntity(p[0], p[1]),
+                    actual.getEntity(p[0], p[1]), p[0] + ", " + p[1]);
+        }
+    }
+
+    /**
+     * For any point, the spatial collection returns the entity the standard
+     * collection returns: the last one added whose area contains the point,
+     * whether that entity is in the grid or is large enough to be kept out
+     * of it.
+     */
+    @Test
+    public void testGetEntity() {
+        Random random = new Random(1);
+        for (double cellSize : new double[] {8.0, 32.0, 100.0}) {
+            StandardEntityCollection expected = new StandardEntityCollection();
+            SpatialEntityCollection actual
+                    = new SpatialEntityCollection(cellSize);
+            // a large entity first, as for the chart, and another later on
+            ChartEntity background = new ChartEntity(new Rectangle2D.Double(
+                    0.0, 0.0, WIDTH, HEIGHT));
+            expected.add(background);
+            actual.add(background);
+            for (int i = 0; i < 2000; i++) {
+                ChartEntity entity = new ChartEntity(createShape(random));
+                if (i == 1000) {
+                    entity = new ChartEntity(new Rectangle2D.Double(
+                            WIDTH / 4, HEIGHT / 4, WIDTH / 2, HEIGHT / 2));
+                }
+                expected.add(entity);
+                actual.add(entity);
+            }
+            assertSameEntities(expected, actual,
+                    createPoints(random, expected));
+        }
+    }
+
+    /**
+     * Each entity that overlaps a small entity is returned in place of it
+     * where it was added later, and not where it was added earlier,
+     * whichever of the two is in the grid.
+     */
+    @Test
+    public void testLastAddedWins() {
+        ChartEntity small1 = new ChartEntity(
+                new Rectangle2D.Double(10.0, 10.0, 10.0, 10.0));
+        ChartEntity large = new ChartEntity(
+                new Rectangle2D.Double(0.0, 0.0, 1000.0, 1000.0));
+        ChartEntity small2 = new ChartEntity(
+                new Rectangle2D.Double(500.0, 500.0, 10.0, 10.0));
+        ChartEntity small3 = new ChartEntity(
+                new Rectangle2D.Double(505.0, 505.0, 10.0, 10.0));
+        SpatialEntityCollection entities = new SpatialEntityCollection();
+        entities.add(small1);
+        entities.add(large);
+        entities.add(small2);
+        entities.add(small3);
+        assertSame(large, entities.getEntity(15.0, 15.0));
+        assertSame(small2, entities.getEntity(502.0, 502.0));
+        assertSame(small3, entities.getEntity(507.0, 507.0));
+        assertSame(large, entities.getEntity(900.0, 900.0));
+        assertNull(entities.getEntity(-1.0, 15.0));
+    }
+
+    /**
+     * The entities returned for a rectangle are those a scan of every entity
+     * finds, in the order they were added.
+     */
+    @Test
+    public void testGetEntitiesInRectangle() {
+        Random random = new Random(2);
+        SpatialEntityCollection entities = new SpatialEntityCollection(16.0);
+        for (int i = 0; i < 1000; i++) {
+            entities.add(new ChartEntity(createShape(random)));
+        }
+        for (int i = 0; i < 500; i++) {
+            double size = i % 10 == 0 ? 2000.0 : 80.0;
+            Rectangle2D r = new Rectangle2D.Double(
+                    random.nextDouble() * WIDTH - 100.0,
+                    random.nextDouble() * HEIGHT - 100.0,
+                    random.nextDouble() * size, random.nextDouble() * size);
+            List<ChartEntity> expected = new ArrayList<>();
+            for (int e = 0; e < entities.getEntityCount(); e++) {
+                if (entities.getEntity(e).getArea().intersects(r)) {
+                    expected.add(entities.getEntity(e));
+                }
+            }
+            assertEquals(expected, entities.getEntities(r), r.toString());
+        }
+    }
+
+    /**
+     * After {@code clear()} and after {@code addAll()}, the collection still
+     * returns the same entities as the standard collection.
+     */
+    @Test
+    public void testClearAndAddAll() {
+        Random random = new Random(3);
+        StandardEntityCollection source = new StandardEntityCollection();
+        for (int i = 0; i < 500; i++) {
+            source.add(new ChartEntity(createShape(random)));
+        }
+        SpatialEntityCollection actual = new SpatialEntityCollection();
+        actual.addAll(source);
+        List<double[]> points = createPoints(random, source);
+        assertSameEntities(source, actual, points);
+        actual.clear();
+        assertEquals(new SpatialEntityCollection(), actual);
+        StandardEntityCollection expected = new StandardEntityCollection();
+        for (int i = 0; i < 300; i++) {
+            ChartEntity entity = new ChartEntity(createShape(random));
+            expected.add(entity);
+            actual.add(entity);
+        }
+        assertSameEntities(expected, actual, points);
+    }
+
+    /**
+     * Draws a scatter chart, collecting its entities.
+     *
+     * @param entities  the collection for the entities.
+     */
+    private static void draw(EntityCollection entities) {
+        Random random = new Random(4);
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        for (int s = 0; s < 3; s++) {
+            XYSeries series = new XYSeries("S" + s);
+            for (int i = 0; i < 300; i++) {
+                series.add(random.nextGaussian(), random.nextGaussian());
+            }
+            dataset.addSeries(series);
+        }
+        XYPlot plot = new XYPlot(dataset, new NumberAxis("X"),
+                new NumberAxis("Y"), new XYLineAndShapeRenderer(false, true));
+        JFreeChart chart = new JFreeChart(plot);
+        BufferedImage image = new BufferedImage(800, 600,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        chart.draw(g2, new Rectangle(800, 600),
+                new ChartRenderingInfo(entities));
+        g2.dispose();
+    }
+
+    /**
+     * For the entities of a chart (the chart, the plot, the axes, the legend
+     * items and the data items), the spatial collection returns the entity
+     * the standard collection returns at every other pixel.
+     */
+    @Test
+    public void testChartEntities() {
+        StandardEntityCollection expected = new StandardEntityCollection();
+        SpatialEntityCollection actual = new SpatialEntityCollection();
+        draw(expected);
+        draw(actual);
+        assertEquals(expected.getEntityCount(), actual.getEntityCount());
+        // the charts are drawn separately, so compare the entities by their
+        // position in the collections
+        Map<ChartEntity, Integer> expectedIndex = indexes(expected);
+        Map<ChartEntity, Integer> actualIndex = indexes(actual);
+        for (int y = 0; y < 600; y += 2) {
+            for (int x = 0; x < 800; x += 2) {
+                assertEquals(
+                        expectedIndex.get(expected.getEntity(x + 0.5, y + 0.5)),
+                        actualIndex.get(actual.getEntity(x + 0.5, y + 0.5)),
+                        x + ", " + y);
+            }
+        }
+    }
+
+    /**
+     * Returns the position of each entity in a collection.
+     *
+     * @param entities  the collection.
+     *
+     * @return A map from each entity to its index.
+     */
+    private static Map<ChartEntity, Integer> indexes(
+            EntityCollection entities) {
+        Map<ChartEntity, Integer> result = new IdentityHashMap<>();
+        for (int i = 0; i < entities.getEntityCount(); i++) {
+            result.put(entities.getEntity(i), i);
+        }
+        return result;
+    }
+
+}
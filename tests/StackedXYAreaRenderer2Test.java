@@ -0,0 +1,366 @@
+package org.jfree.chart.renderer.xy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.jfree.chart.ChartRenderingInfo;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.entity.ChartEntity;
+import org.jfree.chart.entity.XYItemEntity;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.data.xy.DefaultTableXYDataset;
+import org.jfree.data.xy.TableXYDataset;
+import org.jfree.data.xy.XYSeries;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link StackedXYAreaRenderer2} and its state.
+ */
+public class StackedXYAreaRenderer2Test {
+
+    /**
+     * The number of pixels allowed to differ between a decimated chart and
+     * the same chart drawn in full.  The envelope is interpolated in double
+     * precision, while the rasterizer works to a fixed precision, so a pixel
+     * whose centre is within rounding error of the edge of an item's area
+     * can fall on the other side.
+     */
+    static final int DECIMATION_PIXEL_TOLERANCE = 2;
+
+    /**
+     * Creates a dataset with random positive, negative, zero and missing
+     * y-values.
+     *
+     * @param random  the random number generator.
+     * @param seriesCount  the number of series.
+     * @param itemCount  the number of items in each series.
+     *
+     * @return The dataset.
+     */
+    private static DefaultTableXYDataset createDataset(Random random,
+            int seriesCount, int itemCount) {
+        DefaultTableXYDataset dataset = new DefaultTableXYDataset();
+        for (int s = 0; s < seriesCount; s++) {
+            XYSeries series = new XYSeries("S" + s, true, false);
+            for (int i = 0; i < itemCount; i++) {
+                int kind = random.nextInt(10);
+                Double y;
+                if (kind == 0) {
+                    y = null;
+                }
+                else if (kind == 1) {
+                    y = Double.NaN;
+                }
+                else if (kind == 2) {
+                    y = 0.0;
+                }
+                else {
+                    y = random.nextGaussian() * 100.0;
+                }
+                series.add(Double.valueOf(i), y);
+            }
+            dataset.addSeries(series);
+        }
+        return dataset;
+    }
+
+    /**
+     * Returns the stack values for an item, as the private method
+     * {@code StackedXYAreaRenderer2.getStackValues()} calculates them.
+     *
+     * @param dataset  the dataset.
+     * @param series  the series index.
+     * @param index  the item index.
+     *
+     * @return The negative total (index 0) and positive total (index 1).
+     */
+    private static double[] getStackValues(TableXYDataset dataset,
+            int series, int index) {
+        double[] result = new double[2];
+        for (int i = 0; i < series; i++) {
+            double v = dataset.getYValue(i, index);
+            if (!Double.isNaN(v)) {
+                if (v >= 0.0) {
+                    result[1] += v;
+                }
+                else {
+                    result[0] += v;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The stack table holds exactly the values that the renderer would add
+     * up for each item, for series counts that do and do not fill the last
+     * block, with the series read in ascending, descending and random order.
+     */
+    @Test
+    public void testStackTable() {
+        Random random = new Random(1);
+        for (int seriesCount : new int[] {1, 2, 3, 4, 5, 7, 10, 16, 17, 26,
+                50}) {
+            int itemCount = 1 + random.nextInt(60);
+            DefaultTableXYDataset dataset = createDataset(random,
+                    seriesCount, itemCount);
+            List<Integer> order = new ArrayList<>();
+            for (int s = 0; s < seriesCount; s++) {
+                order.add(s);
+            }
+            for (int pass = 0; pass < 3; pass++) {
+                if (pass == 1) {
+                    Collections.reverse(order);
+                }
+                else if (pass == 2) {
+                    Collections.shuffle(order, random);
+                }
+                StackedXYAreaRenderer2State state
+                        = new StackedXYAreaRenderer2State(null);
+                assertTrue(state.prepareStacks(dataset));
+                for (int s : order) {
+                    for (int i = 0; i < itemCount; i++) {
+                        double[] expected = getStackValues(dataset, s, i);
+                        String item = seriesCount + " series, pass " + pass
+                                + ", series " + s + ", item " + i;
+                        assertEquals(expected[0],
+                                state.getNegativeStack(s, i), item);
+                        assertEquals(expected[1],
+                                state.getPositiveStack(s, i), item);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws a chart without anti-aliasing (and without entities, which
+     * switch decimation off).
+     *
+     * @param dataset  the dataset.
+     * @param rangeAxis  the range axis.
+     * @param orientation  the plot orientation.
+     * @param decimate  decimate the items?
+     *
+     * @return The image.
+     */
+    private static BufferedImage draw(TableXYDataset dataset,
+            ValueAxis rangeAxis, PlotOrientation orientation,
+            boolean decimate) {
+        StackedXYAreaRenderer2 renderer = new StackedXYAreaRenderer2();
+        renderer.setDecimateItems(decimate);
+        XYPlot plot = new XYPlot(dataset, new NumberAxis("X"), rangeAxis,
+                renderer);
+        plot.setOrientation(orientation);
+        JFreeChart chart = new JFreeChart(plot);
+        chart.setAntiAlias(false);
+        BufferedImage image = new BufferedImage(800, 600,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        chart.draw(g2, new Rectangle(800, 600));
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * Returns the number of pixels that differ between two images.
+     *
+     * @param a  the first image.
+     * @param b  the second image.
+     *
+     * @return The count.
+     */
+    private static int countDifferences(BufferedImage a, BufferedImage b) {
+        int count = 0;
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                if (a.getRGB(x, y) != b.getRGB(x, y)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A range axis that is not linear: it places the square root of each
+     * value (with the value's sign) linearly.
+     */
+    private static class SquareRootAxis extends NumberAxis {
+
+        private static double transform(double value) {
+            return Math.signum(value) * Math.sqrt(Math.abs(value));
+        }
+
+        @Override
+        public double valueToJava2D(double value, Rectangle2D area,
+                RectangleEdge edge) {
+            double lower = transform(getLowerBound());
+            double upper = transform(getUpperBound());
+            double f = (transform(value) - lower) / (upper - lower);
+            if (RectangleEdge.isTopOrBottom(edge)) {
+                return area.getX() + f * area.getWidth();
+            }
+            return area.getMaxY() - f * area.getHeight();
+        }
+
+    }
+
+    /**
+     * Decimated items colour the same pixels as items drawn in full, for
+     * dense series with a few wide gaps, positive and negative values, both
+     * orientations and a range axis that is not linear.
+     */
+    @Test
+    public void testDecimation() {
+        Random random = new Random(2);
+        DefaultTableXYDataset dataset = new DefaultTableXYDataset();
+        for (int s = 0; s < 3; s++) {
+            XYSeries series = new XYSeries("S" + s, true, false);
+            for (int i = 0; i < 20000; i++) {
+                // mostly dense items, with a few wide gaps
+                double x = i + (i / 5000) * 2000;
+                series.add(x, random.nextGaussian() * 10.0 - 2.0);
+            }
+            dataset.addSeries(series);
+        }
+        for (PlotOrientation orientation : new PlotOrientation[] {
+                PlotOrientation.VERTICAL, PlotOrientation.HORIZONTAL}) {
+            int pixels = countDifferences(
+                    draw(dataset, new NumberAxis("Y"), orientation, false),
+                    draw(dataset, new NumberAxis("Y"), orientation, true));
+            assertTrue(pixels <= DECIMATION_PIXEL_TOLERANCE, orientation
+                    + " differs in " + pixels + " pixels");
+            pixels = countDifferences(
+                    draw(dataset, new SquareRootAxis(), orientation, false),
+                    draw(dataset, new SquareRootAxis(), orientation, true));
+            assertTrue(pixels <= DECIMATION_PIXEL_TOLERANCE, orientation
+                    + " differs in " + pixels + " pixels (square root axis)");
+        }
+    }
+
+    /**
+     * Draws stacked area charts and collects their item entity areas.  The
+     * test loads this class a second time, together with the JFreeChart
+     * library on its own, to collect the areas that the library's renderer
+     * builds with {@code Area} operations.
+     */
+    public static class Hotspots {
+
+        /**
+         * Draws a chart for a random dataset whose areas run beyond the
+         * data area, and returns the areas of the item entities in order.
+         *
+         * @param seed  the seed for the random dataset.
+         * @param horizontal  use a horizontal plot?
+         *
+         * @return The entity areas.
+         */
+        public static List<Shape> collect(long seed, boolean horizontal) {
+            Random random = new Random(seed);
+            DefaultTableXYDataset dataset = new DefaultTableXYDataset();
+            for (int s = 0; s < 4; s++) {
+                XYSeries series = new XYSeries("S" + s, true, false);
+                for (int i = 0; i < 60; i++) {
+                    series.add(i + random.nextDouble() * 0.5,
+                            random.nextGaussian() * 10.0 - 1.0);
+                }
+                dataset.addSeries(series);
+            }
+            NumberAxis domainAxis = new NumberAxis("X");
+            domainAxis.setRange(5.0, 50.0);
+            NumberAxis rangeAxis = new NumberAxis("Y");
+            rangeAxis.setRange(-15.0, 15.0);
+            XYPlot plot = new XYPlot(dataset, domainAxis, rangeAxis,
+                    new StackedXYAreaRenderer2());
+            if (horizontal) {
+                plot.setOrientation(PlotOrientation.HORIZONTAL);
+            }
+            JFreeChart chart = new JFreeChart(plot);
+            BufferedImage image = new BufferedImage(800, 600,
+                    BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2 = image.createGraphics();
+            ChartRenderingInfo info = new ChartRenderingInfo();
+            chart.draw(g2, new Rectangle(800, 600), info);
+            g2.dispose();
+            List<Shape> result = new ArrayList<>();
+            for (Object obj : info.getEntityCollection().getEntities()) {
+                if (obj instanceof XYItemEntity) {
+                    result.add(((ChartEntity) obj).getArea());
+                }
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * The clipped polygons used as entity areas contain the same points as
+     * the areas that the library's renderer builds from its polygons and
+     * the data area with {@code Area} operations, so hit-testing finds the
+     * same item.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testHotspotsMatchAreaHotspots() throws Exception {
+        URL library = XYPlot.class.getProtectionDomain().getCodeSource()
+                .getLocation();
+        URL tests = Hotspots.class.getProtectionDomain().getCodeSource()
+                .getLocation();
+        try (URLClassLoader loader = new URLClassLoader(
+                new URL[] {library, tests},
+                ClassLoader.getPlatformClassLoader())) {
+            Class<?> c = loader.loadClass(Hotspots.class.getName());
+            assertTrue(c != Hotspots.class);
+            Random random = new Random(3);
+            for (long seed = 0; seed < 4; seed++) {
+                for (boolean horizontal : new boolean[] {false, true}) {
+                    List<Shape> expected = (List<Shape>) c.getMethod(
+                            "collect", long.class, boolean.class).invoke(
+                            null, seed, horizontal);
+                    List<Shape> actual = Hotspots.collect(seed, horizontal);
+                    String chart = "seed " + seed + ", horizontal "
+                            + horizontal;
+                    assertEquals(expected.size(), actual.size(), chart);
+                    for (int i = 0; i < expected.size(); i++) {
+                        Shape e = expected.get(i);
+                        Shape a = actual.get(i);
+                        // the clipped polygon can have an edge that runs
+                        // out and back along a line, outside the Area's
+                        // bounds but with nothing inside it
+                        Rectangle2D bounds = e.getBounds2D().createUnion(
+                                a.getBounds2D());
+                        for (int p = 0; p < 200; p++) {
+                            double x = bounds.getX() - 1.0
+                                    + random.nextDouble()
+                                    * (bounds.getWidth() + 2.0);
+                            double y = bounds.getY() - 1.0
+                                    + random.nextDouble()
+                                    * (bounds.getHeight() + 2.0);
+                            assertEquals(e.contains(x, y), a.contains(x, y),
+                                    chart + ", entity " + i + " at " + x
+                                    + ", " + y);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+}
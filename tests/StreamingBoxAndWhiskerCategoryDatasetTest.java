@@ -0,0 +1,177 @@
+package org.jfree.data.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares {@link StreamingBoxAndWhiskerCategoryDataset} with the statistics
+ * that {@link BoxAndWhiskerCalculator} calculates from the full list of
+ * samples.
+ */
+public class StreamingBoxAndWhiskerCategoryDatasetTest {
+
+    /**
+     * The largest rank error allowed for the median and quartiles, as a
+     * fraction of the sample count.
+     */
+    private static final double RANK_ERROR = 0.02;
+
+    /**
+     * Returns a random sample with heavy tails, so that items have
+     * outliers and far-out values.
+     *
+     * @param random  the random number generator.
+     *
+     * @return The sample.
+     */
+    private static double sample(Random random) {
+        double v = random.nextGaussian() * 10.0;
+        return random.nextInt(20) == 0 ? v * 5.0 : v;
+    }
+
+    /**
+     * While an item has no more samples than the sketch size, its statistics
+     * and outliers are the same as the calculator's.  NaN samples are
+     * ignored by both.
+     */
+    @Test
+    public void testExactBelowSketchSize() {
+        Random random = new Random(1);
+        StreamingBoxAndWhiskerCategoryDataset dataset
+                = new StreamingBoxAndWhiskerCategoryDataset();
+        List<List<Double>> samples = new ArrayList<>();
+        for (int c = 0; c < 60; c++) {
+            List<Double> values = new ArrayList<>();
+            int n = 1 + random.nextInt(dataset.getSketchSize());
+            for (int i = 0; i < n; i++) {
+                double v = sample(random);
+                values.add(v);
+                dataset.add(v, "R", "C" + c);
+            }
+            dataset.add(Double.NaN, "R", "C" + c);
+            values.add(Double.NaN);
+            samples.add(values);
+        }
+        for (int c = 0; c < samples.size(); c++) {
+            BoxAndWhiskerItem expected = BoxAndWhiskerCalculator
+                    .calculateBoxAndWhiskerStatistics(samples.get(c));
+            assertEquals(expected, dataset.getItem(0, c), "column " + c);
+            assertEquals(expected.getMedian().doubleValue(),
+                    dataset.getMedianDouble(0, c));
+            assertEquals(expected.getOutliers().size(),
+                    dataset.getOutlierCount(0, c));
+        }
+    }
+
+    /**
+     * Returns the rank of a value among sorted samples (the index of its
+     * first occurrence).
+     */
+    private static int rank(double[] sorted, double value) {
+        int i = Arrays.binarySearch(sorted, value);
+        assertTrue(i >= 0, value + " is not a sample");
+        while (i > 0 && sorted[i - 1] == value) {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * With more samples than the sketch size, the median and quartiles are
+     * samples within the rank error of their true ranks, the mean is the
+     * running mean, and the outliers are the samples beyond the dataset's
+     * own outlier thresholds, up to the outlier limit at each end.
+     */
+    @Test
+    public void testBoundedErrorAboveSketchSize() {
+        Random random = new Random(2);
+        StreamingBoxAndWhiskerCategoryDataset dataset
+                = new StreamingBoxAndWhiskerCategoryDataset(200, 16);
+        for (int n : new int[] {201, 5000, 100000}) {
+            double[] values = new double[n];
+            double sum = 0.0;
+            for (int i = 0; i < n; i++) {
+                values[i] = sample(random);
+                sum += values[i];
+            }
+            String key = "C" + n;
+            dataset.add(values, "R", key);
+            int c = dataset.getColumnIndex(key);
+            Arrays.sort(values);
+            assertEquals(sum / n, dataset.getMeanDouble(0, c), 1e-9);
+            assertEquals(n / 2.0, rank(values, dataset.getMedianDouble(0, c)),
+                    RANK_ERROR * n + 1, "median, n=" + n);
+            assertEquals(n / 4.0, rank(values, dataset.getQ1Double(0, c)),
+                    RANK_ERROR * n + 1, "q1, n=" + n);
+            assertEquals(3 * n / 4.0, rank(values, dataset.getQ3Double(0, c)),
+                    RANK_ERROR * n + 1, "q3, n=" + n);
+
+            double q1 = dataset.getQ1Double(0, c);
+            double q3 = dataset.getQ3Double(0, c);
+            double lower = q1 - (q3 - q1) * 1.5;
+            double upper = q3 + (q3 - q1) * 1.5;
+            List<Double> low = new ArrayList<>();
+            List<Double> high = new ArrayList<>();
+            for (double v : values) {
+                if (v < lower) {
+                    low.add(v);
+                }
+                else if (v > upper) {
+                    high.add(v);
+                }
+            }
+            List<Double> expected = new ArrayList<>();
+            expected.addAll(low.subList(0, Math.min(16, low.size())));
+            expected.addAll(high.subList(Math.max(0, high.size() - 16),
+                    high.size()));
+            assertEquals(expected, dataset.getOutliers(0, c), "n=" + n);
+        }
+    }
+
+    /**
+     * Datasets given the same samples are equal, and a clone is equal to
+     * the original but does not share its items.
+     */
+    @Test
+    public void testEqualsAndClone() throws CloneNotSupportedException {
+        StreamingBoxAndWhiskerCategoryDataset d1
+                = new StreamingBoxAndWhiskerCategoryDataset(50, 8);
+        StreamingBoxAndWhiskerCategoryDataset d2
+                = new StreamingBoxAndWhiskerCategoryDataset(50, 8);
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            double v = sample(random);
+            String row = "R" + (i % 3);
+            String column = "C" + (i % 7);
+            d1.add(v, row, column);
+            d2.add(v, row, column);
+            if (i % 100 == 0) {
+                // the statistics are cached in one dataset only
+                d1.getItem(0, 0);
+            }
+        }
+        assertEquals(d1, d2);
+        assertEquals(d1.hashCode(), d2.hashCode());
+        assertNotEquals(d1, new StreamingBoxAndWhiskerCategoryDataset(50, 9));
+
+        StreamingBoxAndWhiskerCategoryDataset clone
+                = (StreamingBoxAndWhiskerCategoryDataset) d1.clone();
+        assertEquals(d1, clone);
+        assertEquals(d1.getItem(1, 2), clone.getItem(1, 2));
+        clone.add(1000.0, "R1", "C2");
+        assertNotEquals(d1, clone);
+        assertNotEquals(d1.getItem(1, 2), clone.getItem(1, 2));
+        d1.add(1000.0, "R1", "C2");
+        assertEquals(d1, clone);
+        assertEquals(d1.getItem(1, 2), clone.getItem(1, 2));
+    }
+
+}
@@ -0,0 +1,503 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the JFreeChart sources that the benchmarks and tests compile
+ * against, by merging the files in "Copy of methods" into the upstream
+ * sources.  A file with a {@code package} declaration is a complete class
+ * and is copied as is.  Any other file is a fragment: a sequence of members
+ * of one of the upstream classes listed in {@link #TARGETS}.  The fragments
+ * are added at the end of their class, and the upstream members that they
+ * replace (methods with the same name and parameter types, fields and
+ * nested types with the same name) are removed.
+ * <P>
+ * Run with {@code java tools/MergeSources.java <upstream> <methods> <out>},
+ * where {@code <upstream>} is the root of the unpacked JFreeChart sources.
+ * The Maven build does this in the generate-sources phase.
+ */
+public class MergeSources {
+
+    /** A target class and the fragments that are merged into it. */
+    private static final class Target {
+
+        final String path;
+
+        final List<String> fragments;
+
+        final List<String> imports;
+
+        Target(String path, List<String> fragments, List<String> imports) {
+            this.path = path;
+            this.fragments = fragments;
+            this.imports = imports;
+        }
+    }
+
+    /** The upstream classes that have fragments, with the extra imports. */
+    private static final List<Target> TARGETS = Arrays.asList(
+            new Target("org/jfree/chart/renderer/category/GanttRenderer.java",
+                    Arrays.asList("drawTaskMethod.java",
+                            "GanttRendererMembers.java"),
+                    Arrays.asList("java.awt.BasicStroke",
+                            "java.awt.GradientPaint",
+                            "java.util.Collection",
+                            "org.jfree.chart.plot.CategoryCrosshairState",
+                            "org.jfree.chart.plot.PlotRenderingInfo",
+                            "org.jfree.chart.renderer.DeferredFills",
+                            "org.jfree.chart.renderer.RendererMetrics",
+                            "org.jfree.chart.renderer.SeriesStyleCache",
+                            "org.jfree.chart.util.Args",
+                            "org.jfree.chart.util.SortOrder",
+                            "org.jfree.data.gantt.PrimitiveGanttCategoryDataset")),
+            new Target("org/jfree/chart/renderer/category/"
+                    + "BoxAndWhiskerRenderer.java",
+                    Arrays.asList("drawVerticalItemMethod.java",
+                            "drawHorizontalItemMethod.java",
+                            "drawOutliersMethod.java"),
+                    Arrays.asList("java.awt.Font",
+                            "org.jfree.chart.axis.AxisTransforms",
+                            "org.jfree.chart.renderer.RendererMetrics",
+                            "org.jfree.chart.renderer.SeriesStyleCache",
+                            "org.jfree.data.statistics."
+                                    + "PrimitiveBoxAndWhiskerCategoryDataset")),
+            new Target("org/jfree/chart/renderer/xy/StackedXYAreaRenderer2.java",
+                    Arrays.asList("drawItemMethod.java",
+                            "StackedXYAreaRenderer2Members.java"),
+                    Arrays.asList("java.awt.geom.Path2D",
+                            "org.jfree.chart.renderer.DeferredFills",
+                            "org.jfree.chart.renderer.RendererMetrics",
+                            "org.jfree.chart.util.ShapeClipper")),
+            new Target("org/jfree/chart/plot/PiePlot3D.java",
+                    Arrays.asList("DrawSideMethod.java"),
+                    Arrays.asList("java.awt.geom.Path2D",
+                            "java.util.Arrays",
+                            "org.jfree.chart.renderer.RendererMetrics",
+                            "org.jfree.chart.util.ShapeClipper")),
+            new Target("org/jfree/chart/renderer/category/"
+                    + "CategoryItemRendererState.java",
+                    Arrays.asList("CategoryItemRendererStateMembers.java"),
+                    Arrays.asList("java.awt.geom.Ellipse2D",
+                            "java.awt.geom.Line2D",
+                            "java.awt.geom.Rectangle2D",
+                            "org.jfree.chart.axis.CategoryAxis",
+                            "org.jfree.chart.renderer.AbstractRenderer",
+                            "org.jfree.chart.renderer.DeferredFills",
+                            "org.jfree.chart.renderer.SeriesStyleCache",
+                            "org.jfree.chart.ui.RectangleEdge",
+                            "org.jfree.data.category.CategoryDataset")),
+            new Target("org/jfree/chart/renderer/category/"
+                    + "AbstractCategoryItemRenderer.java",
+                    Arrays.asList("addItemEntityMethod.java"),
+                    Arrays.asList("java.awt.geom.RectangularShape",
+                            "org.jfree.chart.entity.LazyEntityCollection")),
+            new Target("org/jfree/chart/renderer/xy/AbstractXYItemRenderer.java",
+                    Arrays.asList("addEntityMethod.java"),
+                    Arrays.asList("java.awt.geom.Path2D",
+                            "org.jfree.chart.entity.LazyEntityCollection")));
+
+    /** A member declaration in a class body. */
+    private static final class Member {
+
+        /** The start of the declaration, including its doc comment. */
+        final int start;
+
+        /** The end of the declaration (exclusive). */
+        final int end;
+
+        /** The name, with the parameter types for a method. */
+        final String key;
+
+        Member(int start, int end, String key) {
+            this.start = start;
+            this.end = end;
+            this.key = key;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println(
+                    "usage: java MergeSources.java <upstream> <methods> <out>");
+            System.exit(2);
+        }
+        Path upstream = Paths.get(args[0]);
+        Path methods = Paths.get(args[1]);
+        Path out = Paths.get(args[2]);
+
+        List<String> used = new ArrayList<>();
+        for (Target target : TARGETS) {
+            String source = read(upstream.resolve(target.path));
+            List<String> fragments = new ArrayList<>();
+            for (String name : target.fragments) {
+                fragments.add(read(methods.resolve(name)));
+                used.add(name);
+            }
+            write(out.resolve(target.path), merge(target, source, fragments));
+        }
+
+        try (var files = Files.list(methods)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".java") || used.contains(name)) {
+                    continue;
+                }
+                String source = read(file);
+                String pkg = packageOf(source);
+                if (pkg == null) {
+                    throw new IllegalStateException(
+                            "No target class for the fragment " + name);
+                }
+                write(out.resolve(pkg.replace('.', '/')).resolve(name),
+                        source);
+            }
+        }
+    }
+
+    /**
+     * Merges fragments into an upstream class.
+     *
+     * @param target  the target.
+     * @param source  the upstream source.
+     * @param fragments  the fragment sources.
+     *
+     * @return The merged source.
+     */
+    private static String merge(Target target, String source,
+            List<String> fragments) {
+        int open = classBodyStart(source);
+        int close = matching(source, open);
+        Map<String, Member> replaced = new LinkedHashMap<>();
+        for (String fragment : fragments) {
+            String wrapped = "{" + fragment + "}";
+            for (Member m : members(wrapped, 0, wrapped.length() - 1)) {
+                replaced.put(m.key, m);
+            }
+        }
+        StringBuilder body = new StringBuilder();
+        int from = open + 1;
+        for (Member m : members(source, open, close)) {
+            if (replaced.containsKey(m.key)) {
+                System.out.println(target.path + ": replaced " + m.key);
+                body.append(source, from, m.start);
+                from = m.end;
+            }
+        }
+        body.append(source, from, close);
+        String text = stripTrailingSpace(body.toString());
+        StringBuilder merged = new StringBuilder(addImports(
+                source.substring(0, open + 1), target.imports));
+        merged.append(text).append("\n\n");
+        for (String fragment : fragments) {
+            merged.append("    ").append(fragment.trim()).append("\n\n");
+        }
+        merged.append(source.substring(close));
+        return merged.toString();
+    }
+
+    /**
+     * Returns the members of a class body.
+     *
+     * @param s  the source.
+     * @param open  the index of the opening brace of the body.
+     * @param close  the index of the closing brace of the body.
+     *
+     * @return The members.
+     */
+    private static List<Member> members(String s, int open, int close) {
+        List<Member> result = new ArrayList<>();
+        int start = open + 1;
+        int i = start;
+        int initializers = 0;
+        while (i < close) {
+            i = skipSpaceAndComments(s, i, close);
+            if (i >= close) {
+                break;
+            }
+            char c = s.charAt(i);
+            if (c == ';') {
+                i++;
+                start = i;
+                continue;
+            }
+            // scan the header up to the body, the initializer or the end
+            int j = i;
+            boolean assigned = false;
+            int end;
+            while (true) {
+                j = skipSpaceAndComments(s, j, close);
+                char d = s.charAt(j);
+                if (d == '"' || d == '\'') {
+                    j = skipLiteral(s, j);
+                }
+                else if (d == '(' || d == '[' || (d == '{' && assigned)) {
+                    j = matching(s, j) + 1;
+                }
+                else if (d == '=') {
+                    assigned = true;
+                    j++;
+                }
+                else if (d == '{') {
+                    end = matching(s, j) + 1;
+                    break;
+                }
+                else if (d == ';') {
+                    end = j + 1;
+                    break;
+                }
+                else {
+                    j++;
+                }
+            }
+            String header = stripComments(s.substring(i, j));
+            String key = keyOf(header, assigned);
+            if (key == null) {
+                key = "<initializer " + initializers++ + ">";
+            }
+            result.add(new Member(start, end, key));
+            i = end;
+            start = end;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the key of a member from its header: the name for a field or
+     * a nested type, and the name with the erased parameter types for a
+     * method or constructor.
+     *
+     * @param header  the header, without comments.
+     * @param assigned  does the header contain an initializer?
+     *
+     * @return The key, or {@code null} for an initializer block.
+     */
+    private static String keyOf(String header, boolean assigned) {
+        String h = header.replaceAll("@\\w+(\\.\\w+)*(\\s*\\([^)]*\\))?", " ");
+        java.util.regex.Matcher type = java.util.regex.Pattern.compile(
+                "\\b(class|interface|enum)\\s+(\\w+)").matcher(h);
+        if (type.find()) {
+            return "type " + type.group(2);
+        }
+        int eq = assigned ? h.indexOf('=') : -1;
+        int paren = h.indexOf('(');
+        if (paren >= 0 && (eq < 0 || paren < eq)) {
+            String name = lastWord(h.substring(0, paren));
+            String params = h.substring(paren + 1, h.lastIndexOf(')'));
+            List<String> types = new ArrayList<>();
+            for (String p : splitParams(params)) {
+                String t = p.replaceAll("\\bfinal\\b", "").trim();
+                t = eraseGenerics(t);
+                t = t.substring(0, lastWordStart(t)).trim();
+                t = t.replace("...", "[]").replaceAll("\\s+", "");
+                t = t.substring(t.lastIndexOf('.') + 1);
+                types.add(t);
+            }
+            return "method " + name + "(" + String.join(",", types) + ")";
+        }
+        String decl = eq >= 0 ? h.substring(0, eq) : h;
+        decl = decl.replace(";", " ").trim();
+        if (decl.isEmpty() || decl.equals("static")) {
+            return null;
+        }
+        return "field " + lastWord(decl);
+    }
+
+    private static List<String> splitParams(String params) {
+        List<String> result = new ArrayList<>();
+        int depth = 0;
+        int from = 0;
+        for (int i = 0; i < params.length(); i++) {
+            char c = params.charAt(i);
+            if (c == '<') {
+                depth++;
+            }
+            else if (c == '>') {
+                depth--;
+            }
+            else if (c == ',' && depth == 0) {
+                result.add(params.substring(from, i));
+                from = i + 1;
+            }
+        }
+        if (!params.trim().isEmpty()) {
+            result.add(params.substring(from));
+        }
+        return result;
+    }
+
+    private static String eraseGenerics(String t) {
+        StringBuilder sb = new StringBuilder();
+        int depth = 0;
+        for (char c : t.toCharArray()) {
+            if (c == '<') {
+                depth++;
+            }
+            else if (c == '>') {
+                depth--;
+            }
+            else if (depth == 0) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String lastWord(String s) {
+        String t = s.trim();
+        return t.substring(lastWordStart(t));
+    }
+
+    private static int lastWordStart(String t) {
+        int i = t.length();
+        while (i > 0 && Character.isJavaIdentifierPart(t.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the index of the opening brace of the first top-level class
+     * body.
+     */
+    private static int classBodyStart(String s) {
+        java.util.regex.Matcher m = java.util.regex.Pattern.compile(
+                "\\n(public\\s+)?(abstract\\s+)?(final\\s+)?class\\s+\\w+")
+                .matcher(s);
+        if (!m.find()) {
+            throw new IllegalStateException("No class declaration");
+        }
+        int i = m.end();
+        while (true) {
+            i = skipSpaceAndComments(s, i, s.length());
+            char c = s.charAt(i);
+            if (c == '{') {
+                return i;
+            }
+            i = c == '<' ? skipAngles(s, i) : i + 1;
+        }
+    }
+
+    private static int skipAngles(String s, int i) {
+        int depth = 0;
+        do {
+            char c = s.charAt(i++);
+            if (c == '<') {
+                depth++;
+            }
+            else if (c == '>') {
+                depth--;
+            }
+        } while (depth > 0);
+        return i;
+    }
+
+    /**
+     * Returns the index of the bracket that closes the one at {@code i},
+     * skipping comments and literals.
+     */
+    private static int matching(String s, int i) {
+        int depth = 0;
+        while (true) {
+            i = skipSpaceAndComments(s, i, s.length());
+            char c = s.charAt(i);
+            if (c == '"' || c == '\'') {
+                i = skipLiteral(s, i);
+                continue;
+            }
+            if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            }
+            else if (c == ')' || c == ']' || c == '}') {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+            i++;
+        }
+    }
+
+    private static int skipLiteral(String s, int i) {
+        char quote = s.charAt(i);
+        if (quote == '"' && s.startsWith("\"\"\"", i)) {
+            return s.indexOf("\"\"\"", i + 3) + 3;
+        }
+        i++;
+        while (s.charAt(i) != quote) {
+            i += s.charAt(i) == '\\' ? 2 : 1;
+        }
+        return i + 1;
+    }
+
+    private static int skipSpaceAndComments(String s, int i, int limit) {
+        while (i < limit) {
+            if (Character.isWhitespace(s.charAt(i))) {
+                i++;
+            }
+            else if (s.startsWith("//", i)) {
+                int eol = s.indexOf('\n', i);
+                i = eol < 0 ? limit : eol + 1;
+            }
+            else if (s.startsWith("/*", i)) {
+                i = s.indexOf("*/", i + 2) + 2;
+            }
+            else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static String stripComments(String s) {
+        return s.replaceAll("(?s)/\\*.*?\\*/", " ").replaceAll("//[^\\n]*",
+                " ");
+    }
+
+    private static String stripTrailingSpace(String s) {
+        int end = s.length();
+        while (end > 0 && Character.isWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+        return s.substring(0, end);
+    }
+
+    /**
+     * Adds imports after the last import of a source, skipping those that
+     * are already there.
+     */
+    private static String addImports(String head, List<String> imports) {
+        int last = head.lastIndexOf("\nimport ");
+        int at = head.indexOf('\n', last + 1) + 1;
+        StringBuilder extra = new StringBuilder();
+        for (String name : imports) {
+            String line = "import " + name + ";";
+            if (!head.contains(line)) {
+                extra.append(line).append('\n');
+            }
+        }
+        return head.substring(0, at) + extra + head.substring(at);
+    }
+
+    private static String packageOf(String source) {
+        java.util.regex.Matcher m = java.util.regex.Pattern.compile(
+                "(?m)^package\\s+([\\w.]+)\\s*;").matcher(source);
+        return m.find() ? m.group(1) : null;
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    private static void write(Path path, String text) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+}